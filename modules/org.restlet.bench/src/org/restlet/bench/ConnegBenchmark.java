@@ -0,0 +1,104 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.restlet.Request;
+import org.restlet.data.Language;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.engine.header.PreferenceReader;
+import org.restlet.representation.Variant;
+import org.restlet.service.ConnegService;
+import org.restlet.service.MetadataService;
+
+/**
+ * Benchmarks the content negotiation between typical browser preferences and
+ * a list of variants.
+ * 
+ * @author Jerome Louvel
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConnegBenchmark {
+
+    /** The content negotiation service. */
+    private ConnegService connegService;
+
+    /** The metadata service. */
+    private MetadataService metadataService;
+
+    /** The request with the client preferences. */
+    private Request request;
+
+    /** The available variants. */
+    private List<Variant> variants;
+
+    @Setup
+    public void setUp() {
+        this.connegService = new ConnegService();
+        this.metadataService = new MetadataService();
+        this.request = new Request(Method.GET, "http://localhost/resource");
+        PreferenceReader.addMediaTypes(
+                "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+                this.request.getClientInfo());
+        PreferenceReader.addLanguages("fr-FR,fr;q=0.8,en;q=0.6",
+                this.request.getClientInfo());
+
+        this.variants = new ArrayList<Variant>();
+        this.variants.add(new Variant(MediaType.APPLICATION_JSON));
+        this.variants.add(new Variant(MediaType.APPLICATION_XML,
+                Language.ENGLISH));
+        this.variants.add(new Variant(MediaType.APPLICATION_XML,
+                Language.FRENCH));
+        this.variants.add(new Variant(MediaType.TEXT_HTML, Language.ENGLISH));
+        this.variants.add(new Variant(MediaType.TEXT_HTML, Language.FRENCH));
+        this.variants.add(new Variant(MediaType.TEXT_PLAIN));
+    }
+
+    @Benchmark
+    public Variant getPreferredVariant() {
+        return this.connegService.getPreferredVariant(this.variants,
+                this.request, this.metadataService);
+    }
+
+}
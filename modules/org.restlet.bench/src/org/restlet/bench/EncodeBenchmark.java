@@ -0,0 +1,96 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.restlet.data.Encoding;
+import org.restlet.data.MediaType;
+import org.restlet.engine.application.EncodeRepresentation;
+import org.restlet.representation.StringRepresentation;
+
+/**
+ * Benchmarks the GZip encoding of a text representation.
+ * 
+ * @author Jerome Louvel
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EncodeBenchmark {
+
+    /** Output stream discarding the written bytes. */
+    private static class NullOutputStream extends OutputStream {
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+        @Override
+        public void write(int b) {
+        }
+    }
+
+    /** The size of the text to encode. */
+    @Param({ "1024", "65536" })
+    public int size;
+
+    /** The text to encode. */
+    private String text;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(this.size);
+
+        for (int i = 0; sb.length() < this.size; i++) {
+            sb.append("Line ").append(i).append(" of the text to encode.\n");
+        }
+
+        this.text = sb.substring(0, this.size);
+    }
+
+    @Benchmark
+    public void gzip() throws IOException {
+        new EncodeRepresentation(Encoding.GZIP, new StringRepresentation(
+                this.text, MediaType.TEXT_PLAIN))
+                .write(new NullOutputStream());
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.restlet.Request;
+import org.restlet.data.ClientInfo;
+import org.restlet.data.Method;
+import org.restlet.engine.header.Header;
+import org.restlet.engine.header.HeaderReader;
+import org.restlet.engine.header.HeaderUtils;
+import org.restlet.engine.header.PreferenceReader;
+import org.restlet.representation.Representation;
+import org.restlet.util.Series;
+
+/**
+ * Benchmarks the reading and writing of HTTP headers.
+ * 
+ * @author Jerome Louvel
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HeaderBenchmark {
+
+    /** Typical Accept header sent by browsers. */
+    private final String accept = "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8";
+
+    /** Typical entity headers. */
+    private Series<Header> entityHeaders;
+
+    /** Request with typical preferences. */
+    private Request request;
+
+    @Setup
+    public void setUp() {
+        this.entityHeaders = new Series<Header>(Header.class);
+        this.entityHeaders.add("Content-Type", "text/html; charset=UTF-8");
+        this.entityHeaders.add("Content-Length", "1234");
+        this.entityHeaders.add("Content-Language", "en-us");
+        this.entityHeaders.add("Last-Modified",
+                "Sun, 06 Nov 1994 08:49:37 GMT");
+        this.entityHeaders.add("ETag", "\"xyzzy\"");
+
+        this.request = new Request(Method.GET, "http://localhost/resource");
+        PreferenceReader.addMediaTypes(this.accept,
+                this.request.getClientInfo());
+        PreferenceReader.addLanguages("en-US,en;q=0.8,fr;q=0.6",
+                this.request.getClientInfo());
+        this.request.getClientInfo().setAgent(
+                "Mozilla/5.0 (X11; Linux x86_64) Restlet-Framework/2.2");
+    }
+
+    @Benchmark
+    public ClientInfo readAccept() {
+        ClientInfo clientInfo = new ClientInfo();
+        PreferenceReader.addMediaTypes(this.accept, clientInfo);
+        return clientInfo;
+    }
+
+    @Benchmark
+    public Representation readEntityHeaders() {
+        return HeaderUtils.extractEntityHeaders(this.entityHeaders, null);
+    }
+
+    @Benchmark
+    public Header readHeaderLine() throws IOException {
+        return HeaderReader.readHeader("Accept: " + this.accept);
+    }
+
+    @Benchmark
+    public Series<Header> writeRequestHeaders() {
+        Series<Header> headers = new Series<Header>(Header.class);
+        HeaderUtils.addRequestHeaders(this.request, headers);
+        return headers;
+    }
+
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.engine.Engine;
+import org.restlet.engine.connector.HttpClientHelper;
+import org.restlet.engine.connector.HttpServerHelper;
+
+/**
+ * Benchmarks a full request/response exchange over the loopback interface
+ * between the internal NIO HTTP client and server connectors.
+ * 
+ * @author Jerome Louvel
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoopbackBenchmark {
+
+    /** The HTTP client. */
+    private Client client;
+
+    /** The HTTP server. */
+    private Server server;
+
+    /** The target URI. */
+    private String uri;
+
+    @Setup
+    public void setUp() throws Exception {
+        Engine.register(false);
+        Engine.getInstance().getRegisteredClients()
+                .add(new HttpClientHelper(null));
+        Engine.getInstance().getRegisteredServers()
+                .add(new HttpServerHelper(null));
+
+        this.server = new Server(new Context(), Protocol.HTTP, 0,
+                new Restlet() {
+                    @Override
+                    public void handle(Request request, Response response) {
+                        response.setEntity("Hello, world!",
+                                MediaType.TEXT_PLAIN);
+                    }
+                });
+        this.server.start();
+        this.uri = "http://localhost:" + this.server.getActualPort()
+                + "/resource";
+
+        this.client = new Client(new Context(), Protocol.HTTP);
+        this.client.start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.client.stop();
+        this.server.stop();
+    }
+
+    @Benchmark
+    public String get() throws Exception {
+        Response response = this.client.handle(new Request(Method.GET,
+                this.uri));
+        return response.getEntity().getText();
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.restlet.data.Reference;
+
+/**
+ * Benchmarks the parsing of URI references.
+ * 
+ * @author Jerome Louvel
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReferenceBenchmark {
+
+    /** The absolute URI to parse. */
+    private final String uri = "http://www.example.com:8182/path/to/resource;matrix=1?name=value&other=value#fragment";
+
+    /** The base reference used to resolve relative references. */
+    private final Reference baseRef = new Reference(
+            "http://www.example.com:8182/path/to/");
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        Reference reference = new Reference(this.uri);
+        blackhole.consume(reference.getScheme());
+        blackhole.consume(reference.getHostDomain());
+        blackhole.consume(reference.getHostPort());
+        blackhole.consume(reference.getPath());
+        blackhole.consume(reference.getQuery());
+        blackhole.consume(reference.getFragment());
+    }
+
+    @Benchmark
+    public Reference resolve() {
+        return new Reference(this.baseRef, "../other/resource?query")
+                .getTargetRef();
+    }
+
+    @Benchmark
+    public Object queryAsForm() {
+        return new Reference(this.uri).getQueryAsForm();
+    }
+
+}
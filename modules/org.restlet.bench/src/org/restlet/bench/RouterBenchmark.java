@@ -0,0 +1,97 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Method;
+import org.restlet.data.Reference;
+import org.restlet.routing.Router;
+
+/**
+ * Benchmarks the selection of the next Restlet by a router with a given
+ * number of routes, the target route being the last one attached.
+ * 
+ * @author Jerome Louvel
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RouterBenchmark {
+
+    /** Indicates if the router indexes its routes. */
+    @Param({ "false", "true" })
+    public boolean indexing;
+
+    /** The number of attached routes. */
+    @Param({ "10", "100", "1000" })
+    public int routes;
+
+    /** The base reference of the router. */
+    private Reference baseRef;
+
+    /** The benchmarked router. */
+    private Router router;
+
+    @Setup
+    public void setUp() {
+        this.baseRef = new Reference("http://localhost");
+        this.router = new Router(new Context());
+        this.router.setIndexingRoutes(this.indexing);
+        Restlet target = new Restlet() {
+        };
+
+        for (int i = 0; i < this.routes; i++) {
+            this.router.attach("/resource" + i + "/{id}", target);
+        }
+    }
+
+    @Benchmark
+    public Restlet getNext() {
+        Request request = new Request(Method.GET, "http://localhost/resource"
+                + (this.routes - 1) + "/1234");
+        request.getResourceRef().setBaseRef(this.baseRef);
+        return this.router.getNext(request, new Response(request));
+    }
+
+}
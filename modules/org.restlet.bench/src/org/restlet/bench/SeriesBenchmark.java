@@ -0,0 +1,97 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.restlet.engine.header.Header;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.util.Series;
+
+/**
+ * Benchmarks the lookups by name in a series of typical request headers.
+ * 
+ * @author Jerome Louvel
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SeriesBenchmark {
+
+    /** Indicates if the lookups are indexed. */
+    @Param({ "false", "true" })
+    public boolean indexed;
+
+    /** The series of headers. */
+    private Series<Header> headers;
+
+    @Setup
+    public void setUp() {
+        this.headers = new Series<Header>(Header.class);
+        this.headers.setIndexed(this.indexed);
+        this.headers.add("Host", "localhost:8182");
+        this.headers.add("User-Agent", "Mozilla/5.0 (X11; Linux x86_64)");
+        this.headers.add("Accept", "text/html,application/xhtml+xml");
+        this.headers.add("Accept-Language", "en-US,en;q=0.5");
+        this.headers.add("Accept-Encoding", "gzip, deflate");
+        this.headers.add("Referer", "http://localhost:8182/");
+        this.headers.add("Cookie", "name=value");
+        this.headers.add("Connection", "keep-alive");
+        this.headers.add("Cache-Control", "max-age=0");
+        this.headers.add("If-None-Match", "\"xyzzy\"");
+    }
+
+    @Benchmark
+    public String getFirstValueIgnoringCase() {
+        return this.headers.getFirstValue(
+                HeaderConstants.HEADER_IF_NONE_MATCH, true);
+    }
+
+    @Benchmark
+    public String getMissingValue() {
+        return this.headers.getFirstValue(
+                HeaderConstants.HEADER_CONTENT_LENGTH, true);
+    }
+
+    @Benchmark
+    public String getValues() {
+        return this.headers.getValues(HeaderConstants.HEADER_ACCEPT);
+    }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.restlet.routing.Template;
+
+/**
+ * Benchmarks the matching and parsing of URI templates.
+ * 
+ * @author Jerome Louvel
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateBenchmark {
+
+    /** The URI template. */
+    private final Template template = new Template(
+            "http://localhost/users/{user}/orders/{order}");
+
+    /** The URI matching the template. */
+    private final String uri = "http://localhost/users/jdoe/orders/1234";
+
+    @Benchmark
+    public int match() {
+        return this.template.match(this.uri);
+    }
+
+    @Benchmark
+    public Map<String, Object> parse() {
+        Map<String, Object> variables = new HashMap<String, Object>();
+        this.template.parse(this.uri, variables);
+        return variables;
+    }
+
+    @Benchmark
+    public String format() {
+        Map<String, Object> variables = new HashMap<String, Object>();
+        variables.put("user", "jdoe");
+        variables.put("order", "1234");
+        return this.template.format(variables);
+    }
+
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jaxrs.internal.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.ext.jaxrs.internal.wrappers.ResourceMethod;
+import org.restlet.ext.jaxrs.internal.wrappers.RrcOrRml;
+import org.restlet.ext.jaxrs.internal.wrappers.SubResourceLocator;
+
+/**
+ * Immutable dispatch table of root resource classes or of sub resource methods
+ * and locators. The members are sorted once as required by JSR-311-Spec,
+ * Section 3.7.2, Part 1.e and 2.f, and bucketed by the first literal segment
+ * of their path template, so that a request only has to try the members that
+ * could match its remaining path, in the order of their precedence. The first
+ * member that matches is then the one the specification would select.
+ * 
+ * @author Jerome Louvel
+ * @param <R>
+ *            the type of the members
+ * @see AlgorithmUtil#getFirstByNoOfLiteralCharsNoOfCapturingGroups(java.util.Collection)
+ */
+public class PathDispatchTable<R extends RrcOrRml> {
+
+    /**
+     * Sorts by the number of literal characters, the number of capturing
+     * groups and the number of capturing groups with non default regular
+     * expressions (all descending), and sorts resource methods ahead of sub
+     * resource locators.
+     */
+    private static final Comparator<RrcOrRml> SPEC_ORDER = new Comparator<RrcOrRml>() {
+        public int compare(RrcOrRml r1, RrcOrRml r2) {
+            PathRegExp p1 = r1.getPathRegExp();
+            PathRegExp p2 = r2.getPathRegExp();
+            int result = p2.getNoOfLiteralChars() - p1.getNoOfLiteralChars();
+            if (result == 0) {
+                result = p2.getNoOfCapturingGroups()
+                        - p1.getNoOfCapturingGroups();
+            }
+            if (result == 0) {
+                result = p2.getNoNonDefCaprGroups()
+                        - p1.getNoNonDefCaprGroups();
+            }
+            if (result == 0) {
+                result = getSourceRank(r1) - getSourceRank(r2);
+            }
+            return result;
+        }
+    };
+
+    /**
+     * Returns 0 for a resource method, 1 for a sub resource locator and 2
+     * otherwise.
+     * 
+     * @param rrcOrRml
+     * @return the rank of the given member in the quaternary sort key.
+     */
+    private static int getSourceRank(RrcOrRml rrcOrRml) {
+        if (rrcOrRml instanceof ResourceMethod) {
+            return 0;
+        }
+        if (rrcOrRml instanceof SubResourceLocator) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * The sorted members for each first literal segment, each list also
+     * containing the members without a first literal segment.
+     */
+    private final Map<String, List<R>> buckets;
+
+    /** The sorted members without a first literal segment. */
+    private final List<R> others;
+
+    /**
+     * Constructor.
+     * 
+     * @param members
+     *            the root resource classes or the sub resource methods and
+     *            locators. Members of equal precedence keep their order.
+     */
+    public PathDispatchTable(Iterable<? extends R> members) {
+        List<R> sorted = new ArrayList<R>();
+        for (R member : members) {
+            sorted.add(member);
+        }
+        // stable sort
+        Collections.sort(sorted, SPEC_ORDER);
+        Map<String, List<R>> buckets = new HashMap<String, List<R>>();
+        List<R> others = new ArrayList<R>();
+        for (R member : sorted) {
+            String segment = member.getPathRegExp().getFirstLiteralSegment();
+            if (segment == null) {
+                others.add(member);
+            } else if (!buckets.containsKey(segment)) {
+                buckets.put(segment, new ArrayList<R>());
+            }
+        }
+        for (Map.Entry<String, List<R>> bucket : buckets.entrySet()) {
+            for (R member : sorted) {
+                String segment = member.getPathRegExp()
+                        .getFirstLiteralSegment();
+                if ((segment == null) || segment.equals(bucket.getKey())) {
+                    bucket.getValue().add(member);
+                }
+            }
+            bucket.setValue(Collections.unmodifiableList(bucket.getValue()));
+        }
+        this.buckets = buckets;
+        this.others = Collections.unmodifiableList(others);
+    }
+
+    /**
+     * Returns the members that could match the given remaining path, in the
+     * order of their precedence. The caller has to match them in this order;
+     * the first one matching and accepted wins.
+     * 
+     * @param remainingPath
+     *            the remaining path to match
+     * @return the candidates, never null.
+     */
+    public List<R> getCandidates(RemainingPath remainingPath) {
+        if (this.buckets.isEmpty()) {
+            return this.others;
+        }
+        String path = remainingPath.getWithoutParams();
+        int end = path.indexOf('/');
+        List<R> bucket = this.buckets.get((end < 0) ? path : path.substring(0,
+                end));
+        return (bucket == null) ? this.others : bucket;
+    }
+
+    /**
+     * Indicates if the table has no member.
+     * 
+     * @return True if the table has no member.
+     */
+    public boolean isEmpty() {
+        return this.buckets.isEmpty() && this.others.isEmpty();
+    }
+}
@@ -139,8 +139,48 @@ public class PathRegExp {
         }
     }
 
+    /**
+     * Returns the first segment of the given path template, if it only
+     * consists of unreserved characters that are matched literally.
+     * 
+     * @param pathTemplate
+     *            the path template
+     * @param start
+     *            the index of the first char after a leading slash
+     * @return the literal first segment, or null if the first segment is empty
+     *         or contains a variable, an escaped or a reserved char.
+     */
+    private static String extractFirstLiteralSegment(String pathTemplate,
+            int start) {
+        final int l = pathTemplate.length();
+        int end = start;
+        for (; end < l; end++) {
+            final char c = pathTemplate.charAt(end);
+            if (c == '/') {
+                break;
+            }
+            // the '.' is not escaped in the regular expression, so it could
+            // match other chars.
+            if (!(((c >= 'A') && (c <= 'Z')) || ((c >= 'a') && (c <= 'z'))
+                    || ((c >= '0') && (c <= '9')) || (c == '-')
+                    || (c == '_') || (c == '~'))) {
+                return null;
+            }
+        }
+        if (end == start) {
+            return null;
+        }
+        return pathTemplate.substring(start, end);
+    }
+
     private final boolean emptyOrSlash;
 
+    /**
+     * The first segment of the path template, if it is literal; see
+     * {@link #getFirstLiteralSegment()}.
+     */
+    private final String firstLiteralSegment;
+
     /** Contains the number of literal chars in this Regular Expression */
     private final Integer noLitChars;
 
@@ -222,6 +262,8 @@ public class PathRegExp {
         }
         this.noLitChars = noLitChars;
         this.noOfCapturingGroups = numberOfCapturingGroups;
+        this.firstLiteralSegment = extractFirstLiteralSegment(pathTemplate,
+                forStart);
         // 4. If the resulting string ends with "/" then remove the final char.
         // 5. Append "(/.*)?" to the result.
         if (pathPattern.length() > 0
@@ -261,6 +303,18 @@ public class PathRegExp {
         return this.pattern.pattern().equals(otherRegExp.pattern.pattern());
     }
 
+    /**
+     * Returns the first segment of the path template, if it is matched
+     * literally. A remaining path could only be matched by this regular
+     * expression, if its first segment is equal to the returned one.
+     * 
+     * @return the literal first segment, or null if the first segment is empty
+     *         or not literal.
+     */
+    public String getFirstLiteralSegment() {
+        return this.firstLiteralSegment;
+    }
+
     /**
      * @return the number of capturing groups with regular expressions that are
      *         not the default.
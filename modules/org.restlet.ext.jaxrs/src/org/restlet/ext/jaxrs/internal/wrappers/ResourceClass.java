@@ -58,6 +58,7 @@ import org.restlet.ext.jaxrs.internal.exceptions.IllegalParamTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathOnClassException;
 import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathOnMethodException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingAnnotationException;
+import org.restlet.ext.jaxrs.internal.util.PathDispatchTable;
 import org.restlet.ext.jaxrs.internal.util.PathRegExp;
 import org.restlet.ext.jaxrs.internal.util.RemainingPath;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.ExtensionBackwardMapping;
@@ -86,6 +87,13 @@ public class ResourceClass extends AbstractJaxRsWrapper {
      */
     private final boolean leaveEncoded;
 
+    /**
+     * The resource methods and sub resource locators of this resource class,
+     * presorted for the request matching. (It is initialized after the method
+     * {@link #initResourceMethodsAndLocators}.)
+     */
+    private final PathDispatchTable<ResourceMethodOrLocator> methodsAndLocatorsTable;
+
     /**
      * The resource methods of this resource class. (It is initialized in
      * method.)
@@ -134,6 +142,8 @@ public class ResourceClass extends AbstractJaxRsWrapper {
         this.jaxRsClass = jaxRsClass;
         initResourceMethodsAndLocators(tlContext, jaxRsProviders,
                 extensionBackwardMapping, logger);
+        this.methodsAndLocatorsTable = new PathDispatchTable<ResourceMethodOrLocator>(
+                this.resourceMethodsAndLocators);
     }
 
     /**
@@ -165,6 +175,8 @@ public class ResourceClass extends AbstractJaxRsWrapper {
         this.jaxRsClass = jaxRsClass;
         this.initResourceMethodsAndLocators(tlContext, jaxRsProviders,
                 extensionBackwardMapping, logger);
+        this.methodsAndLocatorsTable = new PathDispatchTable<ResourceMethodOrLocator>(
+                this.resourceMethodsAndLocators);
     }
 
     /**
@@ -298,6 +310,16 @@ public class ResourceClass extends AbstractJaxRsWrapper {
         }
     }
 
+    /**
+     * Returns the sub resource methods and sub resource locators, presorted
+     * for the request matching.
+     * 
+     * @return the dispatch table of the sub resource methods and locators.
+     */
+    public final PathDispatchTable<ResourceMethodOrLocator> getMethodsAndLocatorsTable() {
+        return this.methodsAndLocatorsTable;
+    }
+
     /**
      * Return all resource methods for the given path, ignoring HTTP method,
      * consumed or produced mimes and so on.
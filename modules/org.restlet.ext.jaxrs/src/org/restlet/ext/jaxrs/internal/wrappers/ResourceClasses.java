@@ -34,6 +34,7 @@
 package org.restlet.ext.jaxrs.internal.wrappers;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -52,6 +53,7 @@ import org.restlet.ext.jaxrs.internal.exceptions.IllegalPathParamTypeException;
 import org.restlet.ext.jaxrs.internal.exceptions.InjectException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingAnnotationException;
 import org.restlet.ext.jaxrs.internal.exceptions.MissingConstructorException;
+import org.restlet.ext.jaxrs.internal.util.PathDispatchTable;
 import org.restlet.ext.jaxrs.internal.util.PathRegExp;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.ExtensionBackwardMapping;
 import org.restlet.ext.jaxrs.internal.wrappers.provider.JaxRsProviders;
@@ -71,6 +73,13 @@ public class ResourceClasses {
 
     private final Map<Class<?>, ResourceClass> resourceClasses = new HashMap<Class<?>, ResourceClass>();
 
+    /**
+     * The dispatch table of the root resource classes, rebuilt each time a
+     * root resource class is added.
+     */
+    private volatile PathDispatchTable<RootResourceClass> rootDispatchTable = new PathDispatchTable<RootResourceClass>(
+            new ArrayList<RootResourceClass>());
+
     /**
      * This set must only changed by adding a root resource class to this
      * JaxRsRestlet.
@@ -165,10 +174,22 @@ public class ResourceClasses {
                 return false;
             }
         }
-        rootResourceClasses.add(newRrc);
+        addRootClassWrapper(newRrc);
         return true;
     }
 
+    /**
+     * Adds the root resource class wrapper and rebuilds the dispatch table.
+     * 
+     * @param rootResourceClass
+     */
+    private synchronized void addRootClassWrapper(
+            RootResourceClass rootResourceClass) {
+        this.rootResourceClasses.add(rootResourceClass);
+        this.rootDispatchTable = new PathDispatchTable<RootResourceClass>(
+                this.rootResourceClasses);
+    }
+
     /**
      * 
      * @param jaxRsRootObject
@@ -249,7 +270,7 @@ public class ResourceClasses {
                 return false;
             }
         }
-        rootResourceClasses.add(newRrc);
+        addRootClassWrapper(newRrc);
         return true;
     }
 
@@ -307,6 +328,15 @@ public class ResourceClasses {
         return rc;
     }
 
+    /**
+     * Returns the root resource classes, presorted for the request matching.
+     * 
+     * @return the dispatch table of the root resource classes.
+     */
+    public PathDispatchTable<RootResourceClass> getRootDispatchTable() {
+        return this.rootDispatchTable;
+    }
+
     /**
      * Creates a new JAX-RS root resource object wrapper.
      * 
@@ -40,6 +40,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -99,6 +100,9 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
 
     private final Set<ProviderWrapper> all;
 
+    /** The cached provider selections, cleared when a provider changes. */
+    private final ProviderCache cache;
+
     /**
      * This {@link Set} contains all available
      * {@link javax.ws.rs.ext.ContextResolver}s.<br>
@@ -132,6 +136,7 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
             ThreadLocalizedContext tlContext,
             ExtensionBackwardMapping extensionBackwardMapping, Logger logger) {
         this.all = new CopyOnWriteArraySet<ProviderWrapper>();
+        this.cache = new ProviderCache();
         this.messageBodyReaderWrappers = new CopyOnWriteArrayList<ProviderWrapper>();
         this.messageBodyWriterWrappers = new CopyOnWriteArrayList<ProviderWrapper>();
         this.contextResolvers = new CopyOnWriteArraySet<ProviderWrapper>();
@@ -168,6 +173,7 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
         if (provider.isExceptionMapper())
             this.addExcMapper(provider);
         this.all.add(provider);
+        this.cache.clear();
     }
 
     /**
@@ -317,25 +323,58 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
      */
     public MessageBodyReader getBestReader(Class<?> paramType,
             Type genericType, Annotation[] annotations, MediaType mediaType) {
-        // NICE optimization: may be cached for speed.
+        List<Object> key = ProviderCache.createKey("reader", paramType,
+                genericType, annotations, mediaType);
+        List<ProviderWrapper> selection = this.cache.get(key);
+        if (selection != null) {
+            if (selection.isEmpty())
+                return null;
+            try {
+                return selection.get(0).getInitializedReader();
+            } catch (ProviderNotInitializableException e) {
+                // look for the next reader
+            } catch (WebApplicationException e) {
+                // look for the next reader
+            }
+        }
+        long generation = this.cache.getGeneration();
+        boolean complete = true;
         for (ProviderWrapper mbrw : this.messageBodyReaderWrappers) {
             if (mbrw.supportsRead(mediaType)) {
                 MessageBodyReader mbr;
                 try {
                     mbr = mbrw.getInitializedReader();
                 } catch (ProviderNotInitializableException e) {
+                    complete = false;
                     continue;
                 } catch (WebApplicationException e) {
+                    complete = false;
                     continue;
                 }
                 if (mbr.isReadable(paramType, genericType, annotations,
-                        Converter.toJaxRsMediaType(mediaType)))
+                        Converter.toJaxRsMediaType(mediaType))) {
+                    if (complete)
+                        this.cache.put(key,
+                                Collections.singletonList(mbrw), generation);
                     return mbr;
+                }
             }
         }
+        if (complete)
+            this.cache.put(key, new ArrayList<ProviderWrapper>(), generation);
         return null;
     }
 
+    /**
+     * Returns the cache of the provider selections, for example to read its
+     * hit counts.
+     * 
+     * @return the cache of the provider selections.
+     */
+    public ProviderCache getCache() {
+        return this.cache;
+    }
+
     /**
      * Get a context resolver for a particular type of context and media type.
      * The set of resolvers is first filtered by comparing the supplied value of
@@ -364,13 +403,34 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
             Class<T> contextType, javax.ws.rs.core.MediaType mediaType) {
         // TODO refactor JaxRsProviders.getContextResolver()
         // LATER test JaxRsProviders.getContextResolver
+        List<Object> key = ProviderCache.createKey("contextResolver",
+                contextType, mediaType);
+        List<ProviderWrapper> selection = this.cache.get(key);
+        if (selection != null) {
+            if (selection.isEmpty())
+                return null;
+            try {
+                javax.ws.rs.ext.ContextResolver<?> cr = selection.get(0)
+                        .getInitializedCtxResolver().getContextResolver();
+                if (cr != null)
+                    return (javax.ws.rs.ext.ContextResolver<T>) cr;
+            } catch (ProviderNotInitializableException e) {
+                // look for the next context resolver
+            } catch (WebApplicationException e) {
+                // look for the next context resolver
+            }
+        }
+        long generation = this.cache.getGeneration();
+        boolean complete = true;
         for (ProviderWrapper crWrapper : this.contextResolvers) {
             final javax.ws.rs.ext.ContextResolver<?> cr;
             try {
                 cr = crWrapper.getInitializedCtxResolver().getContextResolver();
             } catch (ProviderNotInitializableException e1) {
+                complete = false;
                 continue;
             } catch (WebApplicationException e1) {
+                complete = false;
                 continue;
             }
             if (cr == null) { // TODO this is a little bit hacky.
@@ -387,6 +447,10 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
             try {
                 Method getContext = crClaz.getMethod("getContext", Class.class);
                 if (getContext.getReturnType().equals(contextType)) {
+                    if (complete)
+                        this.cache.put(key,
+                                Collections.singletonList(crWrapper),
+                                generation);
                     return (javax.ws.rs.ext.ContextResolver<T>) cr;
                 }
             } catch (SecurityException e) {
@@ -400,6 +464,8 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
                                 + " is not valid, because it has no method getContext(Class)");
             }
         }
+        if (complete)
+            this.cache.put(key, new ArrayList<ProviderWrapper>(), generation);
         return null;
     }
 
@@ -414,20 +480,44 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
         if (causeClass == null)
             throw new ImplementationException(
                     "The call of an exception mapper with null is not allowed");
+        List<Object> key = ProviderCache.createKey("exceptionMapper",
+                causeClass);
+        List<ProviderWrapper> selection = this.cache.get(key);
+        if (selection != null) {
+            if (selection.isEmpty())
+                return null;
+            try {
+                return (ExceptionMapper<T>) selection.get(0)
+                        .getInitializedExcMapper();
+            } catch (ProviderNotInitializableException e) {
+                // look for the next exception mapper
+            } catch (WebApplicationException e) {
+                // look for the next exception mapper
+            }
+        }
+        long generation = this.cache.getGeneration();
+        boolean complete = true;
         ProviderWrapper mapperWrapper;
         for (;;) {
             mapperWrapper = this.excMappers.get(causeClass);
             if (mapperWrapper != null) {
                 try {
-                    return (ExceptionMapper<T>) mapperWrapper
+                    ExceptionMapper<T> mapper = (ExceptionMapper<T>) mapperWrapper
                             .getInitializedExcMapper();
+                    if (complete)
+                        this.cache.put(key,
+                                Collections.singletonList(mapperWrapper),
+                                generation);
+                    return mapper;
                 } catch (ProviderNotInitializableException e) {
+                    complete = false;
                     localLogger
                             .info("The exception mapper for "
                                     + causeClass
                                     + " could not be initialized, so it can#t be used. Will look for the next exception mapper in hierarchy.");
                     // look for next
                 } catch (WebApplicationException e) {
+                    complete = false;
                     localLogger
                             .log(Level.INFO,
                                     "The exception mapper for "
@@ -439,13 +529,14 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
             }
 
             Class<?> superclass = causeClass.getSuperclass();
-            if (superclass == null || superclass.equals(Object.class))
+            if (superclass == null || superclass.equals(Object.class)) {
+                if (complete)
+                    this.cache.put(key, new ArrayList<ProviderWrapper>(),
+                            generation);
                 return null;
+            }
             causeClass = (Class<T>) superclass;
         }
-        // disabled caching, because adding of new ExceptionMappers could
-        // cause trouble.
-        // this.excMappers.put(superclass, mapper);
     }
 
     /**
@@ -471,21 +562,46 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
             Class<T> type, Type genericType, Annotation[] annotations,
             javax.ws.rs.core.MediaType mediaType) {
         MediaType restletMediaType = Converter.toRestletMediaType(mediaType);
+        List<Object> key = ProviderCache.createKey("writer", type,
+                genericType, annotations, restletMediaType);
+        List<ProviderWrapper> selection = this.cache.get(key);
+        if (selection != null) {
+            if (selection.isEmpty())
+                return null;
+            try {
+                return (javax.ws.rs.ext.MessageBodyWriter<T>) selection.get(0)
+                        .getInitializedWriter().getJaxRsWriter();
+            } catch (ProviderNotInitializableException e) {
+                // look for the next writer
+            } catch (WebApplicationException e) {
+                // look for the next writer
+            }
+        }
+        long generation = this.cache.getGeneration();
+        boolean complete = true;
         for (ProviderWrapper mbww : this.messageBodyWriterWrappers) {
             if (mbww.supportsWrite(restletMediaType)) {
                 MessageBodyWriter mbw;
                 try {
                     mbw = mbww.getInitializedWriter();
                 } catch (ProviderNotInitializableException e) {
+                    complete = false;
                     continue;
                 } catch (WebApplicationException e) {
+                    complete = false;
                     continue;
                 }
-                if (mbw.isWriteable(type, genericType, annotations, mediaType))
+                if (mbw.isWriteable(type, genericType, annotations, mediaType)) {
+                    if (complete)
+                        this.cache.put(key,
+                                Collections.singletonList(mbww), generation);
                     return (javax.ws.rs.ext.MessageBodyWriter<T>) mbw
                             .getJaxRsWriter();
+                }
             }
         }
+        if (complete)
+            this.cache.put(key, new ArrayList<ProviderWrapper>(), generation);
         return null;
     }
 
@@ -543,6 +659,7 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
             if (providerWrapper.equals(provider))
                 excMapperEntryIter.remove();
         }
+        this.cache.clear();
     }
 
     /**
@@ -561,18 +678,37 @@ public class JaxRsProviders implements javax.ws.rs.ext.Providers,
     public MessageBodyWriterSubSet writerSubSet(Class<?> entityClass,
             Type genericType) {
         final List<MessageBodyWriter> mbws = new ArrayList<MessageBodyWriter>();
+        List<Object> key = ProviderCache.createKey("writers", entityClass,
+                genericType);
+        List<ProviderWrapper> selection = this.cache.get(key);
+        if (selection != null) {
+            for (ProviderWrapper mbww : selection) {
+                try {
+                    mbws.add(mbww.getInitializedWriter());
+                } catch (ProviderNotInitializableException e) {
+                    continue;
+                }
+            }
+            return new MessageBodyWriterSubSet(mbws, entityClass, genericType);
+        }
+        long generation = this.cache.getGeneration();
+        boolean complete = true;
+        List<ProviderWrapper> mbwws = new ArrayList<ProviderWrapper>();
         for (ProviderWrapper mbww : this.messageBodyWriterWrappers) {
             MessageBodyWriter mbw;
             try {
                 mbw = mbww.getInitializedWriter();
             } catch (ProviderNotInitializableException e) {
+                complete = false;
                 continue;
             }
             if (mbw.supportsWrite(entityClass, genericType)) {
                 mbws.add(mbw);
+                mbwws.add(mbww);
             }
         }
-        // NICE optimization: may be cached for speed.
+        if (complete)
+            this.cache.put(key, mbwws, generation);
         return new MessageBodyWriterSubSet(mbws, entityClass, genericType);
     }
 
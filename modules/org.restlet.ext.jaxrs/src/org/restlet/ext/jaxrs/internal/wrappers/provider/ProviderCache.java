@@ -0,0 +1,230 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jaxrs.internal.wrappers.provider;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memoizes the providers selected by {@link JaxRsProviders} for given lookup
+ * criteria, such as the declared type, the generic type, the annotations and
+ * the media type. Negative results are cached as empty selections. The cache
+ * must be cleared each time a provider is added or removed. A selection
+ * computed before the cache was cleared is not cached anymore, see
+ * {@link #getGeneration()}.<br>
+ * The number of times each provider was selected from the cache is recorded.
+ * 
+ * @author Jerome Louvel
+ */
+public class ProviderCache {
+
+    /** The maximum number of cached selections before clearing the cache. */
+    public static final int MAX_ENTRIES = 10000;
+
+    /**
+     * Creates a cache key for the given lookup criteria. Arrays of annotations
+     * are compared by their elements.
+     * 
+     * @param criteria
+     *            the lookup kind followed by the lookup criteria, may contain
+     *            null values.
+     * @return the cache key
+     */
+    public static List<Object> createKey(Object... criteria) {
+        List<Object> key = new ArrayList<Object>(criteria.length);
+        for (Object criterion : criteria) {
+            if (criterion instanceof Annotation[]) {
+                key.add(Arrays.asList((Annotation[]) criterion));
+            } else {
+                key.add(criterion);
+            }
+        }
+        return key;
+    }
+
+    /** Incremented each time the cache is cleared. */
+    private final AtomicLong generation;
+
+    /** The number of cache hits, per provider class name. */
+    private final ConcurrentMap<String, AtomicLong> hitCounts;
+
+    /** The number of lookups not found in the cache. */
+    private final AtomicLong missCount;
+
+    /** The cached selections, replaced when the cache is cleared. */
+    private volatile ConcurrentMap<List<Object>, List<ProviderWrapper>> selections;
+
+    /**
+     * Constructor.
+     */
+    public ProviderCache() {
+        this.generation = new AtomicLong();
+        this.hitCounts = new ConcurrentHashMap<String, AtomicLong>();
+        this.missCount = new AtomicLong();
+        this.selections = new ConcurrentHashMap<List<Object>, List<ProviderWrapper>>();
+    }
+
+    /**
+     * Clears the cached selections. The hit counts are kept.
+     */
+    public void clear() {
+        // increments first, so that a concurrent put can't reach the new map
+        this.generation.incrementAndGet();
+        this.selections = new ConcurrentHashMap<List<Object>, List<ProviderWrapper>>();
+    }
+
+    /**
+     * Returns the cached selection for the given key and records a hit for the
+     * selected providers.
+     * 
+     * @param key
+     *            the key created by {@link #createKey(Object...)}
+     * @return the selected providers, an empty list if no provider was found,
+     *         or null if the selection is not cached.
+     */
+    public List<ProviderWrapper> get(List<Object> key) {
+        List<ProviderWrapper> selection = this.selections.get(key);
+
+        if (selection == null) {
+            this.missCount.incrementAndGet();
+        } else {
+            for (ProviderWrapper provider : selection) {
+                String className = provider.getClassName();
+                AtomicLong count = this.hitCounts.get(className);
+
+                if (count == null) {
+                    AtomicLong newCount = new AtomicLong();
+                    count = this.hitCounts.putIfAbsent(className, newCount);
+
+                    if (count == null) {
+                        count = newCount;
+                    }
+                }
+
+                count.incrementAndGet();
+            }
+        }
+
+        return selection;
+    }
+
+    /**
+     * Returns the current generation of the cache, to be given to
+     * {@link #put(List, List, long)} once the selection is computed.
+     * 
+     * @return the current generation of the cache.
+     */
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * Returns the number of times the given provider class was selected from
+     * the cache.
+     * 
+     * @param providerClassName
+     *            the name of the provider class
+     * @return the number of cache hits for the given provider class.
+     */
+    public long getHitCount(String providerClassName) {
+        AtomicLong count = this.hitCounts.get(providerClassName);
+        return (count == null) ? 0 : count.get();
+    }
+
+    /**
+     * Returns a snapshot of the number of cache hits, per provider class name.
+     * 
+     * @return the number of cache hits, sorted by provider class name.
+     */
+    public Map<String, Long> getHitCounts() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : this.hitCounts.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of lookups that were not found in the cache.
+     * 
+     * @return the number of cache misses.
+     */
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    /**
+     * Caches the selection for the given key. The cache is cleared first if
+     * it holds too many selections, for example because of varying media type
+     * parameters.
+     * 
+     * @param key
+     *            the key created by {@link #createKey(Object...)}
+     * @param selection
+     *            the selected providers, empty if no provider was found.
+     * @param generation
+     *            the generation of the cache before the selection was
+     *            computed. If the cache was cleared in between, the selection
+     *            is ignored.
+     */
+    public void put(List<Object> key, List<ProviderWrapper> selection,
+            long generation) {
+        ConcurrentMap<List<Object>, List<ProviderWrapper>> current = this.selections;
+
+        if (generation == this.generation.get()) {
+            if (current.size() >= MAX_ENTRIES) {
+                current.clear();
+            }
+
+            current.put(key, Collections.unmodifiableList(selection));
+        }
+    }
+
+    /**
+     * Returns the number of cached selections.
+     * 
+     * @return the number of cached selections.
+     */
+    public int size() {
+        return this.selections.size();
+    }
+}
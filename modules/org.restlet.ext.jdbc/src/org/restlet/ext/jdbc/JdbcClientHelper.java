@@ -36,11 +36,16 @@ package org.restlet.ext.jdbc;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -50,7 +55,10 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.apache.commons.dbcp.ConnectionFactory;
 import org.apache.commons.dbcp.DriverManagerConnectionFactory;
 import org.apache.commons.dbcp.PoolableConnectionFactory;
+import org.apache.commons.pool.KeyedObjectPoolFactory;
 import org.apache.commons.pool.ObjectPool;
+import org.apache.commons.pool.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool.impl.GenericKeyedObjectPoolFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.restlet.Client;
 import org.restlet.Request;
@@ -61,6 +69,7 @@ import org.restlet.data.Status;
 import org.restlet.engine.ClientHelper;
 import org.restlet.engine.Engine;
 import org.restlet.ext.jdbc.internal.ConnectionSource;
+import org.restlet.ext.jdbc.internal.SqlStatement;
 import org.restlet.representation.Representation;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -77,12 +86,52 @@ import org.xml.sax.SAXException;
  * <p>
  * Database connections are optionally pooled using Apache Commons DBCP. In this
  * case, a different connection pool is created for each unique combination of
- * JDBC URI and connection properties.
+ * JDBC URI and connection properties. Each pooled connection also caches the
+ * prepared statements of the statements with parameters, so that frequently
+ * executed statements are only parsed once by the database. Note that the
+ * statements returning generated keys aren't cached.
  * <p>
  * Paging is supported via two header elements: "start" for the index of the
  * first result (0 by default) and "limit" for the maximum number of results
  * retrieved (unlimited by default).
  * <p>
+ * Large results can be streamed by setting the "streaming" header element to
+ * true. In this case, the rows are written to the response entity while the
+ * result set is iterated instead of being first loaded in memory. The
+ * statements are then executed in a transaction, committed once the
+ * representation is written, as some drivers only fetch the rows
+ * progressively outside of the auto-commit mode.
+ * <p>
+ * Statements can contain "?" placeholders bound to the values of nested
+ * "parameter" elements, in order. The optional "type" attribute gives the name
+ * of the {@link java.sql.Types} constant to convert the value to and the
+ * "null" attribute set to true binds a SQL NULL value.
+ * <p>
+ * Here is the list of parameters that are supported. They should be set in the
+ * Client's context before it is started:
+ * <table>
+ * <tr>
+ * <th>Parameter name</th>
+ * <th>Value type</th>
+ * <th>Default value</th>
+ * <th>Description</th>
+ * </tr>
+ * <tr>
+ * <td>maxPreparedStatements</td>
+ * <td>int</td>
+ * <td>100</td>
+ * <td>The maximum number of prepared statements cached by each pooled
+ * connection. A value of 0 disables the cache.</td>
+ * </tr>
+ * <tr>
+ * <td>streamingFetchSize</td>
+ * <td>int</td>
+ * <td>100</td>
+ * <td>The number of rows fetched at once from the database when the results
+ * are streamed. A value of 0 lets the driver decide.</td>
+ * </tr>
+ * </table>
+ * <p>
  * Do not forget to register your JDBC drivers before using this client. See
  * {@link DriverManager} for details.
  * <p>
@@ -104,6 +153,7 @@ import org.xml.sax.SAXException;
  * &nbsp;&nbsp;&nbsp;&nbsp;{@code </connection>}<br>
  * &nbsp;&nbsp;&nbsp;&nbsp;{@code <start>10</start>}<br>
  * &nbsp;&nbsp;&nbsp;&nbsp;{@code <limit>20</limit>}<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;{@code <streaming>false</streaming>}<br>
  * &nbsp;&nbsp;&nbsp;&nbsp;
  * {@code <returnGeneratedKeys>true</returnGeneratedKeys>}<br>
  * &nbsp;&nbsp;{@code </header>}<br>
@@ -112,6 +162,11 @@ import org.xml.sax.SAXException;
  * myField1="value1" </statement>}<br>
  * &nbsp;&nbsp;&nbsp;&nbsp;{@code <statement>SELECT msField1, myField2 FROM
  * myTable</statement>}<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;{@code <statement>SELECT myField1 FROM myTable
+ * WHERE myField2 = ?}<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;{@code <parameter
+ * type="INTEGER">1234</parameter>}<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;{@code </statement>}<br>
  * &nbsp;&nbsp;{@code </body>}<br>
  * {@code </request>}
  * <p>
@@ -153,6 +208,23 @@ public class JdbcClientHelper extends ClientHelper {
      */
     public static ObjectPool createConnectionPool(String uri,
             Properties properties) {
+        return createConnectionPool(uri, properties, 0);
+    }
+
+    /**
+     * Creates a connection pool for a given connection configuration.
+     * 
+     * @param uri
+     *            The connection URI.
+     * @param properties
+     *            The connection properties.
+     * @param maxPreparedStatements
+     *            The maximum number of prepared statements cached by each
+     *            pooled connection or 0 to disable the cache.
+     * @return The new connection pool.
+     */
+    public static ObjectPool createConnectionPool(String uri,
+            Properties properties, int maxPreparedStatements) {
         // Create an ObjectPool that will serve as the actual pool of
         // connections
         ObjectPool result = new GenericObjectPool(null);
@@ -162,11 +234,23 @@ public class JdbcClientHelper extends ClientHelper {
         ConnectionFactory connectionFactory = new DriverManagerConnectionFactory(
                 uri, properties);
 
+        // Create the factory of the per-connection prepared statement
+        // pools. The oldest idle statements are closed once the limit is
+        // reached.
+        KeyedObjectPoolFactory statementPoolFactory = null;
+
+        if (maxPreparedStatements > 0) {
+            statementPoolFactory = new GenericKeyedObjectPoolFactory(null,
+                    -1, GenericKeyedObjectPool.WHEN_EXHAUSTED_FAIL, 0, 1,
+                    maxPreparedStatements);
+        }
+
         // Create the PoolableConnectionFactory, which wraps the "real"
         // Connections created by the ConnectionFactory with
         // the classes that implement the pooling functionality.
         PoolableConnectionFactory poolableConnectionFactory = new PoolableConnectionFactory(
-                connectionFactory, result, null, null, false, false);
+                connectionFactory, result, statementPoolFactory, null, false,
+                false);
 
         // To remove warnings
         poolableConnectionFactory.getPool();
@@ -197,8 +281,8 @@ public class JdbcClientHelper extends ClientHelper {
         return result.toString();
     }
 
-    /** Map of connection factories. */
-    private volatile List<ConnectionSource> connectionSources;
+    /** Map of connection factories, keyed by URI and connection properties. */
+    private volatile ConcurrentMap<List<Object>, ConnectionSource> connectionSources;
 
     /**
      * Constructor.
@@ -212,7 +296,30 @@ public class JdbcClientHelper extends ClientHelper {
         getProtocols().add(Protocol.JDBC);
 
         // Set up the list of factories
-        this.connectionSources = new ArrayList<ConnectionSource>();
+        this.connectionSources = new ConcurrentHashMap<List<Object>, ConnectionSource>();
+    }
+
+    /**
+     * Returns the maximum number of prepared statements cached by each pooled
+     * connection. A value of 0 disables the cache.
+     * 
+     * @return The maximum number of prepared statements cached by each pooled
+     *         connection.
+     */
+    public int getMaxPreparedStatements() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxPreparedStatements", "100"));
+    }
+
+    /**
+     * Returns the number of rows fetched at once from the database when the
+     * results are streamed. A value of 0 lets the driver decide.
+     * 
+     * @return The number of rows fetched at once when streaming.
+     */
+    public int getStreamingFetchSize() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "streamingFetchSize", "100"));
     }
 
     /**
@@ -232,35 +339,27 @@ public class JdbcClientHelper extends ClientHelper {
         Connection result = null;
 
         if (usePooling) {
-            for (ConnectionSource c : this.connectionSources) {
-                // Check if the connection URI is identical
-                // and if the same number of properties is present
-                if ((result == null) && c.getUri().equalsIgnoreCase(uri)
-                        && (properties.size() == c.getProperties().size())) {
-                    // Check that the properties tables are equivalent
-                    boolean equal = true;
-                    for (Object key : c.getProperties().keySet()) {
-                        if (equal && properties.containsKey(key)) {
-                            equal = equal
-                                    && (properties.get(key).equals(c
-                                            .getProperties().get(key)));
-                        } else {
-                            equal = false;
-                        }
-                    }
+            // URIs are compared ignoring the case and the properties by
+            // value, so copy them in case the caller modifies them later
+            List<Object> key = Arrays.<Object> asList(
+                    uri.toLowerCase(),
+                    (properties == null) ? new HashMap<Object, Object>()
+                            : new HashMap<Object, Object>(properties));
+            ConnectionSource cs = this.connectionSources.get(key);
+
+            if (cs == null) {
+                // No existing connection source found
+                cs = new ConnectionSource(uri, properties,
+                        getMaxPreparedStatements());
+                ConnectionSource current = this.connectionSources
+                        .putIfAbsent(key, cs);
 
-                    if (equal) {
-                        result = c.getConnection();
-                    }
+                if (current != null) {
+                    cs = current;
                 }
             }
 
-            if (result == null) {
-                // No existing connection source found
-                ConnectionSource cs = new ConnectionSource(uri, properties);
-                this.connectionSources.add(cs);
-                result = cs.getConnection();
-            }
+            result = cs.getConnection();
         } else {
             result = DriverManager.getConnection(uri, properties);
         }
@@ -317,6 +416,12 @@ public class JdbcClientHelper extends ClientHelper {
                         && limitNode.getTextContent().trim().length() > 0 ? Integer
                         .parseInt(limitNode.getTextContent()) : -1;
 
+                // Read the streaming setting
+                Node streamingNode = headerElt.getElementsByTagName(
+                        "streaming").item(0);
+                boolean streaming = streamingNode != null
+                        && streamingNode.getTextContent().trim().equals("true");
+
                 // Read the connection properties
                 NodeList propertyNodes = connectionElt
                         .getElementsByTagName("property");
@@ -346,19 +451,19 @@ public class JdbcClientHelper extends ClientHelper {
                         .getElementsByTagName("body").item(0);
                 NodeList statementNodes = bodyElt
                         .getElementsByTagName("statement");
-                List<String> sqlRequests = new ArrayList<String>();
+                List<SqlStatement> sqlRequests = new ArrayList<SqlStatement>();
                 for (int i = 0; i < statementNodes.getLength(); i++) {
-                    String sqlRequest = statementNodes.item(i).getTextContent();
-                    sqlRequests.add(sqlRequest);
+                    sqlRequests.add(parseStatement((Element) statementNodes
+                            .item(i)));
                 }
 
                 // Execute the List of SQL requests
                 connection = getConnection(connectionURI, properties,
                         usePooling);
                 JdbcResult result = handleSqlRequests(connection,
-                        returnGeneratedKeys, sqlRequests);
+                        returnGeneratedKeys, streaming, sqlRequests);
                 response.setEntity(new RowSetRepresentation(result, start,
-                        limit));
+                        limit, streaming));
             } catch (SQLException se) {
                 getLogger().log(Level.WARNING,
                         "Error while processing the SQL request", se);
@@ -371,6 +476,10 @@ public class JdbcClientHelper extends ClientHelper {
                 getLogger().log(Level.WARNING,
                         "Error while parsing the XML document", se);
                 response.setStatus(Status.CLIENT_ERROR_BAD_REQUEST, se);
+            } catch (IllegalArgumentException iae) {
+                getLogger().log(Level.WARNING,
+                        "Invalid statement parameter", iae);
+                response.setStatus(Status.CLIENT_ERROR_BAD_REQUEST, iae);
             } catch (IOException ioe) {
                 getLogger().log(Level.WARNING, "Input/Output exception", ioe);
                 response.setStatus(Status.SERVER_ERROR_INTERNAL, ioe);
@@ -386,24 +495,79 @@ public class JdbcClientHelper extends ClientHelper {
      * 
      * @param connection
      * @param returnGeneratedKeys
+     * @param streaming
+     *            Indicates if the result of the last statement is streamed.
+     *            In this case, the transaction is committed by
+     *            {@link JdbcResult#release()}.
      * @param sqlRequests
      * @return the result of the last executed SQL request
      */
     private JdbcResult handleSqlRequests(Connection connection,
-            boolean returnGeneratedKeys, List<String> sqlRequests) {
+            boolean returnGeneratedKeys, boolean streaming,
+            List<SqlStatement> sqlRequests) {
         JdbcResult result = null;
+        Statement plainStatement = null;
+        Statement statement = null;
+
         try {
-            connection.setAutoCommit(true);
-            Statement statement = connection.createStatement();
-            for (String sqlRequest : sqlRequests) {
-                statement.execute(sqlRequest,
-                        returnGeneratedKeys ? Statement.RETURN_GENERATED_KEYS
-                                : Statement.NO_GENERATED_KEYS);
+            connection.setAutoCommit(!streaming);
+
+            for (SqlStatement sqlRequest : sqlRequests) {
+                Statement previous = statement;
+
+                if (sqlRequest.hasParameters()) {
+                    // Pooled connections return a cached statement when the
+                    // same SQL was already prepared, unless generated keys
+                    // are requested
+                    PreparedStatement preparedStatement = returnGeneratedKeys ? connection
+                            .prepareStatement(sqlRequest.getSql(),
+                                    Statement.RETURN_GENERATED_KEYS)
+                            : connection.prepareStatement(sqlRequest.getSql());
+                    statement = preparedStatement;
+
+                    if (streaming) {
+                        statement.setFetchSize(getStreamingFetchSize());
+                    }
+
+                    sqlRequest.bind(preparedStatement);
+                    preparedStatement.execute();
+                } else {
+                    if (plainStatement == null) {
+                        plainStatement = connection.createStatement();
+
+                        if (streaming) {
+                            plainStatement
+                                    .setFetchSize(getStreamingFetchSize());
+                        }
+                    }
+
+                    statement = plainStatement;
+
+                    if (returnGeneratedKeys) {
+                        statement.execute(sqlRequest.getSql(),
+                                Statement.RETURN_GENERATED_KEYS);
+                    } else {
+                        statement.execute(sqlRequest.getSql());
+                    }
+                }
+
+                // Only the result of the last statement is kept
+                if ((previous != null) && (previous != statement)) {
+                    if (previous == plainStatement) {
+                        plainStatement = null;
+                    }
+
+                    previous.close();
+                }
+            }
+
+            if (statement != null) {
                 result = new JdbcResult(statement);
             }
 
-            // Commit any changes to the database
-            if (!connection.getAutoCommit()) {
+            // Commit any changes to the database, unless the result is
+            // still to be streamed
+            if (!streaming && !connection.getAutoCommit()) {
                 connection.commit();
             }
         } catch (SQLException se) {
@@ -421,4 +585,42 @@ public class JdbcClientHelper extends ClientHelper {
         return result;
 
     }
+
+    /**
+     * Parses a statement element. The SQL text is made of the direct text
+     * content of the element, the nested "parameter" elements giving the
+     * values of the "?" placeholders.
+     * 
+     * @param statementElt
+     *            The statement element.
+     * @return The parsed statement.
+     */
+    private SqlStatement parseStatement(Element statementElt) {
+        StringBuilder sql = new StringBuilder();
+        List<Element> parameterElts = new ArrayList<Element>();
+
+        for (Node child = statementElt.getFirstChild(); child != null; child = child
+                .getNextSibling()) {
+            if ((child.getNodeType() == Node.TEXT_NODE)
+                    || (child.getNodeType() == Node.CDATA_SECTION_NODE)) {
+                sql.append(child.getNodeValue());
+            } else if ((child.getNodeType() == Node.ELEMENT_NODE)
+                    && "parameter".equals(child.getNodeName())) {
+                parameterElts.add((Element) child);
+            }
+        }
+
+        SqlStatement result = new SqlStatement(parameterElts.isEmpty() ? sql
+                .toString() : sql.toString().trim());
+
+        for (Element parameterElt : parameterElts) {
+            String type = parameterElt.getAttribute("type");
+            boolean isNull = "true".equals(parameterElt.getAttribute("null"));
+            result.addParameter(isNull ? null : parameterElt.getTextContent(),
+                    (type.length() == 0) ? null : Integer.valueOf(SqlStatement
+                            .getSqlType(type)));
+        }
+
+        return result;
+    }
 }
@@ -34,6 +34,7 @@
 package org.restlet.ext.jdbc;
 
 import java.io.Serializable;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -92,6 +93,8 @@ public class JdbcResult implements Serializable {
 
     /**
      * Release the statement connection. To call when result navigation is done.
+     * If the connection isn't in auto-commit mode, as when the result is
+     * streamed, the transaction is committed first.
      * 
      * @throws SQLException
      */
@@ -99,7 +102,18 @@ public class JdbcResult implements Serializable {
         // One connection per jdbcResult
         // releasing the instance means releasing the connection too
         // and not only the statement.
-        this.statement.getConnection().close();
+        Connection connection = this.statement.getConnection();
+
+        try {
+            // Returns cached prepared statements to their pool
+            this.statement.close();
+
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } finally {
+            connection.close();
+        }
     }
 
 }
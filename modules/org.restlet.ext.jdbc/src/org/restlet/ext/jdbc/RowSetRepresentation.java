@@ -36,7 +36,9 @@ package org.restlet.ext.jdbc;
 import java.io.IOException;
 import java.io.Writer;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.logging.Level;
 
 import javax.sql.rowset.WebRowSet;
@@ -50,7 +52,10 @@ import org.restlet.representation.WriterRepresentation;
  * instance or in a WebRowSet. Leverage the WebRowSet API to create the Response
  * entity.<br>
  * Give access to the JdbcResult instance and to the WebRowSet for retrieval of
- * the connected ResultSet in the same JVM (for advanced use cases).
+ * the connected ResultSet in the same JVM (for advanced use cases).<br>
+ * In streaming mode, no WebRowSet is created. The rows are written using the
+ * same XML format while the ResultSet is iterated, so that large results don't
+ * need to be loaded in memory.
  * 
  * @see WebRowSet
  * @author Thierry Boileau
@@ -94,9 +99,57 @@ public class RowSetRepresentation extends WriterRepresentation {
         return result;
     }
 
+    /**
+     * Escapes the XML special characters of a string.
+     * 
+     * @param value
+     *            The string to escape.
+     * @return The escaped string.
+     */
+    private static String xmlEncode(String value) {
+        StringBuilder result = new StringBuilder(value.length() + 10);
+        char currentChar;
+
+        for (int i = 0; i < value.length(); i++) {
+            currentChar = value.charAt(i);
+
+            switch (currentChar) {
+            case '&':
+                result.append("&amp;");
+                break;
+            case '<':
+                result.append("&lt;");
+                break;
+            case '>':
+                result.append("&gt;");
+                break;
+            case '\'':
+                result.append("&apos;");
+                break;
+            case '"':
+                result.append("&quot;");
+                break;
+            default:
+                result.append(currentChar);
+                break;
+            }
+        }
+
+        return result.toString();
+    }
+
     /** JdbcResult instance that gives access to the resultSet. */
     private volatile JdbcResult jdbcResult;
 
+    /** The page size or -1 if no limit is set, in streaming mode. */
+    private volatile int limit;
+
+    /** The result set to stream or null if a WebRowSet is used. */
+    private volatile ResultSet resultSet;
+
+    /** The start index of the page, in streaming mode. */
+    private volatile int start;
+
     /** Inner WebRowSet Instance. */
     private volatile WebRowSet webRowSet;
 
@@ -124,9 +177,38 @@ public class RowSetRepresentation extends WriterRepresentation {
      */
     public RowSetRepresentation(JdbcResult jdbcResult, int start, int limit)
             throws SQLException {
-        this(create((jdbcResult == null) ? null : jdbcResult.getResultSet(),
-                start, limit));
+        this(jdbcResult, start, limit, false);
+    }
+
+    /**
+     * Constructor with paging and optional streaming. In streaming mode, the
+     * rows are read from the result set while the representation is written
+     * and no WebRowSet is available.
+     * 
+     * @param jdbcResult
+     *            The inner JdbcResult.
+     * @param start
+     *            The start index of the page or 0 for the first result.
+     * @param limit
+     *            The page size or -1 if no limit is set.
+     * @param streaming
+     *            Indicates if the rows should be streamed.
+     * @throws SQLException
+     */
+    public RowSetRepresentation(JdbcResult jdbcResult, int start, int limit,
+            boolean streaming) throws SQLException {
+        super(MediaType.TEXT_XML);
         this.jdbcResult = jdbcResult;
+        ResultSet resultSet = (jdbcResult == null) ? null : jdbcResult
+                .getResultSet();
+
+        if (streaming && (resultSet != null)) {
+            this.resultSet = resultSet;
+            this.start = start;
+            this.limit = limit;
+        } else {
+            this.webRowSet = create(resultSet, start, limit);
+        }
     }
 
     /**
@@ -177,9 +259,76 @@ public class RowSetRepresentation extends WriterRepresentation {
     }
 
     /**
-     * Returns the inner WebRowSet instance.
+     * Returns the textual value of a column of the current row, formatted like
+     * the WebRowSet XML writer does.
+     * 
+     * @param resultSet
+     *            The result set positioned on the current row.
+     * @param column
+     *            The column index.
+     * @param type
+     *            The {@link Types} constant of the column.
+     * @return The textual value or null for SQL NULL.
+     * @throws SQLException
+     */
+    private String getValue(ResultSet resultSet, int column, int type)
+            throws SQLException {
+        String result = null;
+
+        switch (type) {
+        case Types.BIT:
+        case Types.BOOLEAN:
+            result = Boolean.toString(resultSet.getBoolean(column));
+            break;
+        case Types.TINYINT:
+        case Types.SMALLINT:
+            result = Short.toString(resultSet.getShort(column));
+            break;
+        case Types.INTEGER:
+            result = Integer.toString(resultSet.getInt(column));
+            break;
+        case Types.BIGINT:
+            result = Long.toString(resultSet.getLong(column));
+            break;
+        case Types.REAL:
+        case Types.FLOAT:
+            result = Float.toString(resultSet.getFloat(column));
+            break;
+        case Types.DOUBLE:
+            result = Double.toString(resultSet.getDouble(column));
+            break;
+        case Types.DATE:
+            java.sql.Date date = resultSet.getDate(column);
+            result = (date == null) ? null : Long.toString(date.getTime());
+            break;
+        case Types.TIME:
+            java.sql.Time time = resultSet.getTime(column);
+            result = (time == null) ? null : Long.toString(time.getTime());
+            break;
+        case Types.TIMESTAMP:
+            java.sql.Timestamp timestamp = resultSet.getTimestamp(column);
+            result = (timestamp == null) ? null : Long.toString(timestamp
+                    .getTime());
+            break;
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.LONGVARBINARY:
+            // Binary values aren't supported by the WebRowSet format
+            resultSet.getObject(column);
+            result = resultSet.wasNull() ? null : "";
+            break;
+        default:
+            result = resultSet.getString(column);
+            break;
+        }
+
+        return resultSet.wasNull() ? null : result;
+    }
+
+    /**
+     * Returns the inner WebRowSet instance or null in streaming mode.
      * 
-     * @return The inner WebRowSet instance.
+     * @return The inner WebRowSet instance or null in streaming mode.
      */
     public WebRowSet getWebRowSet() {
         return this.webRowSet;
@@ -188,7 +337,11 @@ public class RowSetRepresentation extends WriterRepresentation {
     @Override
     public void write(Writer writer) throws IOException {
         try {
-            this.webRowSet.writeXml(writer);
+            if (this.webRowSet != null) {
+                this.webRowSet.writeXml(writer);
+            } else {
+                writeXml(this.resultSet, writer);
+            }
         } catch (SQLException se) {
             throw new IOException(se.getMessage());
         }
@@ -214,4 +367,191 @@ public class RowSetRepresentation extends WriterRepresentation {
                             + se.getMessage());
         }
     }
+
+    /**
+     * Writes the metadata of a result set in the WebRowSet XML format.
+     * 
+     * @param metaData
+     *            The result set metadata.
+     * @param writer
+     *            The writer to use.
+     * @throws IOException
+     * @throws SQLException
+     */
+    private void writeMetaData(ResultSetMetaData metaData, Writer writer)
+            throws IOException, SQLException {
+        int columnCount = metaData.getColumnCount();
+        writer.write("  <metadata>\n");
+        writeTag("column-count", Integer.toString(columnCount), 4, writer);
+
+        for (int i = 1; i <= columnCount; i++) {
+            writer.write("    <column-definition>\n");
+            writeTag("column-index", Integer.toString(i), 6, writer);
+            writeTag("auto-increment",
+                    Boolean.toString(metaData.isAutoIncrement(i)), 6, writer);
+            writeTag("case-sensitive",
+                    Boolean.toString(metaData.isCaseSensitive(i)), 6, writer);
+            writeTag("currency", Boolean.toString(metaData.isCurrency(i)), 6,
+                    writer);
+            writeTag("nullable", Integer.toString(metaData.isNullable(i)), 6,
+                    writer);
+            writeTag("signed", Boolean.toString(metaData.isSigned(i)), 6,
+                    writer);
+            writeTag("searchable", Boolean.toString(metaData.isSearchable(i)),
+                    6, writer);
+            writeTag("column-display-size",
+                    Integer.toString(metaData.getColumnDisplaySize(i)), 6,
+                    writer);
+            writeTag("column-label", metaData.getColumnLabel(i), 6, writer);
+            writeTag("column-name", metaData.getColumnName(i), 6, writer);
+            writeTag("schema-name", metaData.getSchemaName(i), 6, writer);
+            writeTag("column-precision",
+                    Integer.toString(metaData.getPrecision(i)), 6, writer);
+            writeTag("column-scale", Integer.toString(metaData.getScale(i)),
+                    6, writer);
+            writeTag("table-name", metaData.getTableName(i), 6, writer);
+            writeTag("catalog-name", metaData.getCatalogName(i), 6, writer);
+            writeTag("column-type", Integer.toString(metaData.getColumnType(i)),
+                    6, writer);
+            writeTag("column-type-name", metaData.getColumnTypeName(i), 6,
+                    writer);
+            writer.write("    </column-definition>\n");
+        }
+
+        writer.write("  </metadata>\n");
+    }
+
+    /**
+     * Writes the properties of the streamed rows in the WebRowSet XML format.
+     * 
+     * @param writer
+     *            The writer to use.
+     * @throws IOException
+     */
+    private void writeProperties(Writer writer) throws IOException {
+        writer.write("  <properties>\n");
+        writeTag("command", null, 4, writer);
+        // Like populated WebRowSets, otherwise readers can't insert the rows
+        writeTag("concurrency", Integer.toString(ResultSet.CONCUR_UPDATABLE),
+                4, writer);
+        writeTag("datasource", null, 4, writer);
+        writeTag("escape-processing", "true", 4, writer);
+        writeTag("fetch-direction",
+                Integer.toString(ResultSet.FETCH_FORWARD), 4, writer);
+        writeTag("fetch-size", "0", 4, writer);
+        writeTag("isolation-level", "2", 4, writer);
+        writer.write("    <key-columns>\n    </key-columns>\n");
+        writer.write("    <map>\n    </map>\n");
+        writeTag("max-field-size", "0", 4, writer);
+        writeTag("max-rows",
+                Integer.toString((this.limit > -1) ? this.limit : 0), 4,
+                writer);
+        writeTag("query-timeout", "0", 4, writer);
+        writeTag("read-only", "true", 4, writer);
+        writeTag("rowset-type", "ResultSet.TYPE_SCROLL_INSENSITIVE", 4,
+                writer);
+        writeTag("show-deleted", "false", 4, writer);
+        writeTag("table-name", null, 4, writer);
+        writeTag("url", null, 4, writer);
+        writer.write("  </properties>\n");
+    }
+
+    /**
+     * Writes the rows of the current page in the WebRowSet XML format while
+     * iterating the result set.
+     * 
+     * @param resultSet
+     *            The result set to iterate.
+     * @param types
+     *            The {@link Types} constants of the columns.
+     * @param writer
+     *            The writer to use.
+     * @throws IOException
+     * @throws SQLException
+     */
+    private void writeRows(ResultSet resultSet, int[] types, Writer writer)
+            throws IOException, SQLException {
+        writer.write("  <data>\n");
+
+        // Skip the rows preceding the page
+        boolean hasNext = resultSet.next();
+        for (int i = 0; hasNext && (i < this.start); i++) {
+            hasNext = resultSet.next();
+        }
+
+        for (int count = 0; hasNext && ((this.limit < 0) || (count < this.limit)); count++) {
+            writer.write("    <currentRow>\n");
+
+            for (int i = 0; i < types.length; i++) {
+                writeTag("columnValue", getValue(resultSet, i + 1, types[i]),
+                        6, writer);
+            }
+
+            writer.write("    </currentRow>\n");
+
+            if ((this.limit < 0) || (count + 1 < this.limit)) {
+                hasNext = resultSet.next();
+            }
+        }
+
+        writer.write("  </data>\n");
+    }
+
+    /**
+     * Writes an XML element with a text value, the null value being written
+     * as a "null" empty element.
+     * 
+     * @param name
+     *            The element name.
+     * @param value
+     *            The text value or null.
+     * @param indent
+     *            The number of indentation spaces.
+     * @param writer
+     *            The writer to use.
+     * @throws IOException
+     */
+    private void writeTag(String name, String value, int indent, Writer writer)
+            throws IOException {
+        for (int i = 0; i < indent; i++) {
+            writer.write(' ');
+        }
+
+        writer.write('<');
+        writer.write(name);
+        writer.write('>');
+        writer.write((value == null) ? "<null/>" : xmlEncode(value));
+        writer.write("</");
+        writer.write(name);
+        writer.write(">\n");
+    }
+
+    /**
+     * Writes a result set in the WebRowSet XML format, iterating it row by row.
+     * 
+     * @param resultSet
+     *            The result set to write.
+     * @param writer
+     *            The writer to use.
+     * @throws IOException
+     * @throws SQLException
+     */
+    private void writeXml(ResultSet resultSet, Writer writer)
+            throws IOException, SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int[] types = new int[metaData.getColumnCount()];
+
+        for (int i = 0; i < types.length; i++) {
+            types[i] = metaData.getColumnType(i + 1);
+        }
+
+        writer.write("<?xml version=\"1.0\"?>\n");
+        writer.write("<webRowSet xmlns=\"http://java.sun.com/xml/ns/jdbc\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n");
+        writer.write("xsi:schemaLocation=\"http://java.sun.com/xml/ns/jdbc http://java.sun.com/xml/ns/jdbc/webrowset.xsd\">\n");
+        writeProperties(writer);
+        writeMetaData(metaData, writer);
+        writeRows(resultSet, types, writer);
+        writer.write("</webRowSet>\n");
+        writer.flush();
+    }
 }
@@ -59,7 +59,24 @@ public class ConnectionSource extends PoolingDataSource {
      *            The connection properties.
      */
     public ConnectionSource(String uri, Properties properties) {
-        super(JdbcClientHelper.createConnectionPool(uri, properties));
+        this(uri, properties, 0);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param uri
+     *            The connection URI.
+     * @param properties
+     *            The connection properties.
+     * @param maxPreparedStatements
+     *            The maximum number of prepared statements cached by each
+     *            pooled connection or 0 to disable the cache.
+     */
+    public ConnectionSource(String uri, Properties properties,
+            int maxPreparedStatements) {
+        super(JdbcClientHelper.createConnectionPool(uri, properties,
+                maxPreparedStatements));
         this.uri = uri;
         this.properties = properties;
     }
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jdbc.internal;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL statement of a JDBC request, with its optional positional parameters.
+ * 
+ * @author Jerome Louvel
+ */
+public class SqlStatement {
+
+    /**
+     * Returns the {@link Types} constant matching the given type name.
+     * 
+     * @param typeName
+     *            The type name, such as "INTEGER" or "VARCHAR".
+     * @return The matching {@link Types} constant.
+     * @throws IllegalArgumentException
+     *             If the type name is unknown.
+     */
+    public static int getSqlType(String typeName) {
+        try {
+            return Types.class.getField(typeName.trim().toUpperCase())
+                    .getInt(null);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Unknown SQL type: "
+                    + typeName);
+        }
+    }
+
+    /** The SQL text. */
+    private final String sql;
+
+    /** The parameter SQL types, null entries if unspecified. */
+    private final List<Integer> types;
+
+    /** The parameter values, null entries denoting SQL NULL. */
+    private final List<String> values;
+
+    /**
+     * Constructor.
+     * 
+     * @param sql
+     *            The SQL text.
+     */
+    public SqlStatement(String sql) {
+        this.sql = sql;
+        this.types = new ArrayList<Integer>();
+        this.values = new ArrayList<String>();
+    }
+
+    /**
+     * Adds a positional parameter.
+     * 
+     * @param value
+     *            The parameter value or null for SQL NULL.
+     * @param type
+     *            The {@link Types} constant of the parameter or null to bind
+     *            the value as a string.
+     */
+    public void addParameter(String value, Integer type) {
+        this.values.add(value);
+        this.types.add(type);
+    }
+
+    /**
+     * Binds the parameters to a prepared statement, clearing the values left
+     * by a previous execution.
+     * 
+     * @param statement
+     *            The prepared statement.
+     * @throws SQLException
+     */
+    public void bind(PreparedStatement statement) throws SQLException {
+        statement.clearParameters();
+
+        for (int i = 0; i < this.values.size(); i++) {
+            String value = this.values.get(i);
+            Integer type = this.types.get(i);
+
+            if (value == null) {
+                statement.setNull(i + 1, (type == null) ? Types.VARCHAR
+                        : type.intValue());
+            } else if (type == null) {
+                statement.setString(i + 1, value);
+            } else {
+                statement.setObject(i + 1, value, type.intValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the SQL text.
+     * 
+     * @return The SQL text.
+     */
+    public String getSql() {
+        return this.sql;
+    }
+
+    /**
+     * Indicates if positional parameters were added.
+     * 
+     * @return True if positional parameters were added.
+     */
+    public boolean hasParameters() {
+        return !this.values.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return this.sql;
+    }
+}
@@ -34,6 +34,7 @@
 package org.restlet.ext.jetty;
 
 import java.io.IOException;
+import java.util.logging.Level;
 
 import javax.servlet.ServletException;
 
@@ -41,7 +42,11 @@ import org.eclipse.jetty.server.AbstractConnector;
 import org.eclipse.jetty.server.HttpConnection;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.restlet.engine.Engine;
+import org.restlet.engine.adapter.HttpRequest;
+import org.restlet.engine.adapter.ServerCall;
 import org.restlet.ext.jetty.internal.JettyCall;
+import org.restlet.ext.jetty.internal.JettyResponse;
 
 /**
  * Abstract Jetty Web server connector. Here is the list of parameters that are
@@ -133,6 +138,16 @@ import org.restlet.ext.jetty.internal.JettyCall;
  * <td>The time (in ms) to wait for existing requests to complete before fully
  * stopping the server.</td>
  * </tr>
+ * <tr>
+ * <td>asyncTimeoutMs</td>
+ * <td>int</td>
+ * <td>30000</td>
+ * <td>Maximum time (in ms) to keep a Jetty request suspended while its
+ * response isn't committed. This happens when the response isn't auto
+ * committing, see {@link org.restlet.Response#setAutoCommitting(boolean)}.
+ * Once expired, a 503 (Service unavailable) status is sent. Note that only the
+ * non blocking connector (type 1) releases the Jetty thread meanwhile.</td>
+ * </tr>
  * </table>
  * 
  * @see <a href="http://jetty.mortbay.org/">Jetty home page</a>
@@ -170,6 +185,18 @@ public abstract class JettyServerHelper extends
             this.helper.handle(new JettyCall(this.helper.getHelped(),
                     connection));
         }
+
+        /**
+         * Handler method called by Jetty when a suspended request expires.
+         * 
+         * @param connection
+         *            The connection to handle.
+         */
+        @Override
+        public void handleAsync(HttpConnection connection) throws IOException,
+                ServletException {
+            JettyResponse.handleRedispatch(connection.getRequest());
+        }
     }
 
     /** The wrapped Jetty server. */
@@ -239,6 +266,17 @@ public abstract class JettyServerHelper extends
                 "acceptQueueSize", "0"));
     }
 
+    /**
+     * Returns the maximum time (in ms) to keep a Jetty request suspended while
+     * its response isn't committed.
+     * 
+     * @return The maximum time (in ms) to keep a Jetty request suspended.
+     */
+    public int getAsyncTimeoutMs() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "asyncTimeoutMs", "30000"));
+    }
+
     /**
      * Returns the time (in ms) to wait for existing requests to complete before
      * fully stopping the server.
@@ -377,6 +415,37 @@ public abstract class JettyServerHelper extends
         return this.wrappedServer;
     }
 
+    /**
+     * Handles a Jetty call. If the response isn't auto committing, the Jetty
+     * request is suspended until the response is committed.
+     * 
+     * @param httpCall
+     *            The Jetty call to handle.
+     */
+    @Override
+    public void handle(ServerCall httpCall) {
+        if (!(httpCall instanceof JettyCall)) {
+            super.handle(httpCall);
+            return;
+        }
+
+        try {
+            HttpRequest request = getAdapter().toRequest(httpCall);
+            JettyResponse response = new JettyResponse((JettyCall) httpCall,
+                    request, getAdapter());
+            handle(request, response);
+            response.handled(getAsyncTimeoutMs());
+        } catch (Exception e) {
+            getLogger().log(Level.WARNING,
+                    "Error while handling an HTTP server call: ",
+                    e.getMessage());
+            getLogger().log(Level.INFO,
+                    "Error while handling an HTTP server call", e);
+        } finally {
+            Engine.clearThreadLocalVariables();
+        }
+    }
+
     /**
      * Sets the wrapped Jetty server.
      * 
@@ -43,6 +43,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Level;
 
+import org.eclipse.jetty.continuation.Continuation;
 import org.eclipse.jetty.io.EofException;
 import org.eclipse.jetty.server.HttpConnection;
 import org.restlet.Response;
@@ -61,6 +62,9 @@ public class JettyCall extends ServerCall {
     /** The wrapped Jetty HTTP connection. */
     private final HttpConnection connection;
 
+    /** The continuation of the Jetty request, if it was suspended. */
+    private volatile Continuation continuation;
+
     /** Indicates if the request headers were parsed and added. */
     private volatile boolean requestHeadersAdded;
 
@@ -75,6 +79,7 @@ public class JettyCall extends ServerCall {
     public JettyCall(Server server, HttpConnection connection) {
         super(server);
         this.connection = connection;
+        this.continuation = null;
         this.requestHeadersAdded = false;
     }
 
@@ -106,6 +111,20 @@ public class JettyCall extends ServerCall {
         } catch (IOException ex) {
             getLogger().log(Level.FINE, "Unable to complete the response", ex);
         }
+
+        // Resume the suspended request so that Jetty can reuse the connection
+        Continuation continuation = this.continuation;
+
+        if (continuation != null) {
+            this.continuation = null;
+
+            try {
+                continuation.complete();
+            } catch (IllegalStateException ex) {
+                getLogger().log(Level.FINE,
+                        "Unable to complete the suspended request", ex);
+            }
+        }
     }
 
     @Override
@@ -313,4 +332,24 @@ public class JettyCall extends ServerCall {
         }
 
     }
+
+    /**
+     * Suspends the Jetty request until the response is committed, so that the
+     * current Jetty thread can be released. Note that with blocking Jetty
+     * connectors, the thread still waits for the response to be committed.
+     * 
+     * @param response
+     *            The response to commit later.
+     * @param timeout
+     *            The maximum time (in ms) to keep the request suspended.
+     */
+    public void suspend(JettyResponse response, long timeout) {
+        org.eclipse.jetty.server.Request request = getConnection()
+                .getRequest();
+        request.setAttribute(JettyResponse.class.getName(), response);
+        Continuation continuation = request.getAsyncContinuation();
+        continuation.setTimeout(timeout);
+        continuation.suspend();
+        this.continuation = continuation;
+    }
 }
@@ -117,6 +117,13 @@ public class JettyHandler extends AbstractHandler {
             ServletException {
         final Request baseRequest = (servletRequest instanceof Request) ? (Request) servletRequest
                 : HttpConnection.getCurrentConnection().getRequest();
+
+        if (!baseRequest.getAsyncContinuation().isInitial()) {
+            // The request was suspended and dispatched again
+            JettyResponse.handleRedispatch(baseRequest);
+            return;
+        }
+
         this.helper.handle(new JettyCall(this.helper.getHelped(),
                 HttpConnection.getCurrentConnection()));
         baseRequest.setHandled(true);
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jetty.internal;
+
+import java.io.IOException;
+import java.util.logging.Level;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.data.Status;
+import org.restlet.engine.adapter.HttpResponse;
+import org.restlet.engine.adapter.ServerAdapter;
+
+/**
+ * Response that is used by the Jetty HTTP server connectors. If it isn't auto
+ * committing once handled, the Jetty request is suspended using a Jetty
+ * continuation, so that no Jetty thread is held until {@link #commit()} is
+ * called.
+ * 
+ * @author Jerome Louvel
+ */
+public class JettyResponse extends HttpResponse {
+
+    /**
+     * Handles a suspended Jetty request dispatched again by Jetty, which only
+     * happens when its timeout expired since the request is never resumed.
+     * 
+     * @param request
+     *            The Jetty request.
+     */
+    public static void handleRedispatch(org.eclipse.jetty.server.Request request) {
+        Object response = request.getAttribute(JettyResponse.class.getName());
+
+        if ((response instanceof JettyResponse)
+                && request.getAsyncContinuation().isExpired()) {
+            ((JettyResponse) response).expire();
+        }
+
+        request.setHandled(true);
+    }
+
+    /** The adapter used to send the response. */
+    private final ServerAdapter adapter;
+
+    /**
+     * Constructor.
+     * 
+     * @param call
+     *            The Jetty call.
+     * @param request
+     *            The request to respond to.
+     * @param adapter
+     *            The adapter used to send the response.
+     */
+    public JettyResponse(JettyCall call, Request request, ServerAdapter adapter) {
+        super(call, request);
+        this.adapter = adapter;
+    }
+
+    /**
+     * Sends the response unless it was already committed, then resumes the
+     * Jetty request if it was suspended.
+     */
+    @Override
+    public void commit() {
+        synchronized (this) {
+            if (isCommitted()) {
+                return;
+            }
+
+            setCommitted(true);
+        }
+
+        this.adapter.commit(this);
+    }
+
+    /**
+     * Handles the expiration of the suspended Jetty request. If the response
+     * wasn't committed yet, a 503 (Service unavailable) status is sent instead
+     * and any later commit is ignored.
+     */
+    public void expire() {
+        synchronized (this) {
+            if (isCommitted()) {
+                return;
+            }
+
+            setCommitted(true);
+        }
+
+        Context.getCurrentLogger().fine(
+                "The response wasn't committed before the timeout expired");
+
+        try {
+            getJettyCall().getConnection().getResponse()
+                    .sendError(Status.SERVER_ERROR_SERVICE_UNAVAILABLE
+                            .getCode());
+        } catch (IOException e) {
+            Context.getCurrentLogger().log(Level.FINE,
+                    "Unable to send the expiration status", e);
+        }
+    }
+
+    /**
+     * Returns the Jetty call.
+     * 
+     * @return The Jetty call.
+     */
+    public JettyCall getJettyCall() {
+        return (JettyCall) getHttpCall();
+    }
+
+    /**
+     * Commits the response once it was handled, or suspends the Jetty request
+     * if the response isn't auto committing and wasn't committed yet.
+     * 
+     * @param timeout
+     *            The maximum time (in ms) to keep the Jetty request suspended.
+     */
+    public void handled(long timeout) {
+        synchronized (this) {
+            if (isCommitted()) {
+                return;
+            }
+
+            if (!isAutoCommitting()) {
+                getJettyCall().suspend(this, timeout);
+                return;
+            }
+        }
+
+        commit();
+    }
+}
@@ -151,4 +151,14 @@ public abstract class ClientStore<G extends TokenGenerator> {
         return generator;
     }
 
+    /**
+     * Stops the client store and its token generator. To be called when the
+     * store is no longer used, typically when the application stops. For the
+     * store created by {@link ClientStoreFactory}, call
+     * {@link ClientStoreFactory#stop()} instead.
+     */
+    public void stop() {
+        generator.stop();
+    }
+
 }
@@ -123,6 +123,20 @@ public abstract class ClientStoreFactory {
         return store;
     }
 
+    /**
+     * Stops the client store created by {@link #getInstance()}, if any, and
+     * forgets it so that the next call creates a new one. To be called by the
+     * application using the store when it stops, typically from its
+     * {@link org.restlet.Application#stop()} method, so that the expiry task of
+     * the token generator is cancelled.
+     */
+    public synchronized static void stop() {
+        if (store != null) {
+            store.stop();
+            store = null;
+        }
+    }
+
     /**
      * This method sets up if the implementing class uses a no-arg public
      * constructor
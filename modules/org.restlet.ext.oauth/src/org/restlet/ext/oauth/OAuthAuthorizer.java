@@ -36,6 +36,8 @@ package org.restlet.ext.oauth;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -131,6 +133,9 @@ public class OAuthAuthorizer extends RoleAuthorizer {
     
     public static String DEFAULT_ROLE_ATTRIBUTE = "oauth-roles";
     private final String roleAttribute;
+
+    /** The optional cache of validation responses. */
+    private volatile TokenValidationCache validationCache;
     
 
     /**
@@ -271,29 +276,25 @@ public class OAuthAuthorizer extends RoleAuthorizer {
             resp.setStatus(Status.CLIENT_ERROR_BAD_REQUEST);
         } else {
             getLogger().fine("Found Access Token " + accessToken);
-            ClientResource authResource = new CookieCopyClientResource(
-                    this.validateRef);
-            if (this.client != null) {
-                authResource.setNext(this.client);
-            }
 
-            JSONObject request;
             try {
-                request = createValidationRequest(accessToken, req);
-                // Representation repr = new JsonRepresentation(request);
-                Representation repr = new JsonStringRepresentation(request);
-                getLogger().fine("Posting to validator... json = " + request);
-                // RETRIEVE JSON...WORKAROUND TO HANDLE ANDROID
-                Representation r = authResource.post(repr);
-                getLogger().fine("After posting to validator...");
-                repr.release();
-                getLogger().fine(
-                        "Got Respose from auth resource OK "
-                                + r.getClass().getCanonicalName());
-                JsonRepresentation returned = new JsonRepresentation(r);
-
-                // GET OBJECT
-                JSONObject response = returned.getJsonObject();
+                final JSONObject request = createValidationRequest(
+                        accessToken, req);
+                TokenValidationCache cache = getValidationCache();
+                JSONObject response;
+
+                if (cache == null) {
+                    response = validate(request);
+                } else {
+                    response = cache.validate(
+                            TokenValidationCache.getKey(accessToken, request),
+                            new Callable<JSONObject>() {
+                                public JSONObject call() throws Exception {
+                                    return validate(request);
+                                }
+                            });
+                }
+
                 boolean authenticated = response.getBoolean("authenticated");
 
                 if (response.has("tokenOwner")) {
@@ -307,11 +308,6 @@ public class OAuthAuthorizer extends RoleAuthorizer {
 
                 getLogger().fine("In Auth Filer -> " + authenticated);
 
-                // Clean-up
-                returned.release();
-                r.release();
-                authResource.release();
-
                 if (authenticated) {
                     return true;
                 }
@@ -325,11 +321,11 @@ public class OAuthAuthorizer extends RoleAuthorizer {
             } catch (IOException e) {
                 // TODO Auto-generated catch block
                 e.printStackTrace();
-            } finally {
-                if (authResource != null) {
-                    authResource.getResponse().release();
-                    authResource.release();
-                }
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                getLogger().log(Level.WARNING,
+                        "Unable to validate the access token", e);
             }
         }
 
@@ -392,6 +388,70 @@ public class OAuthAuthorizer extends RoleAuthorizer {
         return request;
     }
 
+    /**
+     * Returns the optional cache of validation responses.
+     * 
+     * @return The cache of validation responses or null.
+     */
+    public TokenValidationCache getValidationCache() {
+        return validationCache;
+    }
+
+    /**
+     * Sets the optional cache of validation responses. By default, there is
+     * no cache and each request is validated by the validation resource.
+     * 
+     * @param validationCache
+     *            The cache of validation responses or null.
+     */
+    public void setValidationCache(TokenValidationCache validationCache) {
+        this.validationCache = validationCache;
+    }
+
+    /**
+     * Posts a validation request to the validation resource and returns its
+     * response.
+     * 
+     * @param request
+     *            The validation request.
+     * @return The validation response.
+     * @throws JSONException
+     * @throws IOException
+     */
+    private JSONObject validate(JSONObject request)
+            throws JSONException, IOException {
+        ClientResource authResource = new CookieCopyClientResource(
+                this.validateRef);
+        if (this.client != null) {
+            authResource.setNext(this.client);
+        }
+
+        try {
+            // Representation repr = new JsonRepresentation(request);
+            Representation repr = new JsonStringRepresentation(request);
+            getLogger().fine("Posting to validator... json = " + request);
+            // RETRIEVE JSON...WORKAROUND TO HANDLE ANDROID
+            Representation r = authResource.post(repr);
+            getLogger().fine("After posting to validator...");
+            repr.release();
+            getLogger().fine(
+                    "Got Respose from auth resource OK "
+                            + r.getClass().getCanonicalName());
+            JsonRepresentation returned = new JsonRepresentation(r);
+
+            // GET OBJECT
+            JSONObject response = returned.getJsonObject();
+
+            // Clean-up
+            returned.release();
+            r.release();
+            return response;
+        } finally {
+            authResource.getResponse().release();
+            authResource.release();
+        }
+    }
+
     /**
      * Returns the access token taken from a given request.
      * 
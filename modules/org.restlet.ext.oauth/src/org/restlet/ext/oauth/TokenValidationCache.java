@@ -0,0 +1,388 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.oauth;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Bounded cache of the token validation responses returned by the validation
+ * resource to an {@link OAuthAuthorizer}. The entries are keyed by access
+ * token, requested scopes and owner.<br>
+ * <br>
+ * A positive response is kept at most during {@link #getMaxAgeSec()} seconds,
+ * and never beyond the "expires_in" delay returned by the validation resource.
+ * A negative response is kept during {@link #getNegativeMaxAgeSec()} seconds.
+ * Concurrent validations of the same key are coalesced into a single call to
+ * the validation resource. When the cache is full, the oldest validations are
+ * evicted first.<br>
+ * <br>
+ * Note that a revoked token may still be accepted until its cached response
+ * expires.
+ * 
+ * @author Jerome Louvel
+ * @see OAuthAuthorizer#setValidationCache(TokenValidationCache)
+ */
+public class TokenValidationCache {
+
+    /**
+     * Cached validation, pending until the validation call completes.
+     */
+    private static final class Entry {
+
+        /** The expiration time in milliseconds, set once validated. */
+        private volatile long expirationTime;
+
+        /** The validation key. */
+        private final String key;
+
+        /** The pending or completed validation. */
+        private final FutureTask<JSONObject> task;
+
+        /**
+         * Constructor.
+         * 
+         * @param key
+         *            The validation key.
+         * @param validation
+         *            The validation call.
+         */
+        private Entry(String key, Callable<JSONObject> validation) {
+            this.expirationTime = Long.MAX_VALUE;
+            this.key = key;
+            this.task = new FutureTask<JSONObject>(validation);
+        }
+    }
+
+    /**
+     * Returns the validation key of a given access token, scopes and owner.
+     * 
+     * @param accessToken
+     *            The access token.
+     * @param request
+     *            The validation request, with the optional "scope" and "owner"
+     *            properties.
+     * @return The validation key.
+     * @throws JSONException
+     */
+    public static String getKey(String accessToken, JSONObject request)
+            throws JSONException {
+        StringBuilder sb = new StringBuilder(accessToken);
+        sb.append('\n');
+
+        if (request.has("scope")) {
+            sb.append(request.get("scope"));
+        }
+
+        sb.append('\n');
+
+        if (request.has("owner")) {
+            sb.append(request.getString("owner"));
+        }
+
+        return sb.toString();
+    }
+
+    /** The cached validations. */
+    private final ConcurrentMap<String, Entry> entries;
+
+    /** The cached validations in insertion order. */
+    private final Queue<Entry> entryQueue;
+
+    /** The number of validations answered by the cache. */
+    private final AtomicLong hitCount;
+
+    /** The maximum age of positive responses in seconds. */
+    private volatile int maxAgeSec;
+
+    /** The maximum number of cached validations. */
+    private volatile int maxSize;
+
+    /** The number of validations delegated to the validation resource. */
+    private final AtomicLong missCount;
+
+    /** The maximum age of negative responses in seconds. */
+    private volatile int negativeMaxAgeSec;
+
+    /**
+     * Constructor. Positive responses are kept 60 seconds, negative ones 5
+     * seconds, and at most 10 000 validations are cached.
+     */
+    public TokenValidationCache() {
+        this(10000, 60, 5);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            The maximum number of cached validations.
+     * @param maxAgeSec
+     *            The maximum age of positive responses in seconds.
+     * @param negativeMaxAgeSec
+     *            The maximum age of negative responses in seconds.
+     */
+    public TokenValidationCache(int maxSize, int maxAgeSec,
+            int negativeMaxAgeSec) {
+        this.entries = new ConcurrentHashMap<String, Entry>();
+        this.entryQueue = new ConcurrentLinkedQueue<Entry>();
+        this.hitCount = new AtomicLong();
+        this.missCount = new AtomicLong();
+        this.maxSize = maxSize;
+        this.maxAgeSec = maxAgeSec;
+        this.negativeMaxAgeSec = negativeMaxAgeSec;
+    }
+
+    /**
+     * Removes all the cached validations.
+     */
+    public void clear() {
+        this.entries.clear();
+        this.entryQueue.clear();
+    }
+
+    /**
+     * Returns the expiration time of a validation response.
+     * 
+     * @param response
+     *            The validation response.
+     * @param now
+     *            The current time in milliseconds.
+     * @return The expiration time in milliseconds.
+     */
+    protected long getExpirationTime(JSONObject response, long now) {
+        long maxAge;
+
+        if (response.optBoolean("authenticated", false)) {
+            maxAge = getMaxAgeSec();
+
+            if (response.has("expires_in")) {
+                maxAge = Math.min(maxAge, response.optLong("expires_in", 0L));
+            }
+        } else {
+            maxAge = getNegativeMaxAgeSec();
+        }
+
+        return now + (maxAge * 1000L);
+    }
+
+    /**
+     * Returns the number of validations answered by the cache, including the
+     * ones coalesced with a pending validation.
+     * 
+     * @return The number of cache hits.
+     */
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    /**
+     * Returns the ratio of validations answered by the cache.
+     * 
+     * @return The ratio of cache hits, between 0 and 1.
+     */
+    public double getHitRatio() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return (total == 0) ? 0D : (double) hits / total;
+    }
+
+    /**
+     * Returns the maximum age of positive responses in seconds.
+     * 
+     * @return The maximum age of positive responses in seconds.
+     */
+    public int getMaxAgeSec() {
+        return maxAgeSec;
+    }
+
+    /**
+     * Returns the maximum number of cached validations.
+     * 
+     * @return The maximum number of cached validations.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of validations delegated to the validation resource.
+     * 
+     * @return The number of cache misses.
+     */
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    /**
+     * Returns the maximum age of negative responses in seconds.
+     * 
+     * @return The maximum age of negative responses in seconds.
+     */
+    public int getNegativeMaxAgeSec() {
+        return negativeMaxAgeSec;
+    }
+
+    /**
+     * Returns the number of cached validations.
+     * 
+     * @return The number of cached validations.
+     */
+    public int getSize() {
+        return this.entries.size();
+    }
+
+    /**
+     * Removes the oldest validations while they are expired, no longer cached
+     * or while the cache is larger than its maximum size. The validations are
+     * visited in insertion order, so the cache is never scanned as a whole.
+     * 
+     * @param now
+     *            The current time in milliseconds.
+     */
+    protected void purge(long now) {
+        for (Entry oldest = this.entryQueue.peek(); oldest != null; oldest = this.entryQueue
+                .peek()) {
+            if ((this.entries.get(oldest.key) == oldest)
+                    && (oldest.expirationTime > now)
+                    && (this.entries.size() <= getMaxSize())) {
+                break;
+            }
+
+            if (this.entryQueue.remove(oldest)) {
+                this.entries.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum age of positive responses in seconds.
+     * 
+     * @param maxAgeSec
+     *            The maximum age of positive responses in seconds.
+     */
+    public void setMaxAgeSec(int maxAgeSec) {
+        this.maxAgeSec = maxAgeSec;
+    }
+
+    /**
+     * Sets the maximum number of cached validations.
+     * 
+     * @param maxSize
+     *            The maximum number of cached validations.
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Sets the maximum age of negative responses in seconds.
+     * 
+     * @param negativeMaxAgeSec
+     *            The maximum age of negative responses in seconds.
+     */
+    public void setNegativeMaxAgeSec(int negativeMaxAgeSec) {
+        this.negativeMaxAgeSec = negativeMaxAgeSec;
+    }
+
+    /**
+     * Returns the validation response of a given key, either from the cache,
+     * from a concurrent validation of the same key, or by calling the given
+     * validation. Failed validations aren't cached.
+     * 
+     * @param key
+     *            The validation key.
+     * @param validation
+     *            The validation call.
+     * @return The validation response.
+     * @throws Exception
+     *             If the validation failed.
+     */
+    public JSONObject validate(String key, Callable<JSONObject> validation)
+            throws Exception {
+        long now = System.currentTimeMillis();
+        Entry entry = this.entries.get(key);
+
+        if ((entry != null) && (entry.expirationTime <= now)) {
+            this.entries.remove(key, entry);
+            entry = null;
+        }
+
+        if (entry != null) {
+            this.hitCount.incrementAndGet();
+        } else {
+            Entry created = new Entry(key, validation);
+            entry = this.entries.putIfAbsent(key, created);
+
+            if (entry == null) {
+                entry = created;
+                this.missCount.incrementAndGet();
+                this.entryQueue.add(entry);
+                purge(now);
+                entry.task.run();
+            } else {
+                this.hitCount.incrementAndGet();
+            }
+        }
+
+        try {
+            JSONObject result = entry.task.get();
+
+            if (entry.expirationTime == Long.MAX_VALUE) {
+                entry.expirationTime = getExpirationTime(result,
+                        System.currentTimeMillis());
+            }
+
+            return result;
+        } catch (ExecutionException e) {
+            this.entries.remove(key, entry);
+
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+}
@@ -201,6 +201,14 @@ public class ValidationServerResource extends OAuthServerResource {
                 getResponse().setCacheDirectives(noStore);
                 getResponse().setCacheDirectives(noCache);
                 // response.put("expires", t.getToken());
+
+                if (authenticated && (t instanceof ExpireToken)) {
+                    // Bounds the time validating clients may cache the
+                    // response
+                    response.put("expires_in", Math.min(
+                            ((ExpireToken) t).getExpirePeriod(),
+                            this.generator.expiresInSec(t)));
+                }
             }
         } catch (JSONException e) {
             throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST,
@@ -57,6 +57,8 @@ public class ExpireToken extends Token {
 
     private volatile ScheduledFuture<?> future; // can be used to clean up
 
+    private volatile long expirationTime; // in milliseconds, 0 if unknown
+
     public ExpireToken(String refreshToken, long expTimeSec, String token,
             AuthenticatedUser user) {
         this.refreshToken = refreshToken;
@@ -73,6 +75,26 @@ public class ExpireToken extends Token {
         return future;
     }
 
+    /**
+     * Returns the time when the current token expires, in milliseconds since
+     * the epoch, or 0 if it isn't tracked by the token generator.
+     * 
+     * @return The expiration time in milliseconds.
+     */
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+
+    /**
+     * Sets the time when the current token expires.
+     * 
+     * @param expirationTime
+     *            The expiration time in milliseconds since the epoch.
+     */
+    public void setExpirationTime(long expirationTime) {
+        this.expirationTime = expirationTime;
+    }
+
     public long getExpirePeriod() {
         return expireTime;
     }
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.oauth.internal;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Bucketed expiry wheel tracking the deadlines of a large number of elements.
+ * The time is divided in ticks of a fixed duration and each element is added
+ * to the bucket of the tick of its deadline. Scheduling an element is done in
+ * constant time, and expiring the elements only visits the buckets of the
+ * elapsed ticks. There is no cancellation: the owner is expected to check if
+ * an expired element is still current, for example after a refresh.<br>
+ * <br>
+ * Concurrency note: instances of this class are thread-safe.
+ * 
+ * @author Jerome Louvel
+ * @param <E>
+ *            The type of tracked elements.
+ */
+public class ExpiryWheel<E> {
+
+    /** The buckets of elements with their deadline, indexed by tick. */
+    private final ConcurrentNavigableMap<Long, ConcurrentMap<E, Long>> buckets;
+
+    /** The duration of a tick in milliseconds. */
+    private final long tickDuration;
+
+    /**
+     * Constructor.
+     * 
+     * @param tickDuration
+     *            The duration of a tick in milliseconds.
+     */
+    public ExpiryWheel(long tickDuration) {
+        this.buckets = new ConcurrentSkipListMap<Long, ConcurrentMap<E, Long>>();
+        this.tickDuration = Math.max(1L, tickDuration);
+    }
+
+    /**
+     * Removes the elements whose deadline has been reached and adds them to a
+     * given collection.
+     * 
+     * @param now
+     *            The current time in milliseconds.
+     * @param expired
+     *            The collection to update with the expired elements.
+     */
+    public void expire(long now, Collection<E> expired) {
+        Long currentTick = Long.valueOf(now / this.tickDuration);
+
+        for (Map.Entry<Long, ConcurrentMap<E, Long>> bucket : this.buckets
+                .headMap(currentTick, true).entrySet()) {
+            for (Iterator<Map.Entry<E, Long>> iter = bucket.getValue()
+                    .entrySet().iterator(); iter.hasNext();) {
+                Map.Entry<E, Long> entry = iter.next();
+
+                if (entry.getValue().longValue() <= now) {
+                    iter.remove();
+                    expired.add(entry.getKey());
+                }
+            }
+
+            if (bucket.getValue().isEmpty()
+                    && this.buckets.remove(bucket.getKey(), bucket.getValue())) {
+                // Reschedule the elements added while dropping the bucket
+                for (Map.Entry<E, Long> entry : bucket.getValue().entrySet()) {
+                    bucket.getValue().remove(entry.getKey());
+                    schedule(entry.getKey(), entry.getValue().longValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Indicates if no element is scheduled.
+     * 
+     * @return True if no element is scheduled.
+     */
+    public boolean isEmpty() {
+        return this.buckets.isEmpty();
+    }
+
+    /**
+     * Schedules an element. Scheduling the same element again with another
+     * deadline doesn't remove the previous one, so the element can be
+     * expired several times.
+     * 
+     * @param element
+     *            The element to schedule.
+     * @param deadline
+     *            The deadline in milliseconds.
+     */
+    public void schedule(E element, long deadline) {
+        Long tick = Long.valueOf(deadline / this.tickDuration);
+        ConcurrentMap<E, Long> bucket;
+
+        do {
+            bucket = this.buckets.get(tick);
+
+            if (bucket == null) {
+                bucket = new ConcurrentHashMap<E, Long>();
+                ConcurrentMap<E, Long> current = this.buckets.putIfAbsent(
+                        tick, bucket);
+
+                if (current != null) {
+                    bucket = current;
+                }
+            }
+
+            bucket.put(element, Long.valueOf(deadline));
+
+            // Retry if the bucket was concurrently expired and dropped
+        } while (this.buckets.get(tick) != bucket);
+    }
+
+    /**
+     * Returns the number of scheduled elements. This method visits every
+     * bucket and is intended for monitoring only.
+     * 
+     * @return The number of scheduled elements.
+     */
+    public int size() {
+        int result = 0;
+
+        for (ConcurrentMap<E, Long> bucket : this.buckets.values()) {
+            result += bucket.size();
+        }
+
+        return result;
+    }
+
+}
@@ -52,12 +52,28 @@ public class MemClientStore extends ClientStore<MemTokenGenerator> {
 
     private final Map<String, Client> clients = new ConcurrentHashMap<String, Client>();
 
+    /** The executor created by the store, shut down when it stops. */
+    private final ScheduledThreadPoolExecutor ownedExecutor;
+
     public MemClientStore() {
-        super(new MemTokenGenerator(new ScheduledThreadPoolExecutor(5)));
+        this(new ScheduledThreadPoolExecutor(5), true);
     }
 
     public MemClientStore(ScheduledThreadPoolExecutor executor) {
+        this(executor, false);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param executor
+     *            The executor sweeping the expired tokens.
+     * @param owned
+     *            True if the executor must be shut down when the store stops.
+     */
+    private MemClientStore(ScheduledThreadPoolExecutor executor, boolean owned) {
         super(new MemTokenGenerator(executor));
+        this.ownedExecutor = owned ? executor : null;
     }
 
     public Client createClient(String clientId, String redirectUri) {
@@ -88,4 +104,18 @@ public class MemClientStore extends ClientStore<MemTokenGenerator> {
         }
         return result;
     }
+
+    /**
+     * Stops the token generator, and shuts down the executor if it was created
+     * by the store.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
 }
@@ -33,17 +33,33 @@
 
 package org.restlet.ext.oauth.internal;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.restlet.ext.oauth.AuthenticatedUser;
 
 /**
  * TokenGenerator implementation that keeps tokens in memory. Note that tokens
- * generated will not be persisted after a JVM restart.
+ * generated will not be persisted after a JVM restart.<br>
+ * <br>
+ * Codes and expiring tokens are tracked in buckets of one second by an
+ * {@link ExpiryWheel} that is swept every second by a single task of the
+ * given executor, until the generator is stopped. Expired tokens are also
+ * detected when they are looked up. The number of pending codes and stored
+ * tokens can be capped. When the token store is full, the refresh tokens whose
+ * access token has expired are evicted first.<br>
+ * <br>
+ * The owner of the generator must call {@link #stop()} once done with it.
+ * For a generator held by the client store of the
+ * {@link org.restlet.ext.oauth.ClientStoreFactory}, this is done by calling
+ * its stop() method when the application stops.
  * 
  * @author Kristoffer Gronowski
  */
@@ -54,14 +70,44 @@ public class MemTokenGenerator extends TokenGenerator {
     // Used only to store tokens
     private final Map<String, Token> tokenStore = new ConcurrentHashMap<String, Token>();
 
+    private final ExpiryWheel<String> codeExpiry = new ExpiryWheel<String>(1000);
+
+    private final ExpiryWheel<ExpireToken> tokenExpiry = new ExpiryWheel<ExpireToken>(
+            1000);
+
+    private final AtomicLong expiredCodes = new AtomicLong();
+
+    private final AtomicLong expiredTokens = new AtomicLong();
+
+    private final AtomicLong evictedTokens = new AtomicLong();
+
+    private volatile long maxCodeTimeSec = 600;
+
+    private volatile int maxCodes = Integer.MAX_VALUE;
+
+    private volatile int maxTokens = Integer.MAX_VALUE;
+
     private final ScheduledThreadPoolExecutor timers;
 
+    private final ScheduledFuture<?> sweepTask;
+
     public MemTokenGenerator(ScheduledThreadPoolExecutor executor) {
         timers = executor;
+        sweepTask = timers.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                sweep();
+            }
+        }, 1, 1, TimeUnit.SECONDS);
     }
 
     @Override
     public String generateCode(AuthenticatedUser user) {
+        if (codeStore.size() >= maxCodes) {
+            sweep();
+            if (codeStore.size() >= maxCodes)
+                throw new IllegalStateException("Too many pending codes");
+        }
+
         String code = super.generateCode(user);
 
         // Store the code for later use
@@ -71,19 +117,25 @@ public class MemTokenGenerator extends TokenGenerator {
         if (oldValue != null)
             oldValue.setCode(code);
 
+        codeExpiry.schedule(code, System.currentTimeMillis() + maxCodeTimeSec
+                * 1000L);
         return code;
     }
 
     @Override
     public Token generateToken(AuthenticatedUser user, long expire) {
+        if (tokenStore.size() >= maxTokens) {
+            evictTokens();
+        }
+
         Token t = super.generateToken(user, expire);
-        if (expire != Token.UNLIMITED) {
+        if (t instanceof ExpireToken) {
             ExpireToken et = (ExpireToken) t;
             // RefreshToken is stored twice for faster lookup
             // One key is the token while the other the refreshToken
             tokenStore.put(et.getRefreshToken(), et);
             // Add Token to timeout mechanism
-            scheduleCleanup(et, expire);
+            scheduleCleanup(et);
         }
 
         tokenStore.put(t.getToken(), t);
@@ -125,31 +177,207 @@ public class MemTokenGenerator extends TokenGenerator {
 
     @Override
     public Token findToken(String token) {
-        return tokenStore.get(token);
+        Token t = tokenStore.get(token);
+
+        if (t instanceof ExpireToken) {
+            ExpireToken et = (ExpireToken) t;
+
+            // Lazily expire the token if the sweep hasn't done it yet
+            if (token.equals(et.getToken())
+                    && expire(et, System.currentTimeMillis())) {
+                t = null;
+            }
+        }
+
+        return t;
     }
 
     @Override
     public void refreshToken(ExpireToken token) {
-        super.refreshToken(token);
+        synchronized (token) {
+            super.refreshToken(token);
 
-        scheduleCleanup(token, token.getExpirePeriod());
-        // Store the new generated token in DB
-        tokenStore.put(token.getToken(), token);
+            scheduleCleanup(token);
+            // Store the new generated token in DB
+            tokenStore.put(token.getToken(), token);
+        }
     }
 
-    private void scheduleCleanup(final ExpireToken et, long expire) {
-        Runnable r = new Runnable() {
-            public void run() {
-                String token = et.getToken();
-                // Remove the binding
-                tokenStore.remove(token);
-                // Set the token to null until refreshed
-                et.expireToken();
+    /**
+     * Cancels the sweep task and removes it from the executor.
+     */
+    @Override
+    public void stop() {
+        sweepTask.cancel(false);
+        timers.purge();
+    }
+
+    /**
+     * Removes the codes and the tokens whose lifetime has elapsed. Called
+     * every second by the executor given to the constructor.
+     */
+    public void sweep() {
+        long now = System.currentTimeMillis();
+
+        List<String> codes = new ArrayList<String>();
+        codeExpiry.expire(now, codes);
+        for (String code : codes) {
+            if (codeStore.remove(code) != null)
+                expiredCodes.incrementAndGet();
+        }
+
+        List<ExpireToken> tokens = new ArrayList<ExpireToken>();
+        tokenExpiry.expire(now, tokens);
+        for (ExpireToken et : tokens) {
+            expire(et, now);
+        }
+    }
 
+    /**
+     * Returns the number of pending codes.
+     * 
+     * @return The number of pending codes.
+     */
+    public int getCodeCount() {
+        return codeStore.size();
+    }
+
+    /**
+     * Returns the number of refresh tokens evicted because the token store was
+     * full.
+     * 
+     * @return The number of evicted refresh tokens.
+     */
+    public long getEvictedTokenCount() {
+        return evictedTokens.get();
+    }
+
+    /**
+     * Returns the number of codes that expired before being exchanged.
+     * 
+     * @return The number of expired codes.
+     */
+    public long getExpiredCodeCount() {
+        return expiredCodes.get();
+    }
+
+    /**
+     * Returns the number of access tokens that expired.
+     * 
+     * @return The number of expired access tokens.
+     */
+    public long getExpiredTokenCount() {
+        return expiredTokens.get();
+    }
+
+    /**
+     * Returns the number of seconds a code can be exchanged for a token.
+     * 
+     * @return The lifetime of codes in seconds.
+     */
+    public long getMaxCodeTime() {
+        return maxCodeTimeSec;
+    }
+
+    /**
+     * Returns the maximum number of pending codes.
+     * 
+     * @return The maximum number of pending codes.
+     */
+    public int getMaxCodes() {
+        return maxCodes;
+    }
+
+    /**
+     * Returns the maximum number of entries in the token store.
+     * 
+     * @return The maximum number of entries in the token store.
+     */
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    /**
+     * Returns the number of entries in the token store. Expiring tokens have
+     * one entry for the access token and one for the refresh token.
+     * 
+     * @return The number of entries in the token store.
+     */
+    public int getTokenCount() {
+        return tokenStore.size();
+    }
+
+    /**
+     * 
+     * @param maxCodeTimeSec
+     *            number of seconds a code can be exchanged for a token.
+     *            Default value is 600.
+     */
+    public void setMaxCodeTime(long maxCodeTimeSec) {
+        this.maxCodeTimeSec = maxCodeTimeSec;
+    }
+
+    /**
+     * 
+     * @param maxCodes
+     *            maximum number of pending codes, further codes are refused
+     *            with an {@link IllegalStateException}. Unlimited by default.
+     */
+    public void setMaxCodes(int maxCodes) {
+        this.maxCodes = maxCodes;
+    }
+
+    /**
+     * 
+     * @param maxTokens
+     *            maximum number of entries in the token store, further tokens
+     *            are refused with an {@link IllegalStateException} when no
+     *            expired session can be evicted. Unlimited by default.
+     */
+    public void setMaxTokens(int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    private void evictTokens() {
+        sweep();
+
+        // Evict a batch of refresh tokens whose access token has expired
+        int batch = maxTokens / 16 + 1;
+        for (Iterator<Token> iter = tokenStore.values().iterator(); iter
+                .hasNext() && batch > 0;) {
+            Token t = iter.next();
+            if (t instanceof ExpireToken && t.getToken() == null) {
+                iter.remove();
+                evictedTokens.incrementAndGet();
+                batch--;
             }
-        };
-        ScheduledFuture<?> future = timers
-                .schedule(r, expire, TimeUnit.SECONDS);
-        et.setFuture(future);
+        }
+
+        if (tokenStore.size() >= maxTokens)
+            throw new IllegalStateException("The token store is full");
+    }
+
+    private boolean expire(ExpireToken et, long now) {
+        synchronized (et) {
+            String token = et.getToken();
+            // Skip tokens already expired or refreshed since
+            if (token == null || et.getExpirationTime() == 0
+                    || et.getExpirationTime() > now)
+                return false;
+            // Remove the binding
+            tokenStore.remove(token);
+            // Set the token to null until refreshed
+            et.expireToken();
+        }
+
+        expiredTokens.incrementAndGet();
+        return true;
+    }
+
+    private void scheduleCleanup(ExpireToken et) {
+        long deadline = System.currentTimeMillis() + et.getExpirePeriod()
+                * 1000L;
+        et.setExpirationTime(deadline);
+        tokenExpiry.schedule(et, deadline);
     }
 }
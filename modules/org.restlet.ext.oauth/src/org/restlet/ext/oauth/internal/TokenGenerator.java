@@ -125,6 +125,10 @@ public abstract class TokenGenerator {
     public long expiresInSec(Token token) {
         if (token instanceof ExpireToken) {
             ExpireToken et = (ExpireToken) token;
+            long expirationTime = et.getExpirationTime();
+            if (expirationTime > 0)
+                return Math.max(0L,
+                        (expirationTime - System.currentTimeMillis()) / 1000L);
             ScheduledFuture<?> sf = et.getFuture();
             if (sf != null)
                 return sf.getDelay(TimeUnit.SECONDS);
@@ -141,6 +145,13 @@ public abstract class TokenGenerator {
         this.maxTokenTimeSec = maxTokenTimeSec;
     }
 
+    /**
+     * Stops the generator and cancels its background tasks, if any. Does
+     * nothing by default.
+     */
+    public void stop() {
+    }
+
     /**
      * Refreshes a token throwing away the old one and generating a new
      * 
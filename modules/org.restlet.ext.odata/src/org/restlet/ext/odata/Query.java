@@ -49,6 +49,7 @@ import org.restlet.ext.atom.Link;
 import org.restlet.ext.atom.Relation;
 import org.restlet.ext.odata.internal.EntryContentHandler;
 import org.restlet.ext.odata.internal.FeedContentHandler;
+import org.restlet.ext.odata.internal.StreamingEntryIterator;
 import org.restlet.ext.odata.internal.edm.EntityType;
 import org.restlet.ext.odata.internal.edm.Metadata;
 import org.restlet.representation.Representation;
@@ -205,12 +206,21 @@ public class Query<T> implements Iterable<T> {
     /** The reference to the next page (used in server-paging mode). */
     private Reference nextPage;
 
+    /** Is the next page prefetched in streaming mode? */
+    private boolean prefetch;
+
     /** The query string. */
     private String query;
 
     /** The parent client service. */
     private Service service;
 
+    /**
+     * The maximum number of entities buffered in streaming mode, or 0 if the
+     * streaming mode is disabled.
+     */
+    private int streamCapacity;
+
     /** The path of the targeted entity relatively to the data service URI. */
     private String subpath;
 
@@ -261,6 +271,8 @@ public class Query<T> implements Iterable<T> {
     public Query<T> addParameter(String name, String value) {
         Query<T> result = new Query<T>(this.getService(), this.getSubpath(),
                 (Class<T>) this.entityClass);
+        result.prefetch = prefetch;
+        result.streamCapacity = streamCapacity;
         if (getQuery() == null || "".equals(getQuery())) {
             result.setQuery(name + "=" + value);
         } else {
@@ -283,6 +295,8 @@ public class Query<T> implements Iterable<T> {
     public Query<T> addParameters(Series<Parameter> params) {
         Query<T> result = new Query<T>(this.getService(), this.getSubpath(),
                 (Class<T>) this.entityClass);
+        result.prefetch = prefetch;
+        result.streamCapacity = streamCapacity;
         StringBuilder builder = new StringBuilder();
 
         if (params != null) {
@@ -643,6 +657,17 @@ public class Query<T> implements Iterable<T> {
      */
     public Iterator<T> iterator() {
         Iterator<T> result = null;
+        String targetUri = createTargetUri();
+
+        if ((streamCapacity > 0) && (service.getMetadata() != null)
+                && (guessType(targetUri) == TYPE_ENTITY_SET)) {
+            StreamingEntryIterator<T> iterator = new StreamingEntryIterator<T>(
+                    service, new Reference(targetUri), entityClass,
+                    entityType, (Metadata) service.getMetadata(), getLogger(),
+                    streamCapacity, prefetch);
+            iterator.start();
+            return iterator;
+        }
 
         try {
             execute();
@@ -753,6 +778,31 @@ public class Query<T> implements Iterable<T> {
         return addParameter("$skiptoken", token);
     }
 
+    /**
+     * Creates a new Query<T> whose entities are streamed by the iterator. The
+     * pages of the entity set are parsed by a background thread, and the
+     * entities are handed over to the iterator as soon as they are parsed
+     * instead of being loaded in a list. This only applies to entity sets.
+     * 
+     * @param capacity
+     *            The maximum number of parsed entities waiting to be consumed.
+     * @param prefetch
+     *            True if the next page must be requested as soon as the
+     *            current one is parsed, instead of once all its entities have
+     *            been consumed.
+     * @return A new Query<T> whose entities are streamed by the iterator.
+     */
+    @SuppressWarnings("unchecked")
+    public Query<T> stream(int capacity, boolean prefetch) {
+        Query<T> result = new Query<T>(this.getService(), this.getSubpath(),
+                (Class<T>) this.entityClass);
+        result.setQuery(getQuery());
+        result.inlineCount = inlineCount;
+        result.prefetch = prefetch;
+        result.streamCapacity = capacity;
+        return result;
+    }
+
     /**
      * Creates a new Query<T> with the $top option set in the URI generated by
      * the returned query.
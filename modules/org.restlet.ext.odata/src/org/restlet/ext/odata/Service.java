@@ -72,6 +72,7 @@ import org.restlet.ext.odata.internal.edm.FunctionImport;
 import org.restlet.ext.odata.internal.edm.Metadata;
 import org.restlet.ext.odata.internal.edm.Property;
 import org.restlet.ext.odata.internal.edm.TypeUtils;
+import org.restlet.ext.odata.internal.reflect.EntityAccessors;
 import org.restlet.ext.odata.internal.reflect.ReflectUtils;
 import org.restlet.ext.xml.DomRepresentation;
 import org.restlet.ext.xml.SaxRepresentation;
@@ -1130,8 +1131,8 @@ public class Service {
 
                     private void write(XmlWriter writer, Object entity,
                             AttributesImpl nullAttrs) throws SAXException {
-                        for (Field field : entity.getClass()
-                                .getDeclaredFields()) {
+                        for (Field field : EntityAccessors.get(
+                                entity.getClass()).getFields()) {
                             String getter = "get"
                                     + field.getName().substring(0, 1)
                                             .toUpperCase()
@@ -1149,50 +1150,46 @@ public class Service {
                     private void writeProperty(XmlWriter writer, Object entity,
                             Property prop, String getter,
                             AttributesImpl nullAttrs) throws SAXException {
-                        for (Method method : entity.getClass()
-                                .getDeclaredMethods()) {
-                            if (method.getReturnType() != null
-                                    && getter.equals(method.getName())
-                                    && method.getParameterTypes().length == 0) {
-                                Object value = null;
-
-                                try {
-                                    value = method.invoke(entity,
-                                            (Object[]) null);
-                                } catch (Exception e) {
-                                }
+                        Method method = EntityAccessors.get(
+                                entity.getClass()).getNoArgMethod(getter);
 
-                                if (value != null) {
-                                    writer.startElement(
-                                            WCF_DATASERVICES_NAMESPACE,
-                                            prop.getName());
+                        if (method != null) {
+                            Object value = null;
+
+                            try {
+                                value = method.invoke(entity, (Object[]) null);
+                            } catch (Exception e) {
+                            }
 
-                                    if (prop instanceof ComplexProperty) {
-                                        write(writer, value, nullAttrs);
-                                    } else {
-                                        writer.characters(TypeUtils.toEdm(
-                                                value, prop.getType()));
-                                    }
+                            if (value != null) {
+                                writer.startElement(
+                                        WCF_DATASERVICES_NAMESPACE,
+                                        prop.getName());
 
-                                    writer.endElement(
+                                if (prop instanceof ComplexProperty) {
+                                    write(writer, value, nullAttrs);
+                                } else {
+                                    writer.characters(TypeUtils.toEdm(
+                                            value, prop.getType()));
+                                }
+
+                                writer.endElement(
+                                        WCF_DATASERVICES_NAMESPACE,
+                                        prop.getName());
+                            } else {
+                                if (prop.isNullable()) {
+                                    writer.emptyElement(
                                             WCF_DATASERVICES_NAMESPACE,
-                                            prop.getName());
+                                            prop.getName(), prop.getName(),
+                                            nullAttrs);
                                 } else {
-                                    if (prop.isNullable()) {
-                                        writer.emptyElement(
-                                                WCF_DATASERVICES_NAMESPACE,
-                                                prop.getName(), prop.getName(),
-                                                nullAttrs);
-                                    } else {
-                                        getLogger().warning(
-                                                "The following property has a null value but is not marked as nullable: "
-                                                        + prop.getName());
-                                        writer.emptyElement(
-                                                WCF_DATASERVICES_NAMESPACE,
-                                                prop.getName());
-                                    }
+                                    getLogger().warning(
+                                            "The following property has a null value but is not marked as nullable: "
+                                                    + prop.getName());
+                                    writer.emptyElement(
+                                            WCF_DATASERVICES_NAMESPACE,
+                                            prop.getName());
                                 }
-                                break;
                             }
                         }
                     }
@@ -55,6 +55,7 @@ import org.restlet.ext.odata.internal.edm.EntityType;
 import org.restlet.ext.odata.internal.edm.Mapping;
 import org.restlet.ext.odata.internal.edm.Metadata;
 import org.restlet.ext.odata.internal.edm.Property;
+import org.restlet.ext.odata.internal.reflect.EntityAccessors;
 import org.restlet.ext.odata.internal.reflect.ReflectUtils;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -244,14 +245,11 @@ public class EntryContentHandler<T> extends EntryReader {
                                     propertyPath.get(i));
                             if (o == null) {
                                 // Try to instantiate it
-                                Field[] fields = obj.getClass()
-                                        .getDeclaredFields();
-                                for (Field field : fields) {
-                                    if (field.getName().equalsIgnoreCase(
-                                            propertyPath.get(i))) {
-                                        o = field.getType().newInstance();
-                                        break;
-                                    }
+                                Field field = EntityAccessors.get(
+                                        obj.getClass()).getFieldIgnoreCase(
+                                        propertyPath.get(i));
+                                if (field != null) {
+                                    o = field.getType().newInstance();
                                 }
                             }
                             ReflectUtils.invokeSetter(obj, propertyPath.get(i),
@@ -135,6 +135,17 @@ public class FeedContentHandler<T> extends FeedReader {
         this.metadata = metadata;
     }
 
+    /**
+     * Adds a parsed entity to the list of discovered entities. Can be
+     * overridden to consume the entities as soon as they are parsed.
+     * 
+     * @param entity
+     *            The parsed entity.
+     */
+    protected void addEntity(T entity) {
+        entities.add(entity);
+    }
+
     @Override
     public void characters(char[] ch, int start, int length)
             throws SAXException {
@@ -175,7 +186,7 @@ public class FeedContentHandler<T> extends FeedReader {
         T entity = entryHandler.getEntity();
 
         if (entity != null) {
-            entities.add(entity);
+            addEntity(entity);
         } else {
             getLogger().warning("Can't add a null entity.");
         }
@@ -0,0 +1,361 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.odata.internal;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.restlet.data.MediaType;
+import org.restlet.data.Reference;
+import org.restlet.ext.atom.Entry;
+import org.restlet.ext.atom.Feed;
+import org.restlet.ext.atom.Link;
+import org.restlet.ext.atom.Relation;
+import org.restlet.ext.odata.Service;
+import org.restlet.ext.odata.internal.edm.EntityType;
+import org.restlet.ext.odata.internal.edm.Metadata;
+import org.restlet.representation.Representation;
+import org.restlet.resource.ClientResource;
+import org.restlet.resource.ResourceException;
+
+/**
+ * Iterator that streams the entities of a paged entity set. A background
+ * daemon thread, taken from a pool shared by all the iterators, parses each
+ * page and hands the entities over as soon as their Atom entry is parsed,
+ * through a bounded queue. When prefetching is enabled, the next page is
+ * requested as soon as the current one is parsed, otherwise only once all its
+ * entities have been consumed.<br>
+ * <br>
+ * The memory used is bounded by the capacity of the queue, as the parsed
+ * entries are not retained. If the iteration is abandoned, the background
+ * thread stops after waiting one minute for room in the queue or for the
+ * consumption of the current page. If a page can't be retrieved or parsed,
+ * the failure is thrown by {@link #hasNext()} and {@link #next()} once the
+ * entities already parsed have been consumed.
+ * 
+ * @author Thierry Boileau
+ * @param <T>
+ *            The type of the streamed entities.
+ */
+public class StreamingEntryIterator<T> implements Iterator<T>, Runnable {
+
+    /**
+     * Feed handler that hands over the entities as soon as they are parsed.
+     */
+    private class StreamingFeedHandler extends FeedContentHandler<T> {
+
+        /** The feed being parsed. */
+        private Feed feed;
+
+        /**
+         * Constructor.
+         */
+        public StreamingFeedHandler() {
+            super(entityClass, entityType, metadata, logger);
+        }
+
+        @Override
+        protected void addEntity(T entity) {
+            put(entity);
+        }
+
+        @Override
+        public void endEntry(Entry entry) {
+            super.endEntry(entry);
+
+            // Don't retain the parsed entries
+            List<Entry> entries = this.feed.getEntries();
+
+            if (!entries.isEmpty() && entries.get(entries.size() - 1) == entry) {
+                entries.remove(entries.size() - 1);
+            }
+        }
+
+        @Override
+        public void startFeed(Feed feed) {
+            super.startFeed(feed);
+            this.feed = feed;
+        }
+    }
+
+    /**
+     * Thread factory creating named daemon threads.
+     */
+    private static class StreamingThreadFactory implements ThreadFactory {
+
+        /** The number of threads created. */
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable r) {
+            Thread result = new Thread(r, "Restlet-OData-Stream-"
+                    + count.incrementAndGet());
+            result.setDaemon(true);
+            return result;
+        }
+    }
+
+    /** Marks the end of the stream. */
+    private static final Object END = new Object();
+
+    /** The threads requesting and parsing the pages. */
+    private static final ExecutorService EXECUTOR = Executors
+            .newCachedThreadPool(new StreamingThreadFactory());
+
+    /** Marks the end of a page. */
+    private static final Object PAGE_END = new Object();
+
+    /** The maximum time to wait for room in the queue, in seconds. */
+    private static final long TIMEOUT = 60;
+
+    /** The class of the streamed entities. */
+    private final Class<?> entityClass;
+
+    /** The entity type of the streamed entities. */
+    private final EntityType entityType;
+
+    /** The failure that stopped the streaming, if any. */
+    private volatile RuntimeException failure;
+
+    /** The logger. */
+    private final Logger logger;
+
+    /** The metadata of the OData service. */
+    private final Metadata metadata;
+
+    /** The next item to return, consumer side. */
+    private Object next;
+
+    /** Released each time the consumer reaches the end of a page. */
+    private final Semaphore pageConsumed;
+
+    /** The reference of the first page. */
+    private final Reference pageRef;
+
+    /** Indicates if the next page is requested before being needed. */
+    private final boolean prefetch;
+
+    /** The queue of parsed entities. */
+    private final BlockingQueue<Object> queue;
+
+    /** The underlying service. */
+    private final Service service;
+
+    /**
+     * Constructor.
+     * 
+     * @param service
+     *            The underlying service.
+     * @param pageRef
+     *            The reference of the first page.
+     * @param entityClass
+     *            The class of the streamed entities.
+     * @param entityType
+     *            The entity type of the streamed entities.
+     * @param metadata
+     *            The metadata of the OData service.
+     * @param logger
+     *            The logger.
+     * @param capacity
+     *            The maximum number of parsed entities waiting to be
+     *            consumed.
+     * @param prefetch
+     *            True if the next page is requested before being needed.
+     */
+    public StreamingEntryIterator(Service service, Reference pageRef,
+            Class<?> entityClass, EntityType entityType, Metadata metadata,
+            Logger logger, int capacity, boolean prefetch) {
+        this.entityClass = entityClass;
+        this.entityType = entityType;
+        this.logger = logger;
+        this.metadata = metadata;
+        this.pageConsumed = new Semaphore(0);
+        this.pageRef = pageRef;
+        this.prefetch = prefetch;
+        this.queue = new ArrayBlockingQueue<Object>(Math.max(1, capacity));
+        this.service = service;
+    }
+
+    /**
+     * Returns the reference of the next page, or null.
+     * 
+     * @param feed
+     *            The parsed page.
+     * @param pageRef
+     *            The reference of the parsed page.
+     * @return The reference of the next page, or null.
+     */
+    private Reference getNextPage(Feed feed, Reference pageRef) {
+        for (Link link : feed.getLinks()) {
+            if (Relation.NEXT.equals(link.getRel())) {
+                Reference result = link.getHref();
+
+                if (result.isRelative()) {
+                    result = new Reference(pageRef, result).getTargetRef();
+                }
+
+                return result;
+            }
+        }
+
+        return null;
+    }
+
+    public boolean hasNext() {
+        while (this.next == null) {
+            Object item;
+
+            try {
+                item = this.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                item = END;
+            }
+
+            if (item == PAGE_END) {
+                this.pageConsumed.release();
+            } else {
+                this.next = item;
+            }
+        }
+
+        if ((this.next == END) && (this.failure != null)) {
+            throw this.failure;
+        }
+
+        return this.next != END;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        T result = (T) this.next;
+        this.next = null;
+        return result;
+    }
+
+    /**
+     * Adds an item to the queue, waiting for room if necessary.
+     * 
+     * @param item
+     *            The item to add.
+     * @throws CancellationException
+     *             If the consumer doesn't make room in time.
+     */
+    private void put(Object item) {
+        try {
+            if (!this.queue.offer(item, TIMEOUT, TimeUnit.SECONDS)) {
+                throw new CancellationException(
+                        "The streamed entities are not consumed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("The streaming was interrupted");
+        }
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Requests and parses the pages, from the background thread. A failure is
+     * recorded to be thrown to the consumer.
+     */
+    public void run() {
+        Reference page = this.pageRef;
+
+        try {
+            while (page != null) {
+                ClientResource resource = this.service.createResource(page);
+                Representation rep = resource.get(MediaType.APPLICATION_ATOM);
+                Feed feed = new Feed(rep, new StreamingFeedHandler());
+                this.service.setLatestRequest(resource.getRequest());
+                this.service.setLatestResponse(resource.getResponse());
+                page = getNextPage(feed, page);
+                put(PAGE_END);
+
+                if ((page != null) && !this.prefetch) {
+                    // Wait until the consumer reaches the end of the page
+                    if (!this.pageConsumed.tryAcquire(TIMEOUT,
+                            TimeUnit.SECONDS)) {
+                        throw new CancellationException(
+                                "The streamed page is not consumed");
+                    }
+                }
+            }
+        } catch (CancellationException e) {
+            this.logger.log(Level.FINE, "Stop streaming " + page, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.logger.log(Level.FINE, "Stop streaming " + page, e);
+        } catch (RuntimeException e) {
+            this.logger.log(Level.WARNING, "Can't stream the content of "
+                    + page, e);
+            this.failure = e;
+        } catch (Exception e) {
+            this.logger.log(Level.WARNING, "Can't stream the content of "
+                    + page, e);
+            this.failure = new ResourceException(e);
+        } finally {
+            try {
+                put(END);
+            } catch (CancellationException e) {
+                // The consumer is gone
+            }
+        }
+    }
+
+    /**
+     * Starts requesting and parsing the pages in a background thread.
+     */
+    public void start() {
+        EXECUTOR.execute(this);
+    }
+
+}
@@ -0,0 +1,295 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.odata.internal.reflect;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Declared fields and accessor methods of an entity class, resolved once and
+ * cached per class. Lookups by name are done in constant time instead of
+ * walking the declared members of the class, which is costly as each call to
+ * {@link Class#getDeclaredMethods()} copies the array of methods.<br>
+ * <br>
+ * The cache is keyed by weak references to the classes and holds the
+ * accessors through soft references, so that it doesn't prevent the class
+ * loader of an entity class, typically the one of a web application, from
+ * being garbage collected.<br>
+ * <br>
+ * Concurrency note: instances of this class are immutable and shared. Cached
+ * accessors are read without locking, only the population of a missing entry
+ * is synchronized.
+ * 
+ * @author Thierry Boileau
+ */
+public class EntityAccessors {
+
+    /**
+     * Weak reference to a class, usable as a key of a concurrent map. Two keys
+     * are equal when they reference the same class.
+     */
+    private static final class ClassKey extends WeakReference<Class<?>> {
+
+        /** The identity hash code of the class. */
+        private final int hashCode;
+
+        /**
+         * Constructor.
+         * 
+         * @param entityClass
+         *            The entity class.
+         * @param queue
+         *            The queue notified when the class is collected, or null.
+         */
+        public ClassKey(Class<?> entityClass,
+                ReferenceQueue<Class<?>> queue) {
+            super(entityClass, queue);
+            this.hashCode = System.identityHashCode(entityClass);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            boolean result = (object == this);
+
+            if (!result && (object instanceof ClassKey)) {
+                Class<?> entityClass = get();
+                result = (entityClass != null)
+                        && (entityClass == ((ClassKey) object).get());
+            }
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+    /** The cache of accessors per class. */
+    private static final ConcurrentMap<ClassKey, Reference<EntityAccessors>> cache = new ConcurrentHashMap<ClassKey, Reference<EntityAccessors>>();
+
+    /** The queue of the keys whose class has been collected. */
+    private static final ReferenceQueue<Class<?>> collectedClasses = new ReferenceQueue<Class<?>>();
+
+    /**
+     * Returns the accessors of a class.
+     * 
+     * @param entityClass
+     *            The entity class.
+     * @return The accessors of the class.
+     */
+    public static EntityAccessors get(Class<?> entityClass) {
+        Reference<EntityAccessors> ref = cache.get(new ClassKey(entityClass,
+                null));
+        EntityAccessors result = (ref == null) ? null : ref.get();
+
+        if (result == null) {
+            synchronized (cache) {
+                ref = cache.get(new ClassKey(entityClass, null));
+                result = (ref == null) ? null : ref.get();
+
+                if (result == null) {
+                    Reference<?> collected = collectedClasses.poll();
+
+                    while (collected != null) {
+                        cache.remove(collected);
+                        collected = collectedClasses.poll();
+                    }
+
+                    result = new EntityAccessors(entityClass);
+                    cache.put(new ClassKey(entityClass, collectedClasses),
+                            new SoftReference<EntityAccessors>(result));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /** The declared fields. */
+    private final List<Field> fields;
+
+    /** The first declared field of each name. */
+    private final Map<String, Field> fieldsByName;
+
+    /** The first declared field of each lower case name. */
+    private final Map<String, Field> fieldsByLowerCaseName;
+
+    /** The first declared method of each name. */
+    private final Map<String, Method> methods;
+
+    /** The first declared method of each name without parameter. */
+    private final Map<String, Method> noArgMethods;
+
+    /** The declared methods with one parameter, by name. */
+    private final Map<String, List<Method>> oneArgMethods;
+
+    /**
+     * Constructor.
+     * 
+     * @param entityClass
+     *            The entity class.
+     */
+    private EntityAccessors(Class<?> entityClass) {
+        this.fields = Collections.unmodifiableList(Arrays.asList(entityClass
+                .getDeclaredFields()));
+        this.fieldsByName = new HashMap<String, Field>();
+        this.fieldsByLowerCaseName = new HashMap<String, Field>();
+        this.methods = new HashMap<String, Method>();
+        this.noArgMethods = new HashMap<String, Method>();
+        this.oneArgMethods = new HashMap<String, List<Method>>();
+
+        for (Field field : this.fields) {
+            String lowerCaseName = field.getName().toLowerCase(Locale.ENGLISH);
+
+            if (!this.fieldsByName.containsKey(field.getName())) {
+                this.fieldsByName.put(field.getName(), field);
+            }
+
+            if (!this.fieldsByLowerCaseName.containsKey(lowerCaseName)) {
+                this.fieldsByLowerCaseName.put(lowerCaseName, field);
+            }
+        }
+
+        for (Method method : entityClass.getDeclaredMethods()) {
+            int parameterCount = method.getParameterTypes().length;
+
+            if (!this.methods.containsKey(method.getName())) {
+                this.methods.put(method.getName(), method);
+            }
+
+            if ((parameterCount == 0)
+                    && !this.noArgMethods.containsKey(method.getName())) {
+                this.noArgMethods.put(method.getName(), method);
+            } else if (parameterCount == 1) {
+                List<Method> list = this.oneArgMethods.get(method.getName());
+
+                if (list == null) {
+                    list = new ArrayList<Method>(1);
+                    this.oneArgMethods.put(method.getName(), list);
+                }
+
+                list.add(method);
+            }
+        }
+
+        for (Map.Entry<String, List<Method>> entry : this.oneArgMethods
+                .entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+    }
+
+    /**
+     * Returns the declared field with the given name.
+     * 
+     * @param name
+     *            The field name.
+     * @return The declared field or null.
+     */
+    public Field getField(String name) {
+        return this.fieldsByName.get(name);
+    }
+
+    /**
+     * Returns the first declared field whose name matches the given one,
+     * ignoring case.
+     * 
+     * @param name
+     *            The field name.
+     * @return The declared field or null.
+     */
+    public Field getFieldIgnoreCase(String name) {
+        return this.fieldsByLowerCaseName.get(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Returns the declared fields, in declaration order.
+     * 
+     * @return The unmodifiable list of declared fields.
+     */
+    public List<Field> getFields() {
+        return this.fields;
+    }
+
+    /**
+     * Returns the first declared method with the given name.
+     * 
+     * @param name
+     *            The method name.
+     * @return The declared method or null.
+     */
+    public Method getMethod(String name) {
+        return this.methods.get(name);
+    }
+
+    /**
+     * Returns the first declared method with the given name and without
+     * parameter.
+     * 
+     * @param name
+     *            The method name.
+     * @return The declared method or null.
+     */
+    public Method getNoArgMethod(String name) {
+        return this.noArgMethods.get(name);
+    }
+
+    /**
+     * Returns the declared methods with the given name and one parameter, in
+     * declaration order.
+     * 
+     * @param name
+     *            The method name.
+     * @return The unmodifiable list of declared methods, possibly empty.
+     */
+    public List<Method> getOneArgMethods(String name) {
+        List<Method> result = this.oneArgMethods.get(name);
+        return (result == null) ? Collections.<Method> emptyList() : result;
+    }
+
+}
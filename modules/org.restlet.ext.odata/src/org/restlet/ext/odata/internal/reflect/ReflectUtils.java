@@ -42,6 +42,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -62,6 +64,12 @@ public class ReflectUtils {
     /** The internal logger. */
     private final static Logger logger = Context.getCurrentLogger();
 
+    /** The maximum number of cached property paths. */
+    private final static int MAX_PATHS = 1024;
+
+    /** The cache of property paths split into property names. */
+    private final static ConcurrentMap<String, String[]> paths = new ConcurrentHashMap<String, String[]>();
+
     /** List of reserved Java words. */
     private final static List<String> reservedWords = Arrays.asList("abstract",
             "assert", "boolean", "break", "byte", "case", "catch", "char",
@@ -73,6 +81,48 @@ public class ReflectUtils {
             "super", "switch", "switch", "synchronized", "this", "throw",
             "transient", "try", "void", "volatile", "while");
 
+    /**
+     * Returns the name of an accessor method of a property.
+     * 
+     * @param prefix
+     *            The prefix of the accessor, such as "get" or "set".
+     * @param propertyName
+     *            The property name.
+     * @return The name of the accessor method.
+     */
+    private static String getAccessorName(String prefix, String propertyName) {
+        char firstLetter = propertyName.charAt(0);
+
+        if (Character.isLowerCase(firstLetter)) {
+            return prefix + Character.toUpperCase(firstLetter)
+                    + propertyName.substring(1);
+        }
+
+        return prefix + propertyName;
+    }
+
+    /**
+     * Returns the declared field of an entity class.
+     * 
+     * @param entityClass
+     *            The entity class.
+     * @param name
+     *            The field name.
+     * @return The declared field.
+     * @throws NoSuchFieldException
+     *             If the field is not declared by the class.
+     */
+    private static Field getDeclaredField(Class<?> entityClass, String name)
+            throws NoSuchFieldException {
+        Field result = EntityAccessors.get(entityClass).getField(name);
+
+        if (result == null) {
+            throw new NoSuchFieldException(name);
+        }
+
+        return result;
+    }
+
     /**
      * Returns the Java class of a set of entries contained inside a Feed.
      * 
@@ -103,6 +153,80 @@ public class ReflectUtils {
         return result;
     }
 
+    /**
+     * Returns a property path split into property names. Both "/" and "." are
+     * accepted as separators.
+     * 
+     * @param propertyPath
+     *            The property path.
+     * @return The property names.
+     */
+    private static String[] getPath(String propertyPath) {
+        String[] result = paths.get(propertyPath);
+
+        if (result == null) {
+            result = propertyPath.replaceAll("/", ".").split("\\.");
+
+            if (paths.size() < MAX_PATHS) {
+                paths.put(propertyPath, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the value of a property on an entity, or null if it has no
+     * getter.
+     * 
+     * @param entity
+     *            The entity.
+     * @param propertyName
+     *            The simple property name.
+     * @return The value of the property.
+     * @throws Exception
+     */
+    private static Object getProperty(Object entity, String propertyName)
+            throws Exception {
+        Method getter = EntityAccessors.get(entity.getClass()).getMethod(
+                getAccessorName("get", propertyName));
+        return (getter == null) ? null : getter.invoke(entity);
+    }
+
+    /**
+     * Returns the object holding the last property of a path, instantiating
+     * the missing intermediate objects.
+     * 
+     * @param entity
+     *            The root entity.
+     * @param path
+     *            The property path.
+     * @return The object holding the last property of the path.
+     * @throws Exception
+     */
+    private static Object getPropertyHolder(Object entity, String[] path)
+            throws Exception {
+        Object result = entity;
+
+        for (int i = 0; i < path.length - 1; i++) {
+            Object p = (result == null) ? null : getProperty(result, path[i]);
+
+            if (p == null) {
+                // Try to instantiate it
+                Field field = EntityAccessors.get(result.getClass())
+                        .getFieldIgnoreCase(path[i]);
+
+                if (field != null) {
+                    p = field.getType().newInstance();
+                }
+            }
+
+            result = p;
+        }
+
+        return result;
+    }
+
     /**
      * Returns the class of this entity's attribute, or if it is a Collection
      * (array, generic list, set), it returns the generic type.
@@ -117,7 +241,7 @@ public class ReflectUtils {
         Class<?> result = null;
         String normPteName = normalize(propertyName);
         try {
-            Field field = entity.getClass().getDeclaredField(normPteName);
+            Field field = getDeclaredField(entity.getClass(), normPteName);
             if (field.getType().isArray()) {
                 result = field.getType().getComponentType();
             } else {
@@ -158,39 +282,11 @@ public class ReflectUtils {
         Object result = null;
 
         if (propertyName != null && entity != null) {
-            propertyName = propertyName.replaceAll("/", ".");
-            Object o = entity;
-            String pty = propertyName;
-            int index = propertyName.indexOf(".");
-            if (index != -1) {
-                o = invokeGetter(entity, propertyName.substring(0, index));
-                pty = propertyName.substring(index + 1);
-
-                result = invokeGetter(o, pty);
-            } else {
-                String getterName = null;
-                char firstLetter = propertyName.charAt(0);
-                if (Character.isLowerCase(firstLetter)) {
-                    getterName = "get" + Character.toUpperCase(firstLetter)
-                            + pty.substring(1);
-                } else {
-                    getterName = "get" + pty;
-                }
+            String[] path = getPath(propertyName);
+            result = entity;
 
-                Method getter = null;
-                Method method;
-                for (int i = 0; (getter == null)
-                        && (i < entity.getClass().getDeclaredMethods().length); i++) {
-                    method = entity.getClass().getDeclaredMethods()[i];
-
-                    if (method.getName().equals(getterName)) {
-                        getter = method;
-                    }
-                }
-
-                if (getter != null) {
-                    result = getter.invoke(o);
-                }
+            for (int i = 0; (result != null) && (i < path.length); i++) {
+                result = getProperty(result, path[i]);
             }
         }
 
@@ -211,54 +307,14 @@ public class ReflectUtils {
     public static void invokeSetter(Object entity, String propertyName,
             Object propertyValue) throws Exception {
         if (propertyName != null && entity != null) {
-            propertyName = propertyName.replaceAll("/", ".");
-            Object o = entity;
-            String pty = propertyName;
-            String[] strings = propertyName.split("\\.");
-            if (strings.length > 1) {
-                for (int i = 0; i < strings.length - 1; i++) {
-                    String string = strings[i];
-                    Object p = invokeGetter(o, string);
-                    if (p == null) {
-                        // Try to instantiate it
-                        Field[] fields = o.getClass().getDeclaredFields();
-                        for (Field field : fields) {
-                            if (field.getName().equalsIgnoreCase(string)) {
-                                p = field.getType().newInstance();
-                                break;
-                            }
-                        }
-                    }
-                    o = p;
-                }
-                pty = strings[strings.length - 1];
-            }
-
-            String setterName = null;
-            char firstLetter = pty.charAt(0);
-            if (Character.isLowerCase(firstLetter)) {
-                setterName = "set" + Character.toUpperCase(firstLetter)
-                        + pty.substring(1);
-            } else {
-                setterName = "set" + pty;
-            }
-
-            Method setter = null;
-            Method method;
-            for (int i = 0; (setter == null)
-                    && (i < o.getClass().getDeclaredMethods().length); i++) {
-                method = o.getClass().getDeclaredMethods()[i];
-
-                if (method.getName().equals(setterName)) {
-                    if ((method.getParameterTypes() != null)
-                            && (method.getParameterTypes().length == 1)) {
-                        setter = method;
-                    }
-                }
-            }
-
-            if (setter != null) {
-                setter.invoke(o, propertyValue);
+            String[] path = getPath(propertyName);
+            Object o = getPropertyHolder(entity, path);
+            List<Method> setters = EntityAccessors.get(o.getClass())
+                    .getOneArgMethods(
+                            getAccessorName("set", path[path.length - 1]));
+
+            if (!setters.isEmpty()) {
+                setters.get(0).invoke(o, propertyValue);
             }
         }
     }
@@ -280,62 +336,29 @@ public class ReflectUtils {
             String propertyValue, String propertyType) throws Exception {
 
         if (propertyName != null) {
-            propertyName = propertyName.replaceAll("/", ".");
-            Object o = entity;
-            String pty = propertyName;
-
-            String[] strings = propertyName.split("\\.");
-            if (strings.length > 1) {
-                for (int i = 0; i < strings.length - 1; i++) {
-                    String string = strings[i];
-                    Object p = invokeGetter(o, string);
-                    if (p == null) {
-                        // Try to instantiate it
-                        Field[] fields = o.getClass().getDeclaredFields();
-                        for (Field field : fields) {
-                            if (field.getName().equalsIgnoreCase(string)) {
-                                p = field.getType().newInstance();
-                                break;
-                            }
-                        }
-                    }
-                    o = p;
-                }
-                pty = strings[strings.length - 1];
-            }
-
-            String setterName = null;
-            char firstLetter = propertyName.charAt(0);
-            if (Character.isLowerCase(firstLetter)) {
-                setterName = "set" + Character.toUpperCase(firstLetter)
-                        + pty.substring(1);
-            } else {
-                setterName = "set" + pty;
-            }
+            String[] path = getPath(propertyName);
+            Object o = getPropertyHolder(entity, path);
 
             Method setter = null;
             Object setterParameter = null;
-            Method method;
-            for (int i = 0; (setter == null)
-                    && (i < o.getClass().getDeclaredMethods().length); i++) {
-                method = o.getClass().getDeclaredMethods()[i];
-
-                if (method.getName().equals(setterName)) {
-                    if ((method.getParameterTypes() != null)
-                            && (method.getParameterTypes().length == 1)) {
-                        Class<?> parameterType = method.getParameterTypes()[0];
-
-                        if (String.class.equals(parameterType)) {
-                            setterParameter = propertyValue;
-                            setter = method;
-                        } else if (Integer.class.equals(parameterType)) {
-                            setterParameter = Integer.valueOf(propertyValue);
-                            setter = method;
-                        } else if (int.class.equals(parameterType)) {
-                            setterParameter = Integer.valueOf(propertyValue);
-                            setter = method;
-                        }
-                    }
+            for (Method method : EntityAccessors.get(o.getClass())
+                    .getOneArgMethods(
+                            getAccessorName("set", path[path.length - 1]))) {
+                Class<?> parameterType = method.getParameterTypes()[0];
+
+                if (String.class.equals(parameterType)) {
+                    setterParameter = propertyValue;
+                    setter = method;
+                } else if (Integer.class.equals(parameterType)) {
+                    setterParameter = Integer.valueOf(propertyValue);
+                    setter = method;
+                } else if (int.class.equals(parameterType)) {
+                    setterParameter = Integer.valueOf(propertyValue);
+                    setter = method;
+                }
+
+                if (setter != null) {
+                    break;
                 }
             }
 
@@ -455,7 +478,7 @@ public class ReflectUtils {
         }
         boolean isGeneric = false;
         boolean isArray = false;
-        Field field = entity.getClass().getDeclaredField(normPteName);
+        Field field = getDeclaredField(entity.getClass(), normPteName);
         if (field.getType().isArray()) {
             isArray = true;
         } else {
@@ -0,0 +1,601 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.rdf;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.restlet.data.Reference;
+
+/**
+ * Graph that indexes its links by source, type and target. Adding, removing
+ * and looking up a link are done in constant time, and links can be queried by
+ * pattern with {@link #match(Object, Reference, Object)}. References of added
+ * links are replaced by shared instances of equal references in order to save
+ * memory on large graphs.<br>
+ * <br>
+ * Links are kept in three hashed indexes (source-type-target, type-target-source
+ * and target-source-type) instead of the copy-on-write array of the parent
+ * class, so large documents can be loaded in linear time, for example with
+ * <code>rdfRepresentation.parse(new GraphBuilder(new IndexedGraph()))</code>.
+ * Iteration groups the links by source, then by type, in insertion order.
+ * Graphs used as source or target nodes are compared by identity.<br>
+ * <br>
+ * Concurrency note: instances of this class are not thread-safe, unlike the
+ * parent class. Links must not be modified once added. The methods added to
+ * {@link java.util.concurrent.CopyOnWriteArraySet} after Java 6, such as
+ * spliterator(), removeIf() and forEach(), aren't supported.
+ * 
+ * @author Jerome Louvel
+ */
+public class IndexedGraph extends Graph {
+
+    /**
+     * Key of a graph node, compared by identity.
+     */
+    private static final class GraphKey {
+
+        /** The graph. */
+        private final Graph graph;
+
+        /**
+         * Constructor.
+         * 
+         * @param graph
+         *            The graph.
+         */
+        private GraphKey(Graph graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return (object instanceof GraphKey)
+                    && (((GraphKey) object).graph == this.graph);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.graph);
+        }
+    }
+
+    /**
+     * Iterator on the source-type-target index.
+     */
+    private class LinkIterator implements Iterator<Link> {
+
+        /** The last returned link. */
+        private Link current;
+
+        /** The iterator on the sources. */
+        private final Iterator<Map<Object, Map<Object, Link>>> sources;
+
+        /** The iterator on the targets of the current type. */
+        private Iterator<Link> targets;
+
+        /** The iterator on the types of the current source. */
+        private Iterator<Map<Object, Link>> types;
+
+        /**
+         * Constructor.
+         */
+        private LinkIterator() {
+            this.sources = spo.values().iterator();
+        }
+
+        public boolean hasNext() {
+            while ((this.targets == null) || !this.targets.hasNext()) {
+                if ((this.types != null) && this.types.hasNext()) {
+                    this.targets = this.types.next().values().iterator();
+                } else if (this.sources.hasNext()) {
+                    this.types = this.sources.next().values().iterator();
+                } else {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        public Link next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            this.current = this.targets.next();
+            return this.current;
+        }
+
+        public void remove() {
+            if (this.current == null) {
+                throw new IllegalStateException();
+            }
+
+            Object source = getKey(this.current.getSource());
+            Object type = this.current.getTypeRef();
+            Object target = getKey(this.current.getTarget());
+            this.targets.remove();
+
+            // Drop the emptied maps of the iterated index
+            Map<Object, Map<Object, Link>> sourceTypes = spo.get(source);
+
+            if (sourceTypes.get(type).isEmpty()) {
+                this.types.remove();
+
+                if (sourceTypes.isEmpty()) {
+                    this.sources.remove();
+                }
+            }
+
+            IndexedGraph.remove(pos, type, target, source);
+            IndexedGraph.remove(osp, target, source, type);
+            size--;
+            this.current = null;
+        }
+    }
+
+    /** The serialization unique identifier. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Adds the links of a map, and of its sub-maps up to a given depth, to a
+     * list.
+     * 
+     * @param map
+     *            The map to walk.
+     * @param depth
+     *            The number of map levels above the links.
+     * @param result
+     *            The list to update.
+     */
+    @SuppressWarnings("unchecked")
+    private static void collect(Map<Object, ?> map, int depth,
+            List<Link> result) {
+        if (map != null) {
+            if (depth <= 1) {
+                result.addAll((Collection<Link>) map.values());
+            } else {
+                for (Object value : map.values()) {
+                    collect((Map<Object, ?>) value, depth - 1, result);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index key of a node.
+     * 
+     * @param node
+     *            The source or target node.
+     * @return The index key.
+     */
+    private static Object getKey(Object node) {
+        return (node instanceof Graph) ? new GraphKey((Graph) node) : node;
+    }
+
+    /**
+     * Adds a link to an index.
+     * 
+     * @param index
+     *            The index to update.
+     * @param key1
+     *            The first level key.
+     * @param key2
+     *            The second level key.
+     * @param key3
+     *            The third level key.
+     * @param link
+     *            The link to add.
+     * @param ordered
+     *            True if the maps of the index preserve insertion order.
+     */
+    private static void put(Map<Object, Map<Object, Map<Object, Link>>> index,
+            Object key1, Object key2, Object key3, Link link, boolean ordered) {
+        Map<Object, Map<Object, Link>> level2 = index.get(key1);
+
+        if (level2 == null) {
+            level2 = ordered ? new LinkedHashMap<Object, Map<Object, Link>>()
+                    : new HashMap<Object, Map<Object, Link>>();
+            index.put(key1, level2);
+        }
+
+        Map<Object, Link> level3 = level2.get(key2);
+
+        if (level3 == null) {
+            level3 = ordered ? new LinkedHashMap<Object, Link>()
+                    : new HashMap<Object, Link>(4);
+            level2.put(key2, level3);
+        }
+
+        level3.put(key3, link);
+    }
+
+    /**
+     * Removes a link from an index, dropping the emptied maps.
+     * 
+     * @param index
+     *            The index to update.
+     * @param key1
+     *            The first level key.
+     * @param key2
+     *            The second level key.
+     * @param key3
+     *            The third level key.
+     * @return The removed link or null.
+     */
+    private static Link remove(
+            Map<Object, Map<Object, Map<Object, Link>>> index, Object key1,
+            Object key2, Object key3) {
+        Link result = null;
+        Map<Object, Map<Object, Link>> level2 = index.get(key1);
+
+        if (level2 != null) {
+            Map<Object, Link> level3 = level2.get(key2);
+
+            if (level3 != null) {
+                result = level3.remove(key3);
+
+                if (level3.isEmpty()) {
+                    level2.remove(key2);
+
+                    if (level2.isEmpty()) {
+                        index.remove(key1);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /** The target-source-type index. */
+    private final Map<Object, Map<Object, Map<Object, Link>>> osp;
+
+    /** The type-target-source index. */
+    private final Map<Object, Map<Object, Map<Object, Link>>> pos;
+
+    /** The shared instances of references. */
+    private final Map<Reference, Reference> references;
+
+    /** The number of links. */
+    private int size;
+
+    /** The source-type-target index, iterated in insertion order. */
+    private final Map<Object, Map<Object, Map<Object, Link>>> spo;
+
+    /**
+     * Default constructor.
+     */
+    public IndexedGraph() {
+        this((Link) null);
+    }
+
+    /**
+     * Constructor with a default link.
+     * 
+     * @param defaultLink
+     *            The link to use when adding links with missing properties.
+     */
+    public IndexedGraph(Link defaultLink) {
+        super(defaultLink);
+        this.osp = new HashMap<Object, Map<Object, Map<Object, Link>>>();
+        this.pos = new HashMap<Object, Map<Object, Map<Object, Link>>>();
+        this.references = new HashMap<Reference, Reference>();
+        this.spo = new LinkedHashMap<Object, Map<Object, Map<Object, Link>>>();
+    }
+
+    @Override
+    public boolean add(Link link) {
+        if (contains(link)) {
+            return false;
+        }
+
+        intern(link);
+        Object source = getKey(link.getSource());
+        Object type = link.getTypeRef();
+        Object target = getKey(link.getTarget());
+        put(this.spo, source, type, target, link, true);
+        put(this.pos, type, target, source, link, false);
+        put(this.osp, target, source, type, link, false);
+        this.size++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Link> links) {
+        boolean result = false;
+
+        for (Link link : links) {
+            result |= add(link);
+        }
+
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        this.osp.clear();
+        this.pos.clear();
+        this.references.clear();
+        this.spo.clear();
+        this.size = 0;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        if (object instanceof Link) {
+            Link link = (Link) object;
+            Map<Object, Map<Object, Link>> types = this.spo.get(getKey(link
+                    .getSource()));
+
+            if (types != null) {
+                Map<Object, Link> targets = types.get(link.getTypeRef());
+                return (targets != null)
+                        && targets.containsKey(getKey(link.getTarget()));
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> objects) {
+        for (Object object : objects) {
+            if (!contains(object)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (object == this) {
+            return true;
+        }
+
+        if (!(object instanceof Set)) {
+            return false;
+        }
+
+        Set<?> set = (Set<?>) object;
+        return (set.size() == size()) && containsAll(set);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+
+        for (Link link : this) {
+            result += link.hashCode();
+        }
+
+        return result;
+    }
+
+    /**
+     * Replaces the references of a link by the shared instances of equal
+     * references.
+     * 
+     * @param link
+     *            The link to update.
+     */
+    private void intern(Link link) {
+        if (link.hasReferenceSource()) {
+            link.setSource(intern(link.getSourceAsReference()));
+        }
+
+        if (link.getTypeRef() != null) {
+            link.setTypeRef(intern(link.getTypeRef()));
+        }
+
+        if (link.hasReferenceTarget()) {
+            link.setTarget(intern(link.getTargetAsReference()));
+        }
+    }
+
+    /**
+     * Returns the shared instance of a reference.
+     * 
+     * @param reference
+     *            The reference to intern.
+     * @return The shared instance of the reference.
+     */
+    private Reference intern(Reference reference) {
+        Reference result = this.references.get(reference);
+
+        if (result == null) {
+            result = reference;
+            this.references.put(reference, reference);
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public Iterator<Link> iterator() {
+        return new LinkIterator();
+    }
+
+    /**
+     * Returns the links matching a pattern. A null parameter matches any
+     * value.
+     * 
+     * @param source
+     *            The source reference, graph or link to match.
+     * @param typeRef
+     *            The type reference to match.
+     * @param target
+     *            The target reference, literal, graph or link to match.
+     * @return The list of matching links.
+     */
+    public List<Link> match(Object source, Reference typeRef, Object target) {
+        List<Link> result = new ArrayList<Link>();
+        Object sourceKey = getKey(source);
+        Object targetKey = getKey(target);
+
+        if (source != null) {
+            Map<Object, Map<Object, Link>> types = this.spo.get(sourceKey);
+
+            if (types == null) {
+                // No match
+            } else if (typeRef == null) {
+                if (target == null) {
+                    collect(types, 2, result);
+                } else {
+                    Map<Object, Map<Object, Link>> sources = this.osp
+                            .get(targetKey);
+
+                    if (sources != null) {
+                        collect(sources.get(sourceKey), 1, result);
+                    }
+                }
+            } else if (target == null) {
+                collect(types.get(typeRef), 1, result);
+            } else if (types.get(typeRef) != null) {
+                Link link = types.get(typeRef).get(targetKey);
+
+                if (link != null) {
+                    result.add(link);
+                }
+            }
+        } else if (typeRef != null) {
+            Map<Object, Map<Object, Link>> targets = this.pos.get(typeRef);
+
+            if (targets == null) {
+                // No match
+            } else if (target == null) {
+                collect(targets, 2, result);
+            } else {
+                collect(targets.get(targetKey), 1, result);
+            }
+        } else if (target != null) {
+            collect(this.osp.get(targetKey), 2, result);
+        } else {
+            collect(this.spo, 3, result);
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        if (object instanceof Link) {
+            Link link = (Link) object;
+            Object source = getKey(link.getSource());
+            Object type = link.getTypeRef();
+            Object target = getKey(link.getTarget());
+
+            if (remove(this.spo, source, type, target) != null) {
+                remove(this.pos, type, target, source);
+                remove(this.osp, target, source, type);
+                this.size--;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> objects) {
+        boolean result = false;
+
+        for (Object object : objects) {
+            result |= remove(object);
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> objects) {
+        boolean result = false;
+
+        for (Iterator<Link> iter = iterator(); iter.hasNext();) {
+            if (!objects.contains(iter.next())) {
+                iter.remove();
+                result = true;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return toList().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] array) {
+        return toList().toArray(array);
+    }
+
+    /**
+     * Returns a list of the links.
+     * 
+     * @return A list of the links.
+     */
+    private List<Link> toList() {
+        List<Link> result = new ArrayList<Link>(this.size);
+        collect(this.spo, 3, result);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+}
@@ -58,6 +58,7 @@ import org.restlet.engine.adapter.HttpServerHelper;
 import org.restlet.engine.adapter.ServerCall;
 import org.restlet.engine.component.ComponentContext;
 import org.restlet.ext.servlet.internal.ServletCall;
+import org.restlet.ext.servlet.internal.ServletServerHelper;
 import org.restlet.ext.servlet.internal.ServletWarClient;
 import org.restlet.routing.Route;
 import org.restlet.routing.TemplateRoute;
@@ -187,6 +188,15 @@ import org.restlet.routing.VirtualHost;
  *                         &lt;param-name&gt;org.restlet.autoWire&lt;/param-name&gt;
  *                         &lt;param-value&gt;true&lt;/param-value&gt;
  *                 &lt;/init-param&gt;
+ * 
+ *                 &lt;!-- Asynchronous request timeout in ms (Optional) --&gt;
+ *                 &lt;init-param&gt;
+ *                         &lt;param-name&gt;org.restlet.asyncTimeoutMs&lt;/param-name&gt;
+ *                         &lt;param-value&gt;30000&lt;/param-value&gt;
+ *                 &lt;/init-param&gt;
+ * 
+ *                 &lt;!-- Release the thread of non auto committing responses (Optional) --&gt;
+ *                 &lt;async-supported&gt;true&lt;/async-supported&gt;
  *         &lt;/servlet&gt;
  * 
  *         &lt;!-- Mapping catching all requests on a given path (Mandatory) --&gt;
@@ -236,9 +246,16 @@ import org.restlet.routing.VirtualHost;
  * "org.restlet.ext.servlet.ServletContext" attribute of the Restlet application
  * in case you need access to it.<br>
  * <br>
- * Finally, an "org.restlet.ext.servlet.offsetPath" attribute, containing the
- * computed offset path used to attach applications when (and only when) the
- * auto-wiring feature is set, is added to the component's context.
+ * An "org.restlet.ext.servlet.offsetPath" attribute, containing the computed
+ * offset path used to attach applications when (and only when) the auto-wiring
+ * feature is set, is added to the component's context.<br>
+ * <br>
+ * Finally, when a response isn't auto committing once handled and the Servlet
+ * is declared as "async-supported" in a Servlet 3.0 container, the container
+ * thread is released and the request is completed when the response is
+ * committed. If the response isn't committed within the delay set by the
+ * optional "org.restlet.asyncTimeoutMs" parameter (30000 ms by default), a 503
+ * (Service unavailable) status is sent instead.
  * 
  * @see <a href="http://www.oracle.com/technetwork/java/javaee/">J2EE home
  *      page</a>
@@ -251,6 +268,12 @@ public class ServerServlet extends HttpServlet {
      */
     private static final String APPLICATION_KEY = "org.restlet.application";
 
+    /**
+     * Name of the attribute key containing the maximum time (in ms) to keep a
+     * request asynchronous.
+     */
+    private static final String ASYNC_TIMEOUT_KEY = "org.restlet.asyncTimeoutMs";
+
     /**
      * The Servlet context initialization parameter's name containing a boolean
      * value. "true" indicates that all applications will be attached to the
@@ -498,7 +521,20 @@ public class ServerServlet extends HttpServlet {
                     .createChildContext(), (List<Protocol>) null,
                     this.getLocalAddr(request), this.getLocalPort(request),
                     component);
-            result = new HttpServerHelper(server);
+
+            String asyncTimeout = getInitParameter(ASYNC_TIMEOUT_KEY, null);
+            if (asyncTimeout != null) {
+                server.getContext().getParameters()
+                        .add("asyncTimeoutMs", asyncTimeout);
+            }
+
+            result = new ServletServerHelper(server);
+
+            try {
+                result.start();
+            } catch (Exception e) {
+                log("[Restlet] Unable to start the server helper", e);
+            }
 
             // Attach the hosted application(s) to the right path
             String uriPattern = this.getContextPath(request)
@@ -44,9 +44,9 @@ import org.restlet.Restlet;
 import org.restlet.data.Reference;
 import org.restlet.engine.Engine;
 import org.restlet.engine.adapter.HttpRequest;
-import org.restlet.engine.adapter.HttpResponse;
 import org.restlet.engine.adapter.ServerAdapter;
 import org.restlet.ext.servlet.internal.ServletCall;
+import org.restlet.ext.servlet.internal.ServletHttpResponse;
 import org.restlet.ext.servlet.internal.ServletLogger;
 import org.restlet.routing.Router;
 
@@ -86,10 +86,21 @@ import org.restlet.routing.Router;
  * }
  * </pre>
  * 
+ * If a response isn't auto committing once handled (see
+ * {@link org.restlet.Response#setAutoCommitting(boolean)}) and the Servlet
+ * container supports asynchronous processing (Servlet 3.0 or later, with the
+ * Servlet declared as "async-supported"), the Servlet request is put into
+ * asynchronous mode and released to the container. It is then completed when
+ * the response is committed, or with a 503 (Service unavailable) status once
+ * the asynchronous timeout expires.
+ * 
  * @author Jerome Louvel
  */
 public class ServletAdapter extends ServerAdapter {
 
+    /** The maximum time (in ms) to keep a request asynchronous. */
+    private volatile long asyncTimeout;
+
     /** The next Restlet. */
     private volatile Restlet next;
 
@@ -117,9 +128,20 @@ public class ServletAdapter extends ServerAdapter {
         super(new Context(new ServletLogger(context)));
         // [ifdef gae] instruction uncomment
         // super(new Context());
+        this.asyncTimeout = 30000;
         this.next = next;
     }
 
+    /**
+     * Returns the maximum time (in ms) to keep a request asynchronous. Default
+     * value is 30000 ms.
+     * 
+     * @return The maximum time (in ms) to keep a request asynchronous.
+     */
+    public long getAsyncTimeout() {
+        return this.asyncTimeout;
+    }
+
     /**
      * Returns the base reference of new Restlet requests.
      * 
@@ -196,8 +218,8 @@ public class ServletAdapter extends ServerAdapter {
                         .getLocalAddr(), request.getLocalPort(), request,
                         response);
                 HttpRequest httpRequest = toRequest(servletCall);
-                HttpResponse httpResponse = new HttpResponse(servletCall,
-                        httpRequest);
+                ServletHttpResponse httpResponse = new ServletHttpResponse(
+                        servletCall, httpRequest, this);
 
                 // Adjust the relative reference
                 httpRequest.getResourceRef().setBaseRef(getBaseRef(request));
@@ -207,7 +229,7 @@ public class ServletAdapter extends ServerAdapter {
 
                 // Handle the request and commit the response
                 getNext().handle(httpRequest, httpResponse);
-                commit(httpResponse);
+                httpResponse.handled(getAsyncTimeout());
             } finally {
                 Engine.clearThreadLocalVariables();
             }
@@ -216,6 +238,16 @@ public class ServletAdapter extends ServerAdapter {
         }
     }
 
+    /**
+     * Sets the maximum time (in ms) to keep a request asynchronous.
+     * 
+     * @param asyncTimeout
+     *            The maximum time (in ms) to keep a request asynchronous.
+     */
+    public void setAsyncTimeout(long asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
+    }
+
     /**
      * Sets the next Restlet.
      * 
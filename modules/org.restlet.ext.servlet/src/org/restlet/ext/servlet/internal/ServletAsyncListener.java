@@ -0,0 +1,80 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.servlet.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+
+/**
+ * Handler of the Servlet 3.0 asynchronous listener proxies. As the Servlet 3.0
+ * API isn't required, the listener methods are dispatched by name. When the
+ * timeout expires, the response is expired. When the request is completed or
+ * fails on the container side, the response is abandoned.
+ * 
+ * @author Jerome Louvel
+ */
+public class ServletAsyncListener implements InvocationHandler {
+
+    /** The response waiting to be committed. */
+    private final ServletHttpResponse response;
+
+    /**
+     * Constructor.
+     * 
+     * @param response
+     *            The response waiting to be committed.
+     */
+    public ServletAsyncListener(ServletHttpResponse response) {
+        this.response = response;
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+
+        if ("onTimeout".equals(name)) {
+            this.response.expire();
+        } else if ("onComplete".equals(name) || "onError".equals(name)) {
+            this.response.abandon();
+        } else if ("equals".equals(name)) {
+            return proxy == args[0];
+        } else if ("hashCode".equals(name)) {
+            return System.identityHashCode(proxy);
+        } else if ("toString".equals(name)) {
+            return "Restlet asynchronous listener";
+        }
+
+        return null;
+    }
+
+}
@@ -36,6 +36,8 @@ package org.restlet.ext.servlet.internal;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.security.Principal;
 import java.security.cert.Certificate;
 import java.util.Arrays;
@@ -71,6 +73,21 @@ import org.restlet.util.Series;
  */
 public class ServletCall extends ServerCall {
 
+    /**
+     * The Servlet 3.0 method completing an asynchronous context, resolved once
+     * for all the calls.
+     */
+    private static volatile Method completeMethod;
+
+    /** The method completing the asynchronous context. */
+    private volatile Method asyncComplete;
+
+    /**
+     * The Servlet 3.0 asynchronous context, if asynchronous processing was
+     * started.
+     */
+    private volatile Object asyncContext;
+
     /** The HTTP Servlet request to wrap. */
     private volatile HttpServletRequest request;
 
@@ -93,6 +110,8 @@ public class ServletCall extends ServerCall {
     public ServletCall(Server server, HttpServletRequest request,
             HttpServletResponse response) {
         super(server);
+        this.asyncComplete = null;
+        this.asyncContext = null;
         this.request = request;
         this.response = response;
     }
@@ -112,6 +131,8 @@ public class ServletCall extends ServerCall {
     public ServletCall(String serverAddress, int serverPort,
             HttpServletRequest request, HttpServletResponse response) {
         super(serverAddress, serverPort);
+        this.asyncComplete = null;
+        this.asyncContext = null;
         this.request = request;
         this.response = response;
     }
@@ -124,6 +145,34 @@ public class ServletCall extends ServerCall {
         return false;
     }
 
+    /**
+     * Forgets the asynchronous context, once completed by the Servlet
+     * container.
+     */
+    void clearAsyncContext() {
+        this.asyncContext = null;
+    }
+
+    /**
+     * Completes the asynchronous processing of the Servlet request if it was
+     * started, so that the container can recycle the request.
+     */
+    @Override
+    public void complete() {
+        Object asyncContext = this.asyncContext;
+
+        if (asyncContext != null) {
+            this.asyncContext = null;
+
+            try {
+                this.asyncComplete.invoke(asyncContext);
+            } catch (Exception e) {
+                getLogger().log(Level.FINE,
+                        "Unable to complete the asynchronous request", e);
+            }
+        }
+    }
+
     @Override
     public List<Certificate> getCertificates() {
         Certificate[] certificateArray = (Certificate[]) getRequest()
@@ -461,4 +510,74 @@ public class ServletCall extends ServerCall {
         }
     }
 
+    /**
+     * Starts the asynchronous processing of the Servlet request, if supported
+     * by the Servlet container. The Servlet 3.0 API is invoked reflectively on
+     * the class of the Servlet request so that older containers are still
+     * supported. The response is then
+     * notified of the timeout, completion and errors of the request by a
+     * {@link ServletAsyncListener}.
+     * 
+     * @param response
+     *            The response that will complete the request once committed.
+     * @param timeout
+     *            The maximum time (in ms) to keep the request asynchronous.
+     * @return True if the asynchronous processing was started.
+     */
+    public boolean startAsync(ServletHttpResponse response, long timeout) {
+        boolean result = false;
+
+        try {
+            Class<?> requestClass = getRequest().getClass();
+            Method isAsyncSupported = requestClass
+                    .getMethod("isAsyncSupported");
+
+            if (Boolean.TRUE.equals(isAsyncSupported.invoke(getRequest()))) {
+                Method startAsync = requestClass.getMethod("startAsync");
+                Class<?> asyncContextClass = startAsync.getReturnType();
+                Object asyncContext = startAsync.invoke(getRequest());
+                asyncContextClass.getMethod("setTimeout", Long.TYPE).invoke(
+                        asyncContext, timeout);
+
+                Method complete = completeMethod;
+
+                if ((complete == null)
+                        || !complete.getDeclaringClass().isInstance(
+                                asyncContext)) {
+                    complete = asyncContextClass.getMethod("complete");
+                    completeMethod = complete;
+                }
+
+                // Follow the timeout, completion and errors of the request
+                for (Method method : asyncContextClass.getMethods()) {
+                    if ("addListener".equals(method.getName())
+                            && (method.getParameterTypes().length == 1)) {
+                        Class<?> listenerClass = method.getParameterTypes()[0];
+                        Object listener = Proxy.newProxyInstance(
+                                listenerClass.getClassLoader(),
+                                new Class<?>[] { listenerClass },
+                                new ServletAsyncListener(response));
+                        method.invoke(asyncContext, listener);
+                        break;
+                    }
+                }
+
+                this.asyncComplete = complete;
+                this.asyncContext = asyncContext;
+                result = true;
+            } else {
+                getLogger().fine(
+                        "Asynchronous processing isn't supported by the Servlet");
+            }
+        } catch (NoSuchMethodException e) {
+            getLogger().fine(
+                    "Asynchronous processing requires a Servlet 3.0 container");
+        } catch (Exception e) {
+            getLogger().log(Level.FINE,
+                    "Unable to start the asynchronous processing", e);
+        }
+
+        return result;
+    }
+
 }
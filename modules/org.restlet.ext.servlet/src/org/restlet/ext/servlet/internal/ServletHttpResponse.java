@@ -0,0 +1,166 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.servlet.internal;
+
+import java.io.IOException;
+import java.util.logging.Level;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.data.Status;
+import org.restlet.engine.adapter.HttpResponse;
+import org.restlet.engine.adapter.ServerAdapter;
+
+/**
+ * Response that is used by the Servlet HTTP server connector. If it isn't auto
+ * committing once handled and the Servlet container supports asynchronous
+ * processing (Servlet 3.0 or later), the Servlet request is put into
+ * asynchronous mode so that no container thread is held until
+ * {@link #commit()} is called.
+ * 
+ * @author Jerome Louvel
+ */
+public class ServletHttpResponse extends HttpResponse {
+
+    /** The adapter used to send the response. */
+    private final ServerAdapter adapter;
+
+    /**
+     * Constructor.
+     * 
+     * @param call
+     *            The Servlet call.
+     * @param request
+     *            The request to respond to.
+     * @param adapter
+     *            The adapter used to send the response.
+     */
+    public ServletHttpResponse(ServletCall call, Request request,
+            ServerAdapter adapter) {
+        super(call, request);
+        this.adapter = adapter;
+    }
+
+    /**
+     * Marks the response as committed without sending anything, once the
+     * asynchronous Servlet request was completed or failed on the container
+     * side. Any later commit is ignored.
+     */
+    public void abandon() {
+        synchronized (this) {
+            setCommitted(true);
+        }
+
+        getServletCall().clearAsyncContext();
+    }
+
+    /**
+     * Sends the response unless it was already committed, then completes the
+     * asynchronous Servlet request if it was started.
+     */
+    @Override
+    public void commit() {
+        synchronized (this) {
+            if (isCommitted()) {
+                return;
+            }
+
+            setCommitted(true);
+        }
+
+        this.adapter.commit(this);
+    }
+
+    /**
+     * Handles the expiration of the asynchronous Servlet request. If the
+     * response wasn't committed yet, a 503 (Service unavailable) status is
+     * sent instead and any later commit is ignored.
+     */
+    public void expire() {
+        synchronized (this) {
+            if (isCommitted()) {
+                return;
+            }
+
+            setCommitted(true);
+        }
+
+        Context.getCurrentLogger().fine(
+                "The response wasn't committed before the timeout expired");
+
+        try {
+            getServletCall().getResponse().sendError(
+                    Status.SERVER_ERROR_SERVICE_UNAVAILABLE.getCode());
+        } catch (IOException e) {
+            Context.getCurrentLogger().log(Level.FINE,
+                    "Unable to send the expiration status", e);
+        } finally {
+            getServletCall().complete();
+        }
+    }
+
+    /**
+     * Returns the Servlet call.
+     * 
+     * @return The Servlet call.
+     */
+    public ServletCall getServletCall() {
+        return (ServletCall) getHttpCall();
+    }
+
+    /**
+     * Commits the response once it was handled, or starts the asynchronous
+     * processing of the Servlet request if the response isn't auto committing
+     * and wasn't committed yet. If the container doesn't support asynchronous
+     * processing, the response is committed right away.
+     * 
+     * @param timeout
+     *            The maximum time (in ms) to keep the Servlet request in
+     *            asynchronous mode.
+     */
+    public void handled(long timeout) {
+        synchronized (this) {
+            if (isCommitted()) {
+                return;
+            }
+
+            if (!isAutoCommitting()
+                    && getServletCall().startAsync(this, timeout)) {
+                return;
+            }
+        }
+
+        commit();
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.servlet.internal;
+
+import java.util.logging.Level;
+
+import org.restlet.Server;
+import org.restlet.engine.Engine;
+import org.restlet.engine.adapter.HttpRequest;
+import org.restlet.engine.adapter.HttpServerHelper;
+import org.restlet.engine.adapter.ServerCall;
+
+/**
+ * HTTP server connector used by the Servlet adapter. If a response isn't auto
+ * committing once handled, the Servlet request is processed asynchronously
+ * until the response is committed. Here is the list of additional parameters
+ * that are supported. They should be set in the Server's context before it is
+ * started:
+ * <table>
+ * <tr>
+ * <th>Parameter name</th>
+ * <th>Value type</th>
+ * <th>Default value</th>
+ * <th>Description</th>
+ * </tr>
+ * <tr>
+ * <td>asyncTimeoutMs</td>
+ * <td>long</td>
+ * <td>30000</td>
+ * <td>Maximum time (in ms) to keep a request asynchronous while its response
+ * isn't committed. Once expired, a 503 (Service unavailable) status is
+ * sent. Invalid values are ignored.</td>
+ * </tr>
+ * </table>
+ * 
+ * @author Jerome Louvel
+ */
+public class ServletServerHelper extends HttpServerHelper {
+
+    /** The default maximum time (in ms) to keep a request asynchronous. */
+    private static final long DEFAULT_ASYNC_TIMEOUT_MS = 30000;
+
+    /** The maximum time (in ms) to keep a request asynchronous. */
+    private volatile long asyncTimeoutMs;
+
+    /**
+     * Constructor.
+     * 
+     * @param server
+     *            The server to help.
+     */
+    public ServletServerHelper(Server server) {
+        super(server);
+        this.asyncTimeoutMs = DEFAULT_ASYNC_TIMEOUT_MS;
+    }
+
+    /**
+     * Returns the maximum time (in ms) to keep a request asynchronous, as read
+     * from the "asyncTimeoutMs" parameter when the helper was started.
+     * 
+     * @return The maximum time (in ms) to keep a request asynchronous.
+     */
+    public long getAsyncTimeoutMs() {
+        return this.asyncTimeoutMs;
+    }
+
+    /**
+     * Handles a Servlet call. If the response isn't auto committing, the
+     * Servlet request is processed asynchronously until the response is
+     * committed.
+     * 
+     * @param httpCall
+     *            The Servlet call to handle.
+     */
+    @Override
+    public void handle(ServerCall httpCall) {
+        if (!(httpCall instanceof ServletCall)) {
+            super.handle(httpCall);
+            return;
+        }
+
+        try {
+            HttpRequest request = getAdapter().toRequest(httpCall);
+            ServletHttpResponse response = new ServletHttpResponse(
+                    (ServletCall) httpCall, request, getAdapter());
+            handle(request, response);
+            response.handled(getAsyncTimeoutMs());
+        } catch (Exception e) {
+            getLogger().log(Level.WARNING,
+                    "Error while handling an HTTP server call: ",
+                    e.getMessage());
+            getLogger().log(Level.INFO,
+                    "Error while handling an HTTP server call", e);
+        } finally {
+            Engine.clearThreadLocalVariables();
+        }
+    }
+
+    /**
+     * Reads the "asyncTimeoutMs" parameter. If it isn't a positive number, a
+     * warning is logged and the default value of 30000 ms is used instead.
+     */
+    @Override
+    public void start() throws Exception {
+        super.start();
+        String value = getHelpedParameters().getFirstValue("asyncTimeoutMs");
+        long asyncTimeoutMs = DEFAULT_ASYNC_TIMEOUT_MS;
+
+        if (value != null) {
+            try {
+                asyncTimeoutMs = Long.parseLong(value.trim());
+            } catch (NumberFormatException nfe) {
+                asyncTimeoutMs = -1;
+            }
+
+            if (asyncTimeoutMs <= 0) {
+                getLogger().warning(
+                        "Invalid \"asyncTimeoutMs\" parameter: " + value
+                                + ". Using " + DEFAULT_ASYNC_TIMEOUT_MS
+                                + " ms instead.");
+                asyncTimeoutMs = DEFAULT_ASYNC_TIMEOUT_MS;
+            }
+        }
+
+        this.asyncTimeoutMs = asyncTimeoutMs;
+    }
+}
@@ -39,6 +39,7 @@ import java.nio.channels.SocketChannel;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSessionContext;
 
 import org.restlet.Request;
 import org.restlet.Server;
@@ -52,6 +53,7 @@ import org.restlet.ext.ssl.internal.HttpsInboundRequest;
 import org.restlet.ext.ssl.internal.HttpsServerInboundWay;
 import org.restlet.ext.ssl.internal.HttpsServerOutboundWay;
 import org.restlet.ext.ssl.internal.SslConnection;
+import org.restlet.ext.ssl.internal.SslHandshakeService;
 import org.restlet.ext.ssl.internal.SslUtils;
 
 /**
@@ -72,6 +74,28 @@ import org.restlet.ext.ssl.internal.SslUtils;
  * parameter, or an instance as an attribute for a more complete and flexible
  * SSL context setting.</td>
  * </tr>
+ * <tr>
+ * <td>handshakeThreads</td>
+ * <td>int</td>
+ * <td>Number of available processors</td>
+ * <td>Number of threads running the lengthy tasks of SSL handshakes, separately
+ * from the worker threads servicing calls so that a burst of new SSL clients
+ * doesn't starve the processing of calls.</td>
+ * </tr>
+ * <tr>
+ * <td>sslSessionCacheSize</td>
+ * <td>int</td>
+ * <td>JSSE default</td>
+ * <td>Maximum number of SSL sessions cached for resumption. A value of '0'
+ * means no limit.</td>
+ * </tr>
+ * <tr>
+ * <td>sslSessionTimeout</td>
+ * <td>int</td>
+ * <td>JSSE default</td>
+ * <td>Time (in seconds) after which a cached SSL session can't be resumed
+ * anymore. A value of '0' means no limit.</td>
+ * </tr>
  * </table>
  * For the default SSL parameters see the Javadocs of the
  * {@link DefaultSslContextFactory} class.
@@ -80,6 +104,9 @@ import org.restlet.ext.ssl.internal.SslUtils;
  */
 public class HttpsServerHelper extends HttpServerHelper {
 
+    /** The service running the SSL handshake tasks. */
+    private volatile SslHandshakeService handshakeService;
+
     /** The SSL context. */
     private volatile SSLContext sslContext;
 
@@ -108,7 +135,7 @@ public class HttpsServerHelper extends HttpServerHelper {
         }
 
         return new SslConnection<Server>(this, socketChannel, controller,
-                socketAddress, engine);
+                socketAddress, engine, getHandshakeService());
     }
 
     @Override
@@ -130,6 +157,78 @@ public class HttpsServerHelper extends HttpServerHelper {
                 resourceUri, protocol);
     }
 
+    /**
+     * Returns the number of full SSL handshakes, negotiating a new SSL session.
+     * 
+     * @return The number of full SSL handshakes.
+     */
+    public long getFullHandshakes() {
+        return (getHandshakeService() == null) ? 0 : getHandshakeService()
+                .getFullHandshakes();
+    }
+
+    /**
+     * Returns the service running the SSL handshake tasks.
+     * 
+     * @return The service running the SSL handshake tasks.
+     */
+    protected SslHandshakeService getHandshakeService() {
+        return handshakeService;
+    }
+
+    /**
+     * Returns the number of threads running the SSL handshake tasks.
+     * 
+     * @return The number of threads running the SSL handshake tasks.
+     */
+    public int getHandshakeThreads() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "handshakeThreads",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+    }
+
+    /**
+     * Returns the cumulated duration of the SSL handshakes in milliseconds,
+     * both full and resumed.
+     * 
+     * @return The cumulated duration of the SSL handshakes in milliseconds.
+     */
+    public long getHandshakeTimeMs() {
+        return (getHandshakeService() == null) ? 0 : getHandshakeService()
+                .getHandshakeTimeMs();
+    }
+
+    /**
+     * Returns the maximum duration of an SSL handshake in milliseconds.
+     * 
+     * @return The maximum duration of an SSL handshake in milliseconds.
+     */
+    public long getMaxHandshakeTimeMs() {
+        return (getHandshakeService() == null) ? 0 : getHandshakeService()
+                .getMaxHandshakeTimeMs();
+    }
+
+    /**
+     * Returns the number of SSL handshake tasks waiting for a thread.
+     * 
+     * @return The number of SSL handshake tasks waiting for a thread.
+     */
+    public int getQueuedHandshakes() {
+        return (getHandshakeService() == null) ? 0 : getHandshakeService()
+                .getQueuedHandshakes();
+    }
+
+    /**
+     * Returns the number of resumed SSL handshakes, reusing a cached SSL
+     * session.
+     * 
+     * @return The number of resumed SSL handshakes.
+     */
+    public long getResumedHandshakes() {
+        return (getHandshakeService() == null) ? 0 : getHandshakeService()
+                .getResumedHandshakes();
+    }
+
     /**
      * Returns the SSL context.
      * 
@@ -139,6 +238,16 @@ public class HttpsServerHelper extends HttpServerHelper {
         return sslContext;
     }
 
+    /**
+     * Sets the service running the SSL handshake tasks.
+     * 
+     * @param handshakeService
+     *            The service running the SSL handshake tasks.
+     */
+    protected void setHandshakeService(SslHandshakeService handshakeService) {
+        this.handshakeService = handshakeService;
+    }
+
     /**
      * Sets the SSL context.
      * 
@@ -153,7 +262,37 @@ public class HttpsServerHelper extends HttpServerHelper {
     public synchronized void start() throws Exception {
         SslContextFactory factory = SslUtils.getSslContextFactory(this);
         setSslContext(factory.createSslContext());
+
+        // Configure the cache of SSL sessions
+        SSLSessionContext sessionContext = getSslContext()
+                .getServerSessionContext();
+        String sessionCacheSize = getHelpedParameters().getFirstValue(
+                "sslSessionCacheSize");
+        String sessionTimeout = getHelpedParameters().getFirstValue(
+                "sslSessionTimeout");
+
+        if ((sessionContext != null) && (sessionCacheSize != null)) {
+            sessionContext.setSessionCacheSize(Integer
+                    .parseInt(sessionCacheSize));
+        }
+
+        if ((sessionContext != null) && (sessionTimeout != null)) {
+            sessionContext.setSessionTimeout(Integer.parseInt(sessionTimeout));
+        }
+
+        setHandshakeService(new SslHandshakeService(getHandshakeThreads(),
+                getLogger()));
         super.start();
     }
 
+    @Override
+    public synchronized void stop() throws Exception {
+        super.stop();
+
+        if (getHandshakeService() != null) {
+            getHandshakeService().shutdown();
+            setHandshakeService(null);
+        }
+    }
+
 }
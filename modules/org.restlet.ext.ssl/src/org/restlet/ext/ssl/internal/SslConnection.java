@@ -40,6 +40,7 @@ import java.nio.channels.SocketChannel;
 import java.security.cert.Certificate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 
 import javax.net.ssl.SSLEngine;
@@ -51,6 +52,7 @@ import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
 
 import org.restlet.Connector;
+import org.restlet.data.Status;
 import org.restlet.engine.connector.Connection;
 import org.restlet.engine.connector.ConnectionController;
 import org.restlet.engine.connector.ConnectionHelper;
@@ -67,6 +69,15 @@ import org.restlet.engine.io.WritableSelectionChannel;
  */
 public class SslConnection<T extends Connector> extends Connection<T> {
 
+    /** The service running the handshake tasks, or null. */
+    private volatile SslHandshakeService handshakeService;
+
+    /** The nano time when the current handshake started, or 0. */
+    private volatile long handshakeStartNanoTime;
+
+    /** The time when the current handshake started. */
+    private volatile long handshakeStartTime;
+
     /** The peer address. */
     private volatile InetSocketAddress peerAddress;
 
@@ -87,18 +98,44 @@ public class SslConnection<T extends Connector> extends Connection<T> {
      *            The IO controller.
      * @param socketAddress
      *            The associated IP address.
-     * 
-     * 
-     * 
+     * @param sslEngine
+     *            The SSL engine.
      * @throws IOException
      */
     public SslConnection(ConnectionHelper<T> helper,
             SocketChannel socketChannel, ConnectionController controller,
             InetSocketAddress socketAddress, SSLEngine sslEngine)
             throws IOException {
+        this(helper, socketChannel, controller, socketAddress, sslEngine, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param helper
+     *            The parent connector helper.
+     * @param socketChannel
+     *            The underlying NIO socket channel.
+     * @param controller
+     *            The IO controller.
+     * @param socketAddress
+     *            The associated IP address.
+     * @param sslEngine
+     *            The SSL engine.
+     * @param handshakeService
+     *            The service running the handshake tasks and recording their
+     *            statistics. If null, the tasks are run by the worker service
+     *            of the helper.
+     * @throws IOException
+     */
+    public SslConnection(ConnectionHelper<T> helper,
+            SocketChannel socketChannel, ConnectionController controller,
+            InetSocketAddress socketAddress, SSLEngine sslEngine,
+            SslHandshakeService handshakeService) throws IOException {
         super(helper, socketChannel, controller, socketAddress, sslEngine
                 .getSession().getApplicationBufferSize(), sslEngine
                 .getSession().getApplicationBufferSize());
+        this.handshakeService = handshakeService;
         this.sslEngine = sslEngine;
         this.sslEngineResult = null;
         getSslEngine().setUseClientMode(isClientSide());
@@ -149,6 +186,15 @@ public class SslConnection<T extends Connector> extends Connection<T> {
                 .getPacketBufferSize();
     }
 
+    /**
+     * Returns the service running the handshake tasks, or null.
+     * 
+     * @return The service running the handshake tasks, or null.
+     */
+    public SslHandshakeService getHandshakeService() {
+        return handshakeService;
+    }
+
     /**
      * Returns the peer address.
      * 
@@ -343,6 +389,8 @@ public class SslConnection<T extends Connector> extends Connection<T> {
      * @throws SSLException
      */
     public void initSslEngine() throws SSLException {
+        this.handshakeStartTime = System.currentTimeMillis();
+        this.handshakeStartNanoTime = System.nanoTime();
         getSslEngine().beginHandshake();
     }
 
@@ -360,6 +408,14 @@ public class SslConnection<T extends Connector> extends Connection<T> {
      * exchanged.
      */
     private void onFinished() {
+        long startNanoTime = this.handshakeStartNanoTime;
+
+        if ((getHandshakeService() != null) && (startNanoTime != 0)) {
+            this.handshakeStartNanoTime = 0;
+            getHandshakeService().onHandshakeFinished(getSslSession(),
+                    this.handshakeStartTime, startNanoTime);
+        }
+
         if (isClientSide()) {
             getInboundWay().setIoState(IoState.IDLE);
             getOutboundWay().setIoState(IoState.INTEREST);
@@ -373,8 +429,8 @@ public class SslConnection<T extends Connector> extends Connection<T> {
      * Runs the pending lengthy task.
      */
     private void onNeedTask() {
-        // Delegate lengthy tasks to the connector's worker
-        // service before checking again
+        // Delegate lengthy tasks to the handshake service or to the
+        // connector's worker service before checking again
         final Runnable task = getSslEngine().getDelegatedTask();
 
         if (task != null) {
@@ -383,7 +439,7 @@ public class SslConnection<T extends Connector> extends Connection<T> {
             getOutboundWay().setIoState(IoState.IDLE);
 
             // Runs the pending lengthy task.
-            getHelper().getWorkerService().execute(new Runnable() {
+            Runnable tasks = new Runnable() {
                 public void run() {
                     getLogger().log(Level.FINER, "Running delegated tasks...");
                     task.run();
@@ -411,7 +467,19 @@ public class SslConnection<T extends Connector> extends Connection<T> {
                                 "Unable to handle SSL handshake", e);
                     }
                 }
-            });
+            };
+
+            // Fall back to the worker service if the handshake service is
+            // missing or shut down
+            if ((getHandshakeService() == null)
+                    || !getHandshakeService().execute(tasks)) {
+                try {
+                    getHelper().getWorkerService().execute(tasks);
+                } catch (RejectedExecutionException ree) {
+                    onError("Unable to run the SSL handshake tasks", ree,
+                            Status.CONNECTOR_ERROR_INTERNAL);
+                }
+            }
         }
     }
 
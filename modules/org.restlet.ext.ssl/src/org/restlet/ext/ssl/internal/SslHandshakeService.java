@@ -0,0 +1,209 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.ssl.internal;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.net.ssl.SSLSession;
+
+import org.restlet.engine.log.LoggingThreadFactory;
+
+/**
+ * Service running the delegated tasks of SSL handshakes on a separate pool of
+ * threads, so that a burst of new SSL connections doesn't starve the worker
+ * service processing the calls. It also counts the full and resumed
+ * handshakes, measures their latency and exposes the number of handshake
+ * tasks waiting for a thread.
+ * 
+ * @author Jerome Louvel
+ */
+public class SslHandshakeService {
+
+    /** The executor service running the delegated tasks. */
+    private final ThreadPoolExecutor executorService;
+
+    /** The number of full handshakes. */
+    private final AtomicLong fullHandshakes;
+
+    /** The cumulated duration of the handshakes in nanoseconds. */
+    private final AtomicLong handshakeTimeNs;
+
+    /** The logger to use. */
+    private final Logger logger;
+
+    /** The maximum duration of a handshake in nanoseconds. */
+    private final AtomicLong maxHandshakeTimeNs;
+
+    /** The number of resumed handshakes. */
+    private final AtomicLong resumedHandshakes;
+
+    /**
+     * Constructor.
+     * 
+     * @param threads
+     *            The number of threads running the delegated tasks.
+     * @param logger
+     *            The logger to use.
+     */
+    public SslHandshakeService(int threads, Logger logger) {
+        this.executorService = new ThreadPoolExecutor(threads, threads, 0L,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                new LoggingThreadFactory(logger, true));
+        this.fullHandshakes = new AtomicLong();
+        this.handshakeTimeNs = new AtomicLong();
+        this.logger = logger;
+        this.maxHandshakeTimeNs = new AtomicLong();
+        this.resumedHandshakes = new AtomicLong();
+    }
+
+    /**
+     * Runs a delegated task of an SSL handshake.
+     * 
+     * @param task
+     *            The task to run.
+     * @return True if the task was accepted, false if the service is shut
+     *         down.
+     */
+    public boolean execute(Runnable task) {
+        boolean result = false;
+
+        try {
+            this.executorService.execute(task);
+            result = true;
+        } catch (RejectedExecutionException ree) {
+            this.logger.log(Level.FINE,
+                    "The SSL handshake service is shut down", ree);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of full handshakes.
+     * 
+     * @return The number of full handshakes.
+     */
+    public long getFullHandshakes() {
+        return this.fullHandshakes.get();
+    }
+
+    /**
+     * Returns the cumulated duration of the handshakes in milliseconds.
+     * 
+     * @return The cumulated duration of the handshakes in milliseconds.
+     */
+    public long getHandshakeTimeMs() {
+        return TimeUnit.NANOSECONDS.toMillis(this.handshakeTimeNs.get());
+    }
+
+    /**
+     * Returns the maximum duration of a handshake in milliseconds.
+     * 
+     * @return The maximum duration of a handshake in milliseconds.
+     */
+    public long getMaxHandshakeTimeMs() {
+        return TimeUnit.NANOSECONDS.toMillis(this.maxHandshakeTimeNs.get());
+    }
+
+    /**
+     * Returns the number of handshake tasks waiting for a thread.
+     * 
+     * @return The number of handshake tasks waiting for a thread.
+     */
+    public int getQueuedHandshakes() {
+        return this.executorService.getQueue().size();
+    }
+
+    /**
+     * Returns the number of resumed handshakes.
+     * 
+     * @return The number of resumed handshakes.
+     */
+    public long getResumedHandshakes() {
+        return this.resumedHandshakes.get();
+    }
+
+    /**
+     * Records a finished handshake. It is considered as resumed if its SSL
+     * session was created before the handshake started.
+     * 
+     * @param session
+     *            The negotiated SSL session.
+     * @param startTime
+     *            The time when the handshake started, as returned by
+     *            {@link System#currentTimeMillis()}.
+     * @param startNanoTime
+     *            The time when the handshake started, as returned by
+     *            {@link System#nanoTime()}.
+     */
+    public void onHandshakeFinished(SSLSession session, long startTime,
+            long startNanoTime) {
+        long duration = System.nanoTime() - startNanoTime;
+        boolean resumed = (session != null)
+                && (session.getCreationTime() < startTime);
+
+        if (resumed) {
+            this.resumedHandshakes.incrementAndGet();
+        } else {
+            this.fullHandshakes.incrementAndGet();
+        }
+
+        this.handshakeTimeNs.addAndGet(duration);
+        long max = this.maxHandshakeTimeNs.get();
+
+        while ((duration > max)
+                && !this.maxHandshakeTimeNs.compareAndSet(max, duration)) {
+            max = this.maxHandshakeTimeNs.get();
+        }
+
+        if (this.logger.isLoggable(Level.FINER)) {
+            this.logger.log(Level.FINER, (resumed ? "Resumed" : "Full")
+                    + " SSL handshake finished in "
+                    + TimeUnit.NANOSECONDS.toMillis(duration) + " ms");
+        }
+    }
+
+    /**
+     * Shuts down the service, letting the pending tasks complete.
+     */
+    public void shutdown() {
+        this.executorService.shutdown();
+    }
+}
@@ -65,6 +65,8 @@ import org.restlet.test.ext.html.HtmlTestSuite;
 import org.restlet.test.ext.jaxb.JaxbBasicConverterTestCase;
 import org.restlet.test.ext.jaxb.JaxbIntegrationConverterTestCase;
 import org.restlet.test.ext.jaxrs.JaxRsTestSuite;
+import org.restlet.test.ext.jdbc.JdbcClientHelperTestCase;
+import org.restlet.test.ext.jdbc.RowSetRepresentationTestCase;
 import org.restlet.test.ext.odata.ODataTestSuite;
 import org.restlet.test.ext.sip.SipTests;
 import org.restlet.test.ext.spring.SpringTestSuite;
@@ -86,6 +88,7 @@ import org.restlet.test.security.HttpBasicTestCase;
 import org.restlet.test.security.RoleTestCase;
 import org.restlet.test.security.SecurityTestCase;
 import org.restlet.test.service.ServiceTestSuite;
+import org.restlet.test.util.SeriesTestCase;
 import org.restlet.test.util.TemplateTestCase;
 
 /**
@@ -136,6 +139,7 @@ public class RestletTestSuite extends TestSuite {
         addTestSuite(RecipientInfoTestCase.class);
         addTestSuite(RoleTestCase.class);
         addTestSuite(StatusTestCase.class);
+        addTestSuite(SeriesTestCase.class);
         addTestSuite(TemplateTestCase.class);
         addTestSuite(TransformerTestCase.class);
         addTestSuite(ValidatorTestCase.class);
@@ -149,6 +153,7 @@ public class RestletTestSuite extends TestSuite {
 
         // Tests based on extension only supported by the JEE edition.
         // [ifdef jee]
+        addTestSuite(org.restlet.test.ext.servlet.ServletAsyncTestCase.class);
         addTestSuite(org.restlet.test.ext.xdb.ChunkedInputStreamTestCase.class);
         addTestSuite(org.restlet.test.ext.xdb.ChunkedOutputStreamTestCase.class);
         addTestSuite(org.restlet.test.ext.xdb.InputEntityStreamTestCase.class);
@@ -165,9 +170,11 @@ public class RestletTestSuite extends TestSuite {
         addTestSuite(HeaderTestCase.class);
         addTestSuite(HttpBasicTestCase.class);
         addTestSuite(HttpDigestTestCase.class);
+        addTestSuite(JdbcClientHelperTestCase.class);
         addTestSuite(RangeTestCase.class);
         addTestSuite(RangeRepresentationTestCase.class);
         addTestSuite(RedirectTestCase.class);
+        addTestSuite(RowSetRepresentationTestCase.class);
         addTestSuite(SecurityTestCase.class);
         addTestSuite(TemplateFilterTestCase.class);
 
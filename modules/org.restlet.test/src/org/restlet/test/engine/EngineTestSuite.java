@@ -36,11 +36,22 @@ package org.restlet.test.engine;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.restlet.test.engine.connector.BufferPoolingTestCase;
+import org.restlet.test.engine.connector.ControllerThreadsTestCase;
+import org.restlet.test.engine.connector.HostConnectionsTestCase;
 import org.restlet.test.engine.connector.HttpInboundRequestTestCase;
+import org.restlet.test.engine.connector.IdleConnectionsTestCase;
+import org.restlet.test.engine.connector.ParsedHeaderTestCase;
+import org.restlet.test.engine.connector.TimingWheelTestCase;
+import org.restlet.test.engine.converter.ConverterUtilsTestCase;
 import org.restlet.test.engine.io.BioUtilsTestCase;
 import org.restlet.test.engine.io.BufferTestCase;
 import org.restlet.test.engine.io.ReaderInputStreamTestCase;
+import org.restlet.test.engine.local.DirectoryCacheTestCase;
+import org.restlet.test.engine.log.AsyncAccessLogFileHandlerTestCase;
+import org.restlet.test.engine.metrics.LatencyHistogramTestCase;
 import org.restlet.test.engine.util.Base64TestCase;
+import org.restlet.test.engine.util.RouteTrieTestCase;
 
 /**
  * Suite of unit tests for the Restlet Framework.
@@ -63,19 +74,26 @@ public class EngineTestSuite extends TestSuite {
         super("Engine package");
         addTestSuite(AlphaNumericComparatorTestCase.class);
         addTestSuite(AnnotationUtilsTestCase.class);
+        addTestSuite(AsyncAccessLogFileHandlerTestCase.class);
+        addTestSuite(LatencyHistogramTestCase.class);
         addTestSuite(Base64TestCase.class);
         addTestSuite(BufferTestCase.class);
         addTestSuite(BioUtilsTestCase.class);
         addTestSuite(CookiesTestCase.class);
         addTestSuite(ContentTypeTestCase.class);
+        addTestSuite(ConverterUtilsTestCase.class);
+        addTestSuite(DirectoryCacheTestCase.class);
         addTestSuite(HeaderTestCase.class);
         addTestSuite(HttpCallTestCase.class);
         addTestSuite(HttpInboundRequestTestCase.class);
         addTestSuite(ImmutableDateTestCase.class);
+        addTestSuite(ParsedHeaderTestCase.class);
+        addTestSuite(TimingWheelTestCase.class);
         addTestSuite(UnclosableInputStreamTestCase.class);
         addTestSuite(UnclosableOutputStreamTestCase.class);
         addTestSuite(PreferencesTestCase.class);
         addTestSuite(ReaderInputStreamTestCase.class);
+        addTestSuite(RouteTrieTestCase.class);
 
         // Tests based on HTTP client connectors are not supported by the GAE
         // edition.
@@ -86,14 +104,20 @@ public class EngineTestSuite extends TestSuite {
         // [enddef]
 
         // [ifdef jse]
+        addTestSuite(BufferPoolingTestCase.class);
         addTestSuite(ChunkedEncodingPutTestCase.class);
         addTestSuite(ChunkedEncodingTestCase.class);
+        addTestSuite(ControllerThreadsTestCase.class);
+        addTestSuite(IdleConnectionsTestCase.class);
+        addTestSuite(HostConnectionsTestCase.class);
         addTestSuite(GetTestCase.class);
         addTestSuite(GetChunkedTestCase.class);
         addTestSuite(PostPutTestCase.class);
         addTestSuite(RemoteClientAddressTestCase.class);
+        addTestSuite(org.restlet.test.ext.jetty.JettyAsyncTestCase.class);
         addTestSuite(org.restlet.test.ext.ssl.SslGetTestCase.class);
         addTestSuite(org.restlet.test.ext.ssl.SslClientContextGetTestCase.class);
+        addTestSuite(org.restlet.test.ext.ssl.SslHandshakeServiceTestCase.class);
         // [enddef]
     }
 }
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.connector;
+
+import java.io.IOException;
+
+import org.restlet.engine.connector.ParsedHeader;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.io.Buffer;
+import org.restlet.engine.io.BufferState;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link ParsedHeader} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class ParsedHeaderTestCase extends RestletTestCase {
+
+    public void testDetach() throws IOException {
+        StringBuilder lines = new StringBuilder("Host: localhost");
+        ParsedHeader host = ParsedHeader.parse(lines, 0);
+        int next = lines.length();
+        lines.append("X-Custom:  value");
+        ParsedHeader custom = ParsedHeader.parse(lines, next);
+
+        // Values read after the source is reused come from the copy
+        assertEquals("localhost", host.getValue());
+        custom.detach(lines.toString());
+        lines.delete(0, lines.length());
+        assertEquals("value", custom.getValue());
+        assertEquals("[X-Custom: value]", custom.toString());
+    }
+
+    public void testDrainLines() throws IOException {
+        Buffer buffer = new Buffer(1024);
+        buffer.fill("Accept: */*\r\nHost: local");
+        buffer.flip();
+
+        StringBuilder lines = new StringBuilder();
+        BufferState state = buffer.drain(lines, BufferState.IDLE);
+        assertEquals(BufferState.DRAINING, state);
+        assertEquals("Accept: */*", lines.toString());
+
+        // A partial line is completed by the next fill
+        int next = lines.length();
+        state = buffer.drain(lines, BufferState.IDLE);
+        assertEquals(BufferState.FILLING, state);
+        buffer.flip();
+        buffer.fill("host\r\n");
+        buffer.flip();
+        state = buffer.drain(lines, state);
+        assertEquals(BufferState.DRAINING, state);
+        assertEquals("localhost", ParsedHeader.parse(lines, next).getValue());
+    }
+
+    public void testParse() throws IOException {
+        ParsedHeader header = ParsedHeader.parse("Content-Type: text/plain", 0);
+        assertSame(HeaderConstants.HEADER_CONTENT_TYPE, header.getName());
+        assertEquals("text/plain", header.getValue());
+
+        header = ParsedHeader.parse("content-type:text/html", 0);
+        assertEquals("content-type", header.getName());
+        assertEquals("text/html", header.getValue());
+
+        header = ParsedHeader.parse("X-Empty:", 0);
+        assertEquals("X-Empty", header.getName());
+        assertEquals("", header.getValue());
+
+        assertNull(ParsedHeader.parse("", 0));
+
+        try {
+            ParsedHeader.parse("Invalid header", 0);
+            fail("Missing colon not detected");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+}
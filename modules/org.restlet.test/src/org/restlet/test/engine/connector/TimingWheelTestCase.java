@@ -0,0 +1,105 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.connector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restlet.engine.connector.TimingWheel;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit test for the timing wheel of idle connections.
+ * 
+ * @author Jerome Louvel
+ */
+public class TimingWheelTestCase extends RestletTestCase {
+
+    public void testCancel() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 8, 0);
+        wheel.schedule("a", 50);
+        assertTrue(wheel.contains("a"));
+        assertTrue(wheel.cancel("a"));
+        assertFalse(wheel.cancel("a"));
+        assertTrue(wheel.isEmpty());
+
+        List<String> expired = new ArrayList<String>();
+        wheel.expire(100, expired);
+        assertTrue(expired.isEmpty());
+    }
+
+    public void testExpire() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 8, 0);
+        wheel.schedule("a", 25);
+        wheel.schedule("b", 45);
+        wheel.schedule("c", 5);
+        assertEquals(3, wheel.size());
+
+        List<String> expired = new ArrayList<String>();
+        wheel.expire(20, expired);
+        assertEquals(1, expired.size());
+        assertEquals("c", expired.get(0));
+
+        expired.clear();
+        wheel.expire(25, expired);
+        assertEquals(1, expired.size());
+        assertEquals("a", expired.get(0));
+
+        expired.clear();
+        wheel.expire(40, expired);
+        assertTrue(expired.isEmpty());
+        wheel.expire(45, expired);
+        assertEquals(1, expired.size());
+        assertEquals("b", expired.get(0));
+        assertTrue(wheel.isEmpty());
+    }
+
+    public void testReschedule() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 8, 0);
+        wheel.schedule("a", 15);
+        wheel.schedule("a", 500);
+        assertEquals(1, wheel.size());
+
+        List<String> expired = new ArrayList<String>();
+        wheel.expire(100, expired);
+        assertTrue(expired.isEmpty());
+
+        // Several rotations later
+        wheel.expire(499, expired);
+        assertTrue(expired.isEmpty());
+        wheel.expire(1000, expired);
+        assertEquals(1, expired.size());
+    }
+
+}
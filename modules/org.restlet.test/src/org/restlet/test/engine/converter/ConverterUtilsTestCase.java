@@ -0,0 +1,194 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.converter;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restlet.data.MediaType;
+import org.restlet.engine.Engine;
+import org.restlet.engine.converter.ConverterHelper;
+import org.restlet.engine.converter.ConverterUtils;
+import org.restlet.engine.converter.DefaultConverter;
+import org.restlet.engine.resource.VariantInfo;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
+import org.restlet.resource.Resource;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the converter resolution cache of {@link ConverterUtils}.
+ * 
+ * @author Jerome Louvel
+ */
+public class ConverterUtilsTestCase extends RestletTestCase {
+
+    /**
+     * Bean loaded by a disposable class loader.
+     */
+    public static class Bean {
+    }
+
+    /**
+     * Converter preferring strings, only registered by some tests.
+     */
+    private static class StringConverter extends DefaultConverter {
+        @Override
+        public float score(Object source, Variant target, Resource resource) {
+            return (source instanceof String) ? 2.0F : -1.0F;
+        }
+    }
+
+    /** The converters registered before the test. */
+    private List<ConverterHelper> savedConverters;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.savedConverters = new ArrayList<ConverterHelper>(Engine
+                .getInstance().getRegisteredConverters());
+        Engine.getInstance().getRegisteredConverters().clear();
+        Engine.getInstance().registerDefaultConverters();
+        ConverterUtils.clearCache();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Engine.getInstance().setRegisteredConverters(this.savedConverters);
+        super.tearDown();
+    }
+
+    public void testCacheHits() {
+        long hits = ConverterUtils.getCacheHits();
+        long misses = ConverterUtils.getCacheMisses();
+        Variant variant = new Variant(MediaType.TEXT_PLAIN);
+
+        ConverterHelper first = ConverterUtils.getBestHelper("a", variant,
+                null);
+        ConverterHelper second = ConverterUtils.getBestHelper("b",
+                new Variant(MediaType.TEXT_PLAIN), null);
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(hits + 1, ConverterUtils.getCacheHits());
+        assertEquals(misses + 1, ConverterUtils.getCacheMisses());
+
+        // A different media type is resolved separately
+        ConverterUtils.getBestHelper("c", new Variant(MediaType.TEXT_HTML),
+                null);
+        assertEquals(misses + 2, ConverterUtils.getCacheMisses());
+
+        Representation source = new StringRepresentation("d");
+        ConverterUtils.getBestHelper(source, String.class, null);
+        ConverterUtils.getBestHelper(new StringRepresentation("e"),
+                String.class, null);
+        assertEquals(hits + 2, ConverterUtils.getCacheHits());
+        assertEquals(misses + 3, ConverterUtils.getCacheMisses());
+    }
+
+    public void testCollectedClasses() throws Exception {
+        URL location = Bean.class.getProtectionDomain().getCodeSource()
+                .getLocation();
+        ClassLoader loader = new URLClassLoader(new URL[] { location }, null);
+        Object bean = loader.loadClass(Bean.class.getName()).newInstance();
+        assertNotSame(Bean.class, bean.getClass());
+        ConverterUtils.getBestHelper(bean, new Variant(MediaType.TEXT_PLAIN),
+                null);
+
+        // The cache must not prevent the class loader from being collected
+        WeakReference<ClassLoader> loaderRef = new WeakReference<ClassLoader>(
+                loader);
+        loader = null;
+        bean = null;
+
+        for (int i = 0; (i < 50) && (loaderRef.get() != null); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertNull(loaderRef.get());
+    }
+
+    public void testInvalidation() {
+        Variant variant = new Variant(MediaType.TEXT_PLAIN);
+        ConverterHelper defaultHelper = ConverterUtils.getBestHelper("a",
+                variant, null);
+        assertTrue(defaultHelper instanceof DefaultConverter);
+
+        // Direct updates of the registered converters are detected
+        StringConverter stringHelper = new StringConverter();
+        Engine.getInstance().getRegisteredConverters().add(stringHelper);
+        assertSame(stringHelper,
+                ConverterUtils.getBestHelper("a", variant, null));
+
+        // So are replacements of the whole list
+        List<ConverterHelper> converters = new ArrayList<ConverterHelper>();
+        converters.add(defaultHelper);
+        Engine.getInstance().setRegisteredConverters(converters);
+        assertSame(defaultHelper,
+                ConverterUtils.getBestHelper("a", variant, null));
+    }
+
+    public void testNoResult() {
+        Engine.getInstance().getRegisteredConverters().clear();
+        long hits = ConverterUtils.getCacheHits();
+        long misses = ConverterUtils.getCacheMisses();
+        Variant variant = new Variant(MediaType.TEXT_PLAIN);
+
+        // Failed resolutions are cached as well
+        assertNull(ConverterUtils.getBestHelper("a", variant, null));
+        assertNull(ConverterUtils.getBestHelper("b", variant, null));
+        assertNull(ConverterUtils.getVariants(String.class, null));
+        assertNull(ConverterUtils.getVariants(String.class, null));
+        assertEquals(hits + 2, ConverterUtils.getCacheHits());
+        assertEquals(misses + 2, ConverterUtils.getCacheMisses());
+    }
+
+    public void testVariants() {
+        List<VariantInfo> first = ConverterUtils.getVariants(String.class,
+                null);
+        assertNotNull(first);
+        int size = first.size();
+
+        // Updating the returned list must not alter the cache
+        first.clear();
+        List<VariantInfo> second = ConverterUtils.getVariants(String.class,
+                null);
+        assertEquals(size, second.size());
+    }
+
+}
@@ -38,10 +38,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.restlet.data.CharacterSet;
 import org.restlet.data.MediaType;
+import org.restlet.engine.Engine;
 import org.restlet.engine.io.BioUtils;
+import org.restlet.engine.io.PipeExecutor;
 import org.restlet.representation.OutputRepresentation;
 import org.restlet.test.RestletTestCase;
 
@@ -83,4 +88,130 @@ public class BioUtilsTestCase extends RestletTestCase {
         }
     }
 
+    public void testPipeExecutor() throws IOException {
+        PipeExecutor executor = new PipeExecutor(1, 1, 0);
+        Engine.getInstance().setPipeExecutor(executor);
+
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final String[] threadNames = new String[2];
+            InputStream[] streams = new InputStream[2];
+
+            for (int i = 0; i < streams.length; i++) {
+                final int index = i;
+                streams[i] = new OutputRepresentation(
+                        MediaType.APPLICATION_OCTET_STREAM) {
+                    @Override
+                    public void write(OutputStream outputStream)
+                            throws IOException {
+                        threadNames[index] = Thread.currentThread().getName();
+
+                        try {
+                            // Keeps the only thread busy
+                            latch.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e.getMessage());
+                        }
+
+                        outputStream.write(index);
+                    }
+                }.getStream();
+            }
+
+            // The second pipe can't be queued
+            latch.countDown();
+
+            for (int i = 0; i < streams.length; i++) {
+                assertEquals(i, streams[i].read());
+                assertEquals(-1, streams[i].read());
+            }
+
+            assertTrue(threadNames[0].startsWith("Restlet-Pipe-"));
+            assertTrue(threadNames[1].startsWith("Restlet-Pipe-Overflow-"));
+            assertEquals(1, executor.getOverflowPipes());
+            assertEquals(0, executor.getRejectedPipes());
+        } finally {
+            Engine.getInstance().setPipeExecutor(null);
+        }
+    }
+
+    public void testPipeExecutorNested() throws IOException {
+        PipeExecutor executor = new PipeExecutor(1, 1, 0);
+        Engine.getInstance().setPipeExecutor(executor);
+
+        try {
+            // The outer writer keeps the only thread busy while reading the
+            // inner pipe, whose writer must not wait for a thread
+            final OutputRepresentation inner = new OutputRepresentation(
+                    MediaType.APPLICATION_OCTET_STREAM) {
+                @Override
+                public void write(OutputStream outputStream)
+                        throws IOException {
+                    outputStream.write(42);
+                }
+            };
+            InputStream outer = new OutputRepresentation(
+                    MediaType.APPLICATION_OCTET_STREAM) {
+                @Override
+                public void write(OutputStream outputStream)
+                        throws IOException {
+                    InputStream innerStream = inner.getStream();
+                    outputStream.write(innerStream.read());
+                    innerStream.close();
+                }
+            }.getStream();
+
+            long start = System.currentTimeMillis();
+            assertEquals(42, outer.read());
+            assertEquals(-1, outer.read());
+            assertTrue(System.currentTimeMillis() - start < 4000);
+            assertEquals(1, executor.getOverflowPipes());
+            assertEquals(0, executor.getRejectedPipes());
+        } finally {
+            Engine.getInstance().setPipeExecutor(null);
+        }
+    }
+
+    public void testPipeExecutorSaturated() throws Exception {
+        PipeExecutor executor = new PipeExecutor(1, 1, 0);
+        Engine.getInstance().setPipeExecutor(executor);
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        try {
+            OutputRepresentation blocking = new OutputRepresentation(
+                    MediaType.APPLICATION_OCTET_STREAM) {
+                @Override
+                public void write(OutputStream outputStream)
+                        throws IOException {
+                    started.countDown();
+
+                    try {
+                        // Keeps the thread busy
+                        latch.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e.getMessage());
+                    }
+                }
+            };
+
+            blocking.getStream();
+            blocking.getStream();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals(2, executor.getActivePipes());
+            assertEquals(1, executor.getOverflowPipes());
+
+            // Both pools are saturated
+            try {
+                blocking.getStream();
+                fail("The saturated executor should reject the pipe");
+            } catch (RejectedExecutionException e) {
+                assertEquals(1, executor.getRejectedPipes());
+            }
+        } finally {
+            latch.countDown();
+            Engine.getInstance().setPipeExecutor(null);
+        }
+    }
+
 }
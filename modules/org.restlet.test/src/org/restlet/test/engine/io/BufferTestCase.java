@@ -36,6 +36,7 @@ package org.restlet.test.engine.io;
 import java.io.IOException;
 
 import org.restlet.engine.io.Buffer;
+import org.restlet.engine.io.BufferPool;
 import org.restlet.engine.io.BufferState;
 import org.restlet.test.RestletTestCase;
 
@@ -73,4 +74,42 @@ public class BufferTestCase extends RestletTestCase {
         buffer.drain(sb, BufferState.FILLING);
         assertEquals("Remaining buffer", "ijklmnopqrstuvwxyz", sb.toString());
     }
+
+    public void testRelease() throws IOException {
+        BufferPool pool = new BufferPool(1, false);
+        Buffer buffer = new Buffer(pool, 1024);
+        assertTrue(buffer.isReleased());
+        assertTrue(buffer.isEmpty());
+        assertEquals(1024, buffer.capacity());
+        assertEquals(0, pool.getAcquiredCount());
+
+        buffer.fill("abc");
+        assertFalse(buffer.isReleased());
+        assertEquals(1, pool.getAllocatedCount());
+
+        // Not released while bytes remain to be drained
+        assertFalse(buffer.release());
+        buffer.flip();
+        StringBuilder sb = new StringBuilder();
+        buffer.drain(sb, BufferState.FILLING);
+        assertEquals("abc", sb.toString());
+        assertTrue(buffer.release());
+        assertEquals(1, pool.getPooledCount());
+
+        // The pooled byte buffer is reused
+        Buffer other = new Buffer(pool, 1024);
+        other.fill("def");
+        assertEquals(1, pool.getAllocatedCount());
+        assertEquals(2, pool.getAcquiredCount());
+        assertEquals(0, pool.getPooledCount());
+
+        // Buffers beyond the pool cap are discarded
+        buffer.fill("ghi");
+        buffer.clear();
+        other.clear();
+        assertTrue(buffer.release());
+        assertTrue(other.release());
+        assertEquals(1, pool.getPooledCount());
+        assertEquals(1, pool.getDiscardedCount());
+    }
 }
@@ -0,0 +1,206 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.local;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Client;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.LocalReference;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Preference;
+import org.restlet.data.Protocol;
+import org.restlet.data.ReferenceList;
+import org.restlet.data.Status;
+import org.restlet.engine.io.BioUtils;
+import org.restlet.engine.local.DirectoryCache;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the lookup cache of the directories.
+ * 
+ * @author Jerome Louvel
+ */
+public class DirectoryCacheTestCase extends RestletTestCase {
+
+    /** Counts the lookups reaching the FILE client. */
+    private AtomicInteger lookups;
+
+    private DirectoryCache cache;
+
+    private Client client;
+
+    private Restlet dispatcher;
+
+    private File testDir;
+
+    private String testUri;
+
+    private void createFile(String name) throws IOException {
+        FileWriter writer = new FileWriter(new File(this.testDir, name));
+        writer.write(name);
+        writer.close();
+    }
+
+    private Response get(String name, MediaType acceptedMediaType,
+            long timeToLive) throws IOException {
+        Request request = new Request(Method.GET, this.testUri + name);
+
+        if (acceptedMediaType != null) {
+            request.getClientInfo().getAcceptedMediaTypes()
+                    .add(new Preference<MediaType>(acceptedMediaType));
+        }
+
+        return this.cache.handle(this.dispatcher, request, timeToLive);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.testDir = new File(System.getProperty("java.io.tmpdir"),
+                "DirectoryCacheTestCase" + System.currentTimeMillis());
+        this.testDir.mkdirs();
+        this.testUri = LocalReference.createFileReference(this.testDir)
+                .toString();
+
+        if (!this.testUri.endsWith("/")) {
+            this.testUri += "/";
+        }
+
+        createFile("a.txt");
+        createFile("a.fr.txt");
+        this.client = new Client(Protocol.FILE);
+        this.client.start();
+        this.lookups = new AtomicInteger();
+        this.dispatcher = new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                lookups.incrementAndGet();
+                client.handle(request, response);
+            }
+        };
+        this.cache = new DirectoryCache();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.client.stop();
+        BioUtils.delete(this.testDir, true);
+        this.cache = null;
+        this.client = null;
+        this.dispatcher = null;
+        super.tearDown();
+    }
+
+    public void testDirectoryModification() throws Exception {
+        assertEquals(2, new ReferenceList(get("", null, 60000).getEntity())
+                .size());
+        assertEquals(1, this.lookups.get());
+
+        // Make sure the modification date changes whatever its precision
+        createFile("b.txt");
+        this.testDir
+                .setLastModified(this.testDir.lastModified() + 10000);
+
+        assertEquals(3, new ReferenceList(get("", null, 60000).getEntity())
+                .size());
+        assertEquals(2, this.lookups.get());
+        assertEquals(Status.SUCCESS_OK, get("b", MediaType.TEXT_URI_LIST,
+                60000).getStatus());
+    }
+
+    public void testFilesNotCached() throws Exception {
+        Response response = get("a.txt", null, 60000);
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("a.txt", response.getEntity().getText());
+        response = get("a.txt", null, 60000);
+        assertEquals("a.txt", response.getEntity().getText());
+        assertEquals(2, this.lookups.get());
+        assertEquals(0, this.cache.size());
+    }
+
+    public void testListingCached() throws Exception {
+        Response response = get("", null, 60000);
+        assertEquals(MediaType.TEXT_URI_LIST, response.getEntity()
+                .getMediaType());
+        ReferenceList first = new ReferenceList(response.getEntity());
+
+        response = get("", null, 60000);
+        assertEquals(MediaType.TEXT_URI_LIST, response.getEntity()
+                .getMediaType());
+        ReferenceList second = new ReferenceList(response.getEntity());
+
+        assertEquals(1, this.lookups.get());
+        assertEquals(2, first.size());
+        assertEquals(first, second);
+    }
+
+    public void testMissingCached() throws Exception {
+        assertEquals(Status.CLIENT_ERROR_NOT_FOUND, get("missing.txt", null,
+                60000).getStatus());
+        assertEquals(Status.CLIENT_ERROR_NOT_FOUND, get("missing.txt", null,
+                60000).getStatus());
+        assertEquals(1, this.lookups.get());
+
+        createFile("missing.txt");
+        this.testDir
+                .setLastModified(this.testDir.lastModified() + 10000);
+        assertEquals(Status.SUCCESS_OK, get("missing.txt", null, 60000)
+                .getStatus());
+        assertEquals(2, this.lookups.get());
+    }
+
+    public void testTimeToLive() throws Exception {
+        get("", null, 0);
+        get("", null, 0);
+        assertEquals(2, this.lookups.get());
+    }
+
+    public void testVariantsCached() throws Exception {
+        ReferenceList variants = new ReferenceList(get("a",
+                MediaType.TEXT_URI_LIST, 60000).getEntity());
+        assertEquals(2, variants.size());
+
+        // The accepted media types are part of the key
+        get("a", null, 60000);
+        get("a", MediaType.TEXT_URI_LIST, 60000);
+        assertEquals(2, this.lookups.get());
+    }
+}
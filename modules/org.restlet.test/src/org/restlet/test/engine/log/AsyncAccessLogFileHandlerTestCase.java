@@ -0,0 +1,168 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.restlet.engine.io.BioUtils;
+import org.restlet.engine.log.AsyncAccessLogFileHandler;
+import org.restlet.representation.FileRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link AsyncAccessLogFileHandler} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class AsyncAccessLogFileHandlerTestCase extends RestletTestCase {
+
+    private File testDir;
+
+    private static String read(File file) throws IOException {
+        return new FileRepresentation(file, null).getText();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.testDir = new File(System.getProperty("java.io.tmpdir"),
+                "AsyncAccessLogFileHandlerTestCase");
+        BioUtils.delete(this.testDir, true);
+        this.testDir.mkdirs();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        BioUtils.delete(this.testDir, true);
+        this.testDir = null;
+        super.tearDown();
+    }
+
+    public void testClose() throws IOException {
+        File file = new File(this.testDir, "access.log");
+        AsyncAccessLogFileHandler handler = new AsyncAccessLogFileHandler(
+                file.getPath());
+        handler.publish(new LogRecord(Level.INFO, "line1"));
+        handler.close();
+        handler.publish(new LogRecord(Level.INFO, "line2"));
+
+        assertEquals("line1\n", read(file));
+        assertEquals(1, handler.getWrittenLines());
+        assertEquals(1, handler.getDroppedLines());
+        assertEquals(0, handler.getPendingLines());
+    }
+
+    public void testConcurrentPublish() throws Exception {
+        File file = new File(this.testDir, "access.log");
+        final AsyncAccessLogFileHandler handler = new AsyncAccessLogFileHandler(
+                file.getPath(), 0, 1, 0L, 64, true);
+        Thread[] threads = new Thread[4];
+
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        handler.publish(new LogRecord(Level.INFO, index + "-"
+                                + j));
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        handler.close();
+        String content = read(file);
+        int lines = content.isEmpty() ? 0 : content.split("\n").length;
+
+        // Each line is either written or counted as dropped
+        assertEquals(handler.getWrittenLines(), lines);
+        assertEquals(4000, handler.getWrittenLines()
+                + handler.getDroppedLines());
+    }
+
+    public void testRotation() throws IOException {
+        File file = new File(this.testDir, "access.log");
+        AsyncAccessLogFileHandler handler = new AsyncAccessLogFileHandler(
+                file.getPath(), 12, 2, 0L, 16, false);
+
+        for (int i = 1; i <= 4; i++) {
+            handler.publish(new LogRecord(Level.INFO, "line" + i));
+        }
+
+        handler.close();
+
+        // Each file holds two lines of six characters
+        assertEquals("line3\nline4\n", read(file));
+        assertEquals("line1\nline2\n", read(new File(file.getPath() + ".1")));
+        assertFalse(new File(file.getPath() + ".2").exists());
+    }
+
+    public void testWakeUp() throws Exception {
+        File file = new File(this.testDir, "access.log");
+        AsyncAccessLogFileHandler handler = new AsyncAccessLogFileHandler(
+                file.getPath(), 0, 1, 0L, 64, true);
+
+        try {
+            // Lets the writer thread wait for the flush delay
+            Thread.sleep(100);
+
+            // More than a quarter of the buffer wakes the writer up
+            for (int i = 0; i < 32; i++) {
+                handler.publish(new LogRecord(Level.INFO, "line" + i));
+            }
+
+            long start = System.currentTimeMillis();
+
+            while ((handler.getWrittenLines() < 32)
+                    && (System.currentTimeMillis() - start < 500)) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(32, handler.getWrittenLines());
+            assertEquals(0, handler.getDroppedLines());
+        } finally {
+            handler.close();
+        }
+    }
+
+}
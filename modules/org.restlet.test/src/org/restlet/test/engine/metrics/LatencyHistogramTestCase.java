@@ -0,0 +1,111 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.metrics;
+
+import org.restlet.engine.metrics.LatencyHistogram;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the latency histogram.
+ * 
+ * @author Jerome Louvel
+ */
+public class LatencyHistogramTestCase extends RestletTestCase {
+
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getMax());
+        assertEquals(0D, histogram.getMean());
+        assertEquals(0L, histogram.getValueAtPercentile(99D));
+    }
+
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(10000L, histogram.getCount());
+        assertEquals(10000L, histogram.getMax());
+        assertEquals(5000.5D, histogram.getMean());
+        assertPrecise(5000L, histogram.getValueAtPercentile(50D));
+        assertPrecise(9000L, histogram.getValueAtPercentile(90D));
+        assertPrecise(9900L, histogram.getValueAtPercentile(99D));
+        assertEquals(10000L, histogram.getValueAtPercentile(100D));
+    }
+
+    public void testSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(3);
+        histogram.record(3);
+        histogram.record(15);
+
+        assertEquals(0L, histogram.getValueAtPercentile(25D));
+        assertEquals(3L, histogram.getValueAtPercentile(75D));
+        assertEquals(15L, histogram.getValueAtPercentile(100D));
+    }
+
+    public void testConcurrentRecords() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        histogram.record(j);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40000L, histogram.getCount());
+        assertEquals(9999L, histogram.getMax());
+    }
+
+    private void assertPrecise(long expected, long actual) {
+        assertTrue("Expected about " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= (expected / 16));
+    }
+
+}
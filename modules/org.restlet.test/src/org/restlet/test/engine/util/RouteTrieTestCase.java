@@ -0,0 +1,174 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Method;
+import org.restlet.data.Reference;
+import org.restlet.routing.Router;
+import org.restlet.routing.Template;
+import org.restlet.routing.TemplateRoute;
+import org.restlet.routing.Variable;
+import org.restlet.test.MockRestlet;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the routes index used by the {@link Router} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class RouteTrieTestCase extends RestletTestCase {
+
+    private static final String[] PATHS = { "", "/", "/users", "/users/",
+            "/users/123", "/users/123/", "/users/123/orders",
+            "/users/123/orders/456", "/users/abc/orders/456/items",
+            "/users/123.json", "/usersX", "/usersX/1", "/files/a/b/c.txt",
+            "/files/", "/static/css/site.css", "/a+b/c", "/aab/c",
+            "/search?q=1/2", "/users/123?x=y", "/orders/2012/05/", "//x/",
+            "/tokens/Abc_1/z", "/fixed/a/b/" };
+
+    private static final String[] PATTERNS = { "/users", "/users/",
+            "/users/{id}", "/users/{id}/", "/users/{id}/orders",
+            "/users/{id}/orders/{orderId}", "/users/{id}.json",
+            "/files/{path}", "/files/", "/static/{rest}", "/a+b/c",
+            "/search?q={q}", "/orders/{year}/{month}/", "//x/",
+            "/tokens/{t}/z", "/fixed/{f}/b/", "/{any}/123/", "" };
+
+    private Router createRouter(int routingMode, int matchingMode) {
+        Router router = new Router();
+        router.setRoutingMode(routingMode);
+
+        for (int i = 0; i < PATTERNS.length; i++) {
+            TemplateRoute route = router.attach(PATTERNS[i], new MockRestlet(null),
+                    matchingMode);
+
+            if (PATTERNS[i].startsWith("/files") || PATTERNS[i].equals("")) {
+                route.getTemplate().getVariables()
+                        .put("path", new Variable(Variable.TYPE_URI_PATH));
+            } else if (PATTERNS[i].startsWith("/static")) {
+                route.getTemplate().getVariables()
+                        .put("rest", new Variable(Variable.TYPE_ALL));
+            } else if (PATTERNS[i].startsWith("/tokens")) {
+                route.getTemplate().getVariables()
+                        .put("t", new Variable(Variable.TYPE_TOKEN));
+            } else if (PATTERNS[i].startsWith("/fixed")) {
+                route.getTemplate().getVariables()
+                        .put("f", new Variable(Variable.TYPE_ALL, "a/b", true,
+                                true));
+            } else if (PATTERNS[i].startsWith("/users/{id}/orders")) {
+                route.getTemplate().getVariables()
+                        .put("id", new Variable(Variable.TYPE_DIGIT));
+            }
+        }
+
+        return router;
+    }
+
+    private Request createRequest(String path, String base) {
+        Request request = new Request(Method.GET, "http://localhost" + base
+                + path);
+
+        if (base.length() > 0) {
+            request.getResourceRef().setBaseRef(
+                    new Reference("http://localhost" + base));
+        } else {
+            request.getResourceRef().setBaseRef(
+                    new Reference("http://localhost"));
+        }
+
+        return request;
+    }
+
+    private void testRouter(int routingMode, int matchingMode, boolean query) {
+        Router router = createRouter(routingMode, matchingMode);
+
+        for (TemplateRoute route : router.getRoutes().toArray(
+                new TemplateRoute[0])) {
+            route.setMatchingQuery(query);
+        }
+
+        for (String base : new String[] { "", "/app" }) {
+            for (String path : PATHS) {
+                router.setIndexingRoutes(false);
+                Request request = createRequest(path, base);
+                Restlet expected = router.getNext(request, new Response(
+                        request));
+
+                router.setIndexingRoutes(true);
+                request = createRequest(path, base);
+                Restlet actual = router.getNext(request, new Response(request));
+
+                assertSame("Different route selected for \"" + path + "\"",
+                        expected, actual);
+            }
+        }
+    }
+
+    public void testBestMatch() {
+        testRouter(Router.MODE_BEST_MATCH, Template.MODE_EQUALS, false);
+        testRouter(Router.MODE_BEST_MATCH, Template.MODE_STARTS_WITH, false);
+        testRouter(Router.MODE_BEST_MATCH, Template.MODE_STARTS_WITH, true);
+    }
+
+    public void testFirstMatch() {
+        testRouter(Router.MODE_FIRST_MATCH, Template.MODE_EQUALS, false);
+        testRouter(Router.MODE_FIRST_MATCH, Template.MODE_EQUALS, true);
+        testRouter(Router.MODE_FIRST_MATCH, Template.MODE_STARTS_WITH, false);
+    }
+
+    public void testRoutesChanged() {
+        Router router = new Router();
+        router.setIndexingRoutes(true);
+        Restlet user = new MockRestlet(null);
+        TemplateRoute usersRoute = router.attach("/users", new MockRestlet(
+                null));
+
+        Request request = createRequest("/users/1", "");
+        assertNull(router.getNext(request, new Response(request)));
+
+        TemplateRoute userRoute = router.attach("/users/{id}", user);
+        request = createRequest("/users/1", "");
+        assertSame(userRoute, router.getNext(request, new Response(request)));
+
+        router.detach(user);
+        request = createRequest("/users/1", "");
+        assertNull(router.getNext(request, new Response(request)));
+
+        request = createRequest("/users", "");
+        assertSame(usersRoute, router.getNext(request, new Response(request)));
+    }
+
+}
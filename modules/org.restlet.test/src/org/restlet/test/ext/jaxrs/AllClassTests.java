@@ -43,6 +43,7 @@ import org.restlet.test.ext.jaxrs.core.UriInfoTest;
 import org.restlet.test.ext.jaxrs.util.ConverterTests;
 import org.restlet.test.ext.jaxrs.util.EncodeOrCheckTests;
 import org.restlet.test.ext.jaxrs.util.OrderedMapTest;
+import org.restlet.test.ext.jaxrs.util.PathDispatchTableTests;
 import org.restlet.test.ext.jaxrs.util.PathRegExpTests;
 import org.restlet.test.ext.jaxrs.util.RemainingPathTests;
 import org.restlet.test.ext.jaxrs.util.SortedOrderedBagTest;
@@ -63,6 +64,7 @@ public class AllClassTests extends TestCase {
         mySuite.setName("All class tests");
         // package .
         mySuite.addTestSuite(ExceptionMappersTest.class);
+        mySuite.addTestSuite(ProviderCacheTest.class);
         // logs only: mySuite.addTestSuite(JaxRsApplicationTest.class);
         // package .core.
         mySuite.addTestSuite(PathSegmentImplTest.class);
@@ -72,6 +74,7 @@ public class AllClassTests extends TestCase {
         mySuite.addTestSuite(ConverterTests.class);
         mySuite.addTestSuite(EncodeOrCheckTests.class);
         mySuite.addTestSuite(OrderedMapTest.class);
+        mySuite.addTestSuite(PathDispatchTableTests.class);
         mySuite.addTestSuite(PathRegExpTests.class);
         mySuite.addTestSuite(RemainingPathTests.class);
         mySuite.addTestSuite(SortedOrderedBagTest.class);
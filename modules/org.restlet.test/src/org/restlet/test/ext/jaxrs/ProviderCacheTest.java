@@ -0,0 +1,123 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jaxrs;
+
+import java.lang.annotation.Annotation;
+
+import junit.framework.TestCase;
+
+import org.restlet.data.MediaType;
+import org.restlet.engine.Engine;
+import org.restlet.ext.jaxrs.internal.provider.StringProvider;
+import org.restlet.ext.jaxrs.internal.wrappers.provider.JaxRsProviders;
+import org.restlet.ext.jaxrs.internal.wrappers.provider.MessageBodyReader;
+import org.restlet.ext.jaxrs.internal.wrappers.provider.ProviderCache;
+import org.restlet.test.ext.jaxrs.services.providers.IllegalArgExcMapper;
+
+/**
+ * @author Jerome Louvel
+ * @see ProviderCache
+ */
+public class ProviderCacheTest extends TestCase {
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    private JaxRsProviders providers;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.providers = new JaxRsProviders(null, null, null, Engine
+                .getAnonymousLogger());
+        this.providers.addSingleton(new StringProvider(), true);
+        this.providers.addSingleton(new IllegalArgExcMapper(), false);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.providers = null;
+        super.tearDown();
+    }
+
+    public void testClearedOnAdd() {
+        ProviderCache cache = this.providers.getCache();
+        this.providers.getExceptionMapper(NumberFormatException.class);
+        assertEquals(1, cache.size());
+        this.providers.addSingleton(new IllegalArgExcMapper(), false);
+        assertEquals(0, cache.size());
+    }
+
+    public void testExceptionMapper() {
+        ProviderCache cache = this.providers.getCache();
+        String className = IllegalArgExcMapper.class.getName();
+        assertNotNull(this.providers
+                .getExceptionMapper(NumberFormatException.class));
+        assertEquals(0, cache.getHitCount(className));
+        assertNotNull(this.providers
+                .getExceptionMapper(NumberFormatException.class));
+        assertEquals(1, cache.getHitCount(className));
+        assertEquals(Long.valueOf(1), cache.getHitCounts().get(className));
+    }
+
+    public void testNegativeResult() {
+        ProviderCache cache = this.providers.getCache();
+        assertNull(this.providers
+                .getExceptionMapper(IllegalStateException.class));
+        long misses = cache.getMissCount();
+        assertNull(this.providers
+                .getExceptionMapper(IllegalStateException.class));
+        assertEquals(misses, cache.getMissCount());
+        assertNull(this.providers.getBestReader(Integer.class, Integer.class,
+                NO_ANNOTATIONS, MediaType.TEXT_PLAIN));
+        assertNull(this.providers.getBestReader(Integer.class, Integer.class,
+                NO_ANNOTATIONS, MediaType.TEXT_PLAIN));
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    public void testReader() {
+        ProviderCache cache = this.providers.getCache();
+        String className = StringProvider.class.getName();
+        MessageBodyReader mbr = this.providers.getBestReader(String.class,
+                String.class, NO_ANNOTATIONS, MediaType.TEXT_PLAIN);
+        assertNotNull(mbr);
+        assertSame(mbr, this.providers.getBestReader(String.class,
+                String.class, NO_ANNOTATIONS, MediaType.TEXT_PLAIN));
+        assertEquals(1, cache.getHitCount(className));
+        assertFalse(this.providers.writerSubSet(String.class, String.class)
+                .isEmpty());
+        assertFalse(this.providers.writerSubSet(String.class, String.class)
+                .isEmpty());
+        assertEquals(2, cache.getHitCount(className));
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jaxrs.util;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.Path;
+
+import junit.framework.TestCase;
+
+import org.restlet.ext.jaxrs.internal.util.AlgorithmUtil;
+import org.restlet.ext.jaxrs.internal.util.PathDispatchTable;
+import org.restlet.ext.jaxrs.internal.util.PathRegExp;
+import org.restlet.ext.jaxrs.internal.util.RemainingPath;
+import org.restlet.ext.jaxrs.internal.wrappers.RrcOrRml;
+
+/**
+ * @author Jerome Louvel
+ * @see PathDispatchTable
+ */
+public class PathDispatchTableTests extends TestCase {
+
+    private static class Member implements RrcOrRml {
+
+        private final PathRegExp pathRegExp;
+
+        Member(String pathTemplate) {
+            this.pathRegExp = newPathRegExp(pathTemplate);
+        }
+
+        public PathRegExp getPathRegExp() {
+            return this.pathRegExp;
+        }
+
+        @Override
+        public String toString() {
+            return this.pathRegExp.getPathTemplateEnc();
+        }
+    }
+
+    private static final String[] PATHS = { "", "/", "abc", "abc/",
+            "abc/def", "abc/xyz", "abc/def/ghi", "abcd", "a.b", "axb",
+            "axb/def", "xyz", "xyz/12", "a%20b" };
+
+    private static final String[] TEMPLATES = { "", "abc", "/abc/def",
+            "abc/{id}", "abc{x}", "{x}", "{x}/def", "a.b", "xyz/{id: [0-9]+}",
+            "xyz/{id}" };
+
+    private static final PathRegExp newPathRegExp(String pathPattern) {
+        try {
+            final Constructor<PathRegExp> constructor;
+            constructor = PathRegExp.class.getDeclaredConstructor(
+                    String.class, Path.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(pathPattern, null);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private List<Member> members;
+
+    private PathDispatchTable<Member> table;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.members = new ArrayList<Member>();
+        for (String template : TEMPLATES) {
+            this.members.add(new Member(template));
+        }
+        this.table = new PathDispatchTable<Member>(this.members);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.members = null;
+        this.table = null;
+        super.tearDown();
+    }
+
+    public void testCandidates() {
+        List<Member> candidates = this.table.getCandidates(new RemainingPath(
+                "abc/def"));
+        assertEquals("/abc/def", candidates.get(0).toString());
+        assertEquals("/abc/{id}", candidates.get(1).toString());
+        for (Member candidate : candidates) {
+            String segment = candidate.getPathRegExp()
+                    .getFirstLiteralSegment();
+            assertTrue(segment == null || segment.equals("abc"));
+        }
+
+        candidates = this.table.getCandidates(new RemainingPath("unknown"));
+        for (Member candidate : candidates) {
+            assertNull(candidate.getPathRegExp().getFirstLiteralSegment());
+        }
+    }
+
+    public void testEmpty() {
+        PathDispatchTable<Member> empty = new PathDispatchTable<Member>(
+                new ArrayList<Member>());
+        assertTrue(empty.isEmpty());
+        assertTrue(empty.getCandidates(new RemainingPath("abc")).isEmpty());
+        assertFalse(this.table.isEmpty());
+    }
+
+    public void testFirstLiteralSegment() {
+        assertEquals("abc", newPathRegExp("/abc/def").getFirstLiteralSegment());
+        assertEquals("abc", newPathRegExp("abc").getFirstLiteralSegment());
+        assertNull(newPathRegExp("").getFirstLiteralSegment());
+        assertNull(newPathRegExp("/").getFirstLiteralSegment());
+        assertNull(newPathRegExp("abc{x}").getFirstLiteralSegment());
+        assertNull(newPathRegExp("{x}/abc").getFirstLiteralSegment());
+        assertNull(newPathRegExp("a.b").getFirstLiteralSegment());
+        assertNull(newPathRegExp("a%20b").getFirstLiteralSegment());
+    }
+
+    /**
+     * The first matching candidate must be the member selected by sorting all
+     * matching members.
+     */
+    public void testSameAsSorting() {
+        for (String path : PATHS) {
+            RemainingPath u = new RemainingPath(path);
+            List<Member> matching = new ArrayList<Member>();
+            for (Member member : this.members) {
+                if (member.getPathRegExp().match(u) != null) {
+                    matching.add(member);
+                }
+            }
+            Member first = null;
+            for (Member candidate : this.table.getCandidates(u)) {
+                if (candidate.getPathRegExp().match(u) != null) {
+                    first = candidate;
+                    break;
+                }
+            }
+            assertSame(path, AlgorithmUtil
+                    .getFirstByNoOfLiteralCharsNoOfCapturingGroups(matching),
+                    first);
+        }
+    }
+}
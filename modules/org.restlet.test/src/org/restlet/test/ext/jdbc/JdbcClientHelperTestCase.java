@@ -0,0 +1,230 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import javax.sql.rowset.WebRowSet;
+
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.Protocol;
+import org.restlet.ext.jdbc.JdbcClientHelper;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the execution of the statements by the JDBC client
+ * connector, against a connection recording the JDBC calls.
+ * 
+ * @author Thierry Boileau
+ */
+public class JdbcClientHelperTestCase extends RestletTestCase {
+
+    /** The recorded JDBC calls. */
+    private List<String> calls;
+
+    /** The auto-commit mode of the recorded connection. */
+    private boolean autoCommit;
+
+    /** The connection recording the JDBC calls. */
+    private Connection connection;
+
+    /** The result set returned by the statements. */
+    private ResultSet resultSet;
+
+    /**
+     * Creates a proxy recording the calls of the given JDBC interface.
+     * 
+     * @param type
+     *            The JDBC interface.
+     * @return The recording proxy.
+     */
+    private Object createProxy(final Class<?> type) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { type }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        String name = method.getName();
+                        calls.add(type.getSimpleName() + "." + name
+                                + ((args == null) ? "[]" : Arrays.asList(args)));
+
+                        if ("setAutoCommit".equals(name)) {
+                            autoCommit = (Boolean) args[0];
+                        } else if ("getAutoCommit".equals(name)) {
+                            return autoCommit;
+                        } else if ("createStatement".equals(name)) {
+                            return createProxy(Statement.class);
+                        } else if ("prepareStatement".equals(name)) {
+                            return createProxy(PreparedStatement.class);
+                        } else if ("getConnection".equals(name)) {
+                            return connection;
+                        } else if ("getResultSet".equals(name)) {
+                            return resultSet;
+                        } else if ("execute".equals(name)) {
+                            return Boolean.TRUE;
+                        }
+
+                        return RowSetRepresentationTestCase
+                                .defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * Handles a JDBC request made of the given header elements and
+     * statements, and returns the response entity as text.
+     * 
+     * @param header
+     *            The header elements, besides the connection.
+     * @param statements
+     *            The statement elements.
+     * @return The response entity as text.
+     * @throws Exception
+     */
+    private String handle(String header, String statements) throws Exception {
+        JdbcClientHelper helper = new JdbcClientHelper(new Client(
+                new Context(), Protocol.JDBC)) {
+            @Override
+            protected Connection getConnection(String uri,
+                    Properties properties, boolean usePooling) {
+                return connection;
+            }
+        };
+        String xml = "<request><header><connection>"
+                + "<usePooling>true</usePooling></connection>" + header
+                + "</header><body>" + statements + "</body></request>";
+        Request request = JdbcClientHelper.create("jdbc:test",
+                new StringRepresentation(xml));
+        Response response = new Response(request);
+        helper.handle(request, response);
+        assertTrue(response.getStatus().isSuccess());
+        return response.getEntity().getText();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.calls = new ArrayList<String>();
+        this.autoCommit = true;
+        this.connection = (Connection) createProxy(Connection.class);
+        this.resultSet = RowSetRepresentationTestCase.createResultSet(
+                new String[] { "id" }, new int[] { Types.INTEGER },
+                new Object[][] { { Integer.valueOf(1) },
+                        { Integer.valueOf(2) } });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.calls = null;
+        this.connection = null;
+        this.resultSet = null;
+        super.tearDown();
+    }
+
+    public void testGeneratedKeys() throws Exception {
+        handle("<returnGeneratedKeys>true</returnGeneratedKeys>",
+                "<statement>INSERT INTO t VALUES (1)</statement>"
+                        + "<statement>INSERT INTO t VALUES (?)"
+                        + "<parameter>2</parameter></statement>");
+
+        assertTrue(this.calls.contains("Statement.execute"
+                + "[INSERT INTO t VALUES (1), "
+                + Statement.RETURN_GENERATED_KEYS + "]"));
+        assertTrue(this.calls.contains("Connection.prepareStatement"
+                + "[INSERT INTO t VALUES (?), "
+                + Statement.RETURN_GENERATED_KEYS + "]"));
+    }
+
+    public void testParameterBinding() throws Exception {
+        handle("<returnGeneratedKeys>false</returnGeneratedKeys>",
+                "<statement>DELETE FROM t</statement>"
+                        + "<statement>SELECT id FROM t WHERE id = ? AND name = ?"
+                        + "<parameter type=\"integer\">42</parameter>"
+                        + "<parameter null=\"true\" /></statement>");
+
+        // Statements without parameters aren't prepared
+        assertTrue(this.calls.contains("Statement.execute[DELETE FROM t]"));
+
+        // The prepared statements can be pooled
+        int prepared = this.calls.indexOf("Connection.prepareStatement"
+                + "[SELECT id FROM t WHERE id = ? AND name = ?]");
+        assertTrue(prepared >= 0);
+        assertEquals(
+                Arrays.asList("PreparedStatement.clearParameters[]",
+                        "PreparedStatement.setObject[1, 42, "
+                                + Types.INTEGER + "]",
+                        "PreparedStatement.setNull[2, " + Types.VARCHAR
+                                + "]", "PreparedStatement.execute[]"),
+                this.calls.subList(prepared + 1, prepared + 5));
+
+        // The connection is released once the result is written
+        assertTrue(this.calls.contains("Connection.close[]"));
+        assertFalse(this.calls.contains("Connection.commit[]"));
+    }
+
+    public void testStreaming() throws Exception {
+        WebRowSet webRowSet = RowSetRepresentationTestCase.readXml(handle(
+                "<returnGeneratedKeys>false</returnGeneratedKeys>"
+                        + "<streaming>true</streaming>",
+                "<statement>SELECT id FROM t</statement>"));
+        assertTrue(webRowSet.next());
+        assertEquals(1, webRowSet.getInt(1));
+        assertTrue(webRowSet.next());
+        assertEquals(2, webRowSet.getInt(1));
+        assertFalse(webRowSet.next());
+
+        // The rows are fetched progressively in a transaction, committed
+        // once they are written
+        assertTrue(this.calls.contains("Connection.setAutoCommit[false]"));
+        assertTrue(this.calls.contains("Statement.setFetchSize[100]"));
+        int commit = this.calls.indexOf("Connection.commit[]");
+        assertTrue(commit > this.calls.indexOf("Statement.close[]"));
+        assertTrue(commit < this.calls.indexOf("Connection.close[]"));
+    }
+
+}
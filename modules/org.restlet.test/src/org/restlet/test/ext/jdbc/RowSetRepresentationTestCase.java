@@ -0,0 +1,270 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jdbc;
+
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import javax.sql.rowset.WebRowSet;
+
+import org.restlet.ext.jdbc.JdbcResult;
+import org.restlet.ext.jdbc.RowSetRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the streaming mode of the {@link RowSetRepresentation}.
+ * 
+ * @author Thierry Boileau
+ */
+public class RowSetRepresentationTestCase extends RestletTestCase {
+
+    /**
+     * Returns the default value of a given type, as returned by a JDBC getter
+     * for SQL NULL.
+     * 
+     * @param type
+     *            The type.
+     * @return The default value.
+     */
+    static Object defaultValue(Class<?> type) {
+        Object result = null;
+
+        if (type == Boolean.TYPE) {
+            result = Boolean.FALSE;
+        } else if (type == Short.TYPE) {
+            result = Short.valueOf((short) 0);
+        } else if (type == Integer.TYPE) {
+            result = Integer.valueOf(0);
+        } else if (type == Long.TYPE) {
+            result = Long.valueOf(0L);
+        } else if (type == Float.TYPE) {
+            result = Float.valueOf(0F);
+        } else if (type == Double.TYPE) {
+            result = Double.valueOf(0D);
+        } else if (type == String.class) {
+            result = "";
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates a forward only result set iterating the given rows.
+     * 
+     * @param names
+     *            The column names.
+     * @param types
+     *            The {@link Types} constants of the columns.
+     * @param rows
+     *            The rows, null values denoting SQL NULL.
+     * @return The result set.
+     */
+    static ResultSet createResultSet(final String[] names, final int[] types,
+            final Object[][] rows) {
+        final ResultSetMetaData metaData = (ResultSetMetaData) Proxy
+                .newProxyInstance(
+                        RowSetRepresentationTestCase.class.getClassLoader(),
+                        new Class<?>[] { ResultSetMetaData.class },
+                        new InvocationHandler() {
+                            public Object invoke(Object proxy, Method method,
+                                    Object[] args) {
+                                String name = method.getName();
+
+                                if ("getColumnCount".equals(name)) {
+                                    return names.length;
+                                } else if ("getColumnName".equals(name)
+                                        || "getColumnLabel".equals(name)) {
+                                    return names[(Integer) args[0] - 1];
+                                } else if ("getColumnType".equals(name)) {
+                                    return types[(Integer) args[0] - 1];
+                                } else if ("isNullable".equals(name)) {
+                                    return ResultSetMetaData.columnNullable;
+                                }
+
+                                return defaultValue(method.getReturnType());
+                            }
+                        });
+
+        return (ResultSet) Proxy.newProxyInstance(
+                RowSetRepresentationTestCase.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, new InvocationHandler() {
+                    private int row = -1;
+
+                    private boolean wasNull;
+
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        String name = method.getName();
+
+                        if ("next".equals(name)) {
+                            return ++this.row < rows.length;
+                        } else if ("getMetaData".equals(name)) {
+                            return metaData;
+                        } else if ("wasNull".equals(name)) {
+                            return this.wasNull;
+                        } else if (name.startsWith("get") && (args != null)
+                                && (args[0] instanceof Integer)) {
+                            Object value = rows[this.row][(Integer) args[0] - 1];
+                            this.wasNull = (value == null);
+
+                            if (value == null) {
+                                return defaultValue(method.getReturnType());
+                            } else if (method.getReturnType() == String.class) {
+                                return value.toString();
+                            }
+
+                            return value;
+                        }
+
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * Creates a statement returning the given result set, whose connection is
+     * in auto-commit mode.
+     * 
+     * @param resultSet
+     *            The result set.
+     * @return The statement.
+     */
+    private static Statement createStatement(final ResultSet resultSet) {
+        final Connection connection = (Connection) Proxy.newProxyInstance(
+                RowSetRepresentationTestCase.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        if ("getAutoCommit".equals(method.getName())) {
+                            return Boolean.TRUE;
+                        }
+
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+
+        return (Statement) Proxy.newProxyInstance(
+                RowSetRepresentationTestCase.class.getClassLoader(),
+                new Class<?>[] { Statement.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        if ("getResultSet".equals(method.getName())) {
+                            return resultSet;
+                        } else if ("getConnection".equals(method.getName())) {
+                            return connection;
+                        }
+
+                        return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * Reads a WebRowSet XML document.
+     * 
+     * @param xml
+     *            The XML document.
+     * @return The read WebRowSet.
+     * @throws Exception
+     */
+    static WebRowSet readXml(String xml) throws Exception {
+        WebRowSet result = (WebRowSet) Class.forName(
+                "com.sun.rowset.WebRowSetImpl").newInstance();
+        result.readXml(new StringReader(xml));
+        return result;
+    }
+
+    public void testPaging() throws Exception {
+        Object[][] rows = new Object[5][];
+
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[] { Integer.valueOf(i) };
+        }
+
+        ResultSet resultSet = createResultSet(new String[] { "id" },
+                new int[] { Types.INTEGER }, rows);
+        WebRowSet webRowSet = readXml(new RowSetRepresentation(new JdbcResult(
+                createStatement(resultSet)), 1, 2, true).getText());
+        assertTrue(webRowSet.next());
+        assertEquals(1, webRowSet.getInt(1));
+        assertTrue(webRowSet.next());
+        assertEquals(2, webRowSet.getInt(1));
+        assertFalse(webRowSet.next());
+    }
+
+    public void testStreamedXml() throws Exception {
+        Timestamp timestamp = new Timestamp(1234567890000L);
+        ResultSet resultSet = createResultSet(new String[] { "id", "name",
+                "active", "created" }, new int[] { Types.INTEGER,
+                Types.VARCHAR, Types.BOOLEAN, Types.TIMESTAMP },
+                new Object[][] {
+                        { Integer.valueOf(1), "<Cafe & \"Bar\">",
+                                Boolean.TRUE, timestamp },
+                        { Integer.valueOf(2), null, Boolean.FALSE, null } });
+        RowSetRepresentation representation = new RowSetRepresentation(
+                new JdbcResult(createStatement(resultSet)), 0, -1, true);
+
+        // No WebRowSet is populated in streaming mode
+        assertNull(representation.getWebRowSet());
+
+        // The streamed XML can be read back as a WebRowSet
+        WebRowSet webRowSet = readXml(representation.getText());
+        assertEquals(4, webRowSet.getMetaData().getColumnCount());
+        assertEquals("name", webRowSet.getMetaData().getColumnName(2));
+
+        assertTrue(webRowSet.next());
+        assertEquals(1, webRowSet.getInt(1));
+        assertEquals("<Cafe & \"Bar\">", webRowSet.getString(2));
+        assertTrue(webRowSet.getBoolean(3));
+        assertEquals(timestamp, webRowSet.getTimestamp(4));
+
+        assertTrue(webRowSet.next());
+        assertEquals(2, webRowSet.getInt(1));
+        assertNull(webRowSet.getString(2));
+        assertTrue(webRowSet.wasNull());
+        assertFalse(webRowSet.getBoolean(3));
+        assertNull(webRowSet.getTimestamp(4));
+
+        assertFalse(webRowSet.next());
+    }
+
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.jetty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Client;
+import org.restlet.Component;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.data.Status;
+import org.restlet.engine.Engine;
+import org.restlet.routing.Router;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the suspension of the Jetty requests whose responses aren't
+ * auto committing.
+ * 
+ * @author Jerome Louvel
+ */
+public class JettyAsyncTestCase extends RestletTestCase {
+
+    /** The number of concurrent deferred calls. */
+    private static final int CALLS = 20;
+
+    /** The client connector. */
+    private Client client;
+
+    /** The component hosting the Jetty server. */
+    private Component component;
+
+    /** The number of deferred calls handled so far. */
+    private AtomicInteger handled;
+
+    /** The responses waiting to be committed. */
+    private ConcurrentLinkedQueue<Response> pending;
+
+    /** The executor committing the deferred responses. */
+    private ScheduledExecutorService scheduler;
+
+    /** The base URI of the server. */
+    private String uri;
+
+    /**
+     * Sends a GET request to the given path.
+     * 
+     * @param path
+     *            The path.
+     * @return The response.
+     */
+    private Response get(String path) {
+        return this.client.handle(new Request(Method.GET, this.uri + path));
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        Engine engine = Engine.register(false);
+        engine.getRegisteredServers().add(
+                new org.restlet.ext.jetty.HttpServerHelper(null));
+        engine.getRegisteredClients().add(
+                new org.restlet.ext.net.HttpClientHelper(null));
+
+        this.handled = new AtomicInteger();
+        this.pending = new ConcurrentLinkedQueue<Response>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        Router router = new Router();
+
+        // Committed later by another thread
+        router.attach("/deferred", new Restlet() {
+            @Override
+            public void handle(Request request, final Response response) {
+                response.setAutoCommitting(false);
+                scheduler.schedule(new Runnable() {
+                    public void run() {
+                        response.setEntity("deferred", null);
+                        response.commit();
+                    }
+                }, 200, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        // Committed once all the concurrent calls are handled
+        router.attach("/grouped", new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                response.setAutoCommitting(false);
+                pending.add(response);
+
+                if (handled.incrementAndGet() == CALLS) {
+                    for (Response current : pending) {
+                        current.setEntity("grouped", null);
+                        current.commit();
+                    }
+                }
+            }
+        });
+
+        // Never committed
+        router.attach("/forgotten", new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                response.setAutoCommitting(false);
+            }
+        });
+
+        router.attach("/sync", new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                response.setEntity("sync", null);
+            }
+        });
+
+        this.component = new Component();
+        Server server = this.component.getServers().add(Protocol.HTTP, 0);
+        server.getContext().getParameters().add("asyncTimeoutMs", "2000");
+        server.getContext().getParameters().add("minThreads", "2");
+        server.getContext().getParameters().add("maxThreads", "8");
+        this.component.getDefaultHost().attach(router);
+        this.component.start();
+        this.uri = "http://localhost:" + server.getEphemeralPort();
+
+        this.client = new Client(Protocol.HTTP);
+        this.client.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.client.stop();
+        this.component.stop();
+        this.scheduler.shutdownNow();
+        this.client = null;
+        this.component = null;
+        this.pending = null;
+        this.scheduler = null;
+
+        // Restore a clean engine
+        Engine.register();
+        super.tearDown();
+    }
+
+    public void testConcurrentSuspensions() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLS);
+
+        try {
+            List<Future<Response>> responses = new ArrayList<Future<Response>>();
+
+            for (int i = 0; i < CALLS; i++) {
+                responses.add(executor.submit(new Callable<Response>() {
+                    public Response call() throws Exception {
+                        return get("/grouped");
+                    }
+                }));
+            }
+
+            // Only possible if the Jetty threads are released while the
+            // responses aren't committed
+            for (Future<Response> future : responses) {
+                Response response = future.get(10, TimeUnit.SECONDS);
+                assertEquals(Status.SUCCESS_OK, response.getStatus());
+                assertEquals("grouped", response.getEntity().getText());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testDeferredCommit() throws Exception {
+        Response response = get("/deferred");
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("deferred", response.getEntity().getText());
+
+        // Auto committing responses are sent as before
+        response = get("/sync");
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("sync", response.getEntity().getText());
+    }
+
+    public void testExpiration() throws Exception {
+        long start = System.currentTimeMillis();
+        Response response = get("/forgotten");
+        assertEquals(Status.SERVER_ERROR_SERVICE_UNAVAILABLE,
+                response.getStatus());
+        assertTrue(System.currentTimeMillis() - start >= 1900);
+    }
+
+}
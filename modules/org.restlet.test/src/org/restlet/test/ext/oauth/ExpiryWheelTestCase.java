@@ -0,0 +1,94 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.oauth;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restlet.ext.oauth.internal.ExpiryWheel;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the bucketed expiry wheel.
+ * 
+ * @author Jerome Louvel
+ */
+public class ExpiryWheelTestCase extends RestletTestCase {
+
+    public void testExpire() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<String>(100);
+        wheel.schedule("a", 1050);
+        wheel.schedule("b", 1090);
+        wheel.schedule("c", 1500);
+        assertEquals(3, wheel.size());
+
+        List<String> expired = new ArrayList<String>();
+        wheel.expire(1000, expired);
+        assertTrue(expired.isEmpty());
+
+        // Only the due elements of the current bucket expire
+        wheel.expire(1060, expired);
+        assertEquals(1, expired.size());
+        assertEquals("a", expired.get(0));
+
+        // Elapsed buckets are all visited after a pause
+        expired.clear();
+        wheel.expire(5000, expired);
+        assertEquals(2, expired.size());
+        assertTrue(expired.contains("b"));
+        assertTrue(expired.contains("c"));
+        assertTrue(wheel.isEmpty());
+    }
+
+    public void testReschedule() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<String>(100);
+        wheel.schedule("a", 1000);
+        wheel.schedule("a", 3000);
+        assertEquals(2, wheel.size());
+
+        // The previous deadline is kept, owners check the current one
+        List<String> expired = new ArrayList<String>();
+        wheel.expire(2000, expired);
+        assertEquals(1, expired.size());
+        assertEquals(1, wheel.size());
+
+        // Past deadlines expire on the next call
+        wheel.schedule("b", 100);
+        expired.clear();
+        wheel.expire(2000, expired);
+        assertEquals(1, expired.size());
+        assertEquals("b", expired.get(0));
+    }
+
+}
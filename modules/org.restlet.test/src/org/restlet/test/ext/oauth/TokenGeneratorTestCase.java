@@ -38,8 +38,11 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import org.restlet.ext.oauth.AuthenticatedUser;
+import org.restlet.ext.oauth.ClientStore;
+import org.restlet.ext.oauth.ClientStoreFactory;
 import org.restlet.ext.oauth.internal.AuthenticatedUserImpl;
 import org.restlet.ext.oauth.internal.ExpireToken;
+import org.restlet.ext.oauth.internal.MemClientStore;
 import org.restlet.ext.oauth.internal.MemTokenGenerator;
 import org.restlet.ext.oauth.internal.Token;
 import org.restlet.ext.oauth.internal.TokenGenerator;
@@ -96,4 +99,115 @@ public class TokenGeneratorTestCase extends RestletTestCase{
         }
     }
 
+    /**
+     * Test that codes expire when they are not exchanged in time
+     * @throws Exception
+     */
+    public void testCodeExpiration() throws Exception {
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(5);
+        MemTokenGenerator generator = new MemTokenGenerator(pool);
+        generator.setMaxCodeTime(0);
+        AuthenticatedUser user = new AuthenticatedUserImpl("1234567890", null);
+        String code = generator.generateCode(user);
+        generator.sweep();
+        assertEquals(0, generator.getCodeCount());
+        assertEquals(1, generator.getExpiredCodeCount());
+        try {
+            generator.exchangeForToken(code, Token.UNLIMITED);
+            fail("The code should have expired");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        pool.shutdownNow();
+    }
+
+    /**
+     * Test that access tokens expire while refresh tokens are kept
+     * @throws Exception
+     */
+    public void testTokenExpiration() throws Exception {
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(5);
+        MemTokenGenerator generator = new MemTokenGenerator(pool);
+        generator.setMaxTokenTime(10);
+        AuthenticatedUser user = new AuthenticatedUserImpl("1234567890", null);
+        ExpireToken et = (ExpireToken) generator.generateToken(user, 1);
+        String token = et.getToken();
+        assertSame(et, generator.findToken(token));
+        assertTrue(generator.expiresInSec(et) <= 1);
+        assertEquals(2, generator.getTokenCount());
+
+        Thread.sleep(1100);
+
+        // Expired on lookup, or by the sweep task
+        assertNull(generator.findToken(token));
+        assertNull(et.getToken());
+        assertSame(et, generator.findToken(et.getRefreshToken()));
+        assertEquals(1, generator.getExpiredTokenCount());
+        assertEquals(1, generator.getTokenCount());
+
+        // Refreshing schedules the new token
+        generator.refreshToken(et);
+        assertSame(et, generator.findToken(et.getToken()));
+        assertEquals(1, generator.getExpiredTokenCount());
+        pool.shutdownNow();
+    }
+
+    /**
+     * Test that stopping the generator cancels its sweep task
+     * @throws Exception
+     */
+    public void testStop() throws Exception {
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1);
+        MemTokenGenerator generator = new MemTokenGenerator(pool);
+        assertEquals(1, pool.getQueue().size());
+        generator.stop();
+        assertEquals(0, pool.getQueue().size());
+        pool.shutdownNow();
+    }
+
+    /**
+     * Test that stopping the factory stops the generator of its store
+     * @throws Exception
+     */
+    public void testStopFactory() throws Exception {
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1);
+        ClientStoreFactory.stop();
+        ClientStoreFactory.setClientStoreImpl(MemClientStore.class, pool);
+        ClientStore<?> store = ClientStoreFactory.getInstance();
+        assertEquals(1, pool.getQueue().size());
+        ClientStoreFactory.stop();
+        assertEquals(0, pool.getQueue().size());
+        assertNotSame(store, ClientStoreFactory.getInstance());
+        ClientStoreFactory.stop();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Test that the token store can be capped
+     * @throws Exception
+     */
+    public void testTokenStoreLimit() throws Exception {
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(5);
+        MemTokenGenerator generator = new MemTokenGenerator(pool);
+        generator.setMaxTokenTime(10);
+        generator.setMaxTokens(4);
+        AuthenticatedUser user = new AuthenticatedUserImpl("1234567890", null);
+        generator.generateToken(user, 1);
+        generator.generateToken(user, 1);
+        try {
+            generator.generateToken(user, 1);
+            fail("The token store should be full");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        Thread.sleep(1100);
+
+        // Sessions with an expired access token are evicted
+        generator.generateToken(user, 1);
+        assertTrue(generator.getEvictedTokenCount() > 0);
+        assertTrue(generator.getTokenCount() <= 4);
+        pool.shutdownNow();
+    }
+
 }
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.oauth;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONObject;
+import org.restlet.ext.oauth.TokenValidationCache;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the token validation cache.
+ * 
+ * @author Jerome Louvel
+ */
+public class TokenValidationCacheTestCase extends RestletTestCase {
+
+    private static Callable<JSONObject> validation(final AtomicInteger calls,
+            final boolean authenticated, final long expiresIn) {
+        return new Callable<JSONObject>() {
+            public JSONObject call() throws Exception {
+                calls.incrementAndGet();
+                JSONObject result = new JSONObject();
+                result.put("authenticated", authenticated);
+
+                if (expiresIn >= 0) {
+                    result.put("expires_in", expiresIn);
+                }
+
+                return result;
+            }
+        };
+    }
+
+    public void testCoalescing() throws Exception {
+        final TokenValidationCache cache = new TokenValidationCache();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<JSONObject> slow = new Callable<JSONObject>() {
+            public JSONObject call() throws Exception {
+                calls.incrementAndGet();
+                started.countDown();
+                release.await();
+                return new JSONObject().put("authenticated", true);
+            }
+        };
+
+        Thread[] threads = new Thread[4];
+        final AtomicInteger authenticated = new AtomicInteger();
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        if (cache.validate("token", slow).getBoolean(
+                                "authenticated")) {
+                            authenticated.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        fail(e.getMessage());
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        started.await();
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(4, authenticated.get());
+        assertEquals(3L, cache.getHitCount());
+        assertEquals(1L, cache.getMissCount());
+        assertEquals(0.75D, cache.getHitRatio());
+    }
+
+    public void testExpiration() throws Exception {
+        TokenValidationCache cache = new TokenValidationCache(100, 60, 0);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Positive responses are cached
+        cache.validate("a", validation(calls, true, -1));
+        cache.validate("a", validation(calls, true, -1));
+        assertEquals(1, calls.get());
+
+        // Unless the token expires right away
+        cache.validate("b", validation(calls, true, 0));
+        cache.validate("b", validation(calls, true, 0));
+        assertEquals(3, calls.get());
+
+        // Negative responses are kept during their own max age
+        cache.validate("c", validation(calls, false, -1));
+        cache.validate("c", validation(calls, false, -1));
+        assertEquals(5, calls.get());
+    }
+
+    public void testFailure() throws Exception {
+        TokenValidationCache cache = new TokenValidationCache();
+        AtomicInteger calls = new AtomicInteger();
+
+        try {
+            cache.validate("a", new Callable<JSONObject>() {
+                public JSONObject call() throws Exception {
+                    throw new IllegalStateException("down");
+                }
+            });
+            fail("The failure should be propagated");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        // Failures aren't cached
+        assertEquals(0, cache.getSize());
+        cache.validate("a", validation(calls, true, -1));
+        assertEquals(1, calls.get());
+    }
+
+    public void testGetKey() throws Exception {
+        JSONObject request = new JSONObject();
+        String noScope = TokenValidationCache.getKey("t", request);
+        request.put("scope", "read");
+        String scoped = TokenValidationCache.getKey("t", request);
+        request.put("owner", "joe");
+        String owned = TokenValidationCache.getKey("t", request);
+        assertFalse(noScope.equals(scoped));
+        assertFalse(scoped.equals(owned));
+    }
+
+    public void testMaxSize() throws Exception {
+        TokenValidationCache cache = new TokenValidationCache(10, 60, 60);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            cache.validate("token" + i, validation(calls, true, -1));
+        }
+
+        assertTrue(cache.getSize() <= 10);
+
+        // The oldest validations are evicted first
+        cache.validate("token99", validation(calls, true, -1));
+        assertEquals(100, calls.get());
+        cache.validate("token0", validation(calls, true, -1));
+        assertEquals(101, calls.get());
+    }
+
+}
@@ -120,4 +120,11 @@ public class OAuthMultipleUserTestApplication extends Application {
         return router;
     }
 
+    @Override
+    public synchronized void stop() throws Exception {
+        // Cancel the expiry task of the token generator
+        ClientStoreFactory.stop();
+        super.stop();
+    }
+
 }
@@ -116,4 +116,11 @@ public class OAuthTestApplication extends Application {
         return router;
     }
 
+    @Override
+    public synchronized void stop() throws Exception {
+        // Cancel the expiry task of the token generator
+        ClientStoreFactory.stop();
+        super.stop();
+    }
+
 }
@@ -38,6 +38,7 @@ import java.util.Iterator;
 import org.restlet.Component;
 import org.restlet.data.Protocol;
 import org.restlet.ext.odata.Query;
+import org.restlet.resource.ResourceException;
 import org.restlet.test.RestletTestCase;
 import org.restlet.test.ext.odata.cafe.Cafe;
 import org.restlet.test.ext.odata.cafe.CafeService;
@@ -243,4 +244,54 @@ public class ODataCafeTestCase extends RestletTestCase {
         assertEquals("Marly Le Roi", cafe.getCity());
         assertEquals(78310, cafe.getZipCode());
     }
+
+    /**
+     * Tests the streaming of a paged entity set.
+     */
+    public void testStreaming() {
+        testStreaming(false);
+        testStreaming(true);
+    }
+
+    /**
+     * Tests the streaming of a paged entity set.
+     * 
+     * @param prefetch
+     *            True if the next page is prefetched.
+     */
+    private void testStreaming(boolean prefetch) {
+        Query<Cafe> query1 = service.createCafeQuery("/Cafes");
+        Query<Cafe> query2 = query1.stream(1, prefetch).skipToken("Skip1");
+
+        Iterator<Cafe> iterator = query2.iterator();
+        String[] ids = { "1", "2", "1", "2" };
+
+        for (String id : ids) {
+            assertTrue(iterator.hasNext());
+            Cafe cafe = iterator.next();
+            assertEquals(id, cafe.getId());
+        }
+
+        assertFalse(iterator.hasNext());
+
+        // Expansions are streamed too
+        iterator = query1.expand("Contact").stream(10, prefetch).iterator();
+        assertTrue(iterator.hasNext());
+        Contact contact = iterator.next().getContact();
+        assertNotNull(contact);
+        assertEquals("Agathe Zeblues", contact.getName());
+        assertTrue(iterator.hasNext());
+        assertEquals("Le Petit Marly", iterator.next().getName());
+        assertFalse(iterator.hasNext());
+
+        // Failures are propagated to the consumer
+        iterator = query1.stream(1, prefetch).skipToken("Missing").iterator();
+
+        try {
+            iterator.hasNext();
+            fail("The missing page should be reported");
+        } catch (ResourceException e) {
+            assertEquals(404, e.getStatus().getCode());
+        }
+    }
 }
@@ -52,6 +52,7 @@ public class ODataTestSuite extends TestSuite {
         TestSuite result = new TestSuite("OData extension");
         result.addTestSuite(ODataCafeTestCase.class);
         result.addTestSuite(ODataCafeCustoFeedsTestCase.class);
+        result.addTestSuite(ReflectUtilsTestCase.class);
         return result;
     }
 }
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.odata;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.restlet.ext.odata.internal.reflect.EntityAccessors;
+import org.restlet.ext.odata.internal.reflect.ReflectUtils;
+import org.restlet.test.RestletTestCase;
+import org.restlet.test.ext.odata.cafe.Cafe;
+import org.restlet.test.ext.odata.cafe.Contact;
+import org.restlet.test.ext.odata.cafe.Item;
+
+/**
+ * Test case for the cached reflective access to entities.
+ * 
+ * @author Thierry Boileau
+ */
+public class ReflectUtilsTestCase extends RestletTestCase {
+
+    public void testAccessors() {
+        EntityAccessors accessors = EntityAccessors.get(Cafe.class);
+        assertSame(accessors, EntityAccessors.get(Cafe.class));
+        assertNotNull(accessors.getField("zipCode"));
+        assertNull(accessors.getField("ZipCode"));
+        assertSame(accessors.getField("zipCode"),
+                accessors.getFieldIgnoreCase("ZIPCODE"));
+        assertNotNull(accessors.getNoArgMethod("getName"));
+        assertEquals(1, accessors.getOneArgMethods("setName").size());
+        assertTrue(accessors.getOneArgMethods("getName").isEmpty());
+        assertNull(accessors.getMethod("getUnknown"));
+
+        // The cached accessors can't be modified
+        try {
+            accessors.getFields().clear();
+            fail("The fields should be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+
+        try {
+            accessors.getOneArgMethods("setName").clear();
+            fail("The methods should be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+    }
+
+    public void testAccessorsConcurrency() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            Future<?>[] futures = new Future<?>[32];
+
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(new Callable<EntityAccessors>() {
+                    public EntityAccessors call() {
+                        return EntityAccessors.get(Contact.class);
+                    }
+                });
+            }
+
+            EntityAccessors accessors = EntityAccessors.get(Contact.class);
+
+            for (Future<?> future : futures) {
+                assertSame(accessors, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testGetterAndSetter() throws Exception {
+        Cafe cafe = new Cafe();
+        ReflectUtils.invokeSetter(cafe, "name", "Le Cafe Louis");
+        ReflectUtils.invokeSetter(cafe, "ZipCode", "92300", null);
+        assertEquals("Le Cafe Louis", ReflectUtils.invokeGetter(cafe, "name"));
+        assertEquals(92300, ReflectUtils.invokeGetter(cafe, "zipCode"));
+
+        // Nested properties
+        assertNull(ReflectUtils.invokeGetter(cafe, "contact/name"));
+        Contact contact = new Contact();
+        cafe.setContact(contact);
+        ReflectUtils.invokeSetter(cafe, "contact/name", "Agathe Zeblues");
+        assertEquals("Agathe Zeblues", contact.getName());
+        assertEquals("Agathe Zeblues",
+                ReflectUtils.invokeGetter(cafe, "contact.name"));
+
+        assertEquals(Item.class, ReflectUtils.getSimpleClass(cafe, "items"));
+        assertNull(ReflectUtils.invokeGetter(cafe, "unknown"));
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.rdf;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.restlet.data.MediaType;
+import org.restlet.data.Reference;
+import org.restlet.ext.rdf.Graph;
+import org.restlet.ext.rdf.GraphBuilder;
+import org.restlet.ext.rdf.IndexedGraph;
+import org.restlet.ext.rdf.Link;
+import org.restlet.ext.rdf.Literal;
+import org.restlet.ext.rdf.RdfRepresentation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit test case for the indexed graph.
+ */
+public class IndexedGraphTestCase extends RestletTestCase {
+
+    private static final Reference KNOWS = new Reference(
+            "http://xmlns.com/foaf/0.1/knows");
+
+    private static final Reference NAME = new Reference(
+            "http://xmlns.com/foaf/0.1/name");
+
+    private static Reference person(int i) {
+        return new Reference("http://example.com/people/" + i);
+    }
+
+    public void testMatch() {
+        IndexedGraph graph = new IndexedGraph();
+
+        for (int i = 0; i < 100; i++) {
+            graph.add(person(i), KNOWS, person((i + 1) % 100));
+            graph.add(person(i), KNOWS, person((i + 2) % 100));
+            graph.add(person(i), NAME, new Literal("Person " + i));
+        }
+
+        assertEquals(300, graph.size());
+        assertEquals(300, graph.match(null, null, null).size());
+        assertEquals(3, graph.match(person(5), null, null).size());
+        assertEquals(2, graph.match(person(5), KNOWS, null).size());
+        assertEquals(200, graph.match(null, KNOWS, null).size());
+        assertEquals(2, graph.match(null, KNOWS, person(7)).size());
+        assertEquals(2, graph.match(null, null, person(7)).size());
+        assertEquals(1, graph.match(person(5), null, person(6)).size());
+        assertEquals(1, graph.match(person(5), KNOWS, person(7)).size());
+        assertEquals(0, graph.match(person(5), KNOWS, person(8)).size());
+        assertEquals(0, graph.match(person(500), null, null).size());
+
+        // References are shared
+        Link link = graph.match(person(5), NAME, null).get(0);
+        assertSame(graph.match(null, KNOWS, person(5)).get(0)
+                .getTargetAsReference(), link.getSourceAsReference());
+    }
+
+    public void testParse() throws Exception {
+        StringRepresentation rep = new StringRepresentation(
+                "<http://example.com/a> <http://example.com/p> <http://example.com/b> .\n"
+                        + "<http://example.com/a> <http://example.com/p> \"c\" .\n",
+                MediaType.TEXT_RDF_NTRIPLES);
+        IndexedGraph graph = new IndexedGraph();
+        new RdfRepresentation(rep).parse(new GraphBuilder(graph));
+        assertEquals(2, graph.size());
+        assertEquals(2, graph.match(new Reference("http://example.com/a"),
+                null, null).size());
+    }
+
+    public void testSet() {
+        IndexedGraph graph = new IndexedGraph();
+        Graph reference = new Graph();
+
+        for (int i = 0; i < 10; i++) {
+            Link link = new Link(person(i), KNOWS, person(i + 1));
+            assertTrue(graph.add(link));
+            reference.add(new Link(link));
+        }
+
+        // Duplicates are ignored
+        assertFalse(graph.add(new Link(person(0), KNOWS, person(1))));
+        assertEquals(10, graph.size());
+        assertEquals(reference, graph);
+        assertEquals(graph, reference);
+        assertEquals(reference.hashCode(), graph.hashCode());
+        assertEquals(10, graph.toArray().length);
+
+        Set<Link> copy = new HashSet<Link>(graph);
+        assertEquals(10, copy.size());
+
+        assertTrue(graph.contains(new Link(person(3), KNOWS, person(4))));
+        assertTrue(graph.remove(new Link(person(3), KNOWS, person(4))));
+        assertFalse(graph.contains(new Link(person(3), KNOWS, person(4))));
+        assertFalse(graph.remove(new Link(person(3), KNOWS, person(4))));
+        assertEquals(9, graph.size());
+        assertEquals(0, graph.match(null, null, person(4)).size());
+
+        // Removal through the iterator updates the indexes
+        for (Iterator<Link> iter = graph.iterator(); iter.hasNext();) {
+            if (iter.next().getSourceAsReference().equals(person(5))) {
+                iter.remove();
+            }
+        }
+
+        assertEquals(8, graph.size());
+        assertEquals(0, graph.match(null, KNOWS, person(6)).size());
+
+        int count = 0;
+        for (Iterator<Link> iter = graph.iterator(); iter.hasNext(); iter
+                .next()) {
+            count++;
+        }
+        assertEquals(8, count);
+
+        graph.retainAll(graph.match(person(0), null, null));
+        assertEquals(1, graph.size());
+        graph.clear();
+        assertTrue(graph.isEmpty());
+        assertFalse(graph.iterator().hasNext());
+    }
+
+}
@@ -0,0 +1,345 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Protocol;
+import org.restlet.data.Status;
+import org.restlet.engine.adapter.ServerAdapter;
+import org.restlet.ext.servlet.internal.ServletAsyncListener;
+import org.restlet.ext.servlet.internal.ServletCall;
+import org.restlet.ext.servlet.internal.ServletHttpResponse;
+import org.restlet.ext.servlet.internal.ServletServerHelper;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the asynchronous processing of the Servlet connector.
+ * 
+ * @author Jerome Louvel
+ */
+public class ServletAsyncTestCase extends RestletTestCase {
+
+    /**
+     * Stand-in for the Servlet 3.0 asynchronous listener interface.
+     */
+    public static interface AsyncListener {
+        void onComplete(Object event);
+
+        void onError(Object event);
+
+        void onStartAsync(Object event);
+
+        void onTimeout(Object event);
+    }
+
+    /**
+     * Stand-in for a Servlet 3.0 request.
+     */
+    public static interface AsyncServletRequest extends HttpServletRequest {
+        boolean isAsyncSupported();
+
+        StubAsyncContext startAsync();
+    }
+
+    /**
+     * Stand-in for the Servlet 3.0 asynchronous context.
+     */
+    public static class StubAsyncContext {
+
+        /** The number of times the context was completed. */
+        private volatile int completions;
+
+        /** The registered listener. */
+        private volatile AsyncListener listener;
+
+        /** The timeout. */
+        private volatile long timeout;
+
+        public void addListener(AsyncListener listener) {
+            this.listener = listener;
+        }
+
+        public void complete() {
+            this.completions++;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /** The asynchronous context started by the Servlet request. */
+    private StubAsyncContext asyncContext;
+
+    /** Indicates if the Servlet request supports asynchronous processing. */
+    private volatile boolean asyncSupported;
+
+    /** The calls made on the Servlet response. */
+    private List<String> calls;
+
+    /** The listener notified by the Servlet container. */
+    private AsyncListener listener;
+
+    /** The response to commit. */
+    private ServletHttpResponse response;
+
+    /**
+     * Returns the default value of the given method's return type.
+     * 
+     * @param method
+     *            The proxied method.
+     * @return The default value.
+     */
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+
+        if (type == Boolean.TYPE) {
+            return Boolean.FALSE;
+        } else if (type == Integer.TYPE) {
+            return Integer.valueOf(0);
+        } else if (type == Long.TYPE) {
+            return Long.valueOf(0);
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates a proxy of the given Servlet interface.
+     * 
+     * @param type
+     *            The Servlet interface.
+     * @param handler
+     *            The invocation handler.
+     * @return The proxy.
+     */
+    private <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { type }, handler));
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.asyncContext = new StubAsyncContext();
+        this.asyncSupported = false;
+        this.calls = new ArrayList<String>();
+
+        HttpServletRequest servletRequest = proxy(AsyncServletRequest.class,
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        String name = method.getName();
+
+                        if ("isAsyncSupported".equals(name)) {
+                            return asyncSupported;
+                        } else if ("startAsync".equals(name)) {
+                            return asyncContext;
+                        }
+
+                        return defaultValue(method);
+                    }
+                });
+        HttpServletResponse servletResponse = proxy(
+                HttpServletResponse.class, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method,
+                            Object[] args) {
+                        String name = method.getName();
+
+                        if ("getOutputStream".equals(name)) {
+                            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+                            return new ServletOutputStream() {
+                                @Override
+                                public void write(int b) {
+                                    body.write(b);
+                                }
+                            };
+                        } else if ("setStatus".equals(name)
+                                || "sendError".equals(name)) {
+                            calls.add(name + " " + args[0]);
+                        }
+
+                        return defaultValue(method);
+                    }
+                });
+
+        ServletCall call = new ServletCall("127.0.0.1", 80, servletRequest,
+                servletResponse);
+        this.response = new ServletHttpResponse(call, new Request(
+                org.restlet.data.Method.GET, "http://localhost/test"),
+                new ServerAdapter(new Context()));
+        this.response.setAutoCommitting(false);
+        this.response.setEntity("test", MediaType.TEXT_PLAIN);
+        this.listener = proxy(AsyncListener.class, new ServletAsyncListener(
+                this.response));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.asyncContext = null;
+        this.calls = null;
+        this.listener = null;
+        this.response = null;
+        super.tearDown();
+    }
+
+    public void testAsyncTimeoutParameter() throws Exception {
+        Server server = new Server(new Context(), Protocol.HTTP);
+        ServletServerHelper helper = new ServletServerHelper(server);
+        assertEquals(30000L, helper.getAsyncTimeoutMs());
+
+        server.getContext().getParameters().add("asyncTimeoutMs", "5000");
+        helper.start();
+        assertEquals(5000L, helper.getAsyncTimeoutMs());
+
+        // Malformed values fall back to the default
+        server.getContext().getParameters().set("asyncTimeoutMs", "5s");
+        helper.start();
+        assertEquals(30000L, helper.getAsyncTimeoutMs());
+
+        server.getContext().getParameters().set("asyncTimeoutMs", "-1");
+        helper.start();
+        assertEquals(30000L, helper.getAsyncTimeoutMs());
+    }
+
+    public void testComplete() {
+        this.listener.onComplete(null);
+        assertTrue(this.response.isCommitted());
+
+        // The completed request can't be written anymore
+        this.response.commit();
+        this.response.getServletCall().complete();
+        assertTrue(this.calls.isEmpty());
+    }
+
+    public void testError() {
+        this.listener.onError(null);
+        assertTrue(this.response.isCommitted());
+
+        this.response.commit();
+        assertTrue(this.calls.isEmpty());
+    }
+
+    public void testHandledWithoutAsyncSupport() {
+        // Without asynchronous support, the response is committed right away
+        this.response.handled(1000);
+        assertTrue(this.response.isCommitted());
+        assertEquals(1, this.calls.size());
+        assertEquals("setStatus 200", this.calls.get(0));
+
+        this.response.commit();
+        assertEquals(1, this.calls.size());
+    }
+
+    public void testListener() {
+        assertEquals(this.listener, this.listener);
+        assertFalse(this.listener.equals(proxy(AsyncListener.class,
+                new ServletAsyncListener(this.response))));
+        assertEquals(System.identityHashCode(this.listener),
+                this.listener.hashCode());
+
+        // Starting the asynchronous processing doesn't commit
+        this.listener.onStartAsync(null);
+        assertFalse(this.response.isCommitted());
+    }
+
+    public void testStartAsync() {
+        this.asyncSupported = true;
+        this.response.handled(1000);
+        assertFalse(this.response.isCommitted());
+        assertTrue(this.calls.isEmpty());
+        assertEquals(1000, this.asyncContext.timeout);
+        assertNotNull(this.asyncContext.listener);
+
+        // Committing sends the response and completes the request
+        this.response.commit();
+        assertEquals(1, this.calls.size());
+        assertEquals("setStatus 200", this.calls.get(0));
+        assertEquals(1, this.asyncContext.completions);
+
+        // The request is completed only once
+        this.response.commit();
+        this.response.getServletCall().complete();
+        this.asyncContext.listener.onComplete(null);
+        assertEquals(1, this.calls.size());
+        assertEquals(1, this.asyncContext.completions);
+    }
+
+    public void testStartAsyncTimeout() {
+        this.asyncSupported = true;
+        this.response.handled(1000);
+        assertFalse(this.response.isCommitted());
+
+        this.asyncContext.listener.onTimeout(null);
+        assertEquals(1, this.calls.size());
+        assertEquals("sendError "
+                + Status.SERVER_ERROR_SERVICE_UNAVAILABLE.getCode(),
+                this.calls.get(0));
+        assertEquals(1, this.asyncContext.completions);
+
+        this.response.commit();
+        assertEquals(1, this.calls.size());
+        assertEquals(1, this.asyncContext.completions);
+    }
+
+    public void testTimeout() {
+        this.listener.onTimeout(null);
+        assertTrue(this.response.isCommitted());
+        assertEquals(1, this.calls.size());
+        assertEquals("sendError "
+                + Status.SERVER_ERROR_SERVICE_UNAVAILABLE.getCode(),
+                this.calls.get(0));
+
+        // Late commits are ignored
+        this.response.commit();
+        this.listener.onTimeout(null);
+        assertEquals(1, this.calls.size());
+    }
+
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.ext.ssl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+
+import org.restlet.Context;
+import org.restlet.Server;
+import org.restlet.data.Parameter;
+import org.restlet.data.Protocol;
+import org.restlet.ext.ssl.HttpsServerHelper;
+import org.restlet.ext.ssl.SslContextFactory;
+import org.restlet.ext.ssl.internal.SslHandshakeService;
+import org.restlet.test.RestletTestCase;
+import org.restlet.util.Series;
+
+/**
+ * Unit tests for the {@link SslHandshakeService} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class SslHandshakeServiceTestCase extends RestletTestCase {
+
+    /**
+     * Creates an SSL session with the given creation time.
+     * 
+     * @param creationTime
+     *            The creation time of the session.
+     * @return The SSL session.
+     */
+    private static SSLSession createSession(final long creationTime) {
+        return (SSLSession) Proxy.newProxyInstance(
+                SSLSession.class.getClassLoader(),
+                new Class<?>[] { SSLSession.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy,
+                            java.lang.reflect.Method method, Object[] args) {
+                        if ("getCreationTime".equals(method.getName())) {
+                            return creationTime;
+                        }
+
+                        return null;
+                    }
+                });
+    }
+
+    private SslHandshakeService service;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.service = new SslHandshakeService(2,
+                Logger.getLogger(SslHandshakeServiceTestCase.class
+                        .getCanonicalName()));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.service.shutdown();
+        this.service = null;
+        super.tearDown();
+    }
+
+    public void testExecute() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Thread caller = Thread.currentThread();
+        final Thread[] runner = new Thread[1];
+
+        this.service.execute(new Runnable() {
+            public void run() {
+                runner[0] = Thread.currentThread();
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNotSame(caller, runner[0]);
+        assertTrue(runner[0].isDaemon());
+    }
+
+    public void testExecuteAfterShutdown() {
+        this.service.shutdown();
+        assertFalse(this.service.execute(new Runnable() {
+            public void run() {
+            }
+        }));
+    }
+
+    public void testFullAndResumedHandshakes() {
+        long now = System.currentTimeMillis();
+        long nanoTime = System.nanoTime();
+
+        // Session created during the handshake
+        this.service.onHandshakeFinished(createSession(now), now, nanoTime);
+        this.service.onHandshakeFinished(createSession(now + 5), now,
+                nanoTime);
+
+        // Session cached by a previous handshake
+        this.service.onHandshakeFinished(createSession(now - 1000), now,
+                nanoTime);
+
+        assertEquals(2, this.service.getFullHandshakes());
+        assertEquals(1, this.service.getResumedHandshakes());
+    }
+
+    public void testQueuedHandshakes() throws Exception {
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch latch = new CountDownLatch(1);
+        Runnable blocking = new Runnable() {
+            public void run() {
+                started.countDown();
+
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try {
+            // Keeps both threads busy
+            assertTrue(this.service.execute(blocking));
+            assertTrue(this.service.execute(blocking));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertTrue(this.service.execute(blocking));
+            assertEquals(1, this.service.getQueuedHandshakes());
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    public void testSessionContext() throws Exception {
+        final SSLContext[] sslContext = new SSLContext[1];
+        Server server = new Server(new Context(), Protocol.HTTPS, 0);
+        server.getContext().getParameters().add("sslSessionCacheSize", "123");
+        server.getContext().getParameters().add("sslSessionTimeout", "456");
+        server.getContext().getAttributes().put("sslContextFactory",
+                new SslContextFactory() {
+                    @Override
+                    public SSLContext createSslContext() throws Exception {
+                        sslContext[0] = SSLContext.getInstance("TLS");
+                        sslContext[0].init(null, null, null);
+                        return sslContext[0];
+                    }
+
+                    @Override
+                    public void init(Series<Parameter> parameters) {
+                    }
+                });
+
+        HttpsServerHelper helper = new HttpsServerHelper(server);
+        helper.start();
+
+        try {
+            SSLSessionContext sessionContext = sslContext[0]
+                    .getServerSessionContext();
+            assertEquals(123, sessionContext.getSessionCacheSize());
+            assertEquals(456, sessionContext.getSessionTimeout());
+            assertEquals(0, helper.getQueuedHandshakes());
+        } finally {
+            helper.stop();
+        }
+    }
+
+    public void testHandshakeTime() {
+        long now = System.currentTimeMillis();
+        long nanoTime = System.nanoTime();
+        this.service.onHandshakeFinished(createSession(now), now, nanoTime
+                - TimeUnit.MILLISECONDS.toNanos(300));
+        this.service.onHandshakeFinished(createSession(now), now, nanoTime
+                - TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertTrue(this.service.getHandshakeTimeMs() >= 400);
+        assertTrue(this.service.getMaxHandshakeTimeMs() >= 300);
+        assertTrue(this.service.getMaxHandshakeTimeMs() < this.service
+                .getHandshakeTimeMs());
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.resource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.resource.Finder;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.resource.Get;
+import org.restlet.resource.Post;
+import org.restlet.resource.ServerResource;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the instantiation of the target resources by {@link Finder}.
+ * 
+ * @author Jerome Louvel
+ */
+public class FinderTestCase extends RestletTestCase {
+
+    public static class CountingResource extends ServerResource {
+
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public CountingResource() {
+            instances.incrementAndGet();
+        }
+
+        @Override
+        protected void doInit() {
+            if (getQuery().getFirst("missing") != null) {
+                setExisting(false);
+            }
+        }
+
+        @Get
+        public String represent() {
+            return "hello";
+        }
+    }
+
+    public static class ReusableResource extends CountingResource {
+
+        @Override
+        public boolean isReusable() {
+            return true;
+        }
+    }
+
+    public static class ReusableTextResource extends ServerResource {
+
+        @Post("txt:txt")
+        public String accept(String entity) {
+            return "post " + entity;
+        }
+
+        @Override
+        public boolean isReusable() {
+            return true;
+        }
+
+        @Get("txt")
+        public String represent() {
+            return "get";
+        }
+    }
+
+    private Response get(Finder finder, String query) {
+        Request request = new Request(Method.GET, "http://localhost/test"
+                + query);
+        Response response = new Response(request);
+        finder.handle(request, response);
+        return response;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        CountingResource.instances.set(0);
+    }
+
+    public void testDefaultInstantiation() throws Exception {
+        Finder finder = new Finder(new Context(), CountingResource.class);
+
+        for (int i = 0; i < 3; i++) {
+            Response response = get(finder, "");
+            assertEquals(Status.SUCCESS_OK, response.getStatus());
+            assertEquals("hello", response.getEntity().getText());
+        }
+
+        assertEquals(3, CountingResource.instances.get());
+    }
+
+    public void testReusableInstances() throws Exception {
+        Finder finder = new Finder(new Context(), ReusableResource.class);
+
+        for (int i = 0; i < 3; i++) {
+            Response response = get(finder, "");
+            assertEquals(Status.SUCCESS_OK, response.getStatus());
+            assertEquals("hello", response.getEntity().getText());
+        }
+
+        assertEquals(1, CountingResource.instances.get());
+
+        // The "existing" property is reset before reuse
+        assertEquals(Status.CLIENT_ERROR_NOT_FOUND, get(finder, "?missing=1")
+                .getStatus());
+        assertEquals(Status.SUCCESS_OK, get(finder, "").getStatus());
+        assertEquals(1, CountingResource.instances.get());
+    }
+
+    public void testReusableVariants() throws Exception {
+        Finder finder = new Finder(new Context(), ReusableTextResource.class);
+        assertEquals("get", get(finder, "").getEntity().getText());
+
+        // The variants of the previous method are not reused
+        Request request = new Request(Method.POST, "http://localhost/test",
+                new StringRepresentation("hello", MediaType.TEXT_PLAIN));
+        Response response = new Response(request);
+        finder.handle(request, response);
+        assertEquals(Status.SUCCESS_OK, response.getStatus());
+        assertEquals("post hello", response.getEntity().getText());
+
+        assertEquals("get", get(finder, "").getEntity().getText());
+    }
+
+    public void testTargetClassChange() throws Exception {
+        Finder finder = new Finder(new Context(), ReusableResource.class);
+        get(finder, "");
+        finder.setTargetClass(CountingResource.class);
+        get(finder, "");
+        get(finder, "");
+        assertEquals(3, CountingResource.instances.get());
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.service;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.service.LogService;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the log service.
+ * 
+ * @author Jerome Louvel
+ */
+public class LogServiceTestCase extends RestletTestCase {
+
+    public void testDefaultResponseLogMessage() {
+        LogService logService = new LogService();
+        Response response = new Response(new Request(Method.GET,
+                "http://localhost/path?query"));
+        response.setStatus(Status.SUCCESS_OK);
+
+        for (int i = 0; i < 3; i++) {
+            long before = System.currentTimeMillis();
+            String message = logService.getResponseLogMessage(response, 12);
+            long after = System.currentTimeMillis();
+            String dateTime = message.substring(0, 19);
+
+            assertTrue(dateTime.equals(String.format("%tF\t%tT", before,
+                    before))
+                    || dateTime.equals(String.format("%tF\t%tT", after, after)));
+            assertTrue(message.contains("\tGET\t/path\tquery\t200\t0\t0\t12\t"));
+        }
+    }
+
+}
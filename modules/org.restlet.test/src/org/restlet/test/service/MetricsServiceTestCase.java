@@ -0,0 +1,122 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.service;
+
+import org.restlet.Application;
+import org.restlet.Component;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.engine.metrics.RequestMetrics;
+import org.restlet.resource.Get;
+import org.restlet.resource.ServerResource;
+import org.restlet.routing.Router;
+import org.restlet.service.MetricsService;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the metrics service.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetricsServiceTestCase extends RestletTestCase {
+
+    public static class UserResource extends ServerResource {
+        @Get
+        public String represent() {
+            return "user";
+        }
+    }
+
+    public void testComponentMetrics() throws Exception {
+        Component component = new Component();
+        component.getMetricsService().setEnabled(true);
+
+        Application application = new Application() {
+            @Override
+            public Restlet createInboundRoot() {
+                Router router = new Router(getContext());
+                router.attach("/users/{id}", UserResource.class);
+                return router;
+            }
+        };
+
+        // Also enabled on the application, but only counted once
+        application.getMetricsService().setEnabled(true);
+        component.getDefaultHost().attach("/app", application);
+        component.start();
+
+        try {
+            String[] paths = { "/app/users/1", "/app/users/2", "/app/groups" };
+
+            for (String path : paths) {
+                Response response = new Response(new Request(Method.GET,
+                        "http://localhost" + path));
+                component.handle(response.getRequest(), response);
+            }
+
+            MetricsService metricsService = component.getMetricsService();
+            RequestMetrics total = metricsService
+                    .getMetrics(MetricsService.TOTAL);
+            assertEquals(3L, total.getRequests());
+            assertEquals(2L, total.getSuccesses());
+            assertEquals(1L, total.getClientErrors());
+
+            RequestMetrics route = metricsService
+                    .getMetrics(MetricsService.ROUTE_PREFIX
+                            + "/app/users/{id}");
+            assertEquals(2L, route.getRequests());
+
+            RequestMetrics resource = metricsService
+                    .getMetrics(MetricsService.RESOURCE_PREFIX
+                            + UserResource.class.getName());
+            assertEquals(2L, resource.getRequests());
+            assertEquals(0L, application.getMetricsService()
+                    .getMetrics(MetricsService.TOTAL).getRequests());
+
+            // Read the report via RIAP
+            Response response = component.getContext().getClientDispatcher()
+                    .handle(new Request(Method.GET, "riap://component/metrics"));
+            assertEquals(Status.SUCCESS_OK, response.getStatus());
+            String report = response.getEntity().getText();
+            assertTrue(report.contains("total\trequests=3\t"));
+            assertTrue(report.contains("route:/app/users/{id}\trequests=2\t"));
+        } finally {
+            component.stop();
+        }
+    }
+
+}
@@ -43,7 +43,9 @@ public class ServiceTestSuite {
 
         // $JUnit-BEGIN$
         suite.addTestSuite(ConnegServiceTestCase.class);
+        suite.addTestSuite(LogServiceTestCase.class);
         suite.addTestSuite(MetadataServiceTestCase.class);
+        suite.addTestSuite(MetricsServiceTestCase.class);
         // $JUnit-END$
 
         return suite;
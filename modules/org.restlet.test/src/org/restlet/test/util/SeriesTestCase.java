@@ -0,0 +1,132 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.util;
+
+import java.util.Iterator;
+
+import org.restlet.data.Form;
+import org.restlet.engine.header.Header;
+import org.restlet.test.RestletTestCase;
+import org.restlet.util.Series;
+
+/**
+ * Test case for the indexed lookups of {@link Series}.
+ * 
+ * @author Jerome Louvel
+ */
+public class SeriesTestCase extends RestletTestCase {
+
+    private Series<Header> createHeaders(boolean indexed) {
+        Series<Header> result = new Series<Header>(Header.class);
+        result.setIndexed(indexed);
+        result.add("Content-Type", "text/plain");
+        result.add("Accept", "text/html");
+        result.add("accept", "application/xml");
+        result.add("Host", "localhost");
+        return result;
+    }
+
+    public void testFormParsing() {
+        Form form = new Form("a=1&b=2&A=3&a=4");
+        assertTrue(form.isIndexed());
+        assertEquals("1", form.getFirstValue("a"));
+        assertEquals("3", form.getFirstValue("A"));
+        assertEquals("1,4", form.getValues("a", ",", false));
+        assertEquals("1,3,4", form.getValues("a", ",", true));
+        assertEquals(3, form.subList("A", true).size());
+        assertNull(form.getFirst("c"));
+        assertEquals(4, form.size());
+    }
+
+    public void testLookups() {
+        for (boolean indexed : new boolean[] { false, true }) {
+            Series<Header> headers = createHeaders(indexed);
+            assertEquals("text/html", headers.getFirstValue("Accept"));
+            assertEquals("application/xml", headers.getFirstValue("accept"));
+            assertEquals("text/html", headers.getFirstValue("ACCEPT", true));
+            assertNull(headers.getFirstValue("ACCEPT"));
+            assertEquals("text/html,application/xml",
+                    headers.getValues("Accept", ",", true));
+            assertEquals("text/html", headers.getValues("Accept", ",", false));
+            assertNull(headers.getValues("Other", ",", true));
+            assertEquals(2, headers.getValuesArray("accept", true).length);
+            assertEquals(1, headers.getValuesArray("accept").length);
+        }
+    }
+
+    public void testModifications() {
+        Series<Header> headers = createHeaders(true);
+        assertEquals("localhost", headers.getFirstValue("host", true));
+
+        // Appending keeps the index
+        headers.add("HOST", "example.com");
+        assertEquals("localhost,example.com",
+                headers.getValues("Host", ",", true));
+
+        // Insertion at a given position
+        headers.add(0, new Header("host", "first"));
+        assertEquals("first", headers.getFirstValue("Host", true));
+
+        // Removals
+        headers.removeAll("host", true);
+        assertNull(headers.getFirst("Host", true));
+        assertFalse(headers.removeFirst("Host", true));
+        headers.remove(0);
+        assertNull(headers.getFirst("Content-Type"));
+
+        // Replacements
+        headers.set("Accept", "*/*", true);
+        assertEquals("*/*", headers.getValues("accept", ",", true));
+        headers.set("Server", "test", false);
+        assertEquals("test", headers.getFirstValue("server", true));
+        headers.set(0, new Header("Via", "proxy"));
+        assertEquals("proxy", headers.getFirstValue("Via"));
+        assertNull(headers.getFirst("Accept", true));
+
+        // Iterator removals
+        for (Iterator<Header> iter = headers.iterator(); iter.hasNext();) {
+            if ("Via".equals(iter.next().getName())) {
+                iter.remove();
+            }
+        }
+
+        assertNull(headers.getFirst("Via"));
+
+        headers.clear();
+        assertNull(headers.getFirst("Server", true));
+        headers.add("Server", "other");
+        assertEquals("other", headers.getFirstValue("Server"));
+    }
+
+}
@@ -50,6 +50,7 @@ import org.restlet.service.ConverterService;
 import org.restlet.service.DecoderService;
 import org.restlet.service.EncoderService;
 import org.restlet.service.MetadataService;
+import org.restlet.service.MetricsService;
 import org.restlet.service.RangeService;
 import org.restlet.service.StatusService;
 import org.restlet.service.TunnelService;
@@ -169,6 +170,7 @@ public class Application extends Restlet {
         this.services.add(new ConnegService());
         this.services.add(new ConverterService());
         this.services.add(new MetadataService());
+        this.services.add(new MetricsService(false));
 
         // [ifndef gae]
         this.services.add(new org.restlet.service.TaskService());
@@ -286,6 +288,15 @@ public class Application extends Restlet {
         return getServices().get(MetadataService.class);
     }
 
+    /**
+     * Returns the metrics service. The service is disabled by default.
+     * 
+     * @return The metrics service.
+     */
+    public MetricsService getMetricsService() {
+        return getServices().get(MetricsService.class);
+    }
+
     /**
      * Returns the outbound root Restlet.
      * 
@@ -490,6 +501,16 @@ public class Application extends Restlet {
         getServices().set(metadataService);
     }
 
+    /**
+     * Sets the metrics service.
+     * 
+     * @param metricsService
+     *            The metrics service.
+     */
+    public void setMetricsService(MetricsService metricsService) {
+        getServices().set(metricsService);
+    }
+
     /**
      * Sets the outbound root Resource class.
      * 
@@ -50,6 +50,7 @@ import org.restlet.routing.Router;
 import org.restlet.routing.VirtualHost;
 import org.restlet.security.Realm;
 import org.restlet.service.LogService;
+import org.restlet.service.MetricsService;
 import org.restlet.service.Service;
 import org.restlet.service.StatusService;
 import org.restlet.util.ClientList;
@@ -193,6 +194,8 @@ public class Component extends Restlet {
             getLogService().setContext(childContext);
             this.services.add(new StatusService());
             getStatusService().setContext(childContext);
+            this.services.add(new MetricsService(false));
+            getMetricsService().setContext(childContext);
             this.clients.setContext(childContext);
             this.servers.setContext(childContext);
         }
@@ -329,6 +332,15 @@ public class Component extends Restlet {
         return getServices().get(LogService.class);
     }
 
+    /**
+     * Returns the global metrics service. This service is disabled by default.
+     * 
+     * @return The global metrics service.
+     */
+    public MetricsService getMetricsService() {
+        return getServices().get(MetricsService.class);
+    }
+
     /**
      * Finds the realm with the given name.
      * 
@@ -471,6 +483,16 @@ public class Component extends Restlet {
         getServices().set(logService);
     }
 
+    /**
+     * Sets the global metrics service.
+     * 
+     * @param metricsService
+     *            The global metrics service.
+     */
+    public void setMetricsService(MetricsService metricsService) {
+        getServices().set(metricsService);
+    }
+
     /**
      * Sets the list of realms. This method clears the current list and adds all
      * entries in the parameter list.
@@ -96,6 +96,7 @@ public class Form extends Series<Parameter> {
      */
     public Form(Representation webForm, boolean decode) {
         this();
+        setIndexed(true);
         FormUtils.parse(this, webForm, decode);
     }
 
@@ -219,6 +220,7 @@ public class Form extends Series<Parameter> {
     public Form(String parametersString, CharacterSet characterSet,
             char separator, boolean decode) {
         this();
+        setIndexed(true);
         FormUtils
                 .parse(this, parametersString, characterSet, decode, separator);
     }
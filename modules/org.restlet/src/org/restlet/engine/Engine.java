@@ -369,6 +369,8 @@ public class Engine {
     @Deprecated
     public static synchronized void setInstance(Engine engine) {
         instance = engine;
+        // [ifndef gwt] instruction
+        org.restlet.engine.converter.ConverterUtils.clearCache();
     }
 
     // [ifdef jse] method
@@ -415,6 +417,10 @@ public class Engine {
     /** The logger facade to use. */
     private LoggerFacade loggerFacade;
 
+    // [ifndef gwt] member
+    /** The executor of the pipe writing tasks. */
+    private volatile org.restlet.engine.io.PipeExecutor pipeExecutor;
+
     // [ifndef gwt] member
     /** List of available authenticator helpers. */
     private final List<org.restlet.engine.security.AuthenticatorHelper> registeredAuthenticators;
@@ -760,6 +766,32 @@ public class Engine {
         return loggerFacade;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the executor of the tasks writing representations into pipes,
+     * used by {@link org.restlet.engine.io.BioUtils} and
+     * {@link org.restlet.engine.io.NioUtils} when no application task service
+     * is available. It is lazily created.
+     * 
+     * @return The executor of the pipe writing tasks.
+     */
+    public org.restlet.engine.io.PipeExecutor getPipeExecutor() {
+        org.restlet.engine.io.PipeExecutor result = this.pipeExecutor;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.pipeExecutor;
+
+                if (result == null) {
+                    result = new org.restlet.engine.io.PipeExecutor();
+                    this.pipeExecutor = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
     // [ifndef gwt] method
     /**
      * Parses a line to extract the provider class name.
@@ -924,6 +956,10 @@ public class Engine {
                 Context.getCurrentLogger().log(Level.INFO,
                         "Unable to register the helper " + provider, t);
             }
+
+            if (helpers == this.registeredConverters) {
+                org.restlet.engine.converter.ConverterUtils.clearCache();
+            }
         }
     }
 
@@ -1138,6 +1174,8 @@ public class Engine {
                 if (registeredConverters != null) {
                     this.registeredConverters.addAll(registeredConverters);
                 }
+
+                org.restlet.engine.converter.ConverterUtils.clearCache();
             }
         }
     }
@@ -1180,6 +1218,28 @@ public class Engine {
         }
     }
 
+    // [ifndef gwt] method
+    /**
+     * Sets the executor of the tasks writing representations into pipes. The
+     * previous executor, if any, is shut down once its pending tasks are
+     * completed.
+     * 
+     * @param pipeExecutor
+     *            The executor of the pipe writing tasks.
+     */
+    public void setPipeExecutor(org.restlet.engine.io.PipeExecutor pipeExecutor) {
+        org.restlet.engine.io.PipeExecutor previous;
+
+        synchronized (this) {
+            previous = this.pipeExecutor;
+            this.pipeExecutor = pipeExecutor;
+        }
+
+        if ((previous != null) && (previous != pipeExecutor)) {
+            previous.shutdown();
+        }
+    }
+
     // [ifndef gwt] method
     /**
      * Sets the user class loader that should used in priority.
@@ -42,9 +42,11 @@ import org.restlet.Restlet;
 import org.restlet.Server;
 import org.restlet.data.Protocol;
 import org.restlet.engine.CompositeHelper;
+import org.restlet.engine.metrics.MetricsRestlet;
 import org.restlet.routing.Filter;
 import org.restlet.routing.Route;
 import org.restlet.routing.VirtualHost;
+import org.restlet.service.MetricsService;
 import org.restlet.service.Service;
 
 /**
@@ -56,6 +58,9 @@ public class ComponentHelper extends CompositeHelper<Component> {
     /** The internal client router. */
     private final ClientRouter clientRouter;
 
+    /** The metrics Restlet attached to the internal router. */
+    private volatile MetricsRestlet metricsRestlet;
+
     /** The internal server router. */
     private volatile ServerRouter serverRouter;
 
@@ -69,6 +74,7 @@ public class ComponentHelper extends CompositeHelper<Component> {
         super(component);
         component.setContext(new ComponentContext(this));
         this.clientRouter = new ClientRouter(getHelped());
+        this.metricsRestlet = null;
         this.serverRouter = new ServerRouter(getHelped());
     }
 
@@ -227,6 +233,19 @@ public class ComponentHelper extends CompositeHelper<Component> {
                 }
             }
 
+            // Expose the metrics via the internal router
+            MetricsService metricsService = getHelped().getMetricsService();
+
+            if ((this.metricsRestlet == null) && (metricsService != null)
+                    && metricsService.isEnabled()
+                    && (metricsService.getResourcePath() != null)) {
+                this.metricsRestlet = new MetricsRestlet(
+                        (getContext() == null) ? null : getContext()
+                                .createChildContext(), metricsService);
+                getHelped().getInternalRouter().attach(
+                        metricsService.getResourcePath(), this.metricsRestlet);
+            }
+
             // Re-attach the original filter's attached Restlet
             setInboundNext(getServerRouter());
         }
@@ -34,10 +34,12 @@
 package org.restlet.engine.connector;
 
 import java.io.OutputStream;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -45,6 +47,7 @@ import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.restlet.Connector;
@@ -53,6 +56,8 @@ import org.restlet.Response;
 import org.restlet.data.Status;
 import org.restlet.engine.ConnectorHelper;
 import org.restlet.engine.Engine;
+import org.restlet.engine.io.Buffer;
+import org.restlet.engine.io.BufferPool;
 import org.restlet.engine.log.LoggingThreadFactory;
 
 /**
@@ -80,6 +85,14 @@ import org.restlet.engine.log.LoggingThreadFactory;
  * strictly superior to 0 is required.</td>
  * </tr>
  * <tr>
+ * <td>controllerThreads</td>
+ * <td>int</td>
+ * <td>1</td>
+ * <td>Number of controller threads, each one owning a separate NIO selector.
+ * New connections are assigned to the least loaded controller, so that IO
+ * selection can scale with the number of available cores.</td>
+ * </tr>
+ * <tr>
  * <td>minThreads</td>
  * <td>int</td>
  * <td>1</td>
@@ -164,6 +177,22 @@ import org.restlet.engine.log.LoggingThreadFactory;
  * use direct buffers.</td>
  * </tr>
  * <tr>
+ * <td>bufferPooling</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if the byte buffers of the connections should be acquired from
+ * a pool shared by the connector when bytes need to be read or written, and
+ * released to it when the connection becomes idle. Idle connections then hold
+ * no byte buffer.</td>
+ * </tr>
+ * <tr>
+ * <td>maxPooledBuffers</td>
+ * <td>int</td>
+ * <td>64</td>
+ * <td>Maximum number of idle byte buffers kept by the pool for each buffer
+ * size. Additional released buffers are left to the garbage collector.</td>
+ * </tr>
+ * <tr>
  * <td>throttleTimeMs</td>
  * <td>int</td>
  * <td>0</td>
@@ -183,15 +212,24 @@ import org.restlet.engine.log.LoggingThreadFactory;
 public abstract class BaseHelper<T extends Connector> extends
         ConnectorHelper<T> {
 
+    /** The optional pool of byte buffers. */
+    private volatile BufferPool bufferPool;
+
     /** Indicates if it is helping a client connector. */
     protected final boolean clientSide;
 
     /** The controller task. */
     protected final ConnectionController controller;
 
+    /** The list of controller tasks, starting with the main one. */
+    private final List<ConnectionController> controllers;
+
     /** The controller service. */
     private volatile ExecutorService controllerService;
 
+    /** The index of the next controller to consider for new connections. */
+    private final AtomicInteger nextControllerIndex;
+
     /** The queue of inbound messages. */
     protected final Queue<Response> inboundMessages;
 
@@ -215,6 +253,9 @@ public abstract class BaseHelper<T extends Connector> extends
         this.inboundMessages = new ConcurrentLinkedQueue<Response>();
         this.outboundMessages = new ConcurrentLinkedQueue<Response>();
         this.controller = createController();
+        this.controllers = new CopyOnWriteArrayList<ConnectionController>();
+        this.controllers.add(this.controller);
+        this.nextControllerIndex = new AtomicInteger();
     }
 
     /**
@@ -238,6 +279,27 @@ public abstract class BaseHelper<T extends Connector> extends
         return result;
     }
 
+    /**
+     * Creates a new IO buffer, lazily acquiring its byte buffer from the pool
+     * if buffer pooling is enabled.
+     * 
+     * @param bufferSize
+     *            The byte buffer size.
+     * @return The new IO buffer.
+     */
+    public Buffer createBuffer(int bufferSize) {
+        Buffer result = null;
+        BufferPool pool = getBufferPool();
+
+        if (pool != null) {
+            result = new Buffer(pool, bufferSize);
+        } else {
+            result = new Buffer(bufferSize, isDirectBuffers());
+        }
+
+        return result;
+    }
+
     /**
      * Creates a new controller.
      * 
@@ -246,15 +308,31 @@ public abstract class BaseHelper<T extends Connector> extends
     protected abstract ConnectionController createController();
 
     /**
-     * Creates the connector controller service.
+     * Creates the connector controller service. It provides one thread per
+     * controller.
      * 
      * @return The connector controller service.
      */
     protected ExecutorService createControllerService() {
+        int controllerThreads = getControllerThreads();
+
+        if (controllerThreads > 1) {
+            return Executors.newFixedThreadPool(controllerThreads,
+                    new LoggingThreadFactory(getLogger(), isControllerDaemon()));
+        }
+
         return Executors.newSingleThreadExecutor(new LoggingThreadFactory(
                 getLogger(), isControllerDaemon()));
     }
 
+    /**
+     * Creates an additional controller, sharing the IO work of the main
+     * controller when several controller threads are configured.
+     * 
+     * @return A new additional controller.
+     */
+    protected abstract ConnectionController createSharedController();
+
     /**
      * Creates the request object.
      * 
@@ -317,9 +395,17 @@ public abstract class BaseHelper<T extends Connector> extends
             }
         }
 
-        // Stops the controller
+        // Discard the idle byte buffers
+        if (getBufferPool() != null) {
+            getBufferPool().clear();
+        }
+
+        // Stops the controllers
         if (this.controllerService != null) {
-            this.controller.setRunning(false);
+            for (ConnectionController ctl : getControllers()) {
+                ctl.setRunning(false);
+            }
+
             this.controllerService.shutdown();
 
             try {
@@ -382,6 +468,16 @@ public abstract class BaseHelper<T extends Connector> extends
         }
     }
 
+    /**
+     * Returns the pool of byte buffers or null if buffer pooling is disabled.
+     * The pool statistics can be used to monitor its efficiency.
+     * 
+     * @return The pool of byte buffers.
+     */
+    public BufferPool getBufferPool() {
+        return this.bufferPool;
+    }
+
     /**
      * Returns the controller task.
      * 
@@ -391,6 +487,16 @@ public abstract class BaseHelper<T extends Connector> extends
         return controller;
     }
 
+    /**
+     * Returns the list of controller tasks. The first one is the main
+     * controller returned by {@link #getController()}.
+     * 
+     * @return The list of controller tasks.
+     */
+    public List<ConnectionController> getControllers() {
+        return controllers;
+    }
+
     /**
      * Returns the time for the controller thread to sleep between each control.
      * 
@@ -401,6 +507,17 @@ public abstract class BaseHelper<T extends Connector> extends
                 "controllerSleepTimeMs", "1"));
     }
 
+    /**
+     * Returns the number of controller threads, each one owning a separate NIO
+     * selector.
+     * 
+     * @return The number of controller threads.
+     */
+    public int getControllerThreads() {
+        return Math.max(1, Integer.parseInt(getHelpedParameters()
+                .getFirstValue("controllerThreads", "1")));
+    }
+
     /**
      * Returns the size of the content buffer for receiving messages.
      * 
@@ -482,6 +599,17 @@ public abstract class BaseHelper<T extends Connector> extends
                 "maxThreads", "10"));
     }
 
+    /**
+     * Returns the maximum number of idle byte buffers kept by the pool for
+     * each buffer size.
+     * 
+     * @return The maximum number of idle byte buffers per buffer size.
+     */
+    public int getMaxPooledBuffers() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxPooledBuffers", "64"));
+    }
+
     /**
      * Returns the minimum threads waiting to service requests. Technically
      * speaking, this is a core number of threads that are pre-started.
@@ -493,6 +621,41 @@ public abstract class BaseHelper<T extends Connector> extends
                 "minThreads", "1"));
     }
 
+    /**
+     * Returns the controller that should manage a new connection. The least
+     * loaded controller, in terms of connections, is selected. Controllers
+     * are scanned in a round robin order to evenly break ties.
+     * 
+     * @return The controller that should manage a new connection.
+     */
+    public ConnectionController getNextController() {
+        List<ConnectionController> ctls = getControllers();
+        int size = ctls.size();
+
+        if (size == 1) {
+            return ctls.get(0);
+        }
+
+        int start = (this.nextControllerIndex.getAndIncrement() & Integer.MAX_VALUE)
+                % size;
+        ConnectionController result = null;
+        int bestCount = Integer.MAX_VALUE;
+        ConnectionController ctl;
+        int count;
+
+        for (int i = 0; i < size; i++) {
+            ctl = ctls.get((start + i) % size);
+            count = ctl.getConnections().size();
+
+            if (count < bestCount) {
+                bestCount = count;
+                result = ctl;
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the size of the content buffer for sending responses.
      * 
@@ -667,6 +830,16 @@ public abstract class BaseHelper<T extends Connector> extends
      */
     public abstract boolean isControllerDaemon();
 
+    /**
+     * Indicates if the byte buffers of the connections should be pooled.
+     * 
+     * @return True if the byte buffers of the connections should be pooled.
+     */
+    public boolean isBufferPooling() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "bufferPooling", "false"));
+    }
+
     /**
      * Indicates if direct NIO buffers should be used. Note that tracing must be
      * disabled to use direct buffers.
@@ -749,13 +922,31 @@ public abstract class BaseHelper<T extends Connector> extends
     @Override
     public void start() throws Exception {
         super.start();
+
+        if (isBufferPooling()) {
+            this.bufferPool = new BufferPool(getMaxPooledBuffers(),
+                    isDirectBuffers());
+        } else {
+            this.bufferPool = null;
+        }
+
         this.controllerService = createControllerService();
 
         if (hasWorkerThreads()) {
             this.workerService = createWorkerService();
         }
 
-        this.controllerService.submit(this.controller);
+        // Create the additional controllers
+        getControllers().clear();
+        getControllers().add(this.controller);
+
+        for (int i = 1; i < getControllerThreads(); i++) {
+            getControllers().add(createSharedController());
+        }
+
+        for (ConnectionController ctl : getControllers()) {
+            this.controllerService.submit(ctl);
+        }
     }
 
     @Override
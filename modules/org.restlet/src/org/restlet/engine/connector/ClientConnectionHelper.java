@@ -38,7 +38,9 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
 import java.nio.channels.SocketChannel;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.logging.Level;
 
@@ -60,6 +62,13 @@ import org.restlet.data.Status;
  * <th>Description</th>
  * </tr>
  * <tr>
+ * <td>dnsCacheTimeMs</td>
+ * <td>int</td>
+ * <td>30000</td>
+ * <td>Time during which the socket address resolved for a host domain and port
+ * is reused before being resolved again. A value of 0 disables the cache.</td>
+ * </tr>
+ * <tr>
  * <td>proxyHost</td>
  * <td>String</td>
  * <td>System property "http.proxyHost"</td>
@@ -124,8 +133,39 @@ import org.restlet.data.Status;
  */
 public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
 
+    /**
+     * Socket address resolved for a host domain and port.
+     */
+    private static final class ResolvedAddress {
+
+        /** The resolved socket address. */
+        private final InetSocketAddress address;
+
+        /** The expiration time in milliseconds. */
+        private final long expirationTime;
+
+        /**
+         * Constructor.
+         * 
+         * @param address
+         *            The resolved socket address.
+         * @param expirationTime
+         *            The expiration time in milliseconds.
+         */
+        private ResolvedAddress(InetSocketAddress address, long expirationTime) {
+            this.address = address;
+            this.expirationTime = expirationTime;
+        }
+    }
+
     protected static final String CONNECTOR_LATCH = "org.restlet.engine.connector.latch";
 
+    /** The connections indexed by destination socket address. */
+    private final ConcurrentMap<InetSocketAddress, HostConnections> hostConnections;
+
+    /** The cache of resolved socket addresses, indexed by "domain:port". */
+    private final ConcurrentMap<String, ResolvedAddress> resolvedAddresses;
+
     /**
      * Constructor.
      * 
@@ -134,6 +174,20 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
      */
     public ClientConnectionHelper(Client connector) {
         super(connector, true);
+        this.hostConnections = new ConcurrentHashMap<InetSocketAddress, HostConnections>();
+        this.resolvedAddresses = new ConcurrentHashMap<String, ResolvedAddress>();
+    }
+
+    @Override
+    protected void checkin(Connection<?> connection) {
+        HostConnections host = (connection.getSocketAddress() == null) ? null
+                : this.hostConnections.get(connection.getSocketAddress());
+
+        if (host != null) {
+            host.remove(connection);
+        }
+
+        super.checkin(connection);
     }
 
     @Override
@@ -245,6 +299,7 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
 
                 if (bestConn != null) {
                     bestConn.getOutboundWay().handle(response);
+                    bestConn.activate();
                     getConnections().add(bestConn);
                 } else {
                     getLogger().log(Level.WARNING,
@@ -293,48 +348,51 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                     .log(Level.WARNING,
                             "Unable to create a socket address related to the request.");
         } else {
+            HostConnections host = getHostConnections(socketAddress);
+
             // Associate the given request to the first available connection
             // opened on the same host domain and port.
-            for (Iterator<Connection<Client>> iterator = getConnections()
-                    .iterator(); !foundConn && iterator.hasNext();) {
-                Connection<Client> currConn = iterator.next();
-
-                if (socketAddress.equals(currConn.getSocketAddress())) {
-                    if (currConn.isAvailable()) {
-                        result = currConn;
-                        foundConn = true;
-                    } else {
-                        // Assign the request to the busy connection that
-                        // handles the less number of messages. This is useful
-                        // in case the maximum number of connections has been
-                        // reached. As a drawback, the message will only be
-                        // handled as soon as possible.
-                        int currScore = currConn.getLoadScore();
-
-                        if (bestScore > currScore) {
-                            bestScore = currScore;
-                            result = currConn;
-                        }
-
-                        hostConnectionCount++;
-                    }
+            for (Connection<Client> currConn : host.getConnections()) {
+                if (currConn.isAvailable()) {
+                    result = currConn;
+                    foundConn = true;
+                    break;
                 }
+
+                // Assign the request to the busy connection that handles the
+                // less number of messages. This is useful in case the maximum
+                // number of connections has been reached. As a drawback, the
+                // message will only be handled as soon as possible.
+                int currScore = currConn.getLoadScore();
+
+                if (bestScore > currScore) {
+                    bestScore = currScore;
+                    result = currConn;
+                }
+
+                hostConnectionCount++;
             }
 
             // No connection has been found, try to create a new one that will
             // handle the message soon.
             if (foundConn) {
-                getLogger().log(
-                        Level.FINE,
-                        "Reusing an existing client connection to: "
-                                + socketAddress);
+                host.onReused();
+
+                if (getLogger().isLoggable(Level.FINE)) {
+                    getLogger().log(
+                            Level.FINE,
+                            "Reusing an existing client connection to: "
+                                    + socketAddress);
+                }
             } else if ((getMaxTotalConnections() != -1)
                     && (getConnections().size() >= getMaxTotalConnections())) {
+                host.onRejected();
                 getLogger()
                         .log(Level.WARNING,
                                 "Unable to create a new connection. Maximum total number of connections reached!");
             } else if ((getMaxConnectionsPerHost() != -1)
                     && (hostConnectionCount >= getMaxConnectionsPerHost())) {
+                host.onRejected();
                 getLogger()
                         .log(Level.WARNING,
                                 "Unable to create a new connection. Maximum number of connections reached for host: "
@@ -348,10 +406,57 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                                     + socketAddress);
                 }
 
+                ConnectionController controller = getNextController();
                 result = checkout(
                         createSocketChannel(request.isConfidential(),
-                                socketAddress), getController(), socketAddress);
+                                socketAddress), controller, socketAddress);
+                controller.getConnections().add(result);
                 getConnections().add(result);
+                host.add(result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the time during which the socket address resolved for a host
+     * domain and port is reused before being resolved again.
+     * 
+     * @return The time during which a resolved socket address is reused.
+     */
+    public int getDnsCacheTimeMs() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "dnsCacheTimeMs", "30000"));
+    }
+
+    /**
+     * Returns the connections opened to each destination, with their usage
+     * statistics.
+     * 
+     * @return The connections opened to each destination.
+     */
+    public Collection<HostConnections> getHostConnections() {
+        return this.hostConnections.values();
+    }
+
+    /**
+     * Returns the connections opened to a given destination, creating the
+     * entry if needed.
+     * 
+     * @param socketAddress
+     *            The destination socket address.
+     * @return The connections opened to the destination.
+     */
+    protected HostConnections getHostConnections(InetSocketAddress socketAddress) {
+        HostConnections result = this.hostConnections.get(socketAddress);
+
+        if (result == null) {
+            HostConnections created = new HostConnections(socketAddress);
+            result = this.hostConnections.putIfAbsent(socketAddress, created);
+
+            if (result == null) {
+                result = created;
             }
         }
 
@@ -433,10 +538,7 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
         }
 
         if (hostDomain != null) {
-            result = new InetSocketAddress(hostDomain, hostPort);
-            if (result != null && result.getAddress() == null) {
-                throw new UnknownHostException(hostDomain);
-            }
+            result = resolve(hostDomain, hostPort);
         }
 
         return result;
@@ -584,6 +686,51 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                 "socketOobInline", "false"));
     }
 
+    /**
+     * Returns the socket address of a host domain and port. The resolved
+     * addresses are cached during the time returned by
+     * {@link #getDnsCacheTimeMs()}.
+     * 
+     * @param hostDomain
+     *            The host domain.
+     * @param hostPort
+     *            The host port.
+     * @return The resolved socket address.
+     * @throws UnknownHostException
+     *             If the host domain can't be resolved.
+     */
+    protected InetSocketAddress resolve(String hostDomain, int hostPort)
+            throws UnknownHostException {
+        int cacheTime = getDnsCacheTimeMs();
+        String key = (cacheTime > 0) ? hostDomain + ':' + hostPort : null;
+        long now = (cacheTime > 0) ? System.currentTimeMillis() : 0L;
+
+        if (key != null) {
+            ResolvedAddress resolved = this.resolvedAddresses.get(key);
+
+            if ((resolved != null) && (resolved.expirationTime > now)) {
+                return resolved.address;
+            }
+        }
+
+        InetSocketAddress result = new InetSocketAddress(hostDomain, hostPort);
+
+        if (result.getAddress() == null) {
+            if (key != null) {
+                this.resolvedAddresses.remove(key);
+            }
+
+            throw new UnknownHostException(hostDomain);
+        }
+
+        if (key != null) {
+            this.resolvedAddresses.put(key, new ResolvedAddress(result, now
+                    + cacheTime));
+        }
+
+        return result;
+    }
+
     @Override
     public void start() throws Exception {
         getLogger().info("Starting the internal " + getProtocols() + " client");
@@ -594,6 +741,8 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
     public void stop() throws Exception {
         getLogger().info("Stopping the internal" + getProtocols() + " client");
         super.stop();
+        this.hostConnections.clear();
+        this.resolvedAddresses.clear();
     }
 
     /**
@@ -65,6 +65,9 @@ import org.restlet.util.SelectionRegistration;
  */
 public class Connection<T extends Connector> implements SelectionListener {
 
+    /** The IO controller managing the connection. */
+    private volatile ConnectionController controller;
+
     /** The parent connector helper. */
     private final ConnectionHelper<T> helper;
 
@@ -83,6 +86,9 @@ public class Connection<T extends Connector> implements SelectionListener {
     /** The outbound way. */
     private final OutboundWay outboundWay;
 
+    /** Indicates if the controller stopped controlling the idle connection. */
+    private volatile boolean parked;
+
     /** Indicates if the connection should be persisted across calls. */
     private volatile boolean persistent;
 
@@ -132,6 +138,19 @@ public class Connection<T extends Connector> implements SelectionListener {
         init(socketChannel, controller, socketAddress);
     }
 
+    /**
+     * Notifies the controller that the state of the connection may have
+     * changed. If the connection was parked because it was idle, the
+     * controller will control it again during its next loop.
+     */
+    public void activate() {
+        ConnectionController ctl = this.controller;
+
+        if (this.parked && (ctl != null)) {
+            ctl.activate(this);
+        }
+    }
+
     /**
      * Clears the connection so it can be reused. Typically invoked by a
      * connection pool.
@@ -444,6 +463,8 @@ public class Connection<T extends Connector> implements SelectionListener {
     public void init(SocketChannel socketChannel,
             ConnectionController controller, InetSocketAddress socketAddress)
             throws IOException {
+        this.controller = controller;
+        this.parked = false;
         this.persistent = helper.isPersistingConnections();
         this.pipelining = helper.isPipeliningConnections();
         this.maxIoIdleTimeMs = helper.getMaxIoIdleTimeMs();
@@ -468,6 +489,10 @@ public class Connection<T extends Connector> implements SelectionListener {
         }
 
         onActivity();
+
+        if (controller != null) {
+            controller.activate(this);
+        }
     }
 
     /**
@@ -499,6 +524,16 @@ public class Connection<T extends Connector> implements SelectionListener {
         return getInboundWay().isEmpty() && getOutboundWay().isEmpty();
     }
 
+    /**
+     * Indicates if the controller stopped controlling the idle connection until
+     * its next activation.
+     * 
+     * @return True if the connection is parked.
+     */
+    public boolean isParked() {
+        return parked;
+    }
+
     /**
      * Indicates if the connection should be persisted across calls.
      * 
@@ -673,6 +708,17 @@ public class Connection<T extends Connector> implements SelectionListener {
         init(socketChannel, controller, socketAddress);
     }
 
+    /**
+     * Indicates if the controller stopped controlling the idle connection until
+     * its next activation.
+     * 
+     * @param parked
+     *            True if the connection is parked.
+     */
+    public void setParked(boolean parked) {
+        this.parked = parked;
+    }
+
     /**
      * Indicates if the connection should be persisted across calls.
      * 
@@ -721,6 +767,7 @@ public class Connection<T extends Connector> implements SelectionListener {
             }
 
             this.state = state;
+            activate();
         }
     }
 
@@ -39,8 +39,14 @@ import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 
@@ -51,11 +57,47 @@ import org.restlet.util.SelectionRegistration;
 
 /**
  * Controls the IO work of parent connector helper and manages its connections.
+ * Several controllers can share the connections of the same helper, each one
+ * with its own NIO selector and thread. In this case, each connection is
+ * controlled by a single controller.<br>
+ * <br>
+ * Only the active connections are controlled at each loop. Idle connections,
+ * open and empty of messages and bytes, are parked in a timing wheel until
+ * their IO idle deadline is reached or until they are activated again, either
+ * by a NIO selection or by a change of their state or of the state of their
+ * ways.
  * 
  * @author Jerome Louvel
  */
 public class ConnectionController extends Controller implements Runnable {
 
+    /** The duration of a tick of the idle connections timing wheel. */
+    private static final long IDLE_TICK_MS = 100L;
+
+    /** The number of slots of the idle connections timing wheel. */
+    private static final int IDLE_SLOTS = 1024;
+
+    /** The queue of connections to activate. */
+    private final Queue<Connection<?>> activations;
+
+    /**
+     * The set of active connections, controlled at each loop. Only accessed by
+     * the controller thread.
+     */
+    private final Set<Connection<?>> activeConnections;
+
+    /** The set of connections managed by this controller. */
+    private final Set<Connection<?>> connections;
+
+    /** The list of expired idle connections, reused by each loop. */
+    private final List<Connection<?>> expiredConnections;
+
+    /**
+     * The timing wheel of the parked idle connections. Only accessed by the
+     * controller thread.
+     */
+    private final TimingWheel<Connection<?>> idleConnections;
+
     /** The NIO selector. */
     private volatile Selector selector;
 
@@ -73,18 +115,64 @@ public class ConnectionController extends Controller implements Runnable {
      */
     public ConnectionController(ConnectionHelper<?> helper) {
         super(helper);
+        this.activations = new ConcurrentLinkedQueue<Connection<?>>();
+        this.activeConnections = new HashSet<Connection<?>>();
+        this.connections = Collections
+                .newSetFromMap(new ConcurrentHashMap<Connection<?>, Boolean>());
+        this.expiredConnections = new ArrayList<Connection<?>>();
+        this.idleConnections = new TimingWheel<Connection<?>>(IDLE_TICK_MS,
+                IDLE_SLOTS, System.currentTimeMillis());
         this.newRegistrations = new ConcurrentLinkedQueue<SelectionRegistration>();
         this.updatedRegistrations = new ConcurrentLinkedQueue<SelectionRegistration>();
     }
 
     /**
-     * Control each connection for messages to read or write.
+     * Requests the control of a connection during the next loop. Can be called
+     * from any thread.
+     * 
+     * @param connection
+     *            The connection to activate.
+     */
+    public void activate(Connection<?> connection) {
+        this.activations.add(connection);
+    }
+
+    /**
+     * Control each active connection for messages to read or write, after
+     * activating the connections requested since the last loop and the idle
+     * connections whose deadline has been reached.
      * 
      * @throws IOException
      */
     protected void controlConnections() throws IOException {
+        // Activate the notified connections
+        Connection<?> activated = this.activations.poll();
+
+        while (activated != null) {
+            activated.setParked(false);
+            this.idleConnections.cancel(activated);
+            this.activeConnections.add(activated);
+            activated = this.activations.poll();
+        }
+
+        // Activate the idle connections to time out
+        if (!this.idleConnections.isEmpty()) {
+            this.idleConnections.expire(System.currentTimeMillis(),
+                    this.expiredConnections);
+
+            for (Connection<?> expired : this.expiredConnections) {
+                expired.setParked(false);
+                this.activeConnections.add(expired);
+            }
+
+            this.expiredConnections.clear();
+        }
+
         // Close connections or register interest in NIO operations
-        for (Connection<?> conn : getHelper().getConnections()) {
+        for (Iterator<Connection<?>> iter = this.activeConnections.iterator(); iter
+                .hasNext();) {
+            Connection<?> conn = iter.next();
+
             if (getHelper().getLogger().isLoggable(Level.FINEST)) {
                 getHelper().getLogger().log(Level.FINEST,
                         "Connection status: " + conn);
@@ -92,6 +180,8 @@ public class ConnectionController extends Controller implements Runnable {
 
             if (conn.getState() == ConnectionState.CLOSED) {
                 // Detach the connection and collect it
+                iter.remove();
+                getConnections().remove(conn);
                 getHelper().getConnections().remove(conn);
                 getHelper().checkin(conn);
             } else if ((conn.getState() == ConnectionState.CLOSING)
@@ -107,6 +197,22 @@ public class ConnectionController extends Controller implements Runnable {
             } else if (conn.getOutboundWay().getIoState() == IoState.READY) {
                 conn.getOutboundWay().onSelected(
                         conn.getOutboundWay().getRegistration());
+            } else if (isIdle(conn)) {
+                // Park the connection, then check again in case it was
+                // concurrently changed without being activated
+                conn.setParked(true);
+
+                if (isIdle(conn)) {
+                    iter.remove();
+
+                    if (conn.getMaxIoIdleTimeMs() > 0) {
+                        this.idleConnections.schedule(conn,
+                                conn.getLastActivity()
+                                        + conn.getMaxIoIdleTimeMs());
+                    }
+                } else {
+                    conn.setParked(false);
+                }
             }
         }
     }
@@ -132,9 +238,12 @@ public class ConnectionController extends Controller implements Runnable {
     @Override
     protected void doInit() {
         this.selector = createSelector();
-        // Done in the controller for thread safety reason regarding the byte
-        // buffers part of the pooled connections
-        getHelper().createConnectionPool();
+
+        if (isMain()) {
+            // Done in the controller for thread safety reason regarding the
+            // byte buffers part of the pooled connections
+            getHelper().createConnectionPool();
+        }
     }
 
     @Override
@@ -156,6 +265,26 @@ public class ConnectionController extends Controller implements Runnable {
         controlConnections();
     }
 
+    /**
+     * Returns the set of connections managed by this controller.
+     * 
+     * @return The set of connections managed by this controller.
+     */
+    public Set<Connection<?>> getConnections() {
+        return connections;
+    }
+
+    /**
+     * Returns the number of connections currently controlled at each loop, as
+     * opposed to the parked idle connections. The value is approximate when
+     * read from another thread than the controller's one.
+     * 
+     * @return The number of active connections.
+     */
+    public int getActiveCount() {
+        return this.activeConnections.size();
+    }
+
     /**
      * Returns the queue of new selection registrations.
      * 
@@ -183,6 +312,22 @@ public class ConnectionController extends Controller implements Runnable {
         return this.updatedRegistrations;
     }
 
+    /**
+     * Indicates if a connection is idle, open and empty of messages and bytes,
+     * so that it only needs to be controlled again when activated or when its
+     * IO idle deadline is reached.
+     * 
+     * @param connection
+     *            The connection to test.
+     * @return True if the connection is idle.
+     */
+    protected boolean isIdle(Connection<?> connection) {
+        return (connection.getState() == ConnectionState.OPEN)
+                && connection.isEmpty()
+                && (connection.getInboundWay().getIoState() != IoState.READY)
+                && (connection.getOutboundWay().getIoState() != IoState.READY);
+    }
+
     /**
      * Called back when a ready key has been selected.
      * 
@@ -199,8 +344,15 @@ public class ConnectionController extends Controller implements Runnable {
             }
 
             if (selectedKey.attachment() != null) {
-                ((SelectionRegistration) selectedKey.attachment())
-                        .onSelected(selectedKey.readyOps());
+                SelectionRegistration selectedRegistration = (SelectionRegistration) selectedKey
+                        .attachment();
+
+                if (selectedRegistration.getListener() instanceof Connection) {
+                    ((Connection<?>) selectedRegistration.getListener())
+                            .activate();
+                }
+
+                selectedRegistration.onSelected(selectedKey.readyOps());
             }
         } catch (CancelledKeyException cke) {
             getHelper().getLogger().log(Level.FINER,
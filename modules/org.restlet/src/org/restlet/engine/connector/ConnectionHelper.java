@@ -36,10 +36,13 @@ package org.restlet.engine.connector;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.channels.SocketChannel;
+import java.util.Collections;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.restlet.Connector;
+import org.restlet.engine.metrics.ConnectorMetrics;
 
 /**
  * Connector helper using network connections. Here is the list of parameters
@@ -116,6 +119,15 @@ public abstract class ConnectionHelper<T extends Connector> extends
     /** The set of active connections. */
     private final Set<Connection<T>> connections;
 
+    /** The number of bytes read from the connections. */
+    private final AtomicLong inboundBytes;
+
+    /** The metrics of the helper. */
+    private volatile ConnectorMetrics metrics;
+
+    /** The number of bytes written to the connections. */
+    private final AtomicLong outboundBytes;
+
     /**
      * Constructor.
      * 
@@ -126,8 +138,32 @@ public abstract class ConnectionHelper<T extends Connector> extends
      */
     public ConnectionHelper(T connector, boolean clientSide) {
         super(connector, clientSide);
-        this.connections = new CopyOnWriteArraySet<Connection<T>>();
+        this.connections = Collections
+                .newSetFromMap(new ConcurrentHashMap<Connection<T>, Boolean>());
         this.connectionPool = null;
+        this.inboundBytes = new AtomicLong();
+        this.outboundBytes = new AtomicLong();
+        this.metrics = null;
+    }
+
+    /**
+     * Adds a number of bytes read from a connection.
+     * 
+     * @param bytes
+     *            The number of bytes read.
+     */
+    public void addInboundBytes(long bytes) {
+        this.inboundBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Adds a number of bytes written to a connection.
+     * 
+     * @param bytes
+     *            The number of bytes written.
+     */
+    public void addOutboundBytes(long bytes) {
+        this.outboundBytes.addAndGet(bytes);
     }
 
     /**
@@ -198,6 +234,18 @@ public abstract class ConnectionHelper<T extends Connector> extends
         }
     }
 
+    /**
+     * Creates an additional controller, sharing the IO work of the main
+     * controller. By default, it returns a new {@link ConnectionController}
+     * instance.
+     * 
+     * @return A new additional controller.
+     */
+    @Override
+    protected ConnectionController createSharedController() {
+        return new ConnectionController(this);
+    }
+
     /**
      * Creates an inbound way for the given connection.
      * 
@@ -259,6 +307,15 @@ public abstract class ConnectionHelper<T extends Connector> extends
         return connections;
     }
 
+    /**
+     * Returns the number of bytes read from the connections.
+     * 
+     * @return The number of bytes read from the connections.
+     */
+    public long getInboundBytes() {
+        return this.inboundBytes.get();
+    }
+
     /**
      * Returns the initial number of connections pre-created in the connections
      * pool.
@@ -295,6 +352,24 @@ public abstract class ConnectionHelper<T extends Connector> extends
 
     }
 
+    /**
+     * Returns the metrics of the helper, available while it is started.
+     * 
+     * @return The metrics of the helper or null.
+     */
+    public ConnectorMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Returns the number of bytes written to the connections.
+     * 
+     * @return The number of bytes written to the connections.
+     */
+    public long getOutboundBytes() {
+        return this.outboundBytes.get();
+    }
+
     /**
      * Returns the hinted size of the underlying TCP buffers used by the
      * platform for inbound network I/O.
@@ -359,4 +434,21 @@ public abstract class ConnectionHelper<T extends Connector> extends
         return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
                 "socketReuseAddress", "true"));
     }
+
+    @Override
+    public void start() throws Exception {
+        super.start();
+        this.metrics = new ConnectorMetrics(this);
+        ConnectorMetrics.register(this.metrics);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (this.metrics != null) {
+            ConnectorMetrics.unregister(this.metrics);
+            this.metrics = null;
+        }
+
+        super.stop();
+    }
 }
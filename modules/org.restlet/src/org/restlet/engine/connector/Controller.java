@@ -47,6 +47,9 @@ public abstract class Controller {
     /** The parent connector helper. */
     protected final ConnectionHelper<?> helper;
 
+    /** The duration of the last control loop in nanoseconds. */
+    private volatile long loopTime;
+
     /** Indicates if the controller is overloaded. */
     protected boolean overloaded;
 
@@ -61,6 +64,7 @@ public abstract class Controller {
      */
     public Controller(ConnectionHelper<?> helper) {
         this.helper = helper;
+        this.loopTime = 0L;
         this.overloaded = false;
         this.running = false;
     }
@@ -79,12 +83,15 @@ public abstract class Controller {
 
     /**
      * Do the actual controller work. Called by the {@link #run()} to provide an
-     * easy method to overload.
+     * easy method to overload. Only the main controller of the helper controls
+     * its pending inbound and outbound messages.
      * 
      * @param sleepTime
      */
     protected void doRun(long sleepTime) throws IOException {
-        getHelper().control();
+        if (isMain()) {
+            getHelper().control();
+        }
     }
 
     /**
@@ -96,6 +103,16 @@ public abstract class Controller {
         return helper;
     }
 
+    /**
+     * Returns the duration of the last control loop in nanoseconds, including
+     * the time spent waiting for IO events.
+     * 
+     * @return The duration of the last control loop in nanoseconds.
+     */
+    public long getLoopTime() {
+        return loopTime;
+    }
+
     /**
      * Returns the helper's worker service.
      * 
@@ -105,6 +122,16 @@ public abstract class Controller {
         return getHelper().getWorkerService();
     }
 
+    /**
+     * Indicates if it is the main controller of the parent helper, as opposed
+     * to an additional controller sharing its IO work.
+     * 
+     * @return True if it is the main controller of the parent helper.
+     */
+    public boolean isMain() {
+        return getHelper().getController() == this;
+    }
+
     /**
      * Indicates if the controller is overloaded.
      * 
@@ -155,7 +182,9 @@ public abstract class Controller {
                         }
                     }
 
+                    long loopStart = System.nanoTime();
                     doRun(sleepTime);
+                    this.loopTime = System.nanoTime() - loopStart;
                 } catch (Throwable ex) {
                     this.helper.getLogger().log(Level.WARNING,
                             "Unexpected error while controlling connector", ex);
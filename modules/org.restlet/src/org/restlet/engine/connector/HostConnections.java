@@ -0,0 +1,194 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.connector;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restlet.Client;
+
+/**
+ * Client connections opened to the same destination socket address, with
+ * statistics on their usage. It allows a client helper to find a connection
+ * to reuse or to enforce the maximum number of connections per host without
+ * scanning the connections opened to other destinations.
+ * 
+ * Concurrency note: instances of this class can be updated and read by several
+ * threads at the same time.
+ * 
+ * @author Jerome Louvel
+ */
+public class HostConnections {
+
+    /** The destination socket address. */
+    private final InetSocketAddress address;
+
+    /** The connections opened to the destination. */
+    private final Set<Connection<Client>> connections;
+
+    /** The number of connections created. */
+    private final AtomicLong createdCount;
+
+    /** The number of requests that couldn't be assigned a connection. */
+    private final AtomicLong rejectedCount;
+
+    /** The number of times an open connection was reused. */
+    private final AtomicLong reusedCount;
+
+    /**
+     * Constructor.
+     * 
+     * @param address
+     *            The destination socket address.
+     */
+    public HostConnections(InetSocketAddress address) {
+        this.address = address;
+        this.connections = Collections
+                .newSetFromMap(new ConcurrentHashMap<Connection<Client>, Boolean>());
+        this.createdCount = new AtomicLong();
+        this.rejectedCount = new AtomicLong();
+        this.reusedCount = new AtomicLong();
+    }
+
+    /**
+     * Adds a connection created for the destination.
+     * 
+     * @param connection
+     *            The connection created.
+     */
+    public void add(Connection<Client> connection) {
+        this.connections.add(connection);
+        this.createdCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the destination socket address.
+     * 
+     * @return The destination socket address.
+     */
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Returns the number of connections currently available for new messages.
+     * 
+     * @return The number of available connections.
+     */
+    public int getAvailableCount() {
+        int result = 0;
+
+        for (Connection<Client> connection : this.connections) {
+            if (connection.isAvailable()) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the connections opened to the destination.
+     * 
+     * @return The connections opened to the destination.
+     */
+    public Set<Connection<Client>> getConnections() {
+        return connections;
+    }
+
+    /**
+     * Returns the number of connections created.
+     * 
+     * @return The number of connections created.
+     */
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    /**
+     * Returns the number of requests that couldn't be assigned a connection
+     * because a maximum number of connections was reached.
+     * 
+     * @return The number of rejected requests.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Returns the number of times an open connection was reused.
+     * 
+     * @return The number of reused connections.
+     */
+    public long getReusedCount() {
+        return reusedCount.get();
+    }
+
+    /**
+     * Records a request that couldn't be assigned a connection.
+     */
+    public void onRejected() {
+        this.rejectedCount.incrementAndGet();
+    }
+
+    /**
+     * Records the reuse of an open connection.
+     */
+    public void onReused() {
+        this.reusedCount.incrementAndGet();
+    }
+
+    /**
+     * Removes a connection closed or checked in.
+     * 
+     * @param connection
+     *            The connection to remove.
+     * @return True if the connection was part of the destination.
+     */
+    public boolean remove(Connection<?> connection) {
+        return this.connections.remove(connection);
+    }
+
+    @Override
+    public String toString() {
+        return getAddress() + " (open | available | created | reused | rejected): "
+                + getConnections().size() + " | " + getAvailableCount()
+                + " | " + getCreatedCount() + " | " + getReusedCount() + " | "
+                + getRejectedCount();
+    }
+
+}
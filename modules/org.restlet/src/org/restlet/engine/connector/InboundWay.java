@@ -40,7 +40,6 @@ import java.util.logging.Level;
 import org.restlet.Response;
 import org.restlet.data.Status;
 import org.restlet.engine.header.Header;
-import org.restlet.engine.header.HeaderReader;
 import org.restlet.engine.header.HeaderUtils;
 import org.restlet.engine.io.Buffer;
 import org.restlet.engine.io.BufferState;
@@ -88,6 +87,12 @@ public abstract class InboundWay extends Way {
         this.entityRegistration = null;
     }
 
+    @Override
+    protected void clearLineBuilder() {
+        super.clearLineBuilder();
+        setBuilderIndex(0);
+    }
+
     /**
      * Returns the message entity if available.
      * 
@@ -145,7 +150,8 @@ public abstract class InboundWay extends Way {
     }
 
     /**
-     * Read the current message line (start line or header line).
+     * Read the current message line (start line or header line). The line is
+     * appended to the line builder, starting at the builder index.
      * 
      * @return True if the line is ready for reading.
      * @throws IOException
@@ -159,7 +165,8 @@ public abstract class InboundWay extends Way {
             result = true;
 
             if (getLogger().isLoggable(Level.FINE)) {
-                getLogger().log(Level.FINE, getLineBuilder().toString());
+                getLogger().log(Level.FINE,
+                        getLineBuilder().substring(getBuilderIndex()));
             }
         }
 
@@ -248,6 +255,7 @@ public abstract class InboundWay extends Way {
                 if (header != null) {
                     if (getHeaders() == null) {
                         setHeaders(new Series<Header>(Header.class));
+                        getHeaders().setIndexed(true);
                     }
 
                     getHeaders().add(header);
@@ -278,7 +286,9 @@ public abstract class InboundWay extends Way {
         int result = getBuffer().fill(
                 getConnection().getReadableSelectionChannel());
 
-        if (result == -1) {
+        if (result > 0) {
+            getHelper().addInboundBytes(result);
+        } else if (result == -1) {
             // End of channel detected
             getConnection().close(true);
         }
@@ -357,14 +367,35 @@ public abstract class InboundWay extends Way {
     }
 
     /**
-     * Read a message header.
+     * Read a message header. The header lines are accumulated in the line
+     * builder and the header values are only copied once for all the headers,
+     * when the end of the headers is reached.
      * 
      * @return The new message header or null.
      * @throws IOException
      */
     protected Header readHeader() throws IOException {
-        Header header = HeaderReader.readHeader(getLineBuilder());
-        clearLineBuilder();
+        Header header = ParsedHeader.parse(getLineBuilder(), getBuilderIndex());
+
+        if (header == null) {
+            // End of headers, copy the pending values before clearing
+            if ((getHeaders() != null) && !getHeaders().isEmpty()) {
+                String headerLines = getLineBuilder().toString();
+
+                for (Header current : getHeaders()) {
+                    if (current instanceof ParsedHeader) {
+                        ((ParsedHeader) current).detach(headerLines);
+                    }
+                }
+            }
+
+            clearLineBuilder();
+        } else {
+            // Keep the line for the value and read the next one after it
+            setBuilderIndex(getLineBuilder().length());
+            setLineBuilderState(BufferState.IDLE);
+        }
+
         return header;
     }
 
@@ -304,6 +304,10 @@ public abstract class OutboundWay extends Way {
         int result = getBuffer().drain(
                 getConnection().getWritableSelectionChannel());
 
+        if (result > 0) {
+            getHelper().addOutboundBytes(result);
+        }
+
         if (getLogger().isLoggable(Level.FINER)) {
             getLogger().log(Level.FINER, result + " bytes written");
         }
@@ -0,0 +1,228 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.connector;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restlet.engine.header.Header;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.header.HeaderUtils;
+
+/**
+ * Header read by an inbound way. Its value is only recorded as a range of the
+ * source characters and materialized as a string when first read. Well-known
+ * header names declared in {@link HeaderConstants} are reused instead of
+ * creating new strings.
+ * 
+ * @author Jerome Louvel
+ */
+public class ParsedHeader extends Header {
+
+    /** The well-known header names, indexed by length. */
+    private static final String[][] NAMES;
+
+    static {
+        List<List<String>> names = new ArrayList<List<String>>();
+
+        for (Field field : HeaderConstants.class.getFields()) {
+            if (field.getName().startsWith("HEADER_")
+                    && Modifier.isStatic(field.getModifiers())
+                    && (field.getType() == String.class)) {
+                try {
+                    String name = (String) field.get(null);
+
+                    while (names.size() <= name.length()) {
+                        names.add(new ArrayList<String>());
+                    }
+
+                    names.get(name.length()).add(name);
+                } catch (IllegalAccessException e) {
+                    // Skip this constant
+                }
+            }
+        }
+
+        NAMES = new String[names.size()][];
+
+        for (int i = 0; i < names.size(); i++) {
+            NAMES[i] = names.get(i).toArray(new String[names.get(i).size()]);
+        }
+    }
+
+    /**
+     * Returns the name located in the given range of characters, reusing the
+     * well-known header name if it matches exactly.
+     * 
+     * @param source
+     *            The source characters.
+     * @param start
+     *            The index of the first character.
+     * @param end
+     *            The index after the last character.
+     * @return The header name.
+     */
+    public static String getName(CharSequence source, int start, int end) {
+        int length = end - start;
+
+        if (length < NAMES.length) {
+            for (String name : NAMES[length]) {
+                boolean matched = true;
+
+                for (int i = 0; matched && (i < length); i++) {
+                    matched = (name.charAt(i) == source.charAt(start + i));
+                }
+
+                if (matched) {
+                    return name;
+                }
+            }
+        }
+
+        return source.subSequence(start, end).toString();
+    }
+
+    /**
+     * Parses the header line starting at the given index of the source
+     * characters. The value isn't copied until it is read, so the source
+     * characters must not be modified before {@link #detach(CharSequence)} is
+     * called.
+     * 
+     * @param source
+     *            The source characters, without the trailing CRLF.
+     * @param start
+     *            The index of the header line.
+     * @return The parsed header or null if the line is empty, marking the end
+     *         of the headers.
+     * @throws IOException
+     */
+    public static ParsedHeader parse(CharSequence source, int start)
+            throws IOException {
+        ParsedHeader result = null;
+        int end = source.length();
+
+        if (start < end) {
+            int index = start;
+
+            // Parse the header name
+            while ((index < end) && (source.charAt(index) != ':')) {
+                index++;
+            }
+
+            if (index == end) {
+                throw new IOException(
+                        "Unable to parse the header name. End of line reached too early.");
+            }
+
+            String name = getName(source, start, index);
+            index++;
+
+            // Skip any separator space between colon and header value
+            while ((index < end) && HeaderUtils.isSpace(source.charAt(index))) {
+                index++;
+            }
+
+            result = new ParsedHeader(name, source, index, end);
+        }
+
+        return result;
+    }
+
+    /** The source characters of a value not yet materialized. */
+    private volatile CharSequence source;
+
+    /** The index after the last character of the value. */
+    private final int valueEnd;
+
+    /** The index of the first character of the value. */
+    private final int valueStart;
+
+    /**
+     * Constructor.
+     * 
+     * @param name
+     *            The header name.
+     * @param source
+     *            The source characters.
+     * @param valueStart
+     *            The index of the first character of the value.
+     * @param valueEnd
+     *            The index after the last character of the value.
+     */
+    public ParsedHeader(String name, CharSequence source, int valueStart,
+            int valueEnd) {
+        super();
+        setName(name);
+        this.source = source;
+        this.valueStart = valueStart;
+        this.valueEnd = valueEnd;
+    }
+
+    /**
+     * Replaces the source characters of a value not yet materialized with an
+     * equivalent copy, typically an immutable string, so that the original
+     * source can be reused.
+     * 
+     * @param copy
+     *            The copy of the source characters.
+     */
+    public void detach(CharSequence copy) {
+        if (this.source != null) {
+            this.source = copy;
+        }
+    }
+
+    @Override
+    public String getValue() {
+        CharSequence currentSource = this.source;
+
+        if (currentSource != null) {
+            super.setValue(currentSource.subSequence(this.valueStart,
+                    this.valueEnd).toString());
+            this.source = null;
+        }
+
+        return super.getValue();
+    }
+
+    @Override
+    public void setValue(String value) {
+        this.source = null;
+        super.setValue(value);
+    }
+
+}
@@ -110,12 +110,17 @@ public class ServerConnectionController extends ConnectionController {
                     if ((getHelper().getMaxTotalConnections() == -1)
                             || (connectionsCount <= getHelper()
                                     .getMaxTotalConnections())) {
+                        // Assign the connection to the least loaded
+                        // controller
+                        ConnectionController controller = getHelper()
+                                .getNextController();
                         Connection<Server> connection = getHelper().checkout(
                                 socketChannel,
-                                this,
+                                controller,
                                 (InetSocketAddress) socketChannel.socket()
                                         .getRemoteSocketAddress());
                         connection.open();
+                        controller.getConnections().add(connection);
                         getHelper().getConnections().add(connection);
 
                         if (getHelper().getLogger().isLoggable(Level.FINE)) {
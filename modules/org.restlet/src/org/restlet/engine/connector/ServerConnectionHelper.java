@@ -207,6 +207,7 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
                     if (canHandle(connection, response)) {
                         // Add the response to the outbound queue
                         connection.getOutboundWay().handle(response);
+                        connection.activate();
                     } else {
                         // Put the response at the end of the queue
                         getOutboundMessages().add(response);
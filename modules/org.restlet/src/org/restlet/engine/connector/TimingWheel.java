@@ -0,0 +1,223 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.connector;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel tracking the deadlines of a set of elements. The time is
+ * divided in ticks of a fixed duration and each element is stored in the slot
+ * of the tick of its deadline, modulo the number of slots. Scheduling and
+ * cancelling an element are done in constant time, and expiring the elements
+ * only scans the slots of the elapsed ticks.
+ * 
+ * Concurrency note: instances of this class are not thread-safe and are
+ * expected to be confined to the thread of a controller.
+ * 
+ * @author Jerome Louvel
+ * @param <E>
+ *            The type of tracked elements.
+ */
+public class TimingWheel<E> {
+
+    /**
+     * Deadline of a scheduled element.
+     */
+    private static final class Timeout {
+
+        /** The deadline in milliseconds. */
+        private final long deadline;
+
+        /** The index of the slot holding the element. */
+        private final int slot;
+
+        /**
+         * Constructor.
+         * 
+         * @param deadline
+         *            The deadline in milliseconds.
+         * @param slot
+         *            The index of the slot holding the element.
+         */
+        private Timeout(long deadline, int slot) {
+            this.deadline = deadline;
+            this.slot = slot;
+        }
+    }
+
+    /** The deadlines of the scheduled elements. */
+    private final Map<E, Timeout> deadlines;
+
+    /** The last tick processed by {@link #expire(long, Collection)}. */
+    private long lastTick;
+
+    /** The mask applied to a tick to compute the index of its slot. */
+    private final int mask;
+
+    /** The slots of the wheel. */
+    private final Set<E>[] slots;
+
+    /** The duration of a tick in milliseconds. */
+    private final long tickDuration;
+
+    /**
+     * Constructor.
+     * 
+     * @param tickDuration
+     *            The duration of a tick in milliseconds.
+     * @param slotCount
+     *            The minimum number of slots, rounded to a power of two.
+     * @param now
+     *            The current time in milliseconds.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public TimingWheel(long tickDuration, int slotCount, long now) {
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.deadlines = new HashMap<E, Timeout>();
+        this.mask = size - 1;
+        this.slots = new Set[size];
+        this.tickDuration = Math.max(1L, tickDuration);
+        this.lastTick = now / this.tickDuration;
+
+        for (int i = 0; i < size; i++) {
+            this.slots[i] = new HashSet<E>();
+        }
+    }
+
+    /**
+     * Cancels the deadline of an element.
+     * 
+     * @param element
+     *            The element to cancel.
+     * @return True if the element was scheduled.
+     */
+    public boolean cancel(E element) {
+        Timeout timeout = this.deadlines.remove(element);
+
+        if (timeout != null) {
+            this.slots[timeout.slot].remove(element);
+        }
+
+        return timeout != null;
+    }
+
+    /**
+     * Indicates if an element is scheduled.
+     * 
+     * @param element
+     *            The element to look for.
+     * @return True if the element is scheduled.
+     */
+    public boolean contains(E element) {
+        return this.deadlines.containsKey(element);
+    }
+
+    /**
+     * Removes the elements whose deadline has been reached and adds them to a
+     * given collection.
+     * 
+     * @param now
+     *            The current time in milliseconds.
+     * @param expired
+     *            The collection to update with the expired elements.
+     */
+    public void expire(long now, Collection<E> expired) {
+        long currentTick = now / this.tickDuration;
+
+        if (currentTick < this.lastTick) {
+            return;
+        }
+
+        // Scan each slot at most once, even after a long pause
+        long firstTick = Math.max(this.lastTick, currentTick - this.mask);
+
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            Set<E> slot = this.slots[(int) (tick & this.mask)];
+
+            if (!slot.isEmpty()) {
+                for (Iterator<E> iter = slot.iterator(); iter.hasNext();) {
+                    E element = iter.next();
+
+                    if (this.deadlines.get(element).deadline <= now) {
+                        iter.remove();
+                        this.deadlines.remove(element);
+                        expired.add(element);
+                    }
+                }
+            }
+        }
+
+        this.lastTick = currentTick;
+    }
+
+    /**
+     * Indicates if no element is scheduled.
+     * 
+     * @return True if no element is scheduled.
+     */
+    public boolean isEmpty() {
+        return this.deadlines.isEmpty();
+    }
+
+    /**
+     * Schedules an element, replacing its previous deadline if any.
+     * 
+     * @param element
+     *            The element to schedule.
+     * @param deadline
+     *            The deadline in milliseconds.
+     */
+    public void schedule(E element, long deadline) {
+        cancel(element);
+        long tick = Math.max(this.lastTick, deadline / this.tickDuration);
+        int slot = (int) (tick & this.mask);
+        this.deadlines.put(element, new Timeout(deadline, slot));
+        this.slots[slot].add(element);
+    }
+
+    /**
+     * Returns the number of scheduled elements.
+     * 
+     * @return The number of scheduled elements.
+     */
+    public int size() {
+        return this.deadlines.size();
+    }
+
+}
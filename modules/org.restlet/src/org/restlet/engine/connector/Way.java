@@ -97,7 +97,7 @@ public abstract class Way implements SelectionListener, CompletionListener,
      */
     public Way(Connection<?> connection, int bufferSize) {
         this.connection = connection;
-        this.buffer = new Buffer(bufferSize, getHelper().isDirectBuffers());
+        this.buffer = getHelper().createBuffer(bufferSize);
         this.headers = null;
         this.ioState = IoState.IDLE;
         this.lineBuilder = new StringBuilder();
@@ -135,6 +135,7 @@ public abstract class Way implements SelectionListener, CompletionListener,
         }
 
         this.buffer.clear();
+        this.buffer.release();
         this.headers = null;
         this.ioState = IoState.IDLE;
         clearLineBuilder();
@@ -330,6 +331,7 @@ public abstract class Way implements SelectionListener, CompletionListener,
         setMessage(null);
         setHeaders(null);
         getBuffer().clear();
+        getBuffer().release();
     }
 
     /**
@@ -506,6 +508,7 @@ public abstract class Way implements SelectionListener, CompletionListener,
             }
 
             this.ioState = ioState;
+            getConnection().activate();
         }
     }
 
@@ -569,9 +572,17 @@ public abstract class Way implements SelectionListener, CompletionListener,
     }
 
     /**
-     * Updates the way IO and message states.
+     * Updates the way IO and message states. When the way is waiting for a new
+     * message, the byte buffer is released to the helper's buffer pool if it
+     * is empty.
      */
     public void updateState() {
+        if ((getMessageState() == MessageState.IDLE)
+                || ((getMessageState() == MessageState.START) && (getLineBuilder()
+                        .length() == 0))) {
+            getBuffer().release();
+        }
+
         getRegistration().setInterestOperations(getInterestOperations());
     }
 
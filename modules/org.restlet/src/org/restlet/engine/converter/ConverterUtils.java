@@ -33,23 +33,269 @@
 
 package org.restlet.engine.converter;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import org.restlet.Context;
+import org.restlet.data.CharacterSet;
+import org.restlet.data.Encoding;
+import org.restlet.data.Language;
+import org.restlet.data.MediaType;
 import org.restlet.engine.Engine;
+import org.restlet.engine.util.SystemUtils;
 import org.restlet.engine.resource.VariantInfo;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
 
 /**
- * Utilities for the converter service.
+ * Utilities for the converter service.<br>
+ * <br>
+ * The selection of the best converter helper is cached per source class,
+ * target class and target variant metadata (media type, character set,
+ * languages and encodings), as the scores computed by the converter helpers
+ * only depend on those properties. Resolutions that didn't find any converter
+ * are cached as well. The cache only holds weak references to the classes, so
+ * that it doesn't prevent the class loader of a redeployed application from
+ * being garbage collected, and it is discarded as soon as the list of
+ * registered converters or the registered engine changes.
  * 
  * @author Jerome Louvel
  */
 public class ConverterUtils {
 
+    /**
+     * Key of the converter resolution cache. The source and target classes are
+     * weakly referenced.
+     */
+    private static final class CacheKey {
+
+        /** The character set of the variant. */
+        private final CharacterSet characterSet;
+
+        /** The encodings of the variant. */
+        private final List<Encoding> encodings;
+
+        /** The hash code, computed once as the classes may be collected. */
+        private final int hashCode;
+
+        /** The languages of the variant. */
+        private final List<Language> languages;
+
+        /** The media type of the variant. */
+        private final MediaType mediaType;
+
+        /** The source class or null. */
+        private final WeakReference<Class<?>> sourceClass;
+
+        /** The target class or null. */
+        private final WeakReference<Class<?>> targetClass;
+
+        /**
+         * Constructor.
+         * 
+         * @param sourceClass
+         *            The source class.
+         * @param targetClass
+         *            The target class.
+         * @param variant
+         *            The variant metadata.
+         */
+        public CacheKey(Class<?> sourceClass, Class<?> targetClass,
+                Variant variant) {
+            this.sourceClass = (sourceClass == null) ? null
+                    : new WeakReference<Class<?>>(sourceClass);
+            this.targetClass = (targetClass == null) ? null
+                    : new WeakReference<Class<?>>(targetClass);
+
+            if (variant == null) {
+                this.characterSet = null;
+                this.encodings = null;
+                this.languages = null;
+                this.mediaType = null;
+            } else {
+                this.characterSet = variant.getCharacterSet();
+                this.encodings = new ArrayList<Encoding>(
+                        variant.getEncodings());
+                this.languages = new ArrayList<Language>(
+                        variant.getLanguages());
+                this.mediaType = variant.getMediaType();
+            }
+
+            this.hashCode = SystemUtils.hashCode(sourceClass, targetClass,
+                    characterSet, mediaType, languages, encodings);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            boolean result = (object == this);
+
+            if (!result && (object instanceof CacheKey)) {
+                CacheKey other = (CacheKey) object;
+                result = !isStale() && !other.isStale()
+                        && (get(sourceClass) == get(other.sourceClass))
+                        && (get(targetClass) == get(other.targetClass))
+                        && equals(characterSet, other.characterSet)
+                        && equals(mediaType, other.mediaType)
+                        && equals(languages, other.languages)
+                        && equals(encodings, other.encodings);
+            }
+
+            return result;
+        }
+
+        /**
+         * Indicates if two possibly null objects are equal.
+         * 
+         * @param first
+         *            The first object.
+         * @param second
+         *            The second object.
+         * @return True if both objects are null or equal.
+         */
+        private boolean equals(Object first, Object second) {
+            return (first == null) ? (second == null) : first.equals(second);
+        }
+
+        /**
+         * Returns the referenced class.
+         * 
+         * @param classRef
+         *            The class reference or null.
+         * @return The referenced class or null.
+         */
+        private Class<?> get(WeakReference<Class<?>> classRef) {
+            return (classRef == null) ? null : classRef.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        /**
+         * Indicates if the source or target class has been garbage collected.
+         * 
+         * @return True if the source or target class has been collected.
+         */
+        public boolean isStale() {
+            return ((sourceClass != null) && (sourceClass.get() == null))
+                    || ((targetClass != null) && (targetClass.get() == null));
+        }
+    }
+
+    /**
+     * Resolution cache, valid for a given list of registered converters.
+     */
+    private static final class ResolutionCache {
+
+        /** The registered converters this cache has been computed for. */
+        private final Object[] converters;
+
+        /** The best helpers converting objects into representations. */
+        private final ConcurrentMap<CacheKey, Object> objectHelpers;
+
+        /** The best helpers converting representations into objects. */
+        private final ConcurrentMap<CacheKey, Object> representationHelpers;
+
+        /** The variants that can be converted from a given class. */
+        private final ConcurrentMap<CacheKey, Object> variants;
+
+        /**
+         * Constructor.
+         * 
+         * @param converters
+         *            The registered converters.
+         */
+        public ResolutionCache(Object[] converters) {
+            this.converters = converters;
+            this.objectHelpers = new ConcurrentHashMap<CacheKey, Object>();
+            this.representationHelpers = new ConcurrentHashMap<CacheKey, Object>();
+            this.variants = new ConcurrentHashMap<CacheKey, Object>();
+        }
+
+        /**
+         * Indicates if the cache was computed for the given converters.
+         * 
+         * @param registeredConverters
+         *            The currently registered converters.
+         * @return True if the cache was computed for the given converters.
+         */
+        public boolean isValid(List<ConverterHelper> registeredConverters) {
+            boolean result = (registeredConverters.size() == converters.length);
+            int index = 0;
+
+            for (ConverterHelper ch : registeredConverters) {
+                if (!result) {
+                    break;
+                }
+
+                result = (index < converters.length)
+                        && (converters[index++] == ch);
+            }
+
+            return result;
+        }
+
+        /**
+         * Caches a value in the given map unless it reached its maximum size,
+         * once the entries of collected classes have been removed. A null
+         * value is cached as {@link ConverterUtils#NO_RESULT}.
+         * 
+         * @param map
+         *            The map to update.
+         * @param key
+         *            The cache key.
+         * @param value
+         *            The value to cache or null.
+         */
+        public void put(ConcurrentMap<CacheKey, Object> map, CacheKey key,
+                Object value) {
+            if (map.size() >= CACHE_MAX_SIZE) {
+                for (Iterator<CacheKey> iter = map.keySet().iterator(); iter
+                        .hasNext();) {
+                    if (iter.next().isStale()) {
+                        iter.remove();
+                    }
+                }
+            }
+
+            if (map.size() < CACHE_MAX_SIZE) {
+                map.put(key, (value == null) ? NO_RESULT : value);
+            }
+        }
+    }
+
+    /** The maximum number of entries for each resolution map. */
+    private static final int CACHE_MAX_SIZE = 1024;
+
+    /** The cached value of a resolution that didn't find any result. */
+    private static final Object NO_RESULT = new Object();
+
+    /** The current resolution cache. */
+    private static volatile ResolutionCache cache = new ResolutionCache(
+            new Object[0]);
+
+    /** The number of resolutions served by the cache. */
+    private static final AtomicLong cacheHits = new AtomicLong();
+
+    /** The number of resolutions that required scoring the helpers. */
+    private static final AtomicLong cacheMisses = new AtomicLong();
+
+    /**
+     * Clears the converter resolution cache. Note that changes to the list of
+     * registered converters are also detected on the next resolution.
+     */
+    public static void clearCache() {
+        cache = new ResolutionCache(new Object[0]);
+    }
+
     /**
      * Returns the best converter helper matching the given parameters.
      * 
@@ -63,27 +309,48 @@ public class ConverterUtils {
      */
     public static ConverterHelper getBestHelper(Object source, Variant target,
             Resource resource) {
+        List<ConverterHelper> converters = Engine.getInstance()
+                .getRegisteredConverters();
+        ResolutionCache currentCache = getCache(converters);
+        CacheKey key = new CacheKey((source == null) ? null
+                : source.getClass(), null, target);
+        Object cached = currentCache.objectHelpers.get(key);
         ConverterHelper result = null;
-        float bestScore = -1.0F;
-        float currentScore;
 
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
-            if (ch != null) {
-                try {
-                    currentScore = ch.score(source, target, resource);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
 
-                    if (currentScore > bestScore) {
-                        bestScore = currentScore;
-                        result = ch;
+            if (cached != NO_RESULT) {
+                result = (ConverterHelper) cached;
+            }
+        } else {
+            cacheMisses.incrementAndGet();
+            float bestScore = -1.0F;
+            float currentScore;
+            boolean failed = false;
+
+            for (ConverterHelper ch : converters) {
+                if (ch != null) {
+                    try {
+                        currentScore = ch.score(source, target, resource);
+
+                        if (currentScore > bestScore) {
+                            bestScore = currentScore;
+                            result = ch;
+                        }
+                    } catch (Exception e) {
+                        failed = true;
+                        Context.getCurrentLogger().log(
+                                Level.SEVERE,
+                                "Unable get the score of the " + ch
+                                        + " converter helper.", e);
                     }
-                } catch (Exception e) {
-                    Context.getCurrentLogger().log(
-                            Level.SEVERE,
-                            "Unable get the score of the " + ch
-                                    + " converter helper.", e);
                 }
             }
+
+            if (!failed) {
+                currentCache.put(currentCache.objectHelpers, key, result);
+            }
         }
 
         return result;
@@ -104,25 +371,80 @@ public class ConverterUtils {
      */
     public static <T> ConverterHelper getBestHelper(Representation source,
             Class<T> target, Resource resource) {
+        List<ConverterHelper> converters = Engine.getInstance()
+                .getRegisteredConverters();
+        ResolutionCache currentCache = getCache(converters);
+        CacheKey key = new CacheKey((source == null) ? null
+                : source.getClass(), target, source);
+        Object cached = currentCache.representationHelpers.get(key);
         ConverterHelper result = null;
-        float bestScore = -1.0F;
-        float currentScore;
 
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
-            if (ch != null) {
-                currentScore = ch.score(source, target, resource);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+
+            if (cached != NO_RESULT) {
+                result = (ConverterHelper) cached;
+            }
+        } else {
+            cacheMisses.incrementAndGet();
+            float bestScore = -1.0F;
+            float currentScore;
 
-                if (currentScore > bestScore) {
-                    bestScore = currentScore;
-                    result = ch;
+            for (ConverterHelper ch : converters) {
+                if (ch != null) {
+                    currentScore = ch.score(source, target, resource);
+
+                    if (currentScore > bestScore) {
+                        bestScore = currentScore;
+                        result = ch;
+                    }
                 }
             }
+
+            currentCache.put(currentCache.representationHelpers, key, result);
         }
 
         return result;
     }
 
+    /**
+     * Returns the resolution cache matching the given registered converters,
+     * replacing the current one if the converters have changed.
+     * 
+     * @param converters
+     *            The registered converters.
+     * @return The resolution cache.
+     */
+    private static ResolutionCache getCache(List<ConverterHelper> converters) {
+        ResolutionCache result = cache;
+
+        if (!result.isValid(converters)) {
+            result = new ResolutionCache(converters.toArray());
+            cache = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of converter resolutions served by the cache.
+     * 
+     * @return The number of converter resolutions served by the cache.
+     */
+    public static long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns the number of converter resolutions that required scoring the
+     * registered converter helpers.
+     * 
+     * @return The number of converter resolutions not served by the cache.
+     */
+    public static long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
     /**
      * Returns the list of variants that can be converted from a given object
      * class.
@@ -133,18 +455,36 @@ public class ConverterUtils {
      *            The expected representation metadata.
      * @return The list of variants that can be converted.
      */
+    @SuppressWarnings("unchecked")
     public static List<VariantInfo> getVariants(Class<?> sourceClass,
             Variant targetVariant) {
+        List<ConverterHelper> converters = Engine.getInstance()
+                .getRegisteredConverters();
+        ResolutionCache currentCache = getCache(converters);
+        CacheKey key = new CacheKey(sourceClass, null, targetVariant);
+        Object cached = currentCache.variants.get(key);
         List<VariantInfo> result = null;
 
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
-            if (ch != null) {
-                result = ch.addVariants(sourceClass, targetVariant, result);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+
+            if (cached != NO_RESULT) {
+                result = (List<VariantInfo>) cached;
+            }
+        } else {
+            cacheMisses.incrementAndGet();
+
+            for (ConverterHelper ch : converters) {
+                if (ch != null) {
+                    result = ch.addVariants(sourceClass, targetVariant, result);
+                }
             }
+
+            currentCache.put(currentCache.variants, key, result);
         }
 
-        return result;
+        // Callers may update the returned list
+        return (result == null) ? null : new ArrayList<VariantInfo>(result);
     }
 
     /**
@@ -48,6 +48,7 @@ import org.restlet.Context;
 import org.restlet.data.CharacterSet;
 import org.restlet.data.Range;
 import org.restlet.engine.Edition;
+import org.restlet.engine.Engine;
 import org.restlet.representation.Representation;
 
 /**
@@ -354,7 +355,7 @@ public final class BioUtils {
             if (application != null && application.getTaskService() != null) {
                 application.getTaskService().execute(task);
             } else {
-                new Thread(task, "Restlet-PipedOutputStream").start();
+                Engine.getInstance().getPipeExecutor().execute(task);
             }
 
             result = pipe.getInputStream();
@@ -445,7 +446,7 @@ public final class BioUtils {
             if (application != null && application.getTaskService() != null) {
                 application.getTaskService().execute(task);
             } else {
-                new Thread(task, "Restlet-PipeWriter").start();
+                Engine.getInstance().getPipeExecutor().execute(task);
             }
 
             result = pipedReader;
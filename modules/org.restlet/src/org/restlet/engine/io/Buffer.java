@@ -43,7 +43,10 @@ import org.restlet.Context;
 import org.restlet.engine.header.HeaderUtils;
 
 /**
- * Wrapper around a byte buffer and its state.
+ * Wrapper around a byte buffer and its state. When created with a
+ * {@link BufferPool}, the byte buffer is only acquired from the pool when
+ * bytes need to be filled and can be released back to it once empty, see
+ * {@link #release()}.
  * 
  * @author Jerome Louvel
  */
@@ -70,12 +73,18 @@ public class Buffer {
         return result;
     }
 
-    /** The byte buffer. */
-    private final ByteBuffer bytes;
+    /** The byte buffer or null if released to the pool. */
+    private volatile ByteBuffer bytes;
 
     /** The index of the buffer's beginning while filling. */
     private volatile int fillBegin;
 
+    /** The optional pool providing the byte buffer. */
+    private final BufferPool pool;
+
+    /** The byte buffer capacity. */
+    private final int size;
+
     /** The byte buffer IO state. */
     private volatile BufferState state;
 
@@ -101,9 +110,28 @@ public class Buffer {
         super();
         this.fillBegin = 0;
         this.bytes = byteBuffer;
+        this.pool = null;
+        this.size = byteBuffer.capacity();
         this.state = byteBufferState;
     }
 
+    /**
+     * Constructor. The byte buffer is lazily acquired from the given pool.
+     * 
+     * @param pool
+     *            The pool providing the byte buffer.
+     * @param bufferSize
+     *            The byte buffer size.
+     */
+    public Buffer(BufferPool pool, int bufferSize) {
+        super();
+        this.fillBegin = 0;
+        this.bytes = null;
+        this.pool = pool;
+        this.size = bufferSize;
+        this.state = BufferState.FILLING;
+    }
+
     /**
      * Constructor. Allocates a new non-direct byte buffer.
      * 
@@ -181,15 +209,20 @@ public class Buffer {
      * @return The maximum capacity of this buffer.
      */
     public final int capacity() {
-        return getBytes().capacity();
+        return this.size;
     }
 
     /**
      * Recycles the buffer so it can be reused.
      */
     public void clear() {
+        ByteBuffer byteBuffer = this.bytes;
         this.fillBegin = 0;
-        this.bytes.clear();
+
+        if (byteBuffer != null) {
+            byteBuffer.clear();
+        }
+
         this.state = BufferState.FILLING;
     }
 
@@ -213,7 +246,8 @@ public class Buffer {
      * @return True if bytes could be drained.
      */
     public boolean couldDrain() {
-        return (isFilling() && (getBytes().position() > this.fillBegin));
+        return isFilling() && !isReleased()
+                && (getBytes().position() > this.fillBegin);
     }
 
     /**
@@ -294,6 +328,27 @@ public class Buffer {
             builderState = BufferState.FILLING;
         }
 
+        if (getBytes().hasArray()) {
+            // Scan the backing array in place
+            ByteBuffer byteBuffer = getBytes();
+            byte[] array = byteBuffer.array();
+            int offset = byteBuffer.arrayOffset();
+            int position = byteBuffer.position();
+            int limit = byteBuffer.limit();
+
+            while ((builderState == BufferState.FILLING) && (position < limit)) {
+                next = (int) array[offset + position++];
+
+                if (HeaderUtils.isCarriageReturn(next)) {
+                    builderState = BufferState.FILLED;
+                } else {
+                    lineBuilder.append((char) next);
+                }
+            }
+
+            byteBuffer.position(position);
+        }
+
         while ((builderState != BufferState.DRAINING)
                 && getBytes().hasRemaining()) {
             next = (int) getBytes().get();
@@ -427,12 +482,25 @@ public class Buffer {
     }
 
     /**
-     * Returns the byte buffer.
+     * Returns the byte buffer, acquiring it from the pool if it was released.
      * 
      * @return The byte buffer.
      */
     public ByteBuffer getBytes() {
-        return bytes;
+        ByteBuffer result = this.bytes;
+
+        if (result == null) {
+            synchronized (getLock()) {
+                result = this.bytes;
+
+                if (result == null) {
+                    result = this.pool.acquire(this.size);
+                    this.bytes = result;
+                }
+            }
+        }
+
+        return result;
     }
 
     /**
@@ -442,7 +510,7 @@ public class Buffer {
      * @return The lock on which multiple thread can synchronize.
      */
     public Object getLock() {
-        return this.bytes;
+        return this;
     }
 
     /**
@@ -460,7 +528,7 @@ public class Buffer {
      * @return True if the buffer has remaining bytes to be read or written.
      */
     public final boolean hasRemaining() {
-        return getBytes().hasRemaining();
+        return isReleased() || getBytes().hasRemaining();
     }
 
     /**
@@ -483,6 +551,16 @@ public class Buffer {
         return isFilling() ? (capacity() == remaining()) : !hasRemaining();
     }
 
+    /**
+     * Indicates if the byte buffer has been released to the pool. A released
+     * buffer behaves like an empty buffer in filling state.
+     * 
+     * @return True if the byte buffer has been released to the pool.
+     */
+    public boolean isReleased() {
+        return this.bytes == null;
+    }
+
     /**
      * Indicates if the buffer state has the {@link BufferState#FILLING} value.
      * 
@@ -657,7 +735,30 @@ public class Buffer {
      * @return The number of bytes that can be read or written.
      */
     public final int remaining() {
-        return getBytes().remaining();
+        return isReleased() ? this.size : getBytes().remaining();
+    }
+
+    /**
+     * Releases the byte buffer to the pool if the buffer is empty. Does
+     * nothing if the buffer wasn't acquired from a pool. The byte buffer will
+     * be acquired again when needed.
+     * 
+     * @return True if the byte buffer is released.
+     */
+    public boolean release() {
+        if ((this.pool != null) && !isReleased()) {
+            synchronized (getLock()) {
+                ByteBuffer byteBuffer = this.bytes;
+
+                if ((byteBuffer != null) && isEmpty()) {
+                    clear();
+                    this.bytes = null;
+                    this.pool.release(byteBuffer);
+                }
+            }
+        }
+
+        return isReleased();
     }
 
     /**
@@ -672,7 +773,8 @@ public class Buffer {
 
     @Override
     public String toString() {
-        return getBytes().toString() + ", " + getState() + ", " + isEmpty();
+        return (isReleased() ? "Released byte buffer" : getBytes().toString())
+                + ", " + getState() + ", " + isEmpty();
     }
 
 }
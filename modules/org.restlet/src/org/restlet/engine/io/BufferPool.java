@@ -0,0 +1,264 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.io;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of byte buffers shared by the connections of a connector. Buffers are
+ * pooled by size class, each size class holding at most a given number of
+ * idle buffers. Buffers released while their size class is full are left to
+ * the garbage collector.
+ * 
+ * @author Jerome Louvel
+ */
+public class BufferPool {
+
+    /**
+     * Idle buffers of a given size.
+     */
+    private static final class SizeClass {
+
+        /** The idle buffers. */
+        private final Queue<ByteBuffer> buffers;
+
+        /** The number of idle buffers. */
+        private final AtomicInteger count;
+
+        /**
+         * Constructor.
+         */
+        public SizeClass() {
+            this.buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+            this.count = new AtomicInteger();
+        }
+    }
+
+    /** The number of buffers acquired. */
+    private final AtomicLong acquiredCount;
+
+    /** The number of buffers allocated because no idle one was available. */
+    private final AtomicLong allocatedCount;
+
+    /** Indicates if direct NIO buffers should be allocated. */
+    private final boolean direct;
+
+    /** The number of buffers discarded because their size class was full. */
+    private final AtomicLong discardedCount;
+
+    /** The maximum number of idle buffers per size class. */
+    private final int maxPooledBuffers;
+
+    /** The number of buffers released. */
+    private final AtomicLong releasedCount;
+
+    /** The size classes indexed by buffer capacity. */
+    private final ConcurrentMap<Integer, SizeClass> sizeClasses;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxPooledBuffers
+     *            The maximum number of idle buffers per size class.
+     * @param direct
+     *            Indicates if direct NIO buffers should be allocated.
+     */
+    public BufferPool(int maxPooledBuffers, boolean direct) {
+        this.acquiredCount = new AtomicLong();
+        this.allocatedCount = new AtomicLong();
+        this.direct = direct;
+        this.discardedCount = new AtomicLong();
+        this.maxPooledBuffers = maxPooledBuffers;
+        this.releasedCount = new AtomicLong();
+        this.sizeClasses = new ConcurrentHashMap<Integer, SizeClass>();
+    }
+
+    /**
+     * Acquires a cleared byte buffer of the given capacity, reusing an idle
+     * one if possible.
+     * 
+     * @param bufferSize
+     *            The buffer capacity.
+     * @return A cleared byte buffer.
+     */
+    public ByteBuffer acquire(int bufferSize) {
+        this.acquiredCount.incrementAndGet();
+        SizeClass sizeClass = this.sizeClasses.get(bufferSize);
+        ByteBuffer result = (sizeClass == null) ? null : sizeClass.buffers
+                .poll();
+
+        if (result == null) {
+            this.allocatedCount.incrementAndGet();
+
+            if (isDirect()) {
+                result = ByteBuffer.allocateDirect(bufferSize);
+            } else {
+                result = ByteBuffer.allocate(bufferSize);
+            }
+        } else {
+            sizeClass.count.decrementAndGet();
+        }
+
+        return result;
+    }
+
+    /**
+     * Discards all the idle buffers.
+     */
+    public void clear() {
+        this.sizeClasses.clear();
+    }
+
+    /**
+     * Returns the number of buffers acquired.
+     * 
+     * @return The number of buffers acquired.
+     */
+    public long getAcquiredCount() {
+        return this.acquiredCount.get();
+    }
+
+    /**
+     * Returns the number of buffers allocated because no idle buffer of the
+     * requested size was available.
+     * 
+     * @return The number of buffers allocated.
+     */
+    public long getAllocatedCount() {
+        return this.allocatedCount.get();
+    }
+
+    /**
+     * Returns the number of released buffers that were discarded because
+     * their size class was full.
+     * 
+     * @return The number of discarded buffers.
+     */
+    public long getDiscardedCount() {
+        return this.discardedCount.get();
+    }
+
+    /**
+     * Returns the maximum number of idle buffers per size class.
+     * 
+     * @return The maximum number of idle buffers per size class.
+     */
+    public int getMaxPooledBuffers() {
+        return this.maxPooledBuffers;
+    }
+
+    /**
+     * Returns the number of idle buffers currently pooled.
+     * 
+     * @return The number of idle buffers currently pooled.
+     */
+    public int getPooledCount() {
+        int result = 0;
+
+        for (SizeClass sizeClass : this.sizeClasses.values()) {
+            result += sizeClass.count.get();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of buffers released.
+     * 
+     * @return The number of buffers released.
+     */
+    public long getReleasedCount() {
+        return this.releasedCount.get();
+    }
+
+    /**
+     * Indicates if direct NIO buffers are allocated.
+     * 
+     * @return True if direct NIO buffers are allocated.
+     */
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+    /**
+     * Releases a byte buffer so it can be reused. The buffer must not be used
+     * by the caller anymore.
+     * 
+     * @param byteBuffer
+     *            The byte buffer to release.
+     */
+    public void release(ByteBuffer byteBuffer) {
+        if (byteBuffer != null) {
+            this.releasedCount.incrementAndGet();
+            SizeClass sizeClass = this.sizeClasses.get(byteBuffer.capacity());
+
+            if (sizeClass == null) {
+                SizeClass newSizeClass = new SizeClass();
+                sizeClass = this.sizeClasses.putIfAbsent(
+                        byteBuffer.capacity(), newSizeClass);
+
+                if (sizeClass == null) {
+                    sizeClass = newSizeClass;
+                }
+            }
+
+            if (sizeClass.count.incrementAndGet() <= getMaxPooledBuffers()) {
+                byteBuffer.clear();
+                sizeClass.buffers.offer(byteBuffer);
+            } else {
+                sizeClass.count.decrementAndGet();
+                this.discardedCount.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Buffer pool (acquired | allocated | released | discarded | pooled): "
+                + getAcquiredCount()
+                + " | "
+                + getAllocatedCount()
+                + " | "
+                + getReleasedCount()
+                + " | "
+                + getDiscardedCount() + " | " + getPooledCount();
+    }
+
+}
@@ -50,6 +50,7 @@ import java.util.logging.Level;
 
 import org.restlet.Context;
 import org.restlet.engine.Edition;
+import org.restlet.engine.Engine;
 import org.restlet.representation.Representation;
 
 // [excludes gwt]
@@ -232,7 +233,7 @@ public class NioUtils {
             if (application != null && application.getTaskService() != null) {
                 application.getTaskService().execute(task);
             } else {
-                new Thread(task, "Restlet-PipedWritableChannel").start();
+                Engine.getInstance().getPipeExecutor().execute(task);
             }
 
             result = pipe.source();
@@ -0,0 +1,345 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.io;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.restlet.Context;
+
+/**
+ * Bounded executor running the tasks that write representations into pipes,
+ * used when converting a representation into an input stream, a reader or a
+ * readable channel outside of an application providing a task service. Its
+ * threads are daemons and are released after being idle for a while.<br>
+ * <br>
+ * Tasks aren't queued by the main pool: they are handed off to an idle thread,
+ * or to a new one if the maximum isn't reached, as nested pipes could
+ * otherwise deadlock. When all the threads are busy, the task overflows to a
+ * second bounded pool, which queues it only once all its own threads are busy.
+ * When this queue is full too, the task is rejected with a
+ * {@link RejectedExecutionException} and the conversion fails. Overflowing and
+ * rejected tasks are counted so that the executor can be sized accordingly.
+ * 
+ * @author Jerome Louvel
+ */
+public class PipeExecutor extends ThreadPoolExecutor {
+
+    /**
+     * Pool running the tasks overflowing from the saturated main pool.
+     */
+    private class OverflowExecutor extends ThreadPoolExecutor {
+
+        /**
+         * Constructor.
+         * 
+         * @param maxThreads
+         *            The maximum number of threads.
+         * @param maxQueued
+         *            The maximum number of tasks waiting for a thread.
+         */
+        public OverflowExecutor(int maxThreads, int maxQueued) {
+            super(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+                    createQueue(maxQueued), new PipeThreadFactory(
+                            "Restlet-Pipe-Overflow-"));
+            allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+            activePipes.decrementAndGet();
+            super.afterExecute(r, t);
+        }
+
+        @Override
+        protected void beforeExecute(Thread t, Runnable r) {
+            super.beforeExecute(t, r);
+            activePipes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Thread factory creating daemon threads named after the pipe executor.
+     */
+    private static class PipeThreadFactory implements ThreadFactory {
+
+        /** The number of threads created. */
+        private final AtomicInteger count = new AtomicInteger();
+
+        /** The prefix of the thread names. */
+        private final String prefix;
+
+        /**
+         * Constructor.
+         * 
+         * @param prefix
+         *            The prefix of the thread names.
+         */
+        public PipeThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread result = new Thread(r, prefix + count.incrementAndGet());
+            result.setDaemon(true);
+            return result;
+        }
+    }
+
+    /**
+     * The default maximum number of overflow threads. It looks for the System
+     * property "org.restlet.engine.io.pipeMaxOverflowThreads" and if not
+     * defined, uses the "64" default value.
+     */
+    public static final int DEFAULT_MAX_OVERFLOW_THREADS = getProperty(
+            "org.restlet.engine.io.pipeMaxOverflowThreads", 64);
+
+    /**
+     * The default maximum number of tasks waiting for an overflow thread. It
+     * looks for the System property "org.restlet.engine.io.pipeMaxQueued" and
+     * if not defined, uses the "256" default value.
+     */
+    public static final int DEFAULT_MAX_QUEUED = getProperty(
+            "org.restlet.engine.io.pipeMaxQueued", 256);
+
+    /**
+     * The default maximum number of threads. It looks for the System property
+     * "org.restlet.engine.io.pipeMaxThreads" and if not defined, uses the "32"
+     * default value.
+     */
+    public static final int DEFAULT_MAX_THREADS = getProperty(
+            "org.restlet.engine.io.pipeMaxThreads", 32);
+
+    /**
+     * Creates the queue of tasks waiting for an overflow thread.
+     * 
+     * @param maxQueued
+     *            The maximum number of queued tasks. If 0, tasks are never
+     *            queued.
+     * @return The queue of tasks.
+     */
+    private static BlockingQueue<Runnable> createQueue(int maxQueued) {
+        BlockingQueue<Runnable> result = null;
+
+        if (maxQueued <= 0) {
+            result = new SynchronousQueue<Runnable>();
+        } else {
+            result = new ArrayBlockingQueue<Runnable>(maxQueued);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the integer value of a System property.
+     * 
+     * @param name
+     *            The property name.
+     * @param defaultValue
+     *            The value to use if the property isn't defined or invalid.
+     * @return The property value.
+     */
+    private static int getProperty(String name, int defaultValue) {
+        int result = defaultValue;
+
+        try {
+            result = Integer.parseInt(System.getProperty(name));
+        } catch (NumberFormatException nfe) {
+            result = defaultValue;
+        }
+
+        return result;
+    }
+
+    /** The number of tasks currently running, including overflowing ones. */
+    private final AtomicInteger activePipes;
+
+    /** The pool running the tasks overflowing from the main pool. */
+    private final OverflowExecutor overflowExecutor;
+
+    /** The number of tasks that overflowed from the main pool. */
+    private final AtomicLong overflowPipes;
+
+    /** The number of tasks rejected by both pools. */
+    private final AtomicLong rejectedPipes;
+
+    /**
+     * Default constructor, using the default maximum numbers of threads,
+     * overflow threads and queued tasks.
+     */
+    public PipeExecutor() {
+        this(DEFAULT_MAX_THREADS, DEFAULT_MAX_OVERFLOW_THREADS,
+                DEFAULT_MAX_QUEUED);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxThreads
+     *            The maximum number of threads.
+     * @param maxOverflowThreads
+     *            The maximum number of threads running the tasks overflowing
+     *            when all the threads are busy.
+     * @param maxQueued
+     *            The maximum number of tasks waiting for an overflow thread.
+     *            If 0, tasks are never queued.
+     */
+    public PipeExecutor(int maxThreads, int maxOverflowThreads, int maxQueued) {
+        super(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new PipeThreadFactory(
+                        "Restlet-Pipe-"));
+        allowCoreThreadTimeOut(true);
+        this.activePipes = new AtomicInteger();
+        this.overflowExecutor = new OverflowExecutor(maxOverflowThreads,
+                maxQueued);
+        this.overflowPipes = new AtomicLong();
+        this.rejectedPipes = new AtomicLong();
+        this.overflowExecutor
+                .setRejectedExecutionHandler(new RejectedExecutionHandler() {
+                    public void rejectedExecution(Runnable r,
+                            ThreadPoolExecutor executor) {
+                        rejectedPipes.incrementAndGet();
+                        Context.getCurrentLogger().log(Level.WARNING,
+                                "Unable to run the following pipe task: " + r);
+                        throw new RejectedExecutionException(
+                                "The pipe executor is saturated or shut down");
+                    }
+                });
+        setRejectedExecutionHandler(new RejectedExecutionHandler() {
+            public void rejectedExecution(Runnable r,
+                    ThreadPoolExecutor executor) {
+                if (!executor.isShutdown()) {
+                    overflowPipes.incrementAndGet();
+                    Context.getCurrentLogger().log(Level.FINE,
+                            "The pipe executor is saturated, overflowing.");
+                }
+
+                overflowExecutor.execute(r);
+            }
+        });
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        this.activePipes.decrementAndGet();
+        super.afterExecute(r, t);
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        this.activePipes.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of pipe tasks currently running in the executor,
+     * including the overflowing ones.
+     * 
+     * @return The number of pipe tasks currently running.
+     */
+    public int getActivePipes() {
+        return this.activePipes.get();
+    }
+
+    /**
+     * Returns the maximum number of threads running the overflowing tasks.
+     * 
+     * @return The maximum number of overflow threads.
+     */
+    public int getMaximumOverflowPoolSize() {
+        return this.overflowExecutor.getMaximumPoolSize();
+    }
+
+    /**
+     * Returns the number of pipe tasks that overflowed because all the threads
+     * of the main pool were busy.
+     * 
+     * @return The number of overflowing pipe tasks.
+     */
+    public long getOverflowPipes() {
+        return this.overflowPipes.get();
+    }
+
+    /**
+     * Returns the number of pipe tasks waiting for an overflow thread.
+     * 
+     * @return The number of pipe tasks waiting for a thread.
+     */
+    public int getQueuedPipes() {
+        return this.overflowExecutor.getQueue().size();
+    }
+
+    /**
+     * Returns the number of pipe tasks that were rejected because both pools
+     * were saturated or shut down.
+     * 
+     * @return The number of rejected pipe tasks.
+     */
+    public long getRejectedPipes() {
+        return this.rejectedPipes.get();
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        this.overflowExecutor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> result = super.shutdownNow();
+        result.addAll(this.overflowExecutor.shutdownNow());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PipeExecutor [active=" + getActivePipes() + ", overflow="
+                + getOverflowPipes() + ", queued=" + getQueuedPipes()
+                + ", rejected=" + getRejectedPipes() + ", maxThreads="
+                + getMaximumPoolSize() + ", maxOverflowThreads="
+                + getMaximumOverflowPoolSize() + "]";
+    }
+
+}
@@ -0,0 +1,324 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.local;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.LocalReference;
+import org.restlet.data.MediaType;
+import org.restlet.data.Reference;
+import org.restlet.data.ReferenceList;
+import org.restlet.data.Status;
+import org.restlet.representation.Representation;
+
+/**
+ * Cache of the metadata looked up by a {@link DirectoryServerResource} through
+ * the client dispatcher, shared by all the resources of a directory. Only the
+ * directory listings, the lists of variants and the missing entities are
+ * cached, the representations of the files being always retrieved again.<br>
+ * <br>
+ * Entries expire after a given time to live. For "file" URIs, they are also
+ * discarded as soon as the last modification date of their parent directory
+ * changes, which happens when a file is added, renamed or removed. Note that
+ * some file systems only record this date with a precision of one second.
+ * 
+ * @author Jerome Louvel
+ */
+public class DirectoryCache {
+
+    /** Cached result of a lookup. */
+    private static class Entry {
+
+        /** The expiration time, in milliseconds. */
+        private final long expirationTime;
+
+        /** The identifier of the cached list or null. */
+        private final String identifier;
+
+        /** The cached list of URIs or null if the entity was missing. */
+        private final List<String> uris;
+
+        /** The watched directory or null. */
+        private final File watchedDirectory;
+
+        /** The last modification date of the watched directory. */
+        private final long watchedModified;
+
+        /**
+         * Constructor.
+         * 
+         * @param uris
+         *            The cached list of URIs or null if the entity was
+         *            missing.
+         * @param identifier
+         *            The identifier of the cached list or null.
+         * @param watchedDirectory
+         *            The watched directory or null.
+         * @param watchedModified
+         *            The last modification date of the watched directory,
+         *            read before the lookup.
+         * @param expirationTime
+         *            The expiration time, in milliseconds.
+         */
+        public Entry(List<String> uris, String identifier,
+                File watchedDirectory, long watchedModified,
+                long expirationTime) {
+            this.uris = uris;
+            this.identifier = identifier;
+            this.watchedDirectory = watchedDirectory;
+            this.watchedModified = watchedModified;
+            this.expirationTime = expirationTime;
+        }
+
+        /**
+         * Indicates if the entry is still valid.
+         * 
+         * @param now
+         *            The current time, in milliseconds.
+         * @return True if the entry is still valid.
+         */
+        public boolean isValid(long now) {
+            boolean result = now < this.expirationTime;
+
+            if (result && (this.watchedDirectory != null)) {
+                result = getLastModified(this.watchedDirectory) == this.watchedModified;
+            }
+
+            return result;
+        }
+    }
+
+    /** The maximum number of cached entries before the cache is cleared. */
+    private static final int MAX_ENTRIES = 10000;
+
+    /**
+     * Returns the last modification date of a directory or 0 if it is unknown.
+     * 
+     * @param directory
+     *            The directory or null.
+     * @return The last modification date.
+     */
+    private static long getLastModified(File directory) {
+        long result = 0L;
+
+        if (directory != null) {
+            try {
+                result = directory.lastModified();
+            } catch (SecurityException se) {
+                // Not readable, rely on the time to live
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the key of a lookup, made of the target URI and of the accepted
+     * media types.
+     * 
+     * @param request
+     *            The lookup request.
+     * @return The key of the lookup.
+     */
+    private static String getKey(Request request) {
+        String uri = request.getResourceRef().toString();
+        return request.getClientInfo().getAcceptedMediaTypes().isEmpty() ? uri
+                : request.getClientInfo().getAcceptedMediaTypes() + " " + uri;
+    }
+
+    /**
+     * Returns the directory to watch for a given URI, that is to say the
+     * directory itself for URIs with a trailing slash and the parent
+     * directory otherwise.
+     * 
+     * @param uri
+     *            The looked up URI.
+     * @return The directory to watch or null for non "file" URIs.
+     */
+    private static File getWatchedDirectory(String uri) {
+        File result = null;
+
+        if (uri.startsWith("file:")) {
+            try {
+                result = new LocalReference(uri).getFile();
+
+                if ((result != null) && !uri.endsWith("/")) {
+                    result = result.getParentFile();
+                }
+            } catch (RuntimeException re) {
+                // Malformed URI, rely on the time to live
+                result = null;
+            }
+        }
+
+        return result;
+    }
+
+    /** The cached entries. */
+    private final ConcurrentMap<String, Entry> entries;
+
+    /**
+     * Constructor.
+     */
+    public DirectoryCache() {
+        this.entries = new ConcurrentHashMap<String, Entry>();
+    }
+
+    /**
+     * Removes all the cached entries.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Returns a response rebuilt from a cached entry.
+     * 
+     * @param request
+     *            The lookup request.
+     * @param entry
+     *            The cached entry.
+     * @return The rebuilt response.
+     */
+    private Response getResponse(Request request, Entry entry) {
+        Response result = new Response(request);
+
+        if (entry.uris == null) {
+            result.setStatus(Status.CLIENT_ERROR_NOT_FOUND);
+        } else {
+            ReferenceList list = new ReferenceList(entry.uris.size());
+            list.setIdentifier(entry.identifier);
+
+            for (String uri : entry.uris) {
+                list.add(uri);
+            }
+
+            Representation entity = list.getTextRepresentation();
+            entity.setLocationRef(request.getResourceRef());
+            result.setEntity(entity);
+            result.setStatus(Status.SUCCESS_OK);
+        }
+
+        return result;
+    }
+
+    /**
+     * Handles a lookup request, either from a valid cached entry or by
+     * dispatching it. In the latter case, the result is cached if it is a list
+     * of URIs or a missing entity.
+     * 
+     * @param dispatcher
+     *            The client dispatcher.
+     * @param request
+     *            The lookup request.
+     * @param timeToLive
+     *            The time to live of new entries, in milliseconds.
+     * @return The response.
+     * @throws IOException
+     */
+    public Response handle(Restlet dispatcher, Request request, long timeToLive)
+            throws IOException {
+        String key = getKey(request);
+        Entry entry = this.entries.get(key);
+
+        if (entry != null) {
+            if (entry.isValid(System.currentTimeMillis())) {
+                return getResponse(request, entry);
+            }
+
+            this.entries.remove(key, entry);
+        }
+
+        // Read the modification date first, so that concurrent changes
+        // invalidate the new entry
+        File watchedDirectory = getWatchedDirectory(request.getResourceRef()
+                .toString());
+        long watchedModified = getLastModified(watchedDirectory);
+        Response result = dispatcher.handle(request);
+        Representation entity = result.getEntity();
+        long expirationTime = System.currentTimeMillis() + timeToLive;
+
+        if (entity == null) {
+            if (Status.CLIENT_ERROR_NOT_FOUND.equals(result.getStatus())) {
+                entry = new Entry(null, null, watchedDirectory,
+                        watchedModified, expirationTime);
+            }
+        } else if (result.getStatus().isSuccess()
+                && MediaType.TEXT_URI_LIST.equals(entity.getMediaType())) {
+            ReferenceList list = new ReferenceList(entity);
+            List<String> uris = new ArrayList<String>(list.size());
+
+            for (Reference ref : list) {
+                uris.add(ref.toString());
+            }
+
+            entry = new Entry(uris, (list.getIdentifier() == null) ? null
+                    : list.getIdentifier().toString(), watchedDirectory,
+                    watchedModified, expirationTime);
+
+            // Replace the consumed entity
+            Representation copy = list.getTextRepresentation();
+            copy.setLocationRef(entity.getLocationRef());
+            result.setEntity(copy);
+        }
+
+        if (entry != null) {
+            if (this.entries.size() >= MAX_ENTRIES) {
+                this.entries.clear();
+            }
+
+            this.entries.put(key, entry);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of cached entries, including the expired ones not
+     * removed yet.
+     * 
+     * @return The number of cached entries.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+}
@@ -124,6 +124,27 @@ public class DirectoryServerResource extends ServerResource {
     /** The unique representation of the target URI, if it exists. */
     private volatile Reference uniqueReference;
 
+    /**
+     * Creates a GET request for a resource of the directory.
+     * 
+     * @param resourceUri
+     *            The URI of the target resource.
+     * @param acceptedMediaType
+     *            The accepted media type or null.
+     * @return The new request.
+     */
+    private Request createRequest(String resourceUri,
+            MediaType acceptedMediaType) {
+        Request result = new Request(Method.GET, resourceUri);
+
+        if (acceptedMediaType != null) {
+            result.getClientInfo().getAcceptedMediaTypes()
+                    .add(new Preference<MediaType>(acceptedMediaType));
+        }
+
+        return result;
+    }
+
     @Override
     public Representation delete() throws ResourceException {
         if (this.directory.isModifiable()) {
@@ -155,6 +176,11 @@ public class DirectoryServerResource extends ServerResource {
             }
 
             setStatus(contextResponse.getStatus());
+
+            if (contextResponse.getStatus().isSuccess()) {
+                // The cached listings may be stale
+                getDirectory().getCache().clear();
+            }
         } else {
             setStatus(Status.CLIENT_ERROR_METHOD_NOT_ALLOWED,
                     "The directory is not modifiable.");
@@ -499,13 +525,14 @@ public class DirectoryServerResource extends ServerResource {
      * @return A response with the representation if success.
      */
     private Response getRepresentation(String resourceUri) {
-        return getClientDispatcher().handle(
-                new Request(Method.GET, resourceUri));
+        return getRepresentation(resourceUri, null);
     }
 
     /**
      * Returns a representation of the resource at the target URI. Leverages the
-     * client dispatcher of the parent directory's context.
+     * client dispatcher of the parent directory's context. Directory listings,
+     * variant lists and missing resources are looked up in the cache of the
+     * parent directory when enabled.
      * 
      * @param resourceUri
      *            The URI of the target resource.
@@ -515,15 +542,20 @@ public class DirectoryServerResource extends ServerResource {
      */
     protected Response getRepresentation(String resourceUri,
             MediaType acceptedMediaType) {
-        if (acceptedMediaType == null) {
-            return getClientDispatcher().handle(
-                    new Request(Method.GET, resourceUri));
+        if (getDirectory().getCacheTimeToLive() > 0) {
+            try {
+                return getDirectory().getCache().handle(
+                        getClientDispatcher(),
+                        createRequest(resourceUri, acceptedMediaType),
+                        getDirectory().getCacheTimeToLive() * 1000L);
+            } catch (IOException ioe) {
+                getLogger().log(Level.WARNING,
+                        "Unable to cache the lookup of " + resourceUri, ioe);
+            }
         }
 
-        Request request = new Request(Method.GET, resourceUri);
-        request.getClientInfo().getAcceptedMediaTypes()
-                .add(new Preference<MediaType>(acceptedMediaType));
-        return getClientDispatcher().handle(request);
+        return getClientDispatcher().handle(
+                createRequest(resourceUri, acceptedMediaType));
     }
 
     /**
@@ -828,6 +860,11 @@ public class DirectoryServerResource extends ServerResource {
             contextRequest.setResourceRef(this.targetUri);
             getClientDispatcher().handle(contextRequest, contextResponse);
             setStatus(contextResponse.getStatus());
+
+            if (contextResponse.getStatus().isSuccess()) {
+                // The cached listings may be stale
+                getDirectory().getCache().clear();
+            }
         } else {
             setStatus(Status.CLIENT_ERROR_METHOD_NOT_ALLOWED,
                     "The directory is not modifiable.");
@@ -0,0 +1,621 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+
+/**
+ * Asynchronous log file handler that uses the {@link AccessLogFormatter} by
+ * default. Unlike {@link AccessLogFileHandler}, the logging threads don't
+ * contend on a lock: the formatted lines are appended to a bounded ring buffer
+ * without locking and written in batches by a background daemon thread. The
+ * writer thread is woken up as soon as a quarter of the buffer is used, and
+ * flushes the file once the flush delay elapsed or enough characters were
+ * written. When the buffer is full, new lines are dropped and counted.<br>
+ * <br>
+ * The log file is rotated when it exceeds a given size or when a given period
+ * has elapsed since it was opened. Rotated files are renamed by appending a
+ * generation number, ".1" being the most recent one. The following properties
+ * of the {@link LogManager} are supported, prefixed by the handler class name:
+ * <table>
+ * <tr>
+ * <th>Property name</th>
+ * <th>Value type</th>
+ * <th>Default value</th>
+ * <th>Description</th>
+ * </tr>
+ * <tr>
+ * <td>pattern</td>
+ * <td>String</td>
+ * <td>access.log</td>
+ * <td>Path of the log file.</td>
+ * </tr>
+ * <tr>
+ * <td>limit</td>
+ * <td>int</td>
+ * <td>0</td>
+ * <td>Number of characters after which the file is rotated. Zero means no
+ * limit.</td>
+ * </tr>
+ * <tr>
+ * <td>count</td>
+ * <td>int</td>
+ * <td>1</td>
+ * <td>Number of rotated files to keep.</td>
+ * </tr>
+ * <tr>
+ * <td>period</td>
+ * <td>long</td>
+ * <td>0</td>
+ * <td>Time in milliseconds after which the file is rotated. Zero means no
+ * periodic rotation.</td>
+ * </tr>
+ * <tr>
+ * <td>capacity</td>
+ * <td>int</td>
+ * <td>8192</td>
+ * <td>Maximum number of lines waiting to be written, rounded up to a power of
+ * two.</td>
+ * </tr>
+ * <tr>
+ * <td>flushDelay</td>
+ * <td>long</td>
+ * <td>1000</td>
+ * <td>Maximum time in milliseconds before written lines are flushed.</td>
+ * </tr>
+ * <tr>
+ * <td>append</td>
+ * <td>boolean</td>
+ * <td>true</td>
+ * <td>Indicates if an existing file should be appended to.</td>
+ * </tr>
+ * </table>
+ * 
+ * @author Jerome Louvel
+ */
+public class AsyncAccessLogFileHandler extends Handler {
+
+    /** The size of the batches written at once. */
+    private static final int BATCH_SIZE = 256;
+
+    /** The number of written characters after which the file is flushed. */
+    private static final int FLUSH_SIZE = 65536;
+
+    /**
+     * Returns the smallest power of two greater than or equal to a given
+     * value.
+     * 
+     * @param value
+     *            The value.
+     * @return The power of two.
+     */
+    private static int toPowerOfTwo(int value) {
+        int result = 1;
+
+        while (result < value) {
+            result <<= 1;
+        }
+
+        return result;
+    }
+
+    /** Indicates if an existing file should be appended to. */
+    private final boolean append;
+
+    /** The number of rotated files to keep. */
+    private final int count;
+
+    /** The number of dropped lines because the buffer was full. */
+    private final AtomicLong droppedLines;
+
+    /** The maximum delay in milliseconds before flushing written lines. */
+    private final long flushDelay;
+
+    /** Indicates if a flush was requested. */
+    private volatile boolean flushRequested;
+
+    /** The sequence of the next line to write. Only updated by the writer. */
+    private final AtomicLong head;
+
+    /** The number of pending lines above which the writer is woken up. */
+    private final int highWaterMark;
+
+    /** The number of characters after which the file is rotated. */
+    private final long limit;
+
+    /** The ring buffer of lines waiting to be written. */
+    private final AtomicReferenceArray<String> lines;
+
+    /** The mask giving the index of a sequence in the ring buffer. */
+    private final int mask;
+
+    /** The time in milliseconds after which the file is rotated. */
+    private final long period;
+
+    /** The path of the log file. */
+    private final String pattern;
+
+    /** Indicates if the handler is running. */
+    private volatile boolean running;
+
+    /** The sequence of the next line to append. */
+    private final AtomicLong tail;
+
+    /** The number of written lines. */
+    private final AtomicLong writtenLines;
+
+    /** Indicates if the writer thread is about to wait or waiting. */
+    private volatile boolean writerParked;
+
+    /** The background writer thread. */
+    private final Thread writerThread;
+
+    /**
+     * Constructor based on the {@link LogManager} properties.
+     * 
+     * @throws IOException
+     */
+    public AsyncAccessLogFileHandler() throws IOException {
+        this(getProperty("pattern", "access.log"), getIntProperty("limit", 0),
+                getIntProperty("count", 1), getLongProperty("period", 0L),
+                getIntProperty("capacity", 8192), Boolean
+                        .parseBoolean(getProperty("append", "true")));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param pattern
+     *            The path of the log file.
+     * @throws IOException
+     */
+    public AsyncAccessLogFileHandler(String pattern) throws IOException {
+        this(pattern, 0, 1, 0L, 8192, true);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param pattern
+     *            The path of the log file.
+     * @param limit
+     *            The number of characters after which the file is rotated.
+     *            Zero means no limit.
+     * @param count
+     *            The number of rotated files to keep.
+     * @param period
+     *            The time in milliseconds after which the file is rotated.
+     *            Zero means no periodic rotation.
+     * @param capacity
+     *            The maximum number of lines waiting to be written.
+     * @param append
+     *            Indicates if an existing file should be appended to.
+     * @throws IOException
+     */
+    public AsyncAccessLogFileHandler(String pattern, int limit, int count,
+            long period, int capacity, boolean append) throws IOException {
+        this.pattern = pattern;
+        this.limit = Math.max(0, limit);
+        this.count = Math.max(1, count);
+        this.period = Math.max(0L, period);
+        this.append = append;
+        this.flushDelay = Math.max(1L, getLongProperty("flushDelay", 1000L));
+        this.lines = new AtomicReferenceArray<String>(toPowerOfTwo(Math.max(
+                2, capacity)));
+        this.mask = this.lines.length() - 1;
+        this.highWaterMark = Math.max(1, this.lines.length() >> 2);
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.droppedLines = new AtomicLong();
+        this.writtenLines = new AtomicLong();
+        setFormatter(new AccessLogFormatter());
+
+        String level = getProperty("level", null);
+
+        if (level != null) {
+            try {
+                setLevel(Level.parse(level));
+            } catch (IllegalArgumentException iae) {
+                reportError("Invalid level: " + level, iae,
+                        ErrorManager.GENERIC_FAILURE);
+            }
+        }
+
+        String formatter = getProperty("formatter", null);
+
+        if (formatter != null) {
+            try {
+                setFormatter((Formatter) Class.forName(formatter)
+                        .getConstructor().newInstance());
+            } catch (Exception e) {
+                reportError("Invalid formatter: " + formatter, e,
+                        ErrorManager.GENERIC_FAILURE);
+            }
+        }
+
+        // Fails early if the file can't be opened
+        openWriter(append).close();
+
+        this.running = true;
+        this.writerThread = new Thread(new Runnable() {
+            public void run() {
+                writeLines();
+            }
+        }, "Restlet-AccessLogWriter");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Returns the value of a {@link LogManager} property of this handler.
+     * 
+     * @param name
+     *            The property name, without the class name prefix.
+     * @param defaultValue
+     *            The default value.
+     * @return The property value.
+     */
+    private static String getProperty(String name, String defaultValue) {
+        String result = LogManager.getLogManager().getProperty(
+                AsyncAccessLogFileHandler.class.getName() + "." + name);
+        return (result == null) ? defaultValue : result.trim();
+    }
+
+    /**
+     * Returns the integer value of a {@link LogManager} property of this
+     * handler.
+     * 
+     * @param name
+     *            The property name, without the class name prefix.
+     * @param defaultValue
+     *            The default value.
+     * @return The property value.
+     */
+    private static int getIntProperty(String name, int defaultValue) {
+        return (int) getLongProperty(name, defaultValue);
+    }
+
+    /**
+     * Returns the long value of a {@link LogManager} property of this handler.
+     * 
+     * @param name
+     *            The property name, without the class name prefix.
+     * @param defaultValue
+     *            The default value.
+     * @return The property value.
+     */
+    private static long getLongProperty(String name, long defaultValue) {
+        long result = defaultValue;
+        String value = getProperty(name, null);
+
+        if (value != null) {
+            try {
+                result = Long.parseLong(value);
+            } catch (NumberFormatException nfe) {
+                result = defaultValue;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Stops the writer thread once all the pending lines are written, then
+     * closes the log file.
+     */
+    @Override
+    public void close() {
+        if (this.running) {
+            this.running = false;
+            LockSupport.unpark(this.writerThread);
+
+            try {
+                this.writerThread.join();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wakes up the writer thread so that pending lines are written and
+     * flushed.
+     */
+    @Override
+    public void flush() {
+        this.flushRequested = true;
+        LockSupport.unpark(this.writerThread);
+    }
+
+    /**
+     * Returns the number of lines dropped because the buffer was full or the
+     * handler closed.
+     * 
+     * @return The number of dropped lines.
+     */
+    public long getDroppedLines() {
+        return this.droppedLines.get();
+    }
+
+    /**
+     * Returns the number of lines waiting to be written.
+     * 
+     * @return The number of lines waiting to be written.
+     */
+    public int getPendingLines() {
+        return (int) (this.tail.get() - this.head.get());
+    }
+
+    /**
+     * Returns the number of written lines.
+     * 
+     * @return The number of written lines.
+     */
+    public long getWrittenLines() {
+        return this.writtenLines.get();
+    }
+
+    /**
+     * Opens a writer on the log file.
+     * 
+     * @param append
+     *            Indicates if an existing file should be appended to.
+     * @return The writer.
+     * @throws IOException
+     */
+    private Writer openWriter(boolean append) throws IOException {
+        File file = new File(this.pattern);
+        File parent = file.getAbsoluteFile().getParentFile();
+
+        if ((parent != null) && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        String encoding = getEncoding();
+        FileOutputStream fos = new FileOutputStream(file, append);
+        return new BufferedWriter((encoding == null) ? new OutputStreamWriter(
+                fos) : new OutputStreamWriter(fos, encoding), 65536);
+    }
+
+    /**
+     * Formats the record and appends it to the buffer without waiting for it
+     * to be written.
+     * 
+     * @param record
+     *            The record to log.
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+
+        String line = null;
+
+        try {
+            line = getFormatter().format(record);
+        } catch (Exception e) {
+            reportError(null, e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+
+        if (!this.running) {
+            this.droppedLines.incrementAndGet();
+            return;
+        }
+
+        long sequence;
+
+        do {
+            sequence = this.tail.get();
+
+            if (sequence - this.head.get() >= this.lines.length()) {
+                this.droppedLines.incrementAndGet();
+                return;
+            }
+        } while (!this.tail.compareAndSet(sequence, sequence + 1));
+
+        this.lines.lazySet((int) sequence & this.mask, line);
+
+        if (this.writerParked
+                && ((sequence + 1 - this.head.get()) >= this.highWaterMark)) {
+            LockSupport.unpark(this.writerThread);
+        }
+    }
+
+    /**
+     * Renames the log file and the previously rotated ones, discarding the
+     * oldest one.
+     */
+    private void rotate() {
+        new File(this.pattern + "." + this.count).delete();
+
+        for (int i = this.count - 1; i >= 1; i--) {
+            File file = new File(this.pattern + "." + i);
+
+            if (file.exists()) {
+                file.renameTo(new File(this.pattern + "." + (i + 1)));
+            }
+        }
+
+        new File(this.pattern).renameTo(new File(this.pattern + ".1"));
+    }
+
+    /**
+     * Takes the next line from the buffer, waiting briefly for a line whose
+     * slot was claimed but not yet filled.
+     * 
+     * @return The next line or null if the buffer is empty.
+     */
+    private String takeLine() {
+        long sequence = this.head.get();
+        String result = null;
+
+        if (sequence < this.tail.get()) {
+            int index = (int) sequence & this.mask;
+            result = this.lines.get(index);
+
+            while (result == null) {
+                Thread.yield();
+                result = this.lines.get(index);
+            }
+
+            this.lines.set(index, null);
+            this.head.lazySet(sequence + 1);
+        }
+
+        return result;
+    }
+
+    /**
+     * Loop of the writer thread, writing the lines in batches and rotating the
+     * file when needed.
+     */
+    private void writeLines() {
+        Writer writer = null;
+        long size = 0L;
+        long now = System.currentTimeMillis();
+        long openTime = now;
+        long flushTime = now;
+        long unflushed = 0L;
+        long wait;
+        boolean dirty = false;
+        boolean flush;
+        boolean more = true;
+        boolean stopping;
+        boolean rotate;
+        String line;
+        int batch;
+
+        try {
+            writer = openWriter(this.append);
+            size = new File(this.pattern).length();
+
+            while (more) {
+                stopping = !this.running;
+                line = takeLine();
+                batch = 0;
+
+                while ((line != null) && (batch < BATCH_SIZE)) {
+                    now = System.currentTimeMillis();
+                    rotate = (this.limit > 0) && (size > 0)
+                            && (size + line.length() > this.limit);
+                    rotate = rotate || ((this.period > 0)
+                            && ((now - openTime) >= this.period));
+
+                    if (rotate) {
+                        writer.close();
+                        rotate();
+                        writer = openWriter(false);
+                        size = 0L;
+                        openTime = now;
+                    }
+
+                    writer.write(line);
+                    size += line.length();
+                    unflushed += line.length();
+                    batch++;
+                    line = (batch < BATCH_SIZE) ? takeLine() : null;
+                }
+
+                if (batch > 0) {
+                    this.writtenLines.addAndGet(batch);
+                    dirty = true;
+                }
+
+                now = System.currentTimeMillis();
+
+                flush = this.flushRequested;
+                this.flushRequested = false;
+
+                if (dirty
+                        && (flush || (unflushed >= FLUSH_SIZE)
+                                || ((now - flushTime) >= this.flushDelay))) {
+                    // Enough was written or the flush delay has elapsed
+                    writer.flush();
+                    flushTime = now;
+                    unflushed = 0L;
+                    dirty = false;
+                }
+
+                if (batch == 0) {
+                    if (stopping) {
+                        more = false;
+                    } else {
+                        // Waits until the next flush or until enough lines
+                        // are pending
+                        wait = dirty ? Math.max(1L, this.flushDelay
+                                - (now - flushTime)) : this.flushDelay;
+                        this.writerParked = true;
+
+                        if ((getPendingLines() == 0) && this.running
+                                && !this.flushRequested) {
+                            LockSupport.parkNanos(wait * 1000000L);
+                        }
+
+                        this.writerParked = false;
+                    }
+                }
+            }
+        } catch (IOException ioe) {
+            reportError("Unable to write the access log", ioe,
+                    ErrorManager.WRITE_FAILURE);
+        } finally {
+            this.running = false;
+
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ioe) {
+                    reportError(null, ioe, ErrorManager.CLOSE_FAILURE);
+                }
+            }
+        }
+    }
+
+}
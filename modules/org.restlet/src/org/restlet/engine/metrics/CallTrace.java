@@ -0,0 +1,183 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.metrics;
+
+import org.restlet.Request;
+import org.restlet.Restlet;
+import org.restlet.resource.Finder;
+import org.restlet.routing.TemplateRoute;
+import org.restlet.routing.VirtualHost;
+
+/**
+ * Trace of a call measured by a {@link MetricsFilter}, stored as a request
+ * attribute. It is completed by the template routes traversed by the call with
+ * the virtual host, the route path and the resource class that handled it.
+ * 
+ * @author Jerome Louvel
+ */
+public class CallTrace {
+
+    /** The name of the request attribute holding the trace. */
+    public static final String ATTRIBUTE = "org.restlet.engine.metrics.trace";
+
+    /**
+     * Returns the trace of a call if it is measured.
+     * 
+     * @param request
+     *            The request to inspect.
+     * @return The trace of the call or null.
+     */
+    public static CallTrace get(Request request) {
+        return (CallTrace) request.getAttributes().get(ATTRIBUTE);
+    }
+
+    /**
+     * Completes the trace of a call, if it is measured, with a route it
+     * traverses.
+     * 
+     * @param request
+     *            The request to inspect.
+     * @param route
+     *            The traversed route.
+     */
+    public static void traceRoute(Request request, TemplateRoute route) {
+        CallTrace trace = get(request);
+
+        if (trace != null) {
+            trace.traceRoute(route);
+        }
+    }
+
+    /** The name of the virtual host that handled the call. */
+    private volatile String hostName;
+
+    /** The filter that created the trace. */
+    private final MetricsFilter owner;
+
+    /** The class of the resource that handled the call. */
+    private volatile Class<?> resourceClass;
+
+    /** The concatenated patterns of the traversed routes. */
+    private volatile String routePath;
+
+    /** The start time of the call in nanoseconds. */
+    private final long startTime;
+
+    /**
+     * Constructor.
+     * 
+     * @param owner
+     *            The filter that created the trace.
+     */
+    public CallTrace(MetricsFilter owner) {
+        this.owner = owner;
+        this.startTime = System.nanoTime();
+        this.hostName = null;
+        this.resourceClass = null;
+        this.routePath = null;
+    }
+
+    /**
+     * Returns the name of the virtual host that handled the call.
+     * 
+     * @return The name of the virtual host or null.
+     */
+    public String getHostName() {
+        return hostName;
+    }
+
+    /**
+     * Returns the filter that created the trace.
+     * 
+     * @return The filter that created the trace.
+     */
+    public MetricsFilter getOwner() {
+        return owner;
+    }
+
+    /**
+     * Returns the class of the resource that handled the call.
+     * 
+     * @return The class of the resource or null.
+     */
+    public Class<?> getResourceClass() {
+        return resourceClass;
+    }
+
+    /**
+     * Returns the concatenated patterns of the routes traversed from the
+     * virtual host.
+     * 
+     * @return The route path or null.
+     */
+    public String getRoutePath() {
+        return routePath;
+    }
+
+    /**
+     * Returns the start time of the call in nanoseconds.
+     * 
+     * @return The start time of the call in nanoseconds.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Completes the trace with a traversed route.
+     * 
+     * @param route
+     *            The traversed route.
+     */
+    public void traceRoute(TemplateRoute route) {
+        String pattern = (route.getTemplate() == null) ? "" : route
+                .getTemplate().getPattern();
+
+        if (route.getRouter() instanceof VirtualHost) {
+            // The route path starts below the virtual host
+            this.hostName = route.getRouter().getName();
+            this.routePath = pattern;
+        } else {
+            this.routePath = (this.routePath == null) ? pattern
+                    : this.routePath + pattern;
+        }
+
+        Restlet next = route.getNext();
+
+        if (next instanceof Finder) {
+            this.resourceClass = ((Finder) next).getTargetClass();
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.metrics;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.restlet.Server;
+import org.restlet.engine.connector.ConnectionController;
+import org.restlet.engine.connector.ConnectionHelper;
+
+/**
+ * Gauges of a started connection-based connector. The values are read on
+ * demand from the helper's worker service, connections and controllers, so
+ * they don't add any work to the processing of calls.
+ * 
+ * @author Jerome Louvel
+ */
+public class ConnectorMetrics implements ConnectorMetricsMBean {
+
+    /** The metrics of the started connectors. */
+    private static final Set<ConnectorMetrics> ALL = new CopyOnWriteArraySet<ConnectorMetrics>();
+
+    /**
+     * Returns the metrics of the started connectors.
+     * 
+     * @return The metrics of the started connectors.
+     */
+    public static Set<ConnectorMetrics> getAll() {
+        return ALL;
+    }
+
+    /**
+     * Registers the metrics of a started connector.
+     * 
+     * @param metrics
+     *            The metrics to register.
+     */
+    public static void register(ConnectorMetrics metrics) {
+        ALL.add(metrics);
+    }
+
+    /**
+     * Unregisters the metrics of a stopped connector.
+     * 
+     * @param metrics
+     *            The metrics to unregister.
+     */
+    public static void unregister(ConnectorMetrics metrics) {
+        ALL.remove(metrics);
+    }
+
+    /** The measured connector helper. */
+    private final ConnectionHelper<?> helper;
+
+    /** The name of the connector. */
+    private final String name;
+
+    /**
+     * Constructor.
+     * 
+     * @param helper
+     *            The measured connector helper.
+     */
+    public ConnectorMetrics(ConnectionHelper<?> helper) {
+        this.helper = helper;
+        StringBuilder sb = new StringBuilder();
+        sb.append(helper.isClientSide() ? "client" : "server");
+        sb.append('-').append(helper.getHelped().getProtocols());
+
+        if (helper.getHelped() instanceof Server) {
+            sb.append('-').append(((Server) helper.getHelped()).getPort());
+        }
+
+        sb.append('-').append(Integer.toHexString(System.identityHashCode(helper)));
+        this.name = sb.toString().replace(" ", "");
+    }
+
+    public int getActiveWorkers() {
+        ThreadPoolExecutor workerService = this.helper.getWorkerService();
+        return (workerService == null) ? 0 : workerService.getActiveCount();
+    }
+
+    public int getConnections() {
+        return this.helper.getConnections().size();
+    }
+
+    public long getControllerLoopTime() {
+        long result = 0L;
+
+        for (ConnectionController controller : this.helper.getControllers()) {
+            result = Math.max(result, controller.getLoopTime());
+        }
+
+        return result / 1000L;
+    }
+
+    /**
+     * Returns the measured connector helper.
+     * 
+     * @return The measured connector helper.
+     */
+    public ConnectionHelper<?> getHelper() {
+        return this.helper;
+    }
+
+    public long getInboundBytes() {
+        return this.helper.getInboundBytes();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getOutboundBytes() {
+        return this.helper.getOutboundBytes();
+    }
+
+    public int getQueuedWorkers() {
+        ThreadPoolExecutor workerService = this.helper.getWorkerService();
+        return (workerService == null) ? 0 : workerService.getQueue().size();
+    }
+
+    @Override
+    public String toString() {
+        return getName() + "\tconnections=" + getConnections() + "\tqueued="
+                + getQueuedWorkers() + "\tactive=" + getActiveWorkers()
+                + "\tbytesIn=" + getInboundBytes() + "\tbytesOut="
+                + getOutboundBytes() + "\tloopTime=" + getControllerLoopTime();
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.metrics;
+
+/**
+ * JMX management interface of the {@link ConnectorMetrics} class.
+ * 
+ * @author Jerome Louvel
+ */
+public interface ConnectorMetricsMBean {
+
+    /**
+     * Returns the number of worker threads actively handling tasks.
+     * 
+     * @return The number of active worker threads.
+     */
+    int getActiveWorkers();
+
+    /**
+     * Returns the number of open connections.
+     * 
+     * @return The number of open connections.
+     */
+    int getConnections();
+
+    /**
+     * Returns the longest duration of the last control loop of each
+     * controller, in microseconds.
+     * 
+     * @return The duration of the last control loop in microseconds.
+     */
+    long getControllerLoopTime();
+
+    /**
+     * Returns the number of bytes read from the connections.
+     * 
+     * @return The number of bytes read from the connections.
+     */
+    long getInboundBytes();
+
+    /**
+     * Returns the name of the connector.
+     * 
+     * @return The name of the connector.
+     */
+    String getName();
+
+    /**
+     * Returns the number of bytes written to the connections.
+     * 
+     * @return The number of bytes written to the connections.
+     */
+    long getOutboundBytes();
+
+    /**
+     * Returns the number of tasks waiting for a worker thread.
+     * 
+     * @return The number of queued worker tasks.
+     */
+    int getQueuedWorkers();
+
+}
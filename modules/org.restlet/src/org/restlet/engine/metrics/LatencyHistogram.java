@@ -0,0 +1,199 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies. Values are counted in buckets whose width
+ * grows with the magnitude of the values, each power of two being divided in
+ * 16 linear sub-buckets, so that the relative error on the reported
+ * percentiles stays below 1/16th whatever the recorded value.
+ * 
+ * Concurrency note: instances of this class can be updated and read by several
+ * threads at the same time without locking. Readings taken during updates are
+ * approximate.
+ * 
+ * @author Jerome Louvel
+ */
+public class LatencyHistogram {
+
+    /** The number of bits of the linear sub-buckets. */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /** The number of linear sub-buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** The total number of buckets, covering all the positive long values. */
+    private static final int BUCKETS = SUB_BUCKETS
+            + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * Returns the index of the bucket counting a given value.
+     * 
+     * @param value
+     *            The positive value.
+     * @return The bucket index.
+     */
+    private static int getIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (shift * SUB_BUCKETS) + subBucket;
+    }
+
+    /**
+     * Returns the highest value counted by a given bucket.
+     * 
+     * @param index
+     *            The bucket index.
+     * @return The highest value of the bucket.
+     */
+    private static long getHighestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowest = (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /** The counts of values per bucket. */
+    private final AtomicLongArray counts;
+
+    /** The total number of recorded values. */
+    private final AtomicLong count;
+
+    /** The highest recorded value. */
+    private final AtomicLong max;
+
+    /** The sum of the recorded values. */
+    private final AtomicLong sum;
+
+    /**
+     * Constructor.
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.count = new AtomicLong();
+        this.max = new AtomicLong();
+        this.sum = new AtomicLong();
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * 
+     * @return The number of recorded values.
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * Returns the highest recorded value.
+     * 
+     * @return The highest recorded value.
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     * 
+     * @return The mean of the recorded values or 0 if none was recorded.
+     */
+    public double getMean() {
+        long currentCount = getCount();
+        return (currentCount == 0) ? 0D : (double) this.sum.get()
+                / currentCount;
+    }
+
+    /**
+     * Returns the value under which a given percentage of the recorded values
+     * fall, with the precision of the buckets.
+     * 
+     * @param percentile
+     *            The percentage, between 0 and 100.
+     * @return The value at the given percentile or 0 if none was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long currentCount = getCount();
+
+        if (currentCount == 0) {
+            return 0L;
+        }
+
+        double ratio = Math.min(100D, Math.max(0D, percentile)) / 100D;
+        long target = Math.max(1L, (long) Math.ceil(ratio * currentCount));
+        long cumulated = 0L;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += this.counts.get(i);
+
+            if (cumulated >= target) {
+                return Math.min(getHighestValue(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Records a value.
+     * 
+     * @param value
+     *            The value to record. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        long recorded = Math.max(0L, value);
+        this.counts.incrementAndGet(getIndex(recorded));
+        this.sum.addAndGet(recorded);
+        this.count.incrementAndGet();
+        long currentMax = this.max.get();
+
+        while ((recorded > currentMax)
+                && !this.max.compareAndSet(currentMax, recorded)) {
+            currentMax = this.max.get();
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.metrics;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.routing.Filter;
+import org.restlet.service.MetricsService;
+
+/**
+ * Filter measuring the calls handled by the next Restlet. Only the outermost
+ * metrics filter traversed by a call records it, so that calls going through
+ * both a component and an application are counted once.
+ * 
+ * Concurrency note: instances of this class or its subclasses can be invoked by
+ * several threads at the same time and therefore must be thread-safe. You
+ * should be especially careful when storing state in member variables.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetricsFilter extends Filter {
+
+    /** The metrics service. */
+    private final MetricsService metricsService;
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     * @param metricsService
+     *            The metrics service.
+     */
+    public MetricsFilter(Context context, MetricsService metricsService) {
+        super(context);
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Records the call if it was traced by this filter.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     */
+    @Override
+    protected void afterHandle(Request request, Response response) {
+        CallTrace trace = CallTrace.get(request);
+
+        if ((trace != null) && (trace.getOwner() == this)) {
+            long latency = (System.nanoTime() - trace.getStartTime()) / 1000L;
+            this.metricsService.record(trace, response.getStatus(), latency);
+        }
+    }
+
+    /**
+     * Starts the trace of the call unless an enclosing filter already did.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     * @return The continuation status.
+     */
+    @Override
+    protected int beforeHandle(Request request, Response response) {
+        if (CallTrace.get(request) == null) {
+            request.getAttributes().put(CallTrace.ATTRIBUTE,
+                    new CallTrace(this));
+        }
+
+        return CONTINUE;
+    }
+
+}
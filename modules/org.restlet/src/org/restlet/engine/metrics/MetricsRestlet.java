@@ -0,0 +1,84 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.metrics;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.service.MetricsService;
+
+/**
+ * Restlet exposing the current metrics of a {@link MetricsService} as a plain
+ * text document, one measured element per line.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetricsRestlet extends Restlet {
+
+    /** The metrics service. */
+    private final MetricsService metricsService;
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     * @param metricsService
+     *            The metrics service.
+     */
+    public MetricsRestlet(Context context, MetricsService metricsService) {
+        super(context);
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public void handle(Request request, Response response) {
+        super.handle(request, response);
+
+        if (Method.GET.equals(request.getMethod())
+                || Method.HEAD.equals(request.getMethod())) {
+            response.setEntity(this.metricsService.getReport(),
+                    MediaType.TEXT_PLAIN);
+        } else {
+            response.setStatus(Status.CLIENT_ERROR_METHOD_NOT_ALLOWED);
+            response.getAllowedMethods().add(Method.GET);
+            response.getAllowedMethods().add(Method.HEAD);
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.restlet.data.Status;
+
+/**
+ * Metrics of the requests handled by a given element, such as a virtual host,
+ * a route or a resource class. It counts the requests per status class and
+ * records their latency in microseconds.
+ * 
+ * Concurrency note: instances of this class can be updated and read by several
+ * threads at the same time without locking.
+ * 
+ * @author Jerome Louvel
+ */
+public class RequestMetrics implements RequestMetricsMBean {
+
+    /** The latency histogram, in microseconds. */
+    private final LatencyHistogram latency;
+
+    /** The name of the measured element. */
+    private final String name;
+
+    /** The number of responses per status class, index 0 for unknown ones. */
+    private final AtomicLongArray statusClasses;
+
+    /**
+     * Constructor.
+     * 
+     * @param name
+     *            The name of the measured element.
+     */
+    public RequestMetrics(String name) {
+        this.name = name;
+        this.latency = new LatencyHistogram();
+        this.statusClasses = new AtomicLongArray(6);
+    }
+
+    public long getClientErrors() {
+        return getStatusCount(4);
+    }
+
+    public long getInformational() {
+        return getStatusCount(1);
+    }
+
+    /**
+     * Returns the latency histogram, in microseconds.
+     * 
+     * @return The latency histogram.
+     */
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    public long getLatency50() {
+        return this.latency.getValueAtPercentile(50D);
+    }
+
+    public long getLatency90() {
+        return this.latency.getValueAtPercentile(90D);
+    }
+
+    public long getLatency99() {
+        return this.latency.getValueAtPercentile(99D);
+    }
+
+    public long getLatencyMax() {
+        return this.latency.getMax();
+    }
+
+    public double getLatencyMean() {
+        return this.latency.getMean();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getRedirections() {
+        return getStatusCount(3);
+    }
+
+    public long getRequests() {
+        return this.latency.getCount();
+    }
+
+    public long getServerErrors() {
+        return getStatusCount(5);
+    }
+
+    /**
+     * Returns the number of responses of a given status class.
+     * 
+     * @param statusClass
+     *            The status class, from 1 for informational statuses to 5 for
+     *            server errors, or 0 for unknown statuses.
+     * @return The number of responses of the status class.
+     */
+    public long getStatusCount(int statusClass) {
+        return this.statusClasses.get(statusClass);
+    }
+
+    public long getSuccesses() {
+        return getStatusCount(2);
+    }
+
+    /**
+     * Records a handled request.
+     * 
+     * @param status
+     *            The response status.
+     * @param latency
+     *            The latency in microseconds.
+     */
+    public void record(Status status, long latency) {
+        int statusClass = (status == null) ? 0 : status.getCode() / 100;
+        this.statusClasses.incrementAndGet(((statusClass < 1) || (statusClass > 5)) ? 0
+                : statusClass);
+        this.latency.record(latency);
+    }
+
+    @Override
+    public String toString() {
+        return getName() + "\trequests=" + getRequests() + "\t1xx="
+                + getInformational() + "\t2xx=" + getSuccesses() + "\t3xx="
+                + getRedirections() + "\t4xx=" + getClientErrors() + "\t5xx="
+                + getServerErrors() + "\tmean=" + (long) getLatencyMean()
+                + "\tp50=" + getLatency50() + "\tp90=" + getLatency90()
+                + "\tp99=" + getLatency99() + "\tmax=" + getLatencyMax();
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.metrics;
+
+/**
+ * JMX management interface of the {@link RequestMetrics} class. Latencies are
+ * expressed in microseconds.
+ * 
+ * @author Jerome Louvel
+ */
+public interface RequestMetricsMBean {
+
+    /**
+     * Returns the number of responses with a client error status.
+     * 
+     * @return The number of responses with a client error status.
+     */
+    long getClientErrors();
+
+    /**
+     * Returns the number of responses with an informational status.
+     * 
+     * @return The number of responses with an informational status.
+     */
+    long getInformational();
+
+    /**
+     * Returns the 50th percentile of the latency.
+     * 
+     * @return The 50th percentile of the latency.
+     */
+    long getLatency50();
+
+    /**
+     * Returns the 90th percentile of the latency.
+     * 
+     * @return The 90th percentile of the latency.
+     */
+    long getLatency90();
+
+    /**
+     * Returns the 99th percentile of the latency.
+     * 
+     * @return The 99th percentile of the latency.
+     */
+    long getLatency99();
+
+    /**
+     * Returns the highest latency.
+     * 
+     * @return The highest latency.
+     */
+    long getLatencyMax();
+
+    /**
+     * Returns the mean latency.
+     * 
+     * @return The mean latency.
+     */
+    double getLatencyMean();
+
+    /**
+     * Returns the name of the measured element.
+     * 
+     * @return The name of the measured element.
+     */
+    String getName();
+
+    /**
+     * Returns the number of responses with a redirection status.
+     * 
+     * @return The number of responses with a redirection status.
+     */
+    long getRedirections();
+
+    /**
+     * Returns the number of handled requests.
+     * 
+     * @return The number of handled requests.
+     */
+    long getRequests();
+
+    /**
+     * Returns the number of responses with a server error status.
+     * 
+     * @return The number of responses with a server error status.
+     */
+    long getServerErrors();
+
+    /**
+     * Returns the number of responses with a success status.
+     * 
+     * @return The number of responses with a success status.
+     */
+    long getSuccesses();
+
+}
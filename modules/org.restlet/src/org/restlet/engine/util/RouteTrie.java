@@ -0,0 +1,475 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.Reference;
+import org.restlet.routing.Route;
+import org.restlet.routing.Template;
+import org.restlet.routing.TemplateRoute;
+import org.restlet.routing.Variable;
+import org.restlet.util.RouteList;
+
+/**
+ * Index of the routes of a {@link RouteList} based on the URI segments of
+ * their template patterns. Literal segments are looked up in a hash map while
+ * segments containing variables that can't span several segments are matched
+ * by a wildcard node. Indexing stops at the first segment that can't be
+ * handled this way, typically a variable of type
+ * {@link Variable#TYPE_URI_PATH}.<br>
+ * <br>
+ * The index only preselects the routes that can possibly match a given
+ * request. Those candidates are then scored in the order of the list of
+ * routes, so the selection is strictly identical to the one of
+ * {@link RouteList#getBest(Request, Response, float)} and
+ * {@link RouteList#getFirst(Request, Response, float)}.<br>
+ * <br>
+ * Note that the index is immutable. It needs to be recreated when the routes
+ * or their templates change, which can be detected for the routes list using
+ * the {@link #isValid(RouteList)} method.
+ * 
+ * @author Jerome Louvel
+ */
+public class RouteTrie {
+
+    /**
+     * Node of the trie, corresponding to a URI segment.
+     */
+    private static class Node {
+
+        /** The child nodes for literal segments. */
+        private Map<String, Node> literals;
+
+        /** The indexes of the routes whose indexed segments end here. */
+        private int[] routes = new int[0];
+
+        /** The child node for segments containing variables. */
+        private Node wildcard;
+
+        /**
+         * Adds the index of a route ending at this node.
+         * 
+         * @param index
+         *            The route index.
+         */
+        private void add(int index) {
+            this.routes = Arrays.copyOf(this.routes, this.routes.length + 1);
+            this.routes[this.routes.length - 1] = index;
+        }
+
+        /**
+         * Returns the child node for the given literal segment, creating it if
+         * necessary.
+         * 
+         * @param segment
+         *            The literal segment.
+         * @return The child node.
+         */
+        private Node literal(String segment) {
+            if (this.literals == null) {
+                this.literals = new HashMap<String, Node>();
+            }
+
+            Node result = this.literals.get(segment);
+
+            if (result == null) {
+                result = new Node();
+                this.literals.put(segment, result);
+            }
+
+            return result;
+        }
+
+        /**
+         * Returns the wildcard child node, creating it if necessary.
+         * 
+         * @return The wildcard child node.
+         */
+        private Node wildcard() {
+            if (this.wildcard == null) {
+                this.wildcard = new Node();
+            }
+
+            return this.wildcard;
+        }
+    }
+
+    /** Segment type of a literal segment. */
+    private static final int SEGMENT_LITERAL = 1;
+
+    /** Segment type of a segment that can't be indexed. */
+    private static final int SEGMENT_STOP = 3;
+
+    /** Segment type of a segment containing variables. */
+    private static final int SEGMENT_WILDCARD = 2;
+
+    /**
+     * Returns the type of a template segment.
+     * 
+     * @param template
+     *            The parent template.
+     * @param segment
+     *            The segment to analyze, without the trailing slash.
+     * @return The segment type.
+     */
+    private static int getSegmentType(Template template, String segment) {
+        int result = SEGMENT_LITERAL;
+        int varStart = -1;
+        char next;
+
+        for (int i = 0; (result != SEGMENT_STOP) && (i < segment.length()); i++) {
+            next = segment.charAt(i);
+
+            if (varStart != -1) {
+                if (next == '}') {
+                    if (isSegmentVariable(template,
+                            segment.substring(varStart + 1, i))) {
+                        result = SEGMENT_WILDCARD;
+                    } else {
+                        result = SEGMENT_STOP;
+                    }
+
+                    varStart = -1;
+                } else if (!Reference.isUnreserved(next)) {
+                    result = SEGMENT_STOP;
+                }
+            } else if (next == '{') {
+                varStart = i;
+            } else if ((next == '}') || (next == '+')) {
+                // Such characters aren't matched literally by the template
+                // regular expression
+                result = SEGMENT_STOP;
+            } else if ((next == '?') || (next == '#')) {
+                result = SEGMENT_STOP;
+            }
+        }
+
+        return (varStart == -1) ? result : SEGMENT_STOP;
+    }
+
+    /**
+     * Indicates if the variable value can't span several URI segments.
+     * 
+     * @param template
+     *            The parent template.
+     * @param name
+     *            The variable name.
+     * @return True if the variable value can't span several URI segments.
+     */
+    private static boolean isSegmentVariable(Template template, String name) {
+        if (name.length() == 0) {
+            return false;
+        }
+
+        Variable variable = template.getVariables().get(name);
+
+        if (variable == null) {
+            variable = template.getDefaultVariable();
+        }
+
+        if (variable == null) {
+            return false;
+        }
+
+        if (variable.isFixed()) {
+            String value = variable.getDefaultValue();
+            return (value != null) && (value.indexOf('/') == -1)
+                    && (value.indexOf('?') == -1);
+        }
+
+        switch (variable.getType()) {
+        case Variable.TYPE_ALPHA:
+        case Variable.TYPE_ALPHA_DIGIT:
+        case Variable.TYPE_DIGIT:
+        case Variable.TYPE_TOKEN:
+        case Variable.TYPE_URI_SEGMENT:
+        case Variable.TYPE_URI_UNRESERVED:
+        case Variable.TYPE_WORD:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /** The root node. */
+    private final Node root;
+
+    /** The indexed list of routes. */
+    private final RouteList routeList;
+
+    /** The snapshot of the indexed routes. */
+    private final Route[] routes;
+
+    /** The version of the list of routes that was indexed. */
+    private final int version;
+
+    /**
+     * Constructor. Indexes the current routes of the given list.
+     * 
+     * @param routeList
+     *            The list of routes to index.
+     */
+    public RouteTrie(RouteList routeList) {
+        this.routeList = routeList;
+        this.version = routeList.getVersion();
+        this.routes = routeList.toArray(new Route[0]);
+        this.root = new Node();
+
+        for (int i = 0; i < this.routes.length; i++) {
+            index(i, this.routes[i]);
+        }
+    }
+
+    /**
+     * Returns the sorted indexes of the routes that can possibly match the
+     * given remaining part.
+     * 
+     * @param remainingPart
+     *            The remaining part of the resource reference, without query.
+     * @return The sorted indexes of the candidate routes.
+     */
+    private int[] getCandidates(String remainingPart) {
+        int[] result = new int[16];
+        int count = 0;
+        List<Node> current = new ArrayList<Node>(2);
+        List<Node> next = new ArrayList<Node>(2);
+        List<Node> swap;
+        current.add(this.root);
+        int start = 0;
+        int end;
+        String segment;
+        Node child;
+
+        while (!current.isEmpty()) {
+            // Collect the routes ending at the current nodes
+            for (Node node : current) {
+                if (count + node.routes.length > result.length) {
+                    result = Arrays.copyOf(result,
+                            Math.max(result.length * 2, count
+                                    + node.routes.length));
+                }
+
+                System.arraycopy(node.routes, 0, result, count,
+                        node.routes.length);
+                count += node.routes.length;
+            }
+
+            // Move to the next complete segment
+            end = remainingPart.indexOf('/', start);
+
+            if (end == -1) {
+                break;
+            }
+
+            segment = remainingPart.substring(start, end);
+            start = end + 1;
+            next.clear();
+
+            for (Node node : current) {
+                if (node.literals != null) {
+                    child = node.literals.get(segment);
+
+                    if (child != null) {
+                        next.add(child);
+                    }
+                }
+
+                if (node.wildcard != null) {
+                    next.add(node.wildcard);
+                }
+            }
+
+            swap = current;
+            current = next;
+            next = swap;
+        }
+
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the best route match for a given call. See
+     * {@link RouteList#getBest(Request, Response, float)}.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The best route match or null.
+     */
+    public Route getBest(Request request, Response response, float requiredScore) {
+        String remainingPart = getRemainingPart(request);
+
+        if (remainingPart == null) {
+            return this.routeList.getBest(request, response, requiredScore);
+        }
+
+        Route result = null;
+        float bestScore = 0F;
+        float score;
+        Route current;
+
+        for (int index : getCandidates(remainingPart)) {
+            current = this.routes[index];
+            score = current.score(request, response);
+
+            if ((score > bestScore) && (score >= requiredScore)) {
+                bestScore = score;
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the first route match for a given call. See
+     * {@link RouteList#getFirst(Request, Response, float)}.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The first route match or null.
+     */
+    public Route getFirst(Request request, Response response,
+            float requiredScore) {
+        String remainingPart = getRemainingPart(request);
+
+        if (remainingPart == null) {
+            return this.routeList.getFirst(request, response, requiredScore);
+        }
+
+        for (int index : getCandidates(remainingPart)) {
+            if (this.routes[index].score(request, response) >= requiredScore) {
+                return this.routes[index];
+            }
+        }
+
+        // No match found
+        return null;
+    }
+
+    /**
+     * Returns the remaining part of the request's resource reference, without
+     * the query, that is used to lookup the index. Returns null if the index
+     * can't be used for this request.
+     * 
+     * @param request
+     *            The request.
+     * @return The remaining part to lookup or null.
+     */
+    private String getRemainingPart(Request request) {
+        Reference resourceRef = (request == null) ? null : request
+                .getResourceRef();
+
+        if ((resourceRef == null)
+                || ((resourceRef.getBaseRef() != null) && resourceRef
+                        .getBaseRef().hasQuery())) {
+            return null;
+        }
+
+        return resourceRef.getRemainingPart(false, false);
+    }
+
+    /**
+     * Indexes a route.
+     * 
+     * @param index
+     *            The route index in the list.
+     * @param route
+     *            The route to index.
+     */
+    private void index(int index, Route route) {
+        Node node = this.root;
+
+        if (route instanceof TemplateRoute) {
+            Template template = ((TemplateRoute) route).getTemplate();
+            String pattern = (template == null) ? null : template.getPattern();
+
+            if (pattern != null) {
+                boolean stop = false;
+                int start = 0;
+                int end;
+                String segment;
+
+                while (!stop && ((end = pattern.indexOf('/', start)) != -1)) {
+                    segment = pattern.substring(start, end);
+
+                    switch (getSegmentType(template, segment)) {
+                    case SEGMENT_LITERAL:
+                        node = node.literal(segment);
+                        break;
+                    case SEGMENT_WILDCARD:
+                        node = node.wildcard();
+                        break;
+                    default:
+                        stop = true;
+                        break;
+                    }
+
+                    start = end + 1;
+                }
+            }
+        }
+
+        node.add(index);
+    }
+
+    /**
+     * Indicates if the index is still valid for the given list of routes.
+     * 
+     * @param routeList
+     *            The list of routes.
+     * @return True if the index is still valid.
+     */
+    public boolean isValid(RouteList routeList) {
+        return (this.routeList == routeList)
+                && (this.version == routeList.getVersion());
+    }
+
+}
@@ -43,6 +43,7 @@ import org.restlet.Response;
 import org.restlet.data.MediaType;
 import org.restlet.data.Reference;
 import org.restlet.data.ReferenceList;
+import org.restlet.engine.local.DirectoryCache;
 import org.restlet.engine.local.DirectoryServerResource;
 import org.restlet.engine.util.AlphaNumericComparator;
 import org.restlet.engine.util.AlphabeticalComparator;
@@ -79,6 +80,12 @@ import org.restlet.representation.Variant;
  * idea</a>, using a different and faster implementation contributed by Rob
  * Heittman.<br>
  * <br>
+ * Looking up the directory listings and the variants of the target resources
+ * can be costly for large directories. When the "cacheTimeToLive" property is
+ * set, those lookups are cached for the given duration. For "file" URIs, the
+ * cached entries of a directory are also discarded when its last modification
+ * date changes.<br>
+ * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables.
@@ -89,6 +96,15 @@ import org.restlet.representation.Variant;
  */
 public class Directory extends Finder {
 
+    /** The cache of directory listings and variant lists. */
+    private final DirectoryCache cache;
+
+    /**
+     * The time to live of cached lookups, in seconds. A value of 0 disables
+     * the cache (the default).
+     */
+    private volatile int cacheTimeToLive;
+
     /** The reference comparator to sort index pages. */
     private volatile Comparator<Reference> comparator;
 
@@ -142,6 +158,8 @@ public class Directory extends Finder {
             this.rootRef = new Reference(rootIdentifier + "/");
         }
 
+        this.cache = new DirectoryCache();
+        this.cacheTimeToLive = 0;
         this.comparator = new AlphaNumericComparator();
         this.deeplyAccessible = true;
         this.indexName = "index";
@@ -173,6 +191,25 @@ public class Directory extends Finder {
         this(context, new Reference(rootUri));
     }
 
+    /**
+     * Returns the cache of directory listings and variant lists.
+     * 
+     * @return The cache of directory listings and variant lists.
+     */
+    public DirectoryCache getCache() {
+        return this.cache;
+    }
+
+    /**
+     * Returns the time to live of cached lookups, in seconds. A value of 0
+     * disables the cache (the default).
+     * 
+     * @return The time to live of cached lookups, in seconds.
+     */
+    public int getCacheTimeToLive() {
+        return this.cacheTimeToLive;
+    }
+
     /**
      * Returns the reference comparator used to sort index pages. The default
      * implementation used a friendly alphanum sorting.
@@ -310,6 +347,18 @@ public class Directory extends Finder {
         setComparator(new AlphabeticalComparator());
     }
 
+    /**
+     * Sets the time to live of cached lookups, in seconds. A value of 0
+     * disables the cache. The current entries are removed.
+     * 
+     * @param cacheTimeToLive
+     *            The time to live of cached lookups, in seconds.
+     */
+    public void setCacheTimeToLive(int cacheTimeToLive) {
+        this.cacheTimeToLive = cacheTimeToLive;
+        this.cache.clear();
+    }
+
     /**
      * Sets the reference comparator used to sort index pages.
      * 
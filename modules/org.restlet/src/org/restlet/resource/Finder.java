@@ -34,6 +34,11 @@
 package org.restlet.resource;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,6 +47,7 @@ import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.data.Status;
+import org.restlet.engine.resource.AnnotationUtils;
 
 /**
  * Restlet that can find the target server resource that will effectively handle
@@ -55,7 +61,12 @@ import org.restlet.data.Status;
  * {@link ServerResource#handle()} method.<br>
  * <br>
  * Once the call is handled, the {@link ServerResource#release()} method is
- * invoked to permit clean-up actions.<br>
+ * invoked to permit clean-up actions. Instances declaring themselves reusable
+ * via the {@link ServerResource#isReusable()} method are then kept to handle
+ * later calls.<br>
+ * <br>
+ * The default constructor of the target class is resolved once and the
+ * annotations of the target class are introspected as soon as it is set.<br>
  * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
@@ -101,9 +112,18 @@ public class Finder extends Restlet {
         return result;
     }
 
+    /** The maximum number of released instances kept per resource class. */
+    private static final int MAX_REUSABLE_RESOURCES = 64;
+
+    /** Released reusable instances, by resource class. */
+    private final ConcurrentMap<Class<?>, Queue<ServerResource>> reusableResources = new ConcurrentHashMap<Class<?>, Queue<ServerResource>>();
+
     /** Target {@link ServerResource} subclass. */
     private volatile Class<? extends ServerResource> targetClass;
 
+    /** Default constructor of the target class, or null. */
+    private volatile Constructor<? extends ServerResource> targetConstructor;
+
     /**
      * Constructor.
      */
@@ -119,7 +139,7 @@ public class Finder extends Restlet {
      */
     public Finder(Context context) {
         super(context);
-        this.targetClass = null;
+        setTargetClass(null);
     }
 
     /**
@@ -132,7 +152,7 @@ public class Finder extends Restlet {
      */
     public Finder(Context context, Class<? extends ServerResource> targetClass) {
         super(context);
-        this.targetClass = targetClass;
+        setTargetClass(targetClass);
     }
 
     /**
@@ -152,9 +172,31 @@ public class Finder extends Restlet {
         ServerResource result = null;
 
         if (targetClass != null) {
+            // Reuse a released instance if possible
+            Queue<ServerResource> released = this.reusableResources
+                    .get(targetClass);
+
+            if (released != null) {
+                result = released.poll();
+            }
+        }
+
+        if ((result == null) && (targetClass != null)) {
             try {
                 // Invoke the default constructor
-                result = targetClass.newInstance();
+                Constructor<? extends ServerResource> constructor = this.targetConstructor;
+
+                if ((constructor != null)
+                        && (constructor.getDeclaringClass() == targetClass)) {
+                    result = constructor.newInstance();
+                } else {
+                    result = targetClass.newInstance();
+                }
+            } catch (InvocationTargetException ite) {
+                getLogger()
+                        .log(Level.WARNING,
+                                "Exception while instantiating the target server resource.",
+                                ite.getCause());
             } catch (Exception e) {
                 getLogger()
                         .log(Level.WARNING,
@@ -251,10 +293,43 @@ public class Finder extends Restlet {
                 }
 
                 targetResource.release();
+
+                if (targetResource.isReusable()
+                        && ((response == null) || response.isAutoCommitting())) {
+                    recycle(targetResource);
+                }
             }
         }
     }
 
+    /**
+     * Keeps a released reusable instance to handle later calls, once the state
+     * depending on the last call is cleared.
+     * 
+     * @param resource
+     *            The released resource.
+     */
+    private void recycle(ServerResource resource) {
+        resource.reset();
+
+        Queue<ServerResource> released = this.reusableResources.get(resource
+                .getClass());
+
+        if (released == null) {
+            released = new ArrayBlockingQueue<ServerResource>(
+                    MAX_REUSABLE_RESOURCES);
+            Queue<ServerResource> current = this.reusableResources
+                    .putIfAbsent(resource.getClass(), released);
+
+            if (current != null) {
+                released = current;
+            }
+        }
+
+        // Drop the instance if enough are already kept
+        released.offer(resource);
+    }
+
     /**
      * Sets the target resource class which must be a subclass of
      * {@link ServerResource}.
@@ -264,7 +339,25 @@ public class Finder extends Restlet {
      *            {@link ServerResource}.
      */
     public void setTargetClass(Class<? extends ServerResource> targetClass) {
+        Constructor<? extends ServerResource> constructor = null;
+
+        if (targetClass != null) {
+            // Introspect the annotations before the first call
+            AnnotationUtils.getInstance().getAnnotations(targetClass);
+
+            try {
+                constructor = targetClass.getDeclaredConstructor();
+            } catch (NoSuchMethodException nsme) {
+                // Subclasses may instantiate the target class differently
+                constructor = null;
+            } catch (SecurityException se) {
+                constructor = null;
+            }
+        }
+
+        this.targetConstructor = constructor;
         this.targetClass = targetClass;
+        this.reusableResources.clear();
     }
 
     @Override
@@ -1096,6 +1096,21 @@ public abstract class ServerResource extends UniformResource {
         return this.negotiated;
     }
 
+    /**
+     * Indicates if this instance can be reused by its {@link Finder} to handle
+     * later calls, once released. Before reuse, the request and response are
+     * cleared, the "existing" property is reset to true and the cached
+     * variants are discarded. Other state set during a call must be reset by
+     * the {@link #doInit()} or {@link #doRelease()} methods. Instances
+     * handling calls asynchronously are never reused. The default value is
+     * false.
+     * 
+     * @return True if this instance can be reused.
+     */
+    public boolean isReusable() {
+        return false;
+    }
+
     /**
      * Indicates the communication options available for this resource. This
      * method is only invoked if content negotiation has been disabled as
@@ -1370,6 +1385,19 @@ public abstract class ServerResource extends UniformResource {
         }
     }
 
+    /**
+     * Clears the state depending on the last handled call, so that a released
+     * instance can be reused by its {@link Finder}. The request and response
+     * are cleared, the "existing" property is reset to true and the variants
+     * computed for the last request are discarded.
+     */
+    void reset() {
+        setRequest(null);
+        setResponse(null);
+        this.existing = true;
+        this.variants = null;
+    }
+
     /**
      * Sets the set of methods allowed on the requested resource. The set
      * instance set must be thread-safe (use {@link CopyOnWriteArraySet} for
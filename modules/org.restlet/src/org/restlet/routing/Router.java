@@ -40,6 +40,7 @@ import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.data.Status;
+import org.restlet.engine.util.RouteTrie;
 import org.restlet.resource.Directory;
 import org.restlet.resource.Finder;
 import org.restlet.resource.ServerResource;
@@ -68,6 +69,10 @@ import org.restlet.util.RouteList;
  * patterns. Finally, you can modify the list of routes while handling incoming
  * calls as the delegation code is ensured to be thread-safe.<br>
  * <br>
+ * For routers with many routes, the best and first match modes can rely on an
+ * index of the URI segments of the route templates, see
+ * {@link #setIndexingRoutes(boolean)}.<br>
+ * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables.
@@ -145,6 +150,9 @@ public class Router extends Restlet {
     /** The default route tested if no other one was available. */
     private volatile Route defaultRoute;
 
+    /** Indicates if the routes should be indexed by URI segments. */
+    private volatile boolean indexingRoutes;
+
     /**
      * The maximum number of attempts if no attachment could be matched on the
      * first attempt.
@@ -157,6 +165,9 @@ public class Router extends Restlet {
     /** The delay (in milliseconds) before a new attempt. */
     private volatile long retryDelay;
 
+    /** The index of the routes, lazily created. */
+    private volatile RouteTrie routeTrie;
+
     /** The modifiable list of routes. */
     private volatile RouteList routes;
 
@@ -185,6 +196,8 @@ public class Router extends Restlet {
         this.defaultMatchingMode = Template.MODE_EQUALS;
         this.defaultMatchingQuery = false;
         this.defaultRoute = null;
+        this.indexingRoutes = false;
+        this.routeTrie = null;
         this.routingMode = MODE_FIRST_MATCH;
         this.requiredScore = 0.5F;
         this.maxAttempts = 1;
@@ -541,13 +554,23 @@ public class Router extends Restlet {
                 // Select the routing mode
                 switch (getRoutingMode()) {
                 case MODE_BEST_MATCH:
-                    result = getRoutes().getBest(request, response,
-                            getRequiredScore());
+                    if (isIndexingRoutes()) {
+                        result = getRouteTrie().getBest(request, response,
+                                getRequiredScore());
+                    } else {
+                        result = getRoutes().getBest(request, response,
+                                getRequiredScore());
+                    }
                     break;
 
                 case MODE_FIRST_MATCH:
-                    result = getRoutes().getFirst(request, response,
-                            getRequiredScore());
+                    if (isIndexingRoutes()) {
+                        result = getRouteTrie().getFirst(request, response,
+                                getRequiredScore());
+                    } else {
+                        result = getRoutes().getFirst(request, response,
+                                getRequiredScore());
+                    }
                     break;
 
                 case MODE_LAST_MATCH:
@@ -611,6 +634,24 @@ public class Router extends Restlet {
         return this.retryDelay;
     }
 
+    /**
+     * Returns the index of the routes, based on their URI templates. It is
+     * lazily created and recreated each time the list of routes is modified.
+     * 
+     * @return The index of the routes.
+     */
+    protected RouteTrie getRouteTrie() {
+        RouteList routeList = getRoutes();
+        RouteTrie result = this.routeTrie;
+
+        if ((result == null) || !result.isValid(routeList)) {
+            result = new RouteTrie(routeList);
+            this.routeTrie = result;
+        }
+
+        return result;
+    }
+
     /**
      * Returns the modifiable list of routes. Creates a new instance if no one
      * has been set.
@@ -651,6 +692,23 @@ public class Router extends Restlet {
         }
     }
 
+    /**
+     * Indicates if the routes should be indexed by the URI segments of their
+     * templates, in order to only score the routes that can possibly match
+     * when using the {@link #MODE_BEST_MATCH} or {@link #MODE_FIRST_MATCH}
+     * routing modes. The selected route is the same as without the index, but
+     * the routing cost becomes proportional to the depth of the URI instead of
+     * the number of routes. By default, it returns false.<br>
+     * <br>
+     * Note that the index is recreated when the list of routes changes, but
+     * not when the template of an existing route is modified.
+     * 
+     * @return True if the routes should be indexed.
+     */
+    public boolean isIndexingRoutes() {
+        return this.indexingRoutes;
+    }
+
     /**
      * Logs the route selected.
      * 
@@ -702,6 +760,19 @@ public class Router extends Restlet {
         this.defaultRoute = defaultRoute;
     }
 
+    /**
+     * Indicates if the routes should be indexed by the URI segments of their
+     * templates.
+     * 
+     * @param indexingRoutes
+     *            True if the routes should be indexed.
+     * @see #isIndexingRoutes()
+     */
+    public void setIndexingRoutes(boolean indexingRoutes) {
+        this.indexingRoutes = indexingRoutes;
+        this.routeTrie = null;
+    }
+
     /**
      * Sets the maximum number of attempts if no attachment could be matched on
      * the first attempt. This is useful when the attachment scoring is dynamic
@@ -40,6 +40,7 @@ import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
+import org.restlet.engine.metrics.CallTrace;
 
 /**
  * Filter scoring the affinity of calls with the attached Restlet. The score is
@@ -127,6 +128,11 @@ public class TemplateRoute extends Route {
                     false, isMatchingQuery());
             int matchedLength = getTemplate().parse(remainingPart, request);
 
+            if (matchedLength >= 0) {
+                // Complete the trace of the call, if it is measured
+                CallTrace.traceRoute(request, this);
+            }
+
             if (matchedLength == 0) {
                 if (request.isLoggable() && getLogger().isLoggable(Level.FINER)) {
                     getLogger().finer("No characters were matched");
@@ -77,6 +77,28 @@ public class ConverterService extends Service {
         super(enabled);
     }
 
+    /**
+     * Returns the number of converter resolutions served by the resolution
+     * cache. Note that this cache is shared by all converter services of the
+     * current engine.
+     * 
+     * @return The number of converter resolutions served by the cache.
+     */
+    public long getCacheHits() {
+        return ConverterUtils.getCacheHits();
+    }
+
+    /**
+     * Returns the number of converter resolutions that required scoring the
+     * registered converter helpers. Note that this cache is shared by all
+     * converter services of the current engine.
+     * 
+     * @return The number of converter resolutions not served by the cache.
+     */
+    public long getCacheMisses() {
+        return ConverterUtils.getCacheMisses();
+    }
+
     /**
      * Returns the list of object classes that can be converted from a given
      * variant.
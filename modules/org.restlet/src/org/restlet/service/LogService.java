@@ -33,6 +33,7 @@
 
 package org.restlet.service;
 
+import java.util.Calendar;
 import java.util.logging.LogManager;
 
 import org.restlet.Context;
@@ -80,6 +81,11 @@ import org.restlet.routing.Template;
  * <br>
  * For custom access log format, see the syntax to use and the list of available
  * variable names in {@link org.restlet.routing.Template}. <br>
+ * <br>
+ * To prevent the logging threads from contending on the lock of a
+ * {@link java.util.logging.FileHandler}, the
+ * {@link org.restlet.engine.log.AsyncAccessLogFileHandler} can be configured
+ * instead of the {@link org.restlet.engine.log.AccessLogFileHandler}.<br>
  * 
  * @see <a href="http://wiki.restlet.org/docs_2.1/201-restlet.html">User Guide -
  *      Access logging</a>
@@ -89,12 +95,66 @@ import org.restlet.routing.Template;
  */
 public class LogService extends Service {
 
+    /**
+     * Date and time of a given second, formatted for the default log format.
+     */
+    private static final class FormattedSecond {
+
+        /** The number of seconds since January 1, 1970 UTC. */
+        private final long second;
+
+        /** The formatted date and time, separated by a tab. */
+        private final String text;
+
+        /**
+         * Constructor.
+         * 
+         * @param second
+         *            The number of seconds since January 1, 1970 UTC.
+         */
+        private FormattedSecond(long second) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(second * 1000L);
+            StringBuilder sb = new StringBuilder(19);
+            sb.append(calendar.get(Calendar.YEAR)).append('-');
+            appendTwoDigits(sb, calendar.get(Calendar.MONTH) + 1).append('-');
+            appendTwoDigits(sb, calendar.get(Calendar.DAY_OF_MONTH)).append(
+                    '\t');
+            appendTwoDigits(sb, calendar.get(Calendar.HOUR_OF_DAY)).append(':');
+            appendTwoDigits(sb, calendar.get(Calendar.MINUTE)).append(':');
+            appendTwoDigits(sb, calendar.get(Calendar.SECOND));
+            this.second = second;
+            this.text = sb.toString();
+        }
+
+        /**
+         * Appends a number padded with a leading zero.
+         * 
+         * @param sb
+         *            The builder to append to.
+         * @param value
+         *            The number between 0 and 99.
+         * @return The builder.
+         */
+        private static StringBuilder appendTwoDigits(StringBuilder sb,
+                int value) {
+            if (value < 10) {
+                sb.append('0');
+            }
+
+            return sb.append(value);
+        }
+    }
+
     /** Indicates if the debugging mode is enabled. */
     private volatile boolean debugging;
 
     /** Indicates if the identity check (as specified by RFC1413) is enabled. */
     private volatile boolean identityCheck;
 
+    /** The last formatted second, reused by the calls logged during it. */
+    private volatile FormattedSecond lastSecond;
+
     /** The URI template of loggable resource references. */
     private volatile Template loggableTemplate;
 
@@ -148,20 +208,23 @@ public class LogService extends Service {
      */
     protected String getDefaultResponseLogMessage(Response response,
             int duration) {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(256);
         Request request = response.getRequest();
 
         if (isDebugging()) {
 
         } else {
-            long currentTime = System.currentTimeMillis();
+            long currentSecond = System.currentTimeMillis() / 1000L;
+            FormattedSecond formattedSecond = this.lastSecond;
 
-            // Append the date of the request
-            sb.append(String.format("%tF", currentTime));
-            sb.append('\t');
+            if ((formattedSecond == null)
+                    || (formattedSecond.second != currentSecond)) {
+                formattedSecond = new FormattedSecond(currentSecond);
+                this.lastSecond = formattedSecond;
+            }
 
-            // Append the time of the request
-            sb.append(String.format("%tT", currentTime));
+            // Append the date and time of the request
+            sb.append(formattedSecond.text);
             sb.append('\t');
 
             // Append the client IP address
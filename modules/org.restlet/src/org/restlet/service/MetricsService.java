@@ -0,0 +1,304 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.service;
+
+import java.util.Collection;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.logging.Level;
+
+import org.restlet.Context;
+import org.restlet.data.Status;
+import org.restlet.engine.metrics.CallTrace;
+import org.restlet.engine.metrics.MetricsFilter;
+import org.restlet.engine.metrics.RequestMetrics;
+import org.restlet.routing.Filter;
+
+/**
+ * Service measuring the latency and throughput of the handled calls. For each
+ * call, it counts the responses per status class and records the latency in a
+ * lock-free histogram, in total and for the virtual host, the route path and
+ * the resource class that handled it. The gauges of the started connection
+ * based connectors, such as the worker queue depth, the number of open
+ * connections or the transferred bytes, are exposed as well.<br>
+ * <br>
+ * The metrics can be read via the {@link #getMetrics(String)} and
+ * {@link #getReport()} methods, via JMX in the "org.restlet" domain when the
+ * service is started (except on Android and GAE), or via the internal router
+ * of the component at the "riap://component" + {@link #getResourcePath()} URI,
+ * returning a plain text report.<br>
+ * <br>
+ * This service is disabled by default. When enabled on both a component and
+ * its applications, only the outermost one records the calls.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetricsService extends Service {
+
+    /** The key of the metrics of all the calls. */
+    public static final String TOTAL = "total";
+
+    /** The prefix of the keys of the metrics per virtual host. */
+    public static final String HOST_PREFIX = "host:";
+
+    /** The prefix of the keys of the metrics per resource class. */
+    public static final String RESOURCE_PREFIX = "resource:";
+
+    /** The prefix of the keys of the metrics per route path. */
+    public static final String ROUTE_PREFIX = "route:";
+
+    /** The metrics indexed by key. */
+    private final ConcurrentMap<String, RequestMetrics> metrics;
+
+    // [ifndef gae,android] member
+    /** The names of the JMX beans registered by the service. */
+    private final Collection<Object> registeredNames;
+
+    /** The path of the metrics resource in the component's internal router. */
+    private volatile String resourcePath;
+
+    /**
+     * Constructor.
+     */
+    public MetricsService() {
+        this(true);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param enabled
+     *            True if the service has been enabled.
+     */
+    public MetricsService(boolean enabled) {
+        super(enabled);
+        this.metrics = new ConcurrentHashMap<String, RequestMetrics>();
+        // [ifndef gae,android] instruction
+        this.registeredNames = new CopyOnWriteArraySet<Object>();
+        this.resourcePath = "/metrics";
+    }
+
+    @Override
+    public Filter createInboundFilter(Context context) {
+        return new MetricsFilter(context, this);
+    }
+
+    /**
+     * Returns the metrics of all the measured elements.
+     * 
+     * @return The metrics of all the measured elements.
+     */
+    public Collection<RequestMetrics> getAllMetrics() {
+        return this.metrics.values();
+    }
+
+    /**
+     * Returns the metrics of a given element, creating them if needed. The key
+     * is either {@link #TOTAL} or a name prefixed with {@link #HOST_PREFIX},
+     * {@link #ROUTE_PREFIX} or {@link #RESOURCE_PREFIX}.
+     * 
+     * @param key
+     *            The key of the measured element.
+     * @return The metrics of the element.
+     */
+    public RequestMetrics getMetrics(String key) {
+        RequestMetrics result = this.metrics.get(key);
+
+        if (result == null) {
+            RequestMetrics created = new RequestMetrics(key);
+            result = this.metrics.putIfAbsent(key, created);
+
+            if (result == null) {
+                result = created;
+
+                // [ifndef gae,android]
+                if (isStarted()) {
+                    registerBean(created, "RequestMetrics", key);
+                }
+                // [enddef]
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a plain text report of the current metrics, one measured element
+     * per line.
+     * 
+     * @return A plain text report of the current metrics.
+     */
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+
+        for (RequestMetrics requestMetrics : new TreeMap<String, RequestMetrics>(
+                this.metrics).values()) {
+            sb.append(requestMetrics).append('\n');
+        }
+
+        // [ifndef gae]
+        for (org.restlet.engine.metrics.ConnectorMetrics connectorMetrics : org.restlet.engine.metrics.ConnectorMetrics
+                .getAll()) {
+            sb.append(connectorMetrics).append('\n');
+        }
+        // [enddef]
+
+        return sb.toString();
+    }
+
+    /**
+     * Returns the path of the metrics resource attached to the internal router
+     * of the component. By default, it is "/metrics".
+     * 
+     * @return The path of the metrics resource or null.
+     */
+    public String getResourcePath() {
+        return resourcePath;
+    }
+
+    /**
+     * Records a handled call.
+     * 
+     * @param trace
+     *            The trace of the call.
+     * @param status
+     *            The response status.
+     * @param latency
+     *            The latency in microseconds.
+     */
+    public void record(CallTrace trace, Status status, long latency) {
+        getMetrics(TOTAL).record(status, latency);
+
+        if (trace.getHostName() != null) {
+            getMetrics(HOST_PREFIX + trace.getHostName()).record(status,
+                    latency);
+        }
+
+        if (trace.getRoutePath() != null) {
+            getMetrics(ROUTE_PREFIX + trace.getRoutePath()).record(status,
+                    latency);
+        }
+
+        if (trace.getResourceClass() != null) {
+            getMetrics(RESOURCE_PREFIX + trace.getResourceClass().getName())
+                    .record(status, latency);
+        }
+    }
+
+    // [ifndef gae,android] method
+    /**
+     * Registers a JMX bean in the "org.restlet" domain.
+     * 
+     * @param bean
+     *            The bean to register.
+     * @param type
+     *            The type of bean.
+     * @param name
+     *            The name of the bean.
+     */
+    private void registerBean(Object bean, String type, String name) {
+        try {
+            javax.management.ObjectName objectName = new javax.management.ObjectName(
+                    "org.restlet:type=" + type + ",service="
+                            + Integer.toHexString(System.identityHashCode(this))
+                            + ",name="
+                            + javax.management.ObjectName.quote(name));
+            java.lang.management.ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(bean, objectName);
+            this.registeredNames.add(objectName);
+        } catch (Exception e) {
+            Context.getCurrentLogger().log(Level.FINE,
+                    "Unable to register the " + name + " metrics with JMX", e);
+        }
+    }
+
+    /**
+     * Sets the path of the metrics resource attached to the internal router of
+     * the component. Set to null to not attach it.
+     * 
+     * @param resourcePath
+     *            The path of the metrics resource or null.
+     */
+    public void setResourcePath(String resourcePath) {
+        this.resourcePath = resourcePath;
+    }
+
+    /**
+     * Starts the service and registers the current metrics, including the
+     * metrics of the started connectors, with JMX.
+     */
+    @Override
+    public synchronized void start() throws Exception {
+        super.start();
+
+        // [ifndef gae,android]
+        for (RequestMetrics requestMetrics : getAllMetrics()) {
+            registerBean(requestMetrics, "RequestMetrics",
+                    requestMetrics.getName());
+        }
+
+        for (org.restlet.engine.metrics.ConnectorMetrics connectorMetrics : org.restlet.engine.metrics.ConnectorMetrics
+                .getAll()) {
+            registerBean(connectorMetrics, "ConnectorMetrics",
+                    connectorMetrics.getName());
+        }
+        // [enddef]
+    }
+
+    /**
+     * Stops the service and unregisters its JMX beans.
+     */
+    @Override
+    public synchronized void stop() throws Exception {
+        super.stop();
+
+        // [ifndef gae,android]
+        for (Object name : this.registeredNames) {
+            try {
+                java.lang.management.ManagementFactory
+                        .getPlatformMBeanServer().unregisterMBean(
+                                (javax.management.ObjectName) name);
+            } catch (Exception e) {
+                Context.getCurrentLogger().log(Level.FINE,
+                        "Unable to unregister the " + name + " metrics", e);
+            }
+        }
+
+        this.registeredNames.clear();
+        // [enddef]
+    }
+
+}
@@ -33,10 +33,12 @@
 
 package org.restlet.util;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.restlet.Request;
 import org.restlet.Response;
@@ -60,12 +62,16 @@ public final class RouteList extends WrapperList<Route> {
     /** The index of the last route used in the round robin mode. */
     private volatile int lastIndex;
 
+    /** The version number, incremented after each structural change. */
+    private final AtomicInteger version;
+
     /**
      * Constructor.
      */
     public RouteList() {
         super(new CopyOnWriteArrayList<Route>());
         this.lastIndex = -1;
+        this.version = new AtomicInteger();
     }
 
     /**
@@ -77,6 +83,40 @@ public final class RouteList extends WrapperList<Route> {
     public RouteList(List<Route> delegate) {
         super(new CopyOnWriteArrayList<Route>(delegate));
         this.lastIndex = -1;
+        this.version = new AtomicInteger();
+    }
+
+    @Override
+    public boolean add(Route element) {
+        boolean result = super.add(element);
+        this.version.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public void add(int index, Route element) {
+        super.add(index, element);
+        this.version.incrementAndGet();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Route> elements) {
+        boolean result = super.addAll(elements);
+        this.version.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Route> elements) {
+        boolean result = super.addAll(index, elements);
+        this.version.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        this.version.incrementAndGet();
     }
 
     /**
@@ -154,6 +194,17 @@ public final class RouteList extends WrapperList<Route> {
         return null;
     }
 
+    /**
+     * Returns the version number of this list. It is incremented after each
+     * structural change, allowing structures derived from the routes to detect
+     * that they must be rebuilt.
+     * 
+     * @return The version number of this list.
+     */
+    public int getVersion() {
+        return this.version.get();
+    }
+
     /**
      * Returns a next route match in a round robin mode for a given call.
      * 
@@ -229,6 +280,27 @@ public final class RouteList extends WrapperList<Route> {
         return null;
     }
 
+    @Override
+    public Route remove(int index) {
+        Route result = super.remove(index);
+        this.version.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        boolean result = super.remove(element);
+        this.version.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> elements) {
+        boolean result = super.removeAll(elements);
+        this.version.incrementAndGet();
+        return result;
+    }
+
     /**
      * Removes all routes routing to a given target.
      * 
@@ -243,6 +315,20 @@ public final class RouteList extends WrapperList<Route> {
         }
     }
 
+    @Override
+    public boolean retainAll(Collection<?> elements) {
+        boolean result = super.retainAll(elements);
+        this.version.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public Route set(int index, Route element) {
+        Route result = super.set(index, element);
+        this.version.incrementAndGet();
+        return result;
+    }
+
     /**
      * Returns a view of the portion of this list between the specified
      * fromIndex, inclusive, and toIndex, exclusive.
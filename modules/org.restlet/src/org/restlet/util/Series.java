@@ -34,10 +34,14 @@
 package org.restlet.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -48,7 +52,9 @@ import org.restlet.Context;
  * Modifiable list of entries with many helper methods. Note that this class
  * uses the Parameter class as the template type. This allows you to use an
  * instance of this class as any other java.util.List, in particular all the
- * helper methods in java.util.Collections.
+ * helper methods in java.util.Collections.<br>
+ * <br>
+ * Lookups by name can optionally be indexed, see {@link #setIndexed(boolean)}.
  * 
  * @author Jerome Louvel
  * @param <T>
@@ -70,6 +76,44 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
      */
     public static final Object EMPTY_VALUE = new Object();
 
+    /**
+     * Returns the case-folded version of a name, used as key of the index.
+     * Names equal ignoring the case have the same folded version.
+     * 
+     * @param name
+     *            The name to fold.
+     * @return The case-folded name.
+     */
+    private static String fold(String name) {
+        String result = name;
+
+        if (name != null) {
+            StringBuilder sb = null;
+            char current;
+            char folded;
+
+            for (int i = 0; i < name.length(); i++) {
+                current = name.charAt(i);
+                folded = Character.toLowerCase(Character.toUpperCase(current));
+
+                if ((sb == null) && (folded != current)) {
+                    sb = new StringBuilder(name.length());
+                    sb.append(name, 0, i);
+                }
+
+                if (sb != null) {
+                    sb.append(folded);
+                }
+            }
+
+            if (sb != null) {
+                result = sb.toString();
+            }
+        }
+
+        return result;
+    }
+
     // [ifndef gwt] method
     /**
      * Returns an unmodifiable view of the specified series. Attempts to call a
@@ -89,6 +133,15 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
     /** The entry class. */
     private final Class<T> entryClass;
 
+    /**
+     * The lazily built index of entries by case-folded name, in list order.
+     * Guarded by this series.
+     */
+    private Map<String, Object[]> index;
+
+    /** Indicates if lookups by name are indexed. */
+    private volatile boolean indexed;
+
     /**
      * Constructor.
      */
@@ -132,6 +185,65 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         return add(createEntry(name, value));
     }
 
+    @Override
+    public boolean add(T element) {
+        boolean result;
+
+        if (isIndexed()) {
+            synchronized (this) {
+                result = super.add(element);
+
+                if (result && (this.index != null)) {
+                    // Appending keeps the index consistent
+                    String key = fold(element.getName());
+                    Object[] entries = this.index.get(key);
+
+                    if (entries == null) {
+                        entries = new Object[] { element };
+                    } else {
+                        Object[] newEntries = new Object[entries.length + 1];
+                        System.arraycopy(entries, 0, newEntries, 0,
+                                entries.length);
+                        newEntries[entries.length] = element;
+                        entries = newEntries;
+                    }
+
+                    this.index.put(key, entries);
+                }
+            }
+        } else {
+            result = super.add(element);
+        }
+
+        return result;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        super.add(index, element);
+        invalidateIndex();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> elements) {
+        boolean result = super.addAll(elements);
+        invalidateIndex();
+        return result;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> elements) {
+        boolean result = super.addAll(index, elements);
+        invalidateIndex();
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        invalidateIndex();
+    }
+
     /**
      * Copies the parameters whose name is a key in the given map.<br>
      * If a matching parameter is found, its value is put in the map.<br>
@@ -288,10 +400,23 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
      *            Indicates if the name comparison is case insensitive.
      * @return The first parameter found with the given name.
      */
+    @SuppressWarnings("unchecked")
     public T getFirst(String name, boolean ignoreCase) {
-        for (T param : this) {
-            if (equals(param.getName(), name, ignoreCase)) {
-                return param;
+        if (isIndexed()) {
+            Object[] entries = getIndexedEntries(name);
+
+            if (entries != null) {
+                for (Object entry : entries) {
+                    if (equals(((T) entry).getName(), name, ignoreCase)) {
+                        return (T) entry;
+                    }
+                }
+            }
+        } else {
+            for (T param : this) {
+                if (equals(param.getName(), name, ignoreCase)) {
+                    return param;
+                }
             }
         }
 
@@ -362,6 +487,42 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         return getFirstValue(name, false, defaultValue);
     }
 
+    /**
+     * Returns the entries whose name is equal to the given one ignoring the
+     * case, in list order, building the index if needed.
+     * 
+     * @param name
+     *            The name to look up.
+     * @return The matching entries or null.
+     */
+    private synchronized Object[] getIndexedEntries(String name) {
+        if (this.index == null) {
+            Map<String, List<Object>> entries = new HashMap<String, List<Object>>();
+            List<Object> current;
+            String key;
+
+            for (T param : getDelegate()) {
+                key = fold(param.getName());
+                current = entries.get(key);
+
+                if (current == null) {
+                    current = new ArrayList<Object>(1);
+                    entries.put(key, current);
+                }
+
+                current.add(param);
+            }
+
+            this.index = new HashMap<String, Object[]>();
+
+            for (Map.Entry<String, List<Object>> entry : entries.entrySet()) {
+                this.index.put(entry.getKey(), entry.getValue().toArray());
+            }
+        }
+
+        return this.index.get(fold(name));
+    }
+
     /**
      * Returns the set of parameter names (case sensitive).
      * 
@@ -403,11 +564,23 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
      *            Indicates if the name comparison is case sensitive.
      * @return The sequence of values.
      */
+    @SuppressWarnings("unchecked")
     public String getValues(String name, String separator, boolean ignoreCase) {
         String result = null;
         StringBuilder sb = null;
+        Iterable<T> params = this;
+
+        if (isIndexed()) {
+            Object[] entries = getIndexedEntries(name);
 
-        for (final T param : this) {
+            if (entries == null) {
+                return null;
+            }
+
+            params = (Iterable<T>) (List<?>) Arrays.asList(entries);
+        }
+
+        for (final T param : params) {
             if ((ignoreCase && param.getName().equalsIgnoreCase(name))
                     || param.getName().equals(name)) {
                 if (sb == null) {
@@ -523,6 +696,109 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         return result;
     }
 
+    /**
+     * Discards the index, so that it is rebuilt on the next lookup.
+     */
+    private void invalidateIndex() {
+        if (isIndexed()) {
+            synchronized (this) {
+                this.index = null;
+            }
+        }
+    }
+
+    /**
+     * Indicates if lookups by name are indexed.
+     * 
+     * @return True if lookups by name are indexed.
+     * @see #setIndexed(boolean)
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return isIndexed() ? listIterator() : super.iterator();
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        final ListIterator<T> result = super.listIterator(index);
+
+        if (!isIndexed()) {
+            return result;
+        }
+
+        // Invalidates the index on modifications
+        return new ListIterator<T>() {
+            public void add(T e) {
+                result.add(e);
+                invalidateIndex();
+            }
+
+            public boolean hasNext() {
+                return result.hasNext();
+            }
+
+            public boolean hasPrevious() {
+                return result.hasPrevious();
+            }
+
+            public T next() {
+                return result.next();
+            }
+
+            public int nextIndex() {
+                return result.nextIndex();
+            }
+
+            public T previous() {
+                return result.previous();
+            }
+
+            public int previousIndex() {
+                return result.previousIndex();
+            }
+
+            public void remove() {
+                result.remove();
+                invalidateIndex();
+            }
+
+            public void set(T e) {
+                result.set(e);
+                invalidateIndex();
+            }
+        };
+    }
+
+    @Override
+    public T remove(int index) {
+        T result = super.remove(index);
+        invalidateIndex();
+        return result;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        boolean result = super.remove(element);
+        invalidateIndex();
+        return result;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> elements) {
+        boolean result = super.removeAll(elements);
+        invalidateIndex();
+        return result;
+    }
+
     /**
      * Removes all the parameters with a given name.
      * 
@@ -547,6 +823,10 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         boolean changed = false;
         NamedValue<String> param = null;
 
+        if (isIndexed() && (getIndexedEntries(name) == null)) {
+            return false;
+        }
+
         for (Iterator<T> iter = iterator(); iter.hasNext();) {
             param = iter.next();
 
@@ -585,6 +865,10 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         boolean changed = false;
         NamedValue<String> param = null;
 
+        if (isIndexed() && (getIndexedEntries(name) == null)) {
+            return false;
+        }
+
         for (final Iterator<T> iter = iterator(); iter.hasNext() && !changed;) {
             param = iter.next();
             if (equals(param.getName(), name, ignoreCase)) {
@@ -596,6 +880,13 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         return changed;
     }
 
+    @Override
+    public boolean retainAll(Collection<?> elements) {
+        boolean result = super.retainAll(elements);
+        invalidateIndex();
+        return result;
+    }
+
     /**
      * Replaces the value of the first parameter with the given name and removes
      * all other parameters with the same name. The name matching is case
@@ -628,6 +919,11 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         T param = null;
         boolean found = false;
 
+        if (isIndexed() && (getIndexedEntries(name) == null)) {
+            add(name, value);
+            return result;
+        }
+
         for (final Iterator<T> iter = iterator(); iter.hasNext();) {
             param = iter.next();
 
@@ -651,6 +947,34 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
         return result;
     }
 
+    @Override
+    public T set(int index, T element) {
+        T result = super.set(index, element);
+        invalidateIndex();
+        return result;
+    }
+
+    /**
+     * Indicates if lookups by name should be indexed. When enabled, an index
+     * of the entries by case-folded name is lazily built on the first lookup
+     * and kept consistent by the modification methods of this series, so that
+     * lookups don't need to scan the whole list. The list order and the lookup
+     * results are unchanged.<br>
+     * <br>
+     * Note that entries must not be renamed while contained in an indexed
+     * series, and that modifications must not be made via the delegate list
+     * or via the views returned by {@link #subList(int, int)}.
+     * 
+     * @param indexed
+     *            True if lookups by name should be indexed.
+     */
+    public void setIndexed(boolean indexed) {
+        synchronized (this) {
+            this.index = null;
+            this.indexed = indexed;
+        }
+    }
+
     /**
      * Returns a view of the portion of this list between the specified
      * fromIndex, inclusive, and toIndex, exclusive.
@@ -692,15 +1016,28 @@ public class Series<T extends NamedValue<String>> extends WrapperList<T> {
      *            Indicates if the name comparison is case insensitive.
      * @return The list of values.
      */
+    @SuppressWarnings("unchecked")
     public Series<T> subList(String name, boolean ignoreCase) {
         // [ifndef gwt] instruction
         Series<T> result = new Series<T>(this.entryClass);
         // [ifdef gwt] instruction uncomment
         // Series<T> result = createSeries(null);
 
-        for (T param : this) {
-            if (equals(param.getName(), name, ignoreCase)) {
-                result.add(param);
+        if (isIndexed()) {
+            Object[] entries = getIndexedEntries(name);
+
+            if (entries != null) {
+                for (Object entry : entries) {
+                    if (equals(((T) entry).getName(), name, ignoreCase)) {
+                        result.add((T) entry);
+                    }
+                }
+            }
+        } else {
+            for (T param : this) {
+                if (equals(param.getName(), name, ignoreCase)) {
+                    result.add(param);
+                }
             }
         }
 